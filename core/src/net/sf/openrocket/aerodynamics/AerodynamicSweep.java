@@ -0,0 +1,383 @@
+package net.sf.openrocket.aerodynamics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * Tabulated aerodynamic force analysis of a rocket over a grid of Mach numbers and
+ * angles of attack.
+ * <p>
+ * The force analysis is computed for each component at every grid point, the other flight
+ * conditions (wind direction, roll rate, reference values and atmospheric conditions) being
+ * those given at construction.  Values between the grid points are interpolated bilinearly,
+ * values at the grid points are those of the calculator.  The tabulated quantities are the
+ * axial CP location, CNa, the total, pressure, base and friction drag coefficients and the
+ * roll coefficients; the other values of the returned forces are zero.
+ * <p>
+ * The analysis is computed on a copy of the rocket made at construction, so the sweep may be
+ * computed in background threads while the original rocket is modified.  The components of
+ * the copy retain the IDs of the originals, so the original components may be used to look up
+ * the results.  The Mach rows of the grid may be computed in parallel, each task using its own
+ * copy of the rocket and calculator.  This class is not otherwise thread-safe.
+ */
+public class AerodynamicSweep {
+
+	private static final int CP_X = 0;
+	private static final int CNA = 1;
+	private static final int CD = 2;
+	private static final int PRESSURE_CD = 3;
+	private static final int BASE_CD = 4;
+	private static final int FRICTION_CD = 5;
+	private static final int CROLL = 6;
+	private static final int CROLL_DAMP = 7;
+	private static final int CROLL_FORCE = 8;
+	private static final int QUANTITIES = 9;
+
+	private final FlightConfiguration configuration;
+	private final FlightConditions conditions;
+	private final AerodynamicCalculator calculator;
+	private final double[] machs;
+	private final double[] aoas;
+
+	private final List<RocketComponent> components = new ArrayList<RocketComponent>();
+	private final Map<RocketComponent, Integer> componentIndex = new LinkedHashMap<RocketComponent, Integer>();
+
+	/** values[component][quantity][mach * aoas.length + aoa] */
+	private double[][][] values;
+	private WarningSet[] warnings;
+	private volatile boolean computed = false;
+
+
+	/**
+	 * Sole constructor.  The rocket of the configuration is copied, so this must be called in
+	 * the thread that modifies the rocket.
+	 *
+	 * @param configuration		the flight configuration to analyze.
+	 * @param conditions		the flight conditions, the Mach number and angle of attack of which are ignored.
+	 * @param calculator		the aerodynamic calculator, new instances of which are used for the computation.
+	 * @param machs				the Mach numbers of the grid, in increasing order.
+	 * @param aoas				the angles of attack of the grid, in increasing order.
+	 */
+	public AerodynamicSweep(FlightConfiguration configuration, FlightConditions conditions,
+			AerodynamicCalculator calculator, double[] machs, double[] aoas) {
+		checkGrid(machs);
+		checkGrid(aoas);
+		this.configuration = copy(configuration);
+		this.conditions = conditions.clone();
+		this.calculator = calculator;
+		this.machs = machs.clone();
+		this.aoas = aoas.clone();
+	}
+
+
+	/**
+	 * Compute the force analysis at the grid points.  The call blocks until the computation is
+	 * complete.  If the calling thread is interrupted, the remaining tasks are cancelled.
+	 *
+	 * @param executor		the executor running the tasks.
+	 * @param parallelism	the number of tasks to divide the grid into.
+	 * @throws InterruptedException		if the calling thread or a task was interrupted.
+	 */
+	public void compute(ExecutorService executor, int parallelism) throws InterruptedException {
+		if (computed) {
+			return;
+		}
+		parallelism = Math.max(1, Math.min(parallelism, machs.length));
+
+		// The first point defines the components of the analysis
+		FlightConditions cond = conditions.clone();
+		cond.setMach(machs[0]);
+		cond.setAOA(aoas[0]);
+		Map<RocketComponent, AerodynamicForces> first =
+				calculator.newInstance().getForceAnalysis(configuration, cond, new WarningSet());
+		for (RocketComponent c : first.keySet()) {
+			componentIndex.put(c, components.size());
+			components.add(c);
+		}
+		values = new double[components.size()][QUANTITIES][machs.length * aoas.length];
+		warnings = new WarningSet[machs.length * aoas.length];
+
+		// Each task uses a separate copy of the rocket, made before any task is started
+		List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+		for (int i = 0; i < parallelism; i++) {
+			FlightConfiguration config = (i == 0) ? configuration : copy(configuration);
+			tasks.add(new SweepTask(config, calculator.newInstance(), i, parallelism));
+		}
+
+		List<Future<Void>> futures = executor.invokeAll(tasks);
+		for (Future<Void> future : futures) {
+			try {
+				future.get();
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (cause instanceof InterruptedException) {
+					throw (InterruptedException) cause;
+				}
+				if (cause instanceof RuntimeException) {
+					throw (RuntimeException) cause;
+				}
+				throw new BugException("Aerodynamic sweep failed", cause);
+			}
+		}
+		computed = true;
+	}
+
+
+	/**
+	 * Return whether the sweep has been computed.
+	 */
+	public boolean isComputed() {
+		return computed;
+	}
+
+	/**
+	 * Return the Mach numbers of the grid.
+	 */
+	public double[] getMachs() {
+		return machs.clone();
+	}
+
+	/**
+	 * Return the angles of attack of the grid.
+	 */
+	public double[] getAOAs() {
+		return aoas.clone();
+	}
+
+	/**
+	 * Return whether the given Mach number and angle of attack are within the grid.
+	 */
+	public boolean contains(double mach, double aoa) {
+		return mach >= machs[0] && mach <= machs[machs.length - 1] &&
+				aoa >= aoas[0] && aoa <= aoas[aoas.length - 1];
+	}
+
+
+	/**
+	 * Return the force analysis of all components at the given Mach number and angle of
+	 * attack, in the order of the calculator's analysis.  The returned components are those
+	 * of the copy of the rocket.
+	 *
+	 * @param mach		the Mach number.
+	 * @param aoa		the angle of attack.
+	 * @param warnings	the warning set to which the warnings of the nearest grid point are added,
+	 * 					or <code>null</code>.
+	 * @return			the forces of each component.
+	 * @throws IllegalStateException	if the sweep has not been computed.
+	 * @throws IllegalArgumentException	if the point is outside the grid.
+	 */
+	public Map<RocketComponent, AerodynamicForces> getForceAnalysis(double mach, double aoa, WarningSet warnings) {
+		Interpolation ip = interpolate(mach, aoa);
+		Map<RocketComponent, AerodynamicForces> map = new LinkedHashMap<RocketComponent, AerodynamicForces>();
+		for (int i = 0; i < components.size(); i++) {
+			map.put(components.get(i), getForces(i, ip));
+		}
+		if (warnings != null) {
+			warnings.addAll(this.warnings[ip.nearest()]);
+		}
+		return map;
+	}
+
+
+	/**
+	 * Return the forces of a single component at the given Mach number and angle of attack.
+	 *
+	 * @param component	the component, or the rocket for the total forces.
+	 * @param mach		the Mach number.
+	 * @param aoa		the angle of attack.
+	 * @return			the forces, or <code>null</code> if the component is not included in the analysis.
+	 * @throws IllegalStateException	if the sweep has not been computed.
+	 * @throws IllegalArgumentException	if the point is outside the grid.
+	 */
+	public AerodynamicForces getForces(RocketComponent component, double mach, double aoa) {
+		Interpolation ip = interpolate(mach, aoa);
+		Integer index = componentIndex.get(component);
+		if (index == null) {
+			return null;
+		}
+		return getForces(index, ip);
+	}
+
+
+	/**
+	 * Return the total forces of the rocket at the given Mach number and angle of attack.
+	 *
+	 * @see #getForces(RocketComponent, double, double)
+	 */
+	public AerodynamicForces getTotalForces(double mach, double aoa) {
+		return getForces(configuration.getRocket(), mach, aoa);
+	}
+
+
+	private AerodynamicForces getForces(int index, Interpolation ip) {
+		double[][] v = values[index];
+		AerodynamicForces f = new AerodynamicForces().zero();
+		f.setComponent(components.get(index));
+		double cna = ip.value(v[CNA]);
+		f.setCP(new Coordinate(ip.value(v[CP_X]), 0, 0, cna));
+		f.setCNa(cna);
+		f.setCD(ip.value(v[CD]));
+		f.setPressureCD(ip.value(v[PRESSURE_CD]));
+		f.setBaseCD(ip.value(v[BASE_CD]));
+		f.setFrictionCD(ip.value(v[FRICTION_CD]));
+		f.setCroll(ip.value(v[CROLL]));
+		f.setCrollDamp(ip.value(v[CROLL_DAMP]));
+		f.setCrollForce(ip.value(v[CROLL_FORCE]));
+		return f;
+	}
+
+
+	private Interpolation interpolate(double mach, double aoa) {
+		if (!computed) {
+			throw new IllegalStateException("Sweep has not been computed");
+		}
+		if (!contains(mach, aoa)) {
+			throw new IllegalArgumentException("Point outside grid, mach=" + mach + " aoa=" + aoa);
+		}
+		Interpolation ip = new Interpolation();
+		ip.m = lowerIndex(machs, mach);
+		ip.a = lowerIndex(aoas, aoa);
+		ip.tm = (ip.m + 1 < machs.length) ? (mach - machs[ip.m]) / (machs[ip.m + 1] - machs[ip.m]) : 0;
+		ip.ta = (ip.a + 1 < aoas.length) ? (aoa - aoas[ip.a]) / (aoas[ip.a + 1] - aoas[ip.a]) : 0;
+		return ip;
+	}
+
+	/**
+	 * Return the index of the largest grid value not larger than the value.
+	 */
+	private static int lowerIndex(double[] grid, double value) {
+		int low = 0;
+		int high = grid.length - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (grid[mid] <= value) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+
+	/**
+	 * The grid cell and weights of an interpolated point.  Terms with zero weight are skipped,
+	 * so the values at the grid points are exact.
+	 */
+	private class Interpolation {
+		private int m;
+		private int a;
+		private double tm;
+		private double ta;
+
+		public double value(double[] v) {
+			int n = aoas.length;
+			int i = m * n + a;
+			double value = v[i];
+			if (ta > 0) {
+				value += ta * (v[i + 1] - v[i]);
+			}
+			if (tm > 0) {
+				double next = v[i + n];
+				if (ta > 0) {
+					next += ta * (v[i + n + 1] - v[i + n]);
+				}
+				value += tm * (next - value);
+			}
+			return value;
+		}
+
+		public int nearest() {
+			return (m + (tm > 0.5 ? 1 : 0)) * aoas.length + a + (ta > 0.5 ? 1 : 0);
+		}
+	}
+
+
+	/**
+	 * A task computing every n'th Mach row of the grid.
+	 */
+	private class SweepTask implements Callable<Void> {
+		private final FlightConfiguration config;
+		private final AerodynamicCalculator calc;
+		private final int first;
+		private final int step;
+
+		public SweepTask(FlightConfiguration config, AerodynamicCalculator calc, int first, int step) {
+			this.config = config;
+			this.calc = calc;
+			this.first = first;
+			this.step = step;
+		}
+
+		@Override
+		public Void call() throws InterruptedException {
+			FlightConditions cond = conditions.clone();
+			for (int m = first; m < machs.length; m += step) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				cond.setMach(machs[m]);
+				for (int a = 0; a < aoas.length; a++) {
+					cond.setAOA(aoas[a]);
+					int point = m * aoas.length + a;
+					WarningSet set = new WarningSet();
+					Map<RocketComponent, AerodynamicForces> map = calc.getForceAnalysis(config, cond, set);
+					warnings[point] = set;
+					for (Map.Entry<RocketComponent, AerodynamicForces> e : map.entrySet()) {
+						Integer index = componentIndex.get(e.getKey());
+						if (index != null) {
+							store(values[index], point, e.getValue());
+						}
+					}
+				}
+			}
+			return null;
+		}
+	}
+
+
+	private static void store(double[][] v, int point, AerodynamicForces f) {
+		v[CP_X][point] = f.getCP().x;
+		v[CNA][point] = f.getCNa();
+		v[CD][point] = f.getCD();
+		v[PRESSURE_CD][point] = f.getPressureCD();
+		v[BASE_CD][point] = f.getBaseCD();
+		v[FRICTION_CD][point] = f.getFrictionCD();
+		v[CROLL][point] = f.getCroll();
+		v[CROLL_DAMP][point] = f.getCrollDamp();
+		v[CROLL_FORCE][point] = f.getCrollForce();
+	}
+
+
+	private static FlightConfiguration copy(FlightConfiguration configuration) {
+		Rocket rocket = configuration.getRocket().copyWithOriginalID();
+		FlightConfiguration config = rocket.getFlightConfiguration(configuration.getId());
+		config.copyStages(configuration);
+		config.update();
+		return config;
+	}
+
+	private static void checkGrid(double[] grid) {
+		if (grid.length == 0) {
+			throw new IllegalArgumentException("Empty grid");
+		}
+		for (int i = 1; i < grid.length; i++) {
+			if (!(grid[i] > grid[i - 1])) {
+				throw new IllegalArgumentException("Grid values not increasing: " + grid[i - 1] + ", " + grid[i]);
+			}
+		}
+	}
+
+}
@@ -391,5 +391,9 @@ public abstract class Warning {
 
 	public static final Warning ZERO_LENGTH_BODY = new Other(trans.get("Warning.ZERO_LENGTH_BODY"));
 	public static final Warning ZERO_RADIUS_BODY = new Other(trans.get("Warning.ZERO_RADIUS_BODY"));
+	
+	/** A <code>Warning</code> that a 3-DOF simulation was run on a rocket that is not statically stable. */
+	////Rocket is not statically stable, the 3-DOF simulation results are not meaningful.
+	public static final Warning UNSTABLE_THREE_DOF = new Other(trans.get("Warning.UNSTABLE_THREE_DOF"));
 
 }
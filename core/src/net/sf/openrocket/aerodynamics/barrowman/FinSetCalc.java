@@ -24,8 +24,8 @@ public class FinSetCalc extends RocketComponentCalc {
 	/** considers the stall angle as 20 degrees*/
 	private static final double STALL_ANGLE = (20 * Math.PI / 180);
 	
-	/** Number of divisions in the fin chords. */
-	protected static final int DIVISIONS = 48;
+	/** Number of chord stations used in the roll damping sums. */
+	protected static final int DIVISIONS = FinSetGeometry.DIVISIONS;
 	
 	protected double macLength = Double.NaN; // MAC length
 	protected double macLead = Double.NaN; // MAC leading edge position
@@ -39,9 +39,7 @@ public class FinSetCalc extends RocketComponentCalc {
 	
 	protected int interferenceFinCount = -1; // No. of fins in interference
 	
-	protected double[] chordLead = new double[DIVISIONS];
-	protected double[] chordTrail = new double[DIVISIONS];
-	protected double[] chordLength = new double[DIVISIONS];
+	protected double[] chordLength; // Chord lengths at the chord stations, shared
 	
 	protected final WarningSet geometryWarnings = new WarningSet();
 	
@@ -249,138 +247,20 @@ public class FinSetCalc extends RocketComponentCalc {
 		finArea = component.getPlanformArea();
 		ar = 2 * pow2(span) / finArea;
 		
-		Coordinate[] points = component.getFinPoints();
+		FinSetGeometry geometry = FinSetGeometry.get(component);
 		
-		// Check for jagged edges
 		geometryWarnings.clear();
-		boolean down = false;
-		for (int i = 1; i < points.length; i++) {
-			if ((points[i].y > points[i - 1].y + 0.001) && down) {
-				geometryWarnings.add(Warning.JAGGED_EDGED_FIN);
-				break;
-			}
-			if (points[i].y < points[i - 1].y - 0.001) {
-				down = true;
-			}
-		}
-		
-		// Calculate the chord lead and trail positions and length
-		
-		Arrays.fill(chordLead, Double.POSITIVE_INFINITY);
-		Arrays.fill(chordTrail, Double.NEGATIVE_INFINITY);
-		Arrays.fill(chordLength, 0);
-		
-		for (int point = 1; point < points.length; point++) {
-			double x1 = points[point - 1].x;
-			double y1 = points[point - 1].y;
-			double x2 = points[point].x;
-			double y2 = points[point].y;
-			
-			// Don't use the default EPSILON since it is too small
-			// and causes too much numerical instability in the computation of x below
-			if (MathUtil.equals(y1, y2, 0.001))
-				continue;
-			
-			int i1 = (int) (y1 * 1.0001 / span * (DIVISIONS - 1));
-			int i2 = (int) (y2 * 1.0001 / span * (DIVISIONS - 1));
-			i1 = MathUtil.clamp(i1, 0, DIVISIONS - 1);
-			i2 = MathUtil.clamp(i2, 0, DIVISIONS - 1);
-			if (i1 > i2) {
-				int tmp = i2;
-				i2 = i1;
-				i1 = tmp;
-			}
-			
-			for (int i = i1; i <= i2; i++) {
-				// Intersection point (x,y)
-				// Note that y can be outside the bounds of the line
-				// defined by (x1, y1) (x2 y2) so x can similarly be outside
-				// the bounds.  If the line is nearly horizontal, it can be
-				// 'way outside.  We want to get the whole "strip", so we
-				// don't clamp y; however, we do clamp x to avoid numerical
-				// instabilities
-				double y = i * span / (DIVISIONS - 1);
-				double x = MathUtil.clamp((y - y2) / (y1 - y2) * x1 + (y1 - y) / (y1 - y2) * x2,
-										  Math.min(x1, x2), Math.max(x1, x2));
-				if (x < chordLead[i])
-					chordLead[i] = x;
-				if (x > chordTrail[i])
-					chordTrail[i] = x;
-				
-				// TODO: LOW:  If fin point exactly on chord line, might be counted twice:
-				if (y1 < y2) {
-					chordLength[i] -= x;
-				} else {
-					chordLength[i] += x;
-				}
-			}
-		}
-		
-		// Check and correct any inconsistencies
-		for (int i = 0; i < DIVISIONS; i++) {
-			if (Double.isInfinite(chordLead[i]) || Double.isInfinite(chordTrail[i]) ||
-					Double.isNaN(chordLead[i]) || Double.isNaN(chordTrail[i])) {
-				chordLead[i] = 0;
-				chordTrail[i] = 0;
-			}
-			if (chordLength[i] < 0 || Double.isNaN(chordLength[i])) {
-				chordLength[i] = 0;
-			}
-			if (chordLength[i] > chordTrail[i] - chordLead[i]) {
-				chordLength[i] = chordTrail[i] - chordLead[i];
-			}
-		}
-		
-		/* Calculate fin properties:
-		 * 
-		 * macLength // MAC length
-		 * macLead   // MAC leading edge position
-		 * macSpan   // MAC spanwise position
-		 * ar        // Fin aspect ratio (already set)
-		 * span      // Fin span (already set)
-		 */
-		macLength = 0;
-		macLead = 0;
-		macSpan = 0;
-		cosGamma = 0;
-		cosGammaLead = 0;
-		rollSum = 0;
-		double area = 0;
-		double radius = component.getFinFront().y;
-		
-		final double dy = span / (DIVISIONS - 1);
-		for (int i = 0; i < DIVISIONS; i++) {
-			double length = chordTrail[i] - chordLead[i];
-			double y = i * dy;
-			
-			macLength += length * length;
-			//logger.debug("macLength = {}, length = {}, i = {}", macLength, length, i);
-			macSpan += y * length;
-			macLead += chordLead[i] * length;
-			area += length;
-			rollSum += chordLength[i] * pow2(radius + y);
-			
-			if (i > 0) {
-				double dx = (chordTrail[i] + chordLead[i]) / 2 - (chordTrail[i - 1] + chordLead[i - 1]) / 2;
-				cosGamma += dy / MathUtil.hypot(dx, dy);
-				
-				dx = chordLead[i] - chordLead[i - 1];
-				cosGammaLead += dy / MathUtil.hypot(dx, dy);
-			}
+		if (geometry.jagged) {
+			geometryWarnings.add(Warning.JAGGED_EDGED_FIN);
 		}
 		
-		macLength *= dy;
-		//logger.debug("macLength = {}", macLength);
-		macSpan *= dy;
-		macLead *= dy;
-		area *= dy;
-		rollSum *= dy;
-		
-		macLength /= area;
-		macSpan /= area;
-		macLead /= area;
-		cosGamma /= (DIVISIONS - 1);
-		cosGammaLead /= (DIVISIONS - 1);
+		macLength = geometry.macLength;
+		macLead = geometry.macLead;
+		macSpan = geometry.macSpan;
+		cosGamma = geometry.cosGamma;
+		cosGammaLead = geometry.cosGammaLead;
+		rollSum = geometry.rollSum;
+		chordLength = geometry.chordLength;
 	}
 	
 	///////////////  CNa1 calculation  ////////////////
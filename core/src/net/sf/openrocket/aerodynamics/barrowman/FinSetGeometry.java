@@ -0,0 +1,254 @@
+package net.sf.openrocket.aerodynamics.barrowman;
+
+import static net.sf.openrocket.util.MathUtil.pow2;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.LRUCache;
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * Planform geometry of a single fin used by {@link FinSetCalc}.
+ * <p>
+ * The fin is a polygon, so between two consecutive point heights the leading edge,
+ * the trailing edge and the chord are linear functions of the spanwise position.
+ * The spanwise integrals (area, MAC, roll damping sum, sweep angles) are therefore
+ * integrated exactly piece by piece with two-point Gauss quadrature, instead of being
+ * sampled at a fixed number of chord strips.
+ * <p>
+ * The geometry is immutable.  It is cached by the fin shape and shared between all
+ * calculators and threads, so that the geometry of a fin set is computed only once
+ * even though a new calculator is created for each simulation.
+ */
+final class FinSetGeometry {
+
+	/** Number of chord stations for the roll damping sums */
+	static final int DIVISIONS = 48;
+
+	/** Offset of the Gauss points from the middle of an interval, relative to the interval length */
+	private static final double GAUSS_OFFSET = 0.5 / Math.sqrt(3);
+
+	private static final int CACHE_SIZE = 1000;
+
+	private static final LRUCache<GeometryKey, FinSetGeometry> cache =
+			new LRUCache<GeometryKey, FinSetGeometry>(CACHE_SIZE);
+
+
+	final double span;
+	final double macLength; // MAC length
+	final double macLead; // MAC leading edge position
+	final double macSpan; // MAC spanwise position
+	final double cosGamma; // Cosine of midchord sweep angle
+	final double cosGammaLead; // Cosine of leading edge sweep angle
+	final double rollSum; // Roll damping sum term
+	final boolean jagged;
+
+	/** Chord lengths at DIVISIONS evenly spaced stations from root to tip, must not be modified */
+	final double[] chordLength = new double[DIVISIONS];
+
+
+	/**
+	 * Return the geometry of the current shape of a fin set, from the shared cache
+	 * if a fin of the same shape has already been calculated.
+	 */
+	static FinSetGeometry get(FinSet component) {
+		Coordinate[] points = component.getFinPoints();
+		double span = component.getSpan();
+		double radius = component.getFinFront().y;
+
+		GeometryKey key = new GeometryKey(points, span, radius);
+		FinSetGeometry geometry = cache.get(key);
+		if (geometry == null) {
+			geometry = new FinSetGeometry(points, span, radius);
+			cache.put(key, geometry);
+		}
+		return geometry;
+	}
+
+	/**
+	 * Remove all cached geometries.
+	 */
+	static void clearCache() {
+		cache.clear();
+	}
+
+
+	private FinSetGeometry(Coordinate[] points, double span, double radius) {
+		this.span = span;
+
+		// Check for jagged edges
+		boolean down = false;
+		boolean j = false;
+		for (int i = 1; i < points.length; i++) {
+			if ((points[i].y > points[i - 1].y + 0.001) && down) {
+				j = true;
+				break;
+			}
+			if (points[i].y < points[i - 1].y - 0.001) {
+				down = true;
+			}
+		}
+		jagged = j;
+
+		// Heights between which the edges are linear
+		double[] heights = new double[points.length];
+		for (int i = 0; i < points.length; i++) {
+			heights[i] = MathUtil.clamp(points[i].y, 0, Math.max(span, 0));
+		}
+		Arrays.sort(heights);
+
+		/*
+		 * Integrate over each interval using the Gauss points y1 < y2.  The
+		 * chord values at the Gauss points are kept for the chord stations.
+		 */
+		final int count = Math.max(heights.length - 1, 0);
+		double[] top = new double[count];
+		double[] y1 = new double[count];
+		double[] y2 = new double[count];
+		double[] c1 = new double[count];
+		double[] c2 = new double[count];
+		int n = 0;
+
+		double area = 0, mLength = 0, mLead = 0, mSpan = 0, roll = 0, cos = 0, cosLead = 0;
+		// Intervals between nearly equal heights (for example the two sides of a
+		// symmetric fin) contribute nothing and would divide by a vanishing height
+		final double minHeight = Math.max(span, 0) * 1e-9;
+		double[] chord = new double[3];
+		for (int i = 0; i < count; i++) {
+			final double h = heights[i + 1] - heights[i];
+			if (!(h > minHeight)) {
+				continue;
+			}
+			final double mid = (heights[i] + heights[i + 1]) / 2;
+			top[n] = heights[i + 1];
+			y1[n] = mid - GAUSS_OFFSET * h;
+			y2[n] = mid + GAUSS_OFFSET * h;
+
+			calculateChord(points, y1[n], chord);
+			final double lead1 = chord[0], trail1 = chord[1];
+			c1[n] = chord[2];
+			calculateChord(points, y2[n], chord);
+			final double lead2 = chord[0], trail2 = chord[1];
+			c2[n] = chord[2];
+
+			final double length1 = trail1 - lead1;
+			final double length2 = trail2 - lead2;
+			area += (length1 + length2) * h / 2;
+			mLength += (length1 * length1 + length2 * length2) * h / 2;
+			mLead += (lead1 * length1 + lead2 * length2) * h / 2;
+			mSpan += (y1[n] * length1 + y2[n] * length2) * h / 2;
+			roll += (c1[n] * pow2(radius + y1[n]) + c2[n] * pow2(radius + y2[n])) * h / 2;
+
+			final double dy = y2[n] - y1[n];
+			cos += h * dy / MathUtil.hypot((lead2 + trail2) / 2 - (lead1 + trail1) / 2, dy);
+			cosLead += h * dy / MathUtil.hypot(lead2 - lead1, dy);
+			n++;
+		}
+
+		if (area > 0) {
+			macLength = mLength / area;
+			macLead = mLead / area;
+			macSpan = mSpan / area;
+		} else {
+			macLength = 0;
+			macLead = 0;
+			macSpan = 0;
+		}
+		if (span > 0) {
+			cosGamma = cos / span;
+			cosGammaLead = cosLead / span;
+		} else {
+			cosGamma = 1;
+			cosGammaLead = 1;
+		}
+		rollSum = roll;
+
+		// Chord stations, the chord is linear within each interval
+		int k = 0;
+		for (int i = 0; i < DIVISIONS && n > 0; i++) {
+			final double y = i * span / (DIVISIONS - 1);
+			while (k < n - 1 && y > top[k]) {
+				k++;
+			}
+			final double c = c1[k] + (c2[k] - c1[k]) * (y - y1[k]) / (y2[k] - y1[k]);
+			chordLength[i] = Math.max(c, 0);
+		}
+	}
+
+
+	/**
+	 * Calculate the leading edge, trailing edge and the chord length of the fin at
+	 * a height that is not the height of any fin point.  The chord length excludes
+	 * the possible gaps of a jagged fin.
+	 *
+	 * @param points	the fin points.
+	 * @param y			the height.
+	 * @param result	array for the leading edge, trailing edge and chord length.
+	 */
+	private static void calculateChord(Coordinate[] points, double y, double[] result) {
+		double lead = Double.POSITIVE_INFINITY;
+		double trail = Double.NEGATIVE_INFINITY;
+		double length = 0;
+
+		for (int point = 1; point < points.length; point++) {
+			final double x1 = points[point - 1].x;
+			final double y1 = points[point - 1].y;
+			final double x2 = points[point].x;
+			final double y2 = points[point].y;
+
+			if (y <= Math.min(y1, y2) || y >= Math.max(y1, y2)) {
+				continue;
+			}
+
+			final double x = x1 + (y - y1) / (y2 - y1) * (x2 - x1);
+			lead = Math.min(lead, x);
+			trail = Math.max(trail, x);
+			if (y1 < y2) {
+				length -= x;
+			} else {
+				length += x;
+			}
+		}
+
+		if (Double.isInfinite(lead) || Double.isInfinite(trail)) {
+			lead = 0;
+			trail = 0;
+		}
+		result[0] = lead;
+		result[1] = trail;
+		result[2] = MathUtil.clamp(length, 0, trail - lead);
+	}
+
+
+	private static final class GeometryKey {
+		private final double[] values;
+		private final int hashCode;
+
+		GeometryKey(Coordinate[] points, double span, double radius) {
+			values = new double[2 * points.length + 2];
+			for (int i = 0; i < points.length; i++) {
+				values[2 * i] = points[i].x;
+				values[2 * i + 1] = points[i].y;
+			}
+			values[2 * points.length] = span;
+			values[2 * points.length + 1] = radius;
+			hashCode = Arrays.hashCode(values);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof GeometryKey))
+				return false;
+			return Arrays.equals(values, ((GeometryKey) obj).values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
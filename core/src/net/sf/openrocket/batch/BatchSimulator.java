@@ -0,0 +1,444 @@
+package net.sf.openrocket.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.aerodynamics.Warning;
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.GeneralRocketSaver;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.file.export.BinaryColumnExporter;
+import net.sf.openrocket.file.export.CSVExporter;
+import net.sf.openrocket.file.export.FlightDataExporter;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.util.BugException;
+
+/**
+ * Runs the simulations of a set of OpenRocket documents without the user interface.
+ * <p>
+ * The documents are loaded and their simulations run concurrently on a fixed number
+ * of threads.  Each simulation result is reported as a {@link Result}.  Optionally the
+ * flight data of each simulation is exported as CSV and the documents are saved with
+ * the updated simulation results once all of their simulations have completed.
+ * <p>
+ * The Application object must have been initialized before running, for example
+ * with {@link net.sf.openrocket.startup.HeadlessModule#initializeApplication()}.
+ */
+public class BatchSimulator {
+
+	private static final Logger log = LoggerFactory.getLogger(BatchSimulator.class);
+
+	/**
+	 * The outcome of a single simulation, or of a document that could not be processed.
+	 */
+	public enum Status {
+		/** The simulation was run successfully */
+		OK,
+		/** The simulation was not run because it cannot be simulated, e.g. has no motors */
+		SKIPPED,
+		/** The simulation failed */
+		FAILED,
+		/** The document could not be loaded or saved */
+		FILE_ERROR
+	}
+
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+	private final Set<String> simulationNames = new HashSet<String>();
+	private File dataDirectory = null;
+	private boolean binaryData = false;
+	private boolean save = false;
+	private File saveDirectory = null;
+	private PrintStream progress = null;
+
+
+	public int getThreadCount() {
+		return threadCount;
+	}
+
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("threadCount must be positive, was " + threadCount);
+		}
+		this.threadCount = threadCount;
+	}
+
+	/**
+	 * Select the simulations to run by name.  If no names are given, all simulations
+	 * of the documents are run.
+	 */
+	public void setSimulationNames(Collection<String> names) {
+		simulationNames.clear();
+		simulationNames.addAll(names);
+	}
+
+	/**
+	 * Set the directory to export the flight data of each simulation into, or
+	 * <code>null</code> not to export the flight data.
+	 */
+	public void setDataDirectory(File dataDirectory) {
+		this.dataDirectory = dataDirectory;
+	}
+
+	/**
+	 * Set whether the flight data is exported in the binary column format of
+	 * {@link BinaryColumnExporter} instead of CSV.
+	 */
+	public void setBinaryData(boolean binaryData) {
+		this.binaryData = binaryData;
+	}
+
+	/**
+	 * Set whether the documents are saved with the new simulation results.
+	 *
+	 * @param save				whether to save the documents.
+	 * @param saveDirectory		the directory to save the documents into, or <code>null</code>
+	 * 							to overwrite the original files.
+	 */
+	public void setSave(boolean save, File saveDirectory) {
+		this.save = save;
+		this.saveDirectory = saveDirectory;
+	}
+
+	/**
+	 * Set a stream to print a line to when each simulation has completed, or
+	 * <code>null</code> for no progress output.
+	 */
+	public void setProgressStream(PrintStream progress) {
+		this.progress = progress;
+	}
+
+
+	/**
+	 * Load the documents and run their simulations.
+	 *
+	 * @param files		the OpenRocket documents.
+	 * @return			the results in the order of the files and their simulations.
+	 * @throws InterruptedException	if interrupted while waiting for the simulations.
+	 */
+	public List<Result> run(List<File> files) throws InterruptedException {
+		ExecutorService executor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+			private final ThreadFactory factory = Executors.defaultThreadFactory();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = factory.newThread(r);
+				t.setName("BatchSimulator-" + t.getName());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		try {
+			// Load all documents concurrently
+			List<Future<OpenRocketDocument>> loading = new ArrayList<Future<OpenRocketDocument>>();
+			for (final File file : files) {
+				loading.add(executor.submit(new Callable<OpenRocketDocument>() {
+					@Override
+					public OpenRocketDocument call() throws RocketLoadException {
+						return load(file);
+					}
+				}));
+			}
+
+			// Run the simulations of each document as soon as it has been loaded
+			OpenRocketDocument[] documents = new OpenRocketDocument[files.size()];
+			Result[] loadFailures = new Result[files.size()];
+			List<List<Future<Result>>> simulations = new ArrayList<List<Future<Result>>>();
+			for (int i = 0; i < files.size(); i++) {
+				final File file = files.get(i);
+				List<Future<Result>> futures = new ArrayList<Future<Result>>();
+				simulations.add(futures);
+				try {
+					documents[i] = loading.get(i).get();
+				} catch (ExecutionException e) {
+					log.warn("Unable to load " + file + ": " + message(e.getCause()));
+					loadFailures[i] = report(new Result(file, null, Status.FILE_ERROR, null, null, message(e.getCause())));
+					continue;
+				}
+				for (final Simulation simulation : documents[i].getSimulations()) {
+					if (!simulationNames.isEmpty() && !simulationNames.contains(simulation.getName())) {
+						continue;
+					}
+					futures.add(executor.submit(new Callable<Result>() {
+						@Override
+						public Result call() {
+							return report(simulate(file, simulation));
+						}
+					}));
+				}
+			}
+
+			// Collect the results and save the documents
+			List<Result> results = new ArrayList<Result>();
+			for (int i = 0; i < files.size(); i++) {
+				if (loadFailures[i] != null) {
+					results.add(loadFailures[i]);
+					continue;
+				}
+				for (Future<Result> f : simulations.get(i)) {
+					try {
+						results.add(f.get());
+					} catch (ExecutionException e) {
+						throw new BugException("Simulation task failed", e.getCause());
+					}
+				}
+				if (save) {
+					Result saveResult = save(files.get(i), documents[i]);
+					if (saveResult != null) {
+						results.add(report(saveResult));
+					}
+				}
+				documents[i] = null;
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	private OpenRocketDocument load(File file) throws RocketLoadException {
+		log.info("Loading " + file);
+		GeneralRocketLoader loader = new GeneralRocketLoader(file);
+		loader.setDeferFlightData(true);
+		OpenRocketDocument document = loader.load();
+		document.setFile(file);
+		return document;
+	}
+
+	private Result simulate(File file, Simulation simulation) {
+		if (simulation.getStatus() == Simulation.Status.CANT_RUN ||
+				simulation.getStatus() == Simulation.Status.EXTERNAL) {
+			return new Result(file, simulation.getName(), Status.SKIPPED, null, null,
+					"Cannot be simulated (" + simulation.getStatus() + ")");
+		}
+
+		long t0 = System.nanoTime();
+		try {
+			simulation.simulate();
+		} catch (Exception e) {
+			log.warn("Simulation " + simulation.getName() + " of " + file + " failed", e);
+			return new Result(file, simulation.getName(), Status.FAILED, null, null, message(e));
+		}
+		double time = (System.nanoTime() - t0) / 1e9;
+		log.info("Simulated " + simulation.getName() + " of " + file + " in " + time + " s");
+
+		if (dataDirectory != null) {
+			try {
+				exportData(file, simulation);
+			} catch (IOException e) {
+				log.warn("Unable to export data of " + simulation.getName(), e);
+				return new Result(file, simulation.getName(), Status.FILE_ERROR, simulation.getSimulatedData(),
+						simulation.getSimulatedWarnings(), message(e));
+			}
+		}
+		return new Result(file, simulation.getName(), Status.OK, simulation.getSimulatedData(),
+				simulation.getSimulatedWarnings(), null);
+	}
+
+	/**
+	 * Export each branch of the simulated flight data in SI units into its own file.
+	 */
+	private void exportData(File file, Simulation simulation) throws IOException {
+		FlightDataExporter exporter = binaryData ? new BinaryColumnExporter() : new CSVExporter();
+		FlightData data = simulation.getSimulatedData();
+		for (int i = 0; i < data.getBranchCount(); i++) {
+			String name = baseName(file) + "-" + simulation.getName();
+			if (data.getBranchCount() > 1) {
+				name += "-" + (i + 1);
+			}
+			File dest = new File(dataDirectory, fileName(name) + "." + exporter.getFileExtension());
+			OutputStream os = new BufferedOutputStream(new FileOutputStream(dest));
+			try {
+				exporter.export(os, simulation, data.getBranch(i));
+			} finally {
+				os.close();
+			}
+		}
+	}
+
+	/**
+	 * Save a document, returning a result only if saving fails.
+	 */
+	private Result save(File file, OpenRocketDocument document) {
+		File dest = (saveDirectory == null) ? file : new File(saveDirectory, file.getName());
+		try {
+			new GeneralRocketSaver().save(dest, document, document.getDefaultStorageOptions());
+			document.setFile(dest);
+			document.setSaved(true);
+			log.info("Saved " + dest);
+			return null;
+		} catch (IOException e) {
+			log.warn("Unable to save " + dest, e);
+			return new Result(file, null, Status.FILE_ERROR, null, null, message(e));
+		}
+	}
+
+	private Result report(Result result) {
+		if (progress != null) {
+			synchronized (progress) {
+				progress.println(result.getFile().getName() +
+						(result.getSimulationName() != null ? ": " + result.getSimulationName() : "") +
+						" - " + result.getStatus() +
+						(result.getMessage() != null ? " (" + result.getMessage() + ")" : ""));
+			}
+		}
+		return result;
+	}
+
+
+	/**
+	 * Write a CSV summary of results, one line per result, with the values in SI units.
+	 */
+	public static void writeSummary(List<Result> results, PrintWriter writer) {
+		writer.println("File,Simulation,Status,Max altitude (m),Max velocity (m/s),Max acceleration (m/s^2)," +
+				"Max Mach number,Time to apogee (s),Flight time (s),Ground hit velocity (m/s)," +
+				"Launch rod velocity (m/s),Deployment velocity (m/s),Warnings,Message");
+		for (Result r : results) {
+			StringBuilder sb = new StringBuilder();
+			sb.append(csv(r.getFile().getPath())).append(',');
+			sb.append(csv(r.getSimulationName())).append(',');
+			sb.append(r.getStatus());
+			FlightData d = r.getData();
+			double[] values = (d == null) ? new double[9] : new double[] {
+					d.getMaxAltitude(), d.getMaxVelocity(), d.getMaxAcceleration(), d.getMaxMachNumber(),
+					d.getTimeToApogee(), d.getFlightTime(), d.getGroundHitVelocity(),
+					d.getLaunchRodVelocity(), d.getDeploymentVelocity() };
+			for (double v : values) {
+				sb.append(',');
+				if (d != null) {
+					sb.append(String.format(Locale.US, "%.4f", v));
+				}
+			}
+			sb.append(',');
+			if (r.getWarnings() != null) {
+				StringBuilder warnings = new StringBuilder();
+				for (Warning w : r.getWarnings()) {
+					if (warnings.length() > 0) {
+						warnings.append("; ");
+					}
+					warnings.append(w.toString());
+				}
+				sb.append(csv(warnings.toString()));
+			}
+			sb.append(',').append(csv(r.getMessage()));
+			writer.println(sb);
+		}
+		writer.flush();
+	}
+
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+
+	private static String baseName(File file) {
+		String name = file.getName();
+		int dot = name.lastIndexOf('.');
+		return (dot > 0) ? name.substring(0, dot) : name;
+	}
+
+	private static String fileName(String name) {
+		return name.replaceAll("[^\\w\\-. ]", "_");
+	}
+
+	private static String message(Throwable e) {
+		if (e == null) {
+			return null;
+		}
+		return (e.getMessage() != null) ? e.getMessage() : e.getClass().getSimpleName();
+	}
+
+	/**
+	 * The result of a simulation in a batch.
+	 */
+	public static class Result {
+		private final File file;
+		private final String simulationName;
+		private final Status status;
+		private final FlightData data;
+		private final WarningSet warnings;
+		private final String message;
+
+		public Result(File file, String simulationName, Status status, FlightData data,
+				WarningSet warnings, String message) {
+			this.file = file;
+			this.simulationName = simulationName;
+			this.status = status;
+			this.data = data;
+			this.warnings = warnings;
+			this.message = message;
+		}
+
+		/** Return the document file */
+		public File getFile() {
+			return file;
+		}
+
+		/** Return the simulation name, or <code>null</code> for a result of the whole document */
+		public String getSimulationName() {
+			return simulationName;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		/** Return the simulated flight data, or <code>null</code> if the simulation was not run */
+		public FlightData getData() {
+			return data;
+		}
+
+		/** Return the simulation warnings, or <code>null</code> if the simulation was not run */
+		public WarningSet getWarnings() {
+			return warnings;
+		}
+
+		/** Return the error message, or <code>null</code> */
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	/**
+	 * Return the results that are not {@link Status#OK} or {@link Status#SKIPPED}.
+	 */
+	public static List<Result> getFailures(List<Result> results) {
+		List<Result> failures = new ArrayList<Result>();
+		for (Result r : results) {
+			if (r.getStatus() == Status.FAILED || r.getStatus() == Status.FILE_ERROR) {
+				failures.add(r);
+			}
+		}
+		return Collections.unmodifiableList(failures);
+	}
+}
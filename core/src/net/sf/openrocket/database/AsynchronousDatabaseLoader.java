@@ -1,5 +1,7 @@
 package net.sf.openrocket.database;
 
+import net.sf.openrocket.startup.StartupTimeline;
+
 /**
  * A class that manages calling a DatabaseLoader in the background.
  * 
@@ -94,7 +96,12 @@ public abstract class AsynchronousDatabaseLoader {
 		// Pause for indicated startup time
 		pauseForStartupTime();
 		
-		loadDatabase();
+		StartupTimeline.Phase phase = StartupTimeline.getInstance().begin(getClass().getSimpleName());
+		try {
+			loadDatabase();
+		} finally {
+			phase.end();
+		}
 		
 		synchronized (this) {
 			endedLoading = true;
@@ -1,39 +1,151 @@
 package net.sf.openrocket.database;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import net.sf.openrocket.preset.BinaryPresetReader;
 import net.sf.openrocket.preset.ComponentPreset;
 import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.BugException;
 
+/**
+ * A database of component presets.  Binary preset databases are decoded lazily, one
+ * preset type at a time, so all access to the preset list is synchronized on the
+ * database to keep readers from seeing the list while it is being modified.
+ */
 public class ComponentPresetDatabase extends Database<ComponentPreset> implements ComponentPresetDao {
 
 	private static final Logger logger = LoggerFactory.getLogger(ComponentPresetDatabase.class);
 	
+	/** binary preset databases whose presets of the given type have not been decoded yet */
+	private final Map<ComponentPreset.Type, List<BinaryPresetReader>> pending =
+			new EnumMap<ComponentPreset.Type, List<BinaryPresetReader>>(ComponentPreset.Type.class);
+	
 	public ComponentPresetDatabase() {
 		super();
 	}
 	
+	/**
+	 * Add the contents of a binary preset database.  The presets of each type are
+	 * decoded only when presets of that type are first requested from this database.
+	 * 
+	 * @param reader	the reader of the binary preset database
+	 */
+	public synchronized void addPresetReader(BinaryPresetReader reader) {
+		for (ComponentPreset.Type type : reader.getTypes()) {
+			List<BinaryPresetReader> readers = pending.get(type);
+			if (readers == null) {
+				readers = new ArrayList<BinaryPresetReader>();
+				pending.put(type, readers);
+			}
+			readers.add(reader);
+		}
+	}
+	
+	/**
+	 * Decode the pending presets of the given types into the database.
+	 */
+	private synchronized void loadPending(ComponentPreset.Type... types) {
+		if (pending.isEmpty()) {
+			return;
+		}
+		for (ComponentPreset.Type type : types) {
+			List<BinaryPresetReader> readers = pending.remove(type);
+			if (readers == null) {
+				continue;
+			}
+			long start = System.currentTimeMillis();
+			for (BinaryPresetReader reader : readers) {
+				try {
+					insertAll(reader.read(type));
+				} catch (IOException e) {
+					throw new BugException("Unable to decode presets of type " + type, e);
+				}
+			}
+			logger.debug("Decoded presets of type " + type + " in " + (System.currentTimeMillis() - start) + "ms");
+		}
+	}
+	
+	private void loadAllPending() {
+		loadPending(ComponentPreset.Type.values());
+	}
+	
+	/**
+	 * Insert presets that are already part of the database content, without firing
+	 * add events.  Duplicates are skipped and the natural order of the list is kept.
+	 */
+	private void insertAll(Collection<ComponentPreset> presets) {
+		Set<ComponentPreset> existing = new HashSet<ComponentPreset>(list);
+		for (ComponentPreset preset : presets) {
+			if (existing.add(preset)) {
+				list.add(preset);
+			}
+		}
+		Collections.sort(list);
+	}
+	
+	@Override
+	public synchronized Iterator<ComponentPreset> iterator() {
+		loadAllPending();
+		return super.iterator();
+	}
+	
 	@Override
-	public List<ComponentPreset> listAll() {
+	public synchronized int size() {
+		loadAllPending();
+		return super.size();
+	}
+	
+	@Override
+	public synchronized List<ComponentPreset> listAll() {
+		loadAllPending();
 		return list;
 	}
+	
+	/**
+	 * Add a preset to the database and fire an add event.  Pending presets are not
+	 * decoded, so that adding user presets keeps the system presets lazy; a pending
+	 * duplicate of the added preset is skipped when its type is decoded.
+	 */
+	@Override
+	public synchronized boolean add(ComponentPreset preset) {
+		return super.add(preset);
+	}
+	
+	@Override
+	public synchronized ComponentPreset get(int index) {
+		loadAllPending();
+		return super.get(index);
+	}
+	
+	@Override
+	public synchronized int indexOf(ComponentPreset preset) {
+		loadAllPending();
+		return super.indexOf(preset);
+	}
 
 	@Override
-	public void insert( ComponentPreset preset ) {
+	public synchronized void insert( ComponentPreset preset ) {
 		list.add(preset);
 	}
 
 	@Override
-	public List<ComponentPreset> listForType( ComponentPreset.Type type ) {
+	public synchronized List<ComponentPreset> listForType( ComponentPreset.Type type ) {
 		if ( type == null ) {
 			return Collections.<ComponentPreset>emptyList();
 		}
+		loadPending(type);
 
 		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
 
@@ -55,11 +167,13 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	 * @return
 	 */
 	@Override
-	public List<ComponentPreset> listForType( ComponentPreset.Type type, boolean favorite ) {
+	public synchronized List<ComponentPreset> listForType( ComponentPreset.Type type, boolean favorite ) {
 		if ( !favorite ) {
 			return listForType(type);
 		}
 
+		loadPending(type);
+
 		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
 
 		Set<String> favorites = Application.getPreferences().getComponentFavorites(type);
@@ -73,7 +187,7 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public List<ComponentPreset> listForTypes( ComponentPreset.Type ... type ) {
+	public synchronized List<ComponentPreset> listForTypes( ComponentPreset.Type ... type ) {
 		if( type == null || type.length == 0 ) {
 			return Collections.<ComponentPreset>emptyList();
 		}
@@ -81,6 +195,7 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 		if (type.length == 1 ) {
 			return listForType(type[0]);
 		}
+		loadPending(type);
 
 		List<ComponentPreset> result = new ArrayList<ComponentPreset>(list.size()/6);
 
@@ -103,7 +218,8 @@ public class ComponentPresetDatabase extends Database<ComponentPreset> implement
 	}
 
 	@Override
-	public List<ComponentPreset> find(String manufacturer, String partNo) {
+	public synchronized List<ComponentPreset> find(String manufacturer, String partNo) {
+		loadAllPending();
 		List<ComponentPreset> presets = new ArrayList<ComponentPreset>();
 		for( ComponentPreset preset : list ) {
 			if ( preset.getManufacturer().getSimpleName().equals(manufacturer) && preset.getPartNo().equals(partNo) ) {
@@ -0,0 +1,136 @@
+package net.sf.openrocket.database;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.file.iterator.DirectoryIterator;
+import net.sf.openrocket.file.iterator.FileIterator;
+import net.sf.openrocket.motor.ThrustCurveMotor;
+import net.sf.openrocket.preset.BinaryPresetReader;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.Pair;
+
+/**
+ * An asynchronous loader for the motor and component preset databases that are
+ * distributed with OpenRocket.  User-defined thrust curves and components are not
+ * loaded, so the results do not depend on the user's preferences.
+ * <p>
+ * This loader does not depend on the Swing user interface and is used when
+ * running headless.
+ */
+public class SystemDatabaseLoader extends AsynchronousDatabaseLoader {
+
+	private final static Logger log = LoggerFactory.getLogger(SystemDatabaseLoader.class);
+
+	private static final String THRUSTCURVE_DIRECTORY = "datafiles/thrustcurves/";
+	private static final String PRESET_DIRECTORY = "datafiles/presets";
+	/** extension of the binary preset database files */
+	private static final String PRESET_DATABASE_EXTENSION = "orpd";
+
+	private final ThrustCurveMotorSetDatabase motorDatabase = new ThrustCurveMotorSetDatabase();
+	private final ComponentPresetDatabase presetDatabase = new ComponentPresetDatabase();
+
+	public SystemDatabaseLoader() {
+		super(0);
+	}
+
+	/**
+	 * Returns the loaded motor database.  If the database has not fully loaded,
+	 * this blocks until it is.
+	 */
+	public ThrustCurveMotorSetDatabase getMotorDatabase() {
+		blockUntilLoaded();
+		return motorDatabase;
+	}
+
+	/**
+	 * Returns the loaded component preset database.  If the database has not fully
+	 * loaded, this blocks until it is.
+	 */
+	public ComponentPresetDatabase getPresetDatabase() {
+		blockUntilLoaded();
+		return presetDatabase;
+	}
+
+	@Override
+	protected void loadDatabase() {
+		loadMotors();
+		loadPresets();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void loadMotors() {
+		int count = 0;
+		FileIterator iterator = DirectoryIterator.findDirectory(THRUSTCURVE_DIRECTORY, new ExtensionFilter("ser"));
+		if (iterator == null) {
+			log.warn("Serialized motor database not found");
+			return;
+		}
+		while (iterator.hasNext()) {
+			Pair<String, InputStream> f = iterator.next();
+			try {
+				log.debug("Reading motors from file " + f.getU());
+				ObjectInputStream ois = new ObjectInputStream(f.getV());
+				for (ThrustCurveMotor m : (List<ThrustCurveMotor>) ois.readObject()) {
+					motorDatabase.addMotor(m);
+					count++;
+				}
+			} catch (Exception ex) {
+				throw new BugException(ex);
+			} finally {
+				close(f.getV());
+			}
+		}
+		log.info("Loaded " + count + " motors");
+	}
+
+	private void loadPresets() {
+		FileIterator iterator = DirectoryIterator.findDirectory(PRESET_DIRECTORY, new ExtensionFilter(PRESET_DATABASE_EXTENSION));
+		if (iterator == null) {
+			log.info("Component preset database not found");
+			return;
+		}
+		while (iterator.hasNext()) {
+			Pair<String, InputStream> f = iterator.next();
+			try {
+				presetDatabase.addPresetReader(new BinaryPresetReader(f.getV(), f.getU()));
+			} catch (Exception ex) {
+				throw new BugException(ex);
+			} finally {
+				close(f.getV());
+			}
+		}
+	}
+
+	private static void close(InputStream stream) {
+		try {
+			stream.close();
+		} catch (IOException e) {
+		}
+	}
+
+	/**
+	 * File filter accepting files of one extension.  Not using SimpleFileFilter
+	 * avoids loading the Swing classes.
+	 */
+	private static class ExtensionFilter implements FileFilter {
+		private final String extension;
+
+		public ExtensionFilter(String extension) {
+			this.extension = "." + extension;
+		}
+
+		@Override
+		public boolean accept(File file) {
+			return file.getName().toLowerCase().endsWith(extension);
+		}
+	}
+}
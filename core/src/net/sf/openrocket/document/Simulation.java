@@ -23,6 +23,7 @@ import net.sf.openrocket.simulation.SimulationConditions;
 import net.sf.openrocket.simulation.SimulationEngine;
 import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.simulation.SimulationStepper;
+import net.sf.openrocket.simulation.cache.SimulationCache;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.simulation.listeners.SimulationListener;
@@ -333,13 +334,28 @@ public class Simulation implements ChangeSource, Cloneable {
 	
 	
 	/**
-	 * Simulate the flight.
+	 * Simulate the flight, loading the results from the simulation cache if it contains
+	 * them.
 	 *
 	 * @param additionalListeners	additional simulation listeners (those defined by the simulation are used in any case)
 	 * @throws SimulationException	if a problem occurs during simulation
 	 */
 	public void simulate(SimulationListener... additionalListeners)
 			throws SimulationException {
+		simulate(true, additionalListeners);
+	}
+	
+	/**
+	 * Simulate the flight.  The results are stored in the simulation cache in any case.
+	 * Simulations whose random seed was changed to obtain a new realization of the wind
+	 * turbulence should not load cached results.
+	 *
+	 * @param loadCached			whether to load the results from the simulation cache if it contains them
+	 * @param additionalListeners	additional simulation listeners (those defined by the simulation are used in any case)
+	 * @throws SimulationException	if a problem occurs during simulation
+	 */
+	public void simulate(boolean loadCached, SimulationListener... additionalListeners)
+			throws SimulationException {
 		mutex.lock("simulate");
 		try {
 			
@@ -347,6 +363,27 @@ public class Simulation implements ChangeSource, Cloneable {
 				throw new SimulationException("Cannot simulate imported simulation.");
 			}
 			
+			// Load unchanged simulations from the cache
+			SimulationCache cache = Application.getSimulationCache();
+			String cacheKey = null;
+			if (cache != null && SimulationCache.isCacheable(this, additionalListeners)) {
+				cacheKey = cache.getKey(this, additionalListeners);
+			}
+			if (cacheKey != null && loadCached) {
+				FlightData data = cache.get(cacheKey);
+				if (data != null) {
+					log.debug("Simulation: loaded results from the cache");
+					simulatedData = data;
+					simulatedConditions = options.clone();
+					simulatedConfigurationDescription = descriptor.format( this.rocket, getId());
+					simulatedRocketID = rocket.getFunctionalModID();
+					
+					status = Status.UPTODATE;
+					fireChangeEvent();
+					return;
+				}
+			}
+			
 			SimulationEngine simulator;
 			
 			try {
@@ -379,6 +416,10 @@ public class Simulation implements ChangeSource, Cloneable {
 			simulatedConfigurationDescription = descriptor.format( this.rocket, getId());
 			simulatedRocketID = rocket.getFunctionalModID();
 			
+			if (cacheKey != null) {
+				cache.put(cacheKey, simulatedData);
+			}
+			
 			status = Status.UPTODATE;
 			fireChangeEvent();
 		} finally {
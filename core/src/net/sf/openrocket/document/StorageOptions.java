@@ -15,6 +15,8 @@ public class StorageOptions implements Cloneable {
 	private FileType fileType = FileType.OPENROCKET;
 	
 	private double simulationTimeSkip = SIMULATION_DATA_NONE;
+	
+	private boolean binarySimulationData = false;
 
 	private boolean explicitlySet = false;
 	
@@ -34,6 +36,20 @@ public class StorageOptions implements Cloneable {
 		this.simulationTimeSkip = simulationTimeSkip;
 	}
 	
+	/**
+	 * Return whether stored simulation data is written in binary form as separate entries
+	 * of the document archive instead of as text within the XML.  Binary simulation data
+	 * is considerably smaller and faster to read and write, but cannot be read by
+	 * earlier versions of OpenRocket.
+	 */
+	public boolean isBinarySimulationData() {
+		return binarySimulationData;
+	}
+
+	public void setBinarySimulationData(boolean binarySimulationData) {
+		this.binarySimulationData = binarySimulationData;
+	}
+	
 	public boolean isExplicitlySet() {
 		return explicitlySet;
 	}
@@ -1,5 +1,8 @@
 package net.sf.openrocket.file;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import net.sf.openrocket.document.OpenRocketDocument;
 
 public class DocumentLoadingContext {
@@ -8,6 +11,8 @@ public class DocumentLoadingContext {
 	private MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory = new FileSystemAttachmentFactory();
 	private OpenRocketDocument document;
+	private boolean deferFlightData = false;
+	private final Map<String, byte[]> containerEntries = new HashMap<String, byte[]>();
 	
 	public int getFileVersion() {
 		return fileVersion;
@@ -41,4 +46,43 @@ public class DocumentLoadingContext {
 		this.attachmentFactory = attachmentFactory;
 	}
 	
+	/**
+	 * Return whether the values of stored flight data should be parsed only when
+	 * they are first accessed.
+	 */
+	public boolean isDeferFlightData() {
+		return deferFlightData;
+	}
+	
+	public void setDeferFlightData(boolean deferFlightData) {
+		this.deferFlightData = deferFlightData;
+	}
+	
+	/**
+	 * Add an entry of the document container that precedes the document itself.
+	 * 
+	 * @param name	the name of the entry.
+	 * @param data	the contents of the entry.
+	 */
+	public void addContainerEntry(String name, byte[] data) {
+		containerEntries.put(name, data);
+	}
+	
+	/**
+	 * Return and forget the contents of an entry of the document container.
+	 * 
+	 * @param name	the name of the entry.
+	 * @return		the contents of the entry, or <code>null</code> if not available.
+	 */
+	public byte[] removeContainerEntry(String name) {
+		return containerEntries.remove(name);
+	}
+	
+	/**
+	 * Return whether the document container contains entries preceding the document.
+	 */
+	public boolean hasContainerEntries() {
+		return !containerEntries.isEmpty();
+	}
+	
 }
@@ -8,6 +8,8 @@ import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -18,6 +20,7 @@ import net.sf.openrocket.document.OpenRocketDocumentFactory;
 import net.sf.openrocket.file.openrocket.importt.OpenRocketLoader;
 import net.sf.openrocket.file.rocksim.importt.RocksimLoader;
 import net.sf.openrocket.util.ArrayUtils;
+import net.sf.openrocket.util.FileUtils;
 import net.sf.openrocket.util.TextUtil;
 
 
@@ -49,6 +52,8 @@ public class GeneralRocketLoader {
 	
 	private final MotorFinder motorFinder;
 	private AttachmentFactory attachmentFactory;
+	private boolean deferFlightData = false;
+	private final Map<String, byte[]> containerEntries = new HashMap<String, byte[]>();
 	private final OpenRocketDocument doc = OpenRocketDocumentFactory.createEmptyRocket();
 	
 	public GeneralRocketLoader(File file) {
@@ -103,12 +108,22 @@ public class GeneralRocketLoader {
 		return warnings;
 	}
 	
+	/**
+	 * Set whether the values of stored simulation data are parsed only when they are
+	 * first accessed, for example when the simulation is plotted or exported.
+	 * Reduces the loading time of documents with many stored simulations.
+	 */
+	public void setDeferFlightData(boolean deferFlightData) {
+		this.deferFlightData = deferFlightData;
+	}
+	
 	/**
 	 * This method determines the type file contained in the stream then calls the appropriate loading mecahnism.
 	 * 
 	 * If the stream is a gzip file, the argument is wrapped in a GzipInputStream and the rocket loaded.
 	 * 
 	 * If the stream is a zip container, the first zip entry with name ending in .ork or .rkt is loaded as the rocket.
+	 * The entries preceding it (such as binary simulation data) are made available through the loading context.
 	 * 
 	 * If the stream is neither, then it is assumed to be an xml file containing either an ork or rkt format rocket.
 	 * 
@@ -149,7 +164,7 @@ public class GeneralRocketLoader {
 		if (buffer[0] == ZIP_SIGNATURE[0] && buffer[1] == ZIP_SIGNATURE[1]) {
 			isContainer = true;
 			setAttachmentFactory();
-			// Search for entry with name *.ork
+			// Search for entry with name *.ork, keeping the entries preceding it
 			ZipInputStream in = new ZipInputStream(source);
 			while (true) {
 				ZipEntry entry = in.getNextEntry();
@@ -160,6 +175,9 @@ public class GeneralRocketLoader {
 					loadRocket(in);
 				} else if (entry.getName().matches(".*\\.[rR][kK][tT]$")) {
 					loadRocket(in);
+				} else {
+					containerEntries.put(entry.getName(), FileUtils.readBytes(in));
+					continue;
 				}
 				in.close();
 				return;
@@ -237,6 +255,11 @@ public class GeneralRocketLoader {
 		context.setOpenRocketDocument(doc);
 		context.setMotorFinder(motorFinder);
 		context.setAttachmentFactory(attachmentFactory);
+		context.setDeferFlightData(deferFlightData);
+		for (Map.Entry<String, byte[]> e : containerEntries.entrySet()) {
+			context.addContainerEntry(e.getKey(), e.getValue());
+		}
+		containerEntries.clear();
 		loader.load(context, source);
 		warnings.addAll(loader.getWarnings());
 	}
@@ -184,9 +184,13 @@ public class GeneralRocketSaver {
 		try {
 			
 			
+			// Binary simulation data is written before the document that references it
+			OpenRocketSaver saver = new OpenRocketSaver();
+			saver.saveFlightData(zos, document, options);
+			
 			ZipEntry mainFile = new ZipEntry("rocket.ork");
 			zos.putNextEntry(mainFile);
-			saveInternal(zos, document, options);
+			saver.save(zos, document, options);
 			zos.closeEntry();
 			
 			// Now we write out all the decal images files.
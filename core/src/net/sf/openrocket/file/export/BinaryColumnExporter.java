@@ -0,0 +1,131 @@
+package net.sf.openrocket.file.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.List;
+
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.unit.Unit;
+
+/**
+ * Exports flight data in a binary column format intended for analysis tools.
+ * All numbers are little-endian, and strings are stored as an int32 byte count
+ * followed by the UTF-8 bytes:
+ * <pre>
+ *   byte[4]   magic "ORFX"
+ *   int32     format version (1)
+ *   int32     number of branches
+ * then for each branch:
+ *   string    simulation name
+ *   string    branch name
+ *   int32     number of columns C
+ *   int32     number of points N
+ *   int32     bytes per value, 8 for float64 or 4 for float32
+ *   C times:  string column name, string column symbol, string unit
+ *   int32     number of flight events E
+ *   E times:  string event type, float64 event time in seconds
+ *   the N values of each column in turn, in the unit of the column
+ * </pre>
+ * The values of a column are contiguous, so a column can be read for example with
+ * <code>numpy.frombuffer(data, '&lt;f8', N, offset)</code>.
+ */
+public class BinaryColumnExporter extends FlightDataExporter {
+
+	private static final byte[] MAGIC = { 'O', 'R', 'F', 'X' };
+	public static final int VERSION = 1;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private boolean singlePrecision = false;
+
+	private final ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+
+
+	/**
+	 * Set whether the values are stored as float32 instead of float64.
+	 */
+	public void setSinglePrecision(boolean singlePrecision) {
+		this.singlePrecision = singlePrecision;
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "orfx";
+	}
+
+
+	@Override
+	protected void writeHeader(OutputStream out, List<ExportedBranch> branches) throws IOException {
+		out.write(MAGIC);
+		writeInt(out, VERSION);
+		writeInt(out, branches.size());
+	}
+
+	@Override
+	protected void writeBranch(OutputStream out, ExportedBranch branch) throws IOException {
+		FlightDataType[] types = branch.getTypes();
+		Unit[] units = branch.getUnits();
+		int n = branch.getPointCount();
+		int size = singlePrecision ? 4 : 8;
+
+		writeString(out, branch.getSimulation().getName());
+		writeString(out, branch.getBranch().getBranchName());
+		writeInt(out, types.length);
+		writeInt(out, n);
+		writeInt(out, size);
+		for (int i = 0; i < types.length; i++) {
+			writeString(out, types[i].getName());
+			writeString(out, types[i].getSymbol());
+			writeString(out, units[i].getUnit());
+		}
+		List<FlightEvent> events = branch.getEvents();
+		writeInt(out, events.size());
+		for (FlightEvent e : events) {
+			writeString(out, e.getType().name());
+			writeDouble(out, e.getTime());
+		}
+
+		int chunk = branch.getChunkSize();
+		double[] values = new double[chunk];
+		ByteBuffer buffer = ByteBuffer.allocate(chunk * size).order(ByteOrder.LITTLE_ENDIAN);
+		for (int c = 0; c < types.length; c++) {
+			int count;
+			for (int start = 0; (count = branch.read(c, start, values, chunk)) > 0; start += count) {
+				buffer.clear();
+				if (singlePrecision) {
+					for (int i = 0; i < count; i++) {
+						buffer.putFloat((float) values[i]);
+					}
+				} else {
+					for (int i = 0; i < count; i++) {
+						buffer.putDouble(values[i]);
+					}
+				}
+				out.write(buffer.array(), 0, buffer.position());
+			}
+		}
+	}
+
+
+	private void writeInt(OutputStream out, int value) throws IOException {
+		header.clear();
+		header.putInt(value);
+		out.write(header.array(), 0, 4);
+	}
+
+	private void writeDouble(OutputStream out, double value) throws IOException {
+		header.clear();
+		header.putDouble(value);
+		out.write(header.array(), 0, 8);
+	}
+
+	private void writeString(OutputStream out, String value) throws IOException {
+		byte[] bytes = (value == null ? "" : value).getBytes(UTF8);
+		writeInt(out, bytes.length);
+		out.write(bytes);
+	}
+}
@@ -0,0 +1,223 @@
+package net.sf.openrocket.file.export;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+
+import net.sf.openrocket.aerodynamics.Warning;
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.unit.Unit;
+
+/**
+ * Exports flight data as comma separated values.  The values are written with
+ * the precision of {@link net.sf.openrocket.util.TextUtil#doubleToString(double)}.
+ * When more than one branch is exported, the branches follow each other, each
+ * preceded by its own comments.
+ */
+public class CSVExporter extends FlightDataExporter {
+
+	private static final String NEWLINE = System.getProperty("line.separator");
+
+	private String fieldSeparator = ",";
+	private String commentStarter = "#";
+	private boolean simulationComments = true;
+	private boolean fieldComments = true;
+	private boolean eventComments = true;
+
+	private final NumberFormatter formatter = new NumberFormatter();
+
+
+	public void setFieldSeparator(String fieldSeparator) {
+		this.fieldSeparator = fieldSeparator;
+	}
+
+	public void setCommentStarter(String commentStarter) {
+		this.commentStarter = commentStarter;
+	}
+
+	/**
+	 * Set whether to write the name, status and warnings of the simulation before each branch.
+	 */
+	public void setSimulationComments(boolean simulationComments) {
+		this.simulationComments = simulationComments;
+	}
+
+	/**
+	 * Set whether to write the names and units of the columns before each branch.
+	 */
+	public void setFieldComments(boolean fieldComments) {
+		this.fieldComments = fieldComments;
+	}
+
+	/**
+	 * Set whether to write the flight events as comments at the time they occur.
+	 */
+	public void setEventComments(boolean eventComments) {
+		this.eventComments = eventComments;
+	}
+
+	@Override
+	public String getFileExtension() {
+		return "csv";
+	}
+
+
+	@Override
+	protected void writeBranch(OutputStream out, ExportedBranch branch) throws IOException {
+		// The writer is flushed but not closed, as closing would close the stream
+		Writer writer = new OutputStreamWriter(out);
+		StringBuilder sb = new StringBuilder();
+
+		FlightDataType[] types = branch.getTypes();
+		Unit[] units = branch.getUnits();
+
+		if (simulationComments) {
+			writeSimulationComments(sb, branch);
+		}
+		if (simulationComments && fieldComments) {
+			sb.append(commentStarter).append(NEWLINE);
+		}
+		if (fieldComments) {
+			sb.append(commentStarter).append(' ');
+			for (int i = 0; i < types.length; i++) {
+				sb.append(types[i].getName()).append(" (").append(units[i].getUnit()).append(')');
+				if (i < types.length - 1) {
+					sb.append(fieldSeparator);
+				}
+			}
+			sb.append(NEWLINE);
+		}
+
+		writeData(writer, sb, branch);
+		writer.flush();
+	}
+
+	private void writeData(Writer writer, StringBuilder sb, ExportedBranch branch) throws IOException {
+		int columns = branch.getTypes().length;
+		int chunk = branch.getChunkSize();
+		double[][] values = new double[columns][chunk];
+
+		// Flight events in occurrence order
+		List<FlightEvent> events = branch.getEvents();
+		int eventPosition = 0;
+
+		// Time variable
+		double[] time = null;
+		if (eventComments) {
+			if (branch.contains(FlightDataType.TYPE_TIME)) {
+				time = new double[chunk];
+			} else {
+				// If time information is not available, print events at beginning of file
+				for (FlightEvent e : events) {
+					appendEvent(sb, e);
+				}
+				eventPosition = events.size();
+			}
+		}
+
+		int n;
+		for (int start = 0; (n = branch.readRows(start, values, chunk)) > 0; start += n) {
+			if (time != null) {
+				branch.readSI(FlightDataType.TYPE_TIME, start, time, n);
+			}
+
+			for (int pos = 0; pos < n; pos++) {
+
+				// Check for events to store
+				if (time != null) {
+					double t = time[pos];
+					while ((eventPosition < events.size()) &&
+							(events.get(eventPosition).getTime() <= t)) {
+						appendEvent(sb, events.get(eventPosition));
+						eventPosition++;
+					}
+				}
+
+				// Store CSV line
+				for (int i = 0; i < columns; i++) {
+					formatter.append(sb, values[i][pos]);
+					if (i < columns - 1) {
+						sb.append(fieldSeparator);
+					}
+				}
+				sb.append(NEWLINE);
+			}
+
+			writer.append(sb);
+			sb.setLength(0);
+		}
+
+		// Store any remaining events
+		if (time != null) {
+			while (eventPosition < events.size()) {
+				appendEvent(sb, events.get(eventPosition));
+				eventPosition++;
+			}
+		}
+		writer.append(sb);
+		sb.setLength(0);
+	}
+
+
+	private void appendEvent(StringBuilder sb, FlightEvent e) {
+		sb.append(commentStarter).append(" Event ").append(e.getType().name()).append(" occurred at t=");
+		formatter.append(sb, e.getTime());
+		sb.append(" seconds").append(NEWLINE);
+	}
+
+	private void writeSimulationComments(StringBuilder sb, ExportedBranch branch) {
+		Simulation simulation = branch.getSimulation();
+		String line = simulation.getName();
+
+		FlightData data = simulation.getSimulatedData();
+
+		switch (simulation.getStatus()) {
+		case UPTODATE:
+			line += " (Up to date)";
+			break;
+
+		case LOADED:
+			line += " (Data loaded from a file)";
+			break;
+
+		case OUTDATED:
+			line += " (Data is out of date)";
+			break;
+
+		case EXTERNAL:
+			line += " (Imported data)";
+			break;
+
+		case NOT_SIMULATED:
+			line += " (Not simulated yet)";
+			break;
+		}
+
+		sb.append(commentStarter).append(' ').append(line).append(NEWLINE);
+		if (branch.getBranchCount() > 1) {
+			sb.append(commentStarter).append(" Branch ").append(branch.getBranch().getBranchName()).append(NEWLINE);
+		}
+
+		sb.append(commentStarter).append(' ').append(branch.getPointCount()).append(" data points written for ")
+				.append(branch.getTypes().length).append(" variables.").append(NEWLINE);
+
+		if (data == null) {
+			sb.append(commentStarter).append(" No simulation data available.").append(NEWLINE);
+			return;
+		}
+		WarningSet warnings = data.getWarningSet();
+
+		if (!warnings.isEmpty()) {
+			sb.append(commentStarter).append(" Simulation warnings:").append(NEWLINE);
+			for (Warning w : warnings) {
+				sb.append(commentStarter).append("   ").append(w.toString()).append(NEWLINE);
+			}
+		}
+	}
+}
@@ -0,0 +1,510 @@
+package net.sf.openrocket.file.export;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.unit.Unit;
+
+/**
+ * Base class of the flight data export formats.  An exporter writes any number of
+ * flight data branches of any number of simulations into one stream.  The columns,
+ * their units and the points to export are selected with the setters, and the data is
+ * read from the branches in chunks, so that the size of the export is not limited by
+ * the memory used for intermediate copies of the data.
+ * <p>
+ * An exporter may be reused for several exports, but not concurrently.
+ */
+public abstract class FlightDataExporter {
+	private static final Logger log = LoggerFactory.getLogger(FlightDataExporter.class);
+
+	/** The default number of points read from a branch at a time. */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+	/**
+	 * The units to export values in when no explicit units are set.
+	 */
+	public enum UnitSystem {
+		/** The SI units of the values */
+		SI,
+		/** The default units of the unit groups, as selected in the preferences */
+		PREFERRED
+	}
+
+	/**
+	 * A listener notified of the progress of an export.
+	 */
+	public interface ProgressListener {
+		/**
+		 * Called after each chunk of data is written.
+		 *
+		 * @param points		the number of points written so far.
+		 * @param totalPoints	the total number of points to write.
+		 * @throws IOException	to abort the export, typically {@link InterruptedIOException}.
+		 */
+		public void progress(long points, long totalPoints) throws IOException;
+	}
+
+
+	private FlightDataType[] columns = null;
+	private Unit[] units = null;
+	private UnitSystem unitSystem = UnitSystem.SI;
+	private double timeStep = 0;
+	private int stride = 1;
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private ProgressListener progressListener = null;
+
+
+	/**
+	 * Set the columns to export, in order.  A branch not containing a column is exported
+	 * with NaN values for it.  If <code>null</code>, all types of each branch are exported.
+	 */
+	public void setColumns(FlightDataType... columns) {
+		this.columns = (columns == null) ? null : columns.clone();
+		if (this.units != null && (columns == null || units.length != columns.length)) {
+			this.units = null;
+		}
+	}
+
+	public FlightDataType[] getColumns() {
+		return (columns == null) ? null : columns.clone();
+	}
+
+	/**
+	 * Set the units of the columns.  The columns must be set first and the number of units
+	 * must match them.  If <code>null</code>, the unit system is used.
+	 */
+	public void setUnits(Unit... units) {
+		if (units != null && (columns == null || units.length != columns.length)) {
+			throw new IllegalArgumentException("columns and units lengths must be equal " +
+					"(" + (columns == null ? "all" : columns.length) + " vs " + units.length + ")");
+		}
+		this.units = (units == null) ? null : units.clone();
+	}
+
+	/**
+	 * Set the unit system used for the columns without explicit units.  The default is
+	 * {@link UnitSystem#SI}.
+	 */
+	public void setUnitSystem(UnitSystem unitSystem) {
+		this.unitSystem = unitSystem;
+	}
+
+	/**
+	 * Set the approximate time in seconds between exported points.  The first and last
+	 * points of each branch are always exported.  Zero exports all points.
+	 */
+	public void setTimeStep(double timeStep) {
+		if (!(timeStep >= 0)) {
+			throw new IllegalArgumentException("timeStep must be non-negative, was " + timeStep);
+		}
+		this.timeStep = timeStep;
+	}
+
+	/**
+	 * Set the decimation factor.  Every <code>stride</code>th point is exported, after
+	 * applying the time step, and the last point of each branch is always exported.
+	 * The default is 1.
+	 */
+	public void setStride(int stride) {
+		if (stride < 1) {
+			throw new IllegalArgumentException("stride must be positive, was " + stride);
+		}
+		this.stride = stride;
+	}
+
+	/**
+	 * Set the number of points read from a branch at a time.
+	 */
+	public void setChunkSize(int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("chunkSize must be positive, was " + chunkSize);
+		}
+		this.chunkSize = chunkSize;
+	}
+
+	public void setProgressListener(ProgressListener progressListener) {
+		this.progressListener = progressListener;
+	}
+
+
+	/**
+	 * Return the file name extension of the format, without the dot.
+	 */
+	public abstract String getFileExtension();
+
+
+	/**
+	 * Export all branches of the simulated data of the simulations.  Simulations without
+	 * data are skipped.  The stream is flushed but not closed.
+	 *
+	 * @param out			the stream to write to.
+	 * @param simulations	the simulations to export.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public void export(OutputStream out, List<Simulation> simulations) throws IOException {
+		List<ExportedBranch> branches = new ArrayList<ExportedBranch>();
+		for (Simulation simulation : simulations) {
+			FlightData data = simulation.getSimulatedData();
+			if (data == null || data.getBranchCount() == 0) {
+				log.info("Simulation " + simulation.getName() + " has no data to export");
+				continue;
+			}
+			for (int i = 0; i < data.getBranchCount(); i++) {
+				branches.add(new ExportedBranch(simulation, data.getBranch(i)));
+			}
+		}
+		exportBranches(out, branches);
+	}
+
+	/**
+	 * Export one branch of a simulation.  The stream is flushed but not closed.
+	 *
+	 * @param out			the stream to write to.
+	 * @param simulation	the simulation being exported.
+	 * @param branch		the branch to export.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public void export(OutputStream out, Simulation simulation, FlightDataBranch branch) throws IOException {
+		exportBranches(out, Collections.singletonList(new ExportedBranch(simulation, branch)));
+	}
+
+	private void exportBranches(OutputStream out, List<ExportedBranch> branches) throws IOException {
+		long total = 0;
+		for (int i = 0; i < branches.size(); i++) {
+			ExportedBranch b = branches.get(i);
+			b.init(i, branches.size(), total);
+			total += b.getPointCount();
+		}
+		for (ExportedBranch b : branches) {
+			b.totalPoints = total;
+		}
+
+		log.info("Exporting " + total + " points of " + branches.size() + " branches as " + getFileExtension());
+		writeHeader(out, branches);
+		for (ExportedBranch b : branches) {
+			writeBranch(out, b);
+		}
+		writeFooter(out);
+		out.flush();
+	}
+
+
+	/**
+	 * Write the beginning of the output.  The default implementation does nothing.
+	 */
+	protected void writeHeader(OutputStream out, List<ExportedBranch> branches) throws IOException {
+	}
+
+	/**
+	 * Write one branch, reading the data from <code>branch</code> in chunks.
+	 */
+	protected abstract void writeBranch(OutputStream out, ExportedBranch branch) throws IOException;
+
+	/**
+	 * Write the end of the output.  The default implementation does nothing.
+	 */
+	protected void writeFooter(OutputStream out) throws IOException {
+	}
+
+
+	/**
+	 * Select the points of a branch approximately <code>timeSkip</code> seconds apart.
+	 * The first and last points are always selected.  If the branch does not contain
+	 * time data, all points are selected.
+	 *
+	 * @param branch	the branch.
+	 * @param timeSkip	the time between selected points.
+	 * @return			the indices of the selected points in increasing order.
+	 */
+	public static int[] selectPoints(FlightDataBranch branch, double timeSkip) {
+		if (branch == null || branch.getTypes().length == 0)
+			return new int[0];
+
+		int length = branch.getLength();
+		double[] timeData = branch.getValues(FlightDataType.TYPE_TIME);
+		if (timeData == null) {
+			// If time data not available, select all points
+			int[] all = new int[length];
+			for (int i = 0; i < length; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+
+		int[] points = new int[length];
+		int count = 0;
+		double previousTime = -100000;
+
+		if (length > 0) {
+			points[count++] = 0;
+			previousTime = timeData[0];
+		}
+
+		for (int i = 1; i < length - 1; i++) {
+			if (Math.abs(timeData[i] - previousTime - timeSkip) < Math.abs(timeData[i + 1] - previousTime - timeSkip)) {
+				points[count++] = i;
+				previousTime = timeData[i];
+			}
+		}
+
+		if (length > 1) {
+			points[count++] = length - 1;
+		}
+
+		return Arrays.copyOf(points, count);
+	}
+
+	/**
+	 * Select every <code>stride</code>th of the points, and the last point.
+	 */
+	private static int[] decimate(int[] points, int stride) {
+		if (stride == 1 || points.length == 0) {
+			return points;
+		}
+		int[] selected = new int[(points.length + stride - 1) / stride + 1];
+		int count = 0;
+		for (int i = 0; i < points.length; i += stride) {
+			selected[count++] = points[i];
+		}
+		if (selected[count - 1] != points[points.length - 1]) {
+			selected[count++] = points[points.length - 1];
+		}
+		return Arrays.copyOf(selected, count);
+	}
+
+
+	/**
+	 * A branch being exported, with the columns, units and points selected.  The data
+	 * is read through {@link #read(int, int, double[], int)} and
+	 * {@link #readRows(int, double[][], int)}, which report the progress of the export.
+	 */
+	protected class ExportedBranch {
+		private final Simulation simulation;
+		private final FlightDataBranch branch;
+		private FlightDataType[] types;
+		private Unit[] branchUnits;
+		/** The indices of the selected points, or null for all points */
+		private int[] points;
+		private int pointCount;
+		private int index;
+		private int branchCount;
+		private long pointsBefore;
+		private long totalPoints;
+		private double[] scratch;
+		private long valuesRead = 0;
+		private long reported = -1;
+
+		private ExportedBranch(Simulation simulation, FlightDataBranch branch) {
+			this.simulation = simulation;
+			this.branch = branch;
+		}
+
+		private void init(int index, int branchCount, long pointsBefore) {
+			this.index = index;
+			this.branchCount = branchCount;
+			this.pointsBefore = pointsBefore;
+
+			types = (columns != null) ? columns.clone() : branch.getTypes();
+			branchUnits = new Unit[types.length];
+			for (int i = 0; i < types.length; i++) {
+				if (units != null) {
+					branchUnits[i] = units[i];
+				} else if (unitSystem == UnitSystem.PREFERRED) {
+					branchUnits[i] = types[i].getUnitGroup().getDefaultUnit();
+				} else {
+					branchUnits[i] = types[i].getUnitGroup().getSIUnit();
+				}
+			}
+
+			if (timeStep > 0 || stride > 1) {
+				int[] selected;
+				if (timeStep > 0) {
+					selected = selectPoints(branch, timeStep);
+				} else {
+					selected = new int[branch.getLength()];
+					for (int i = 0; i < selected.length; i++) {
+						selected[i] = i;
+					}
+				}
+				points = decimate(selected, stride);
+				pointCount = points.length;
+			} else {
+				points = null;
+				pointCount = branch.getLength();
+			}
+			scratch = new double[Math.min(chunkSize, Math.max(branch.getLength(), 1))];
+		}
+
+		public Simulation getSimulation() {
+			return simulation;
+		}
+
+		public FlightDataBranch getBranch() {
+			return branch;
+		}
+
+		/**
+		 * Return the index of this branch among the exported branches.
+		 */
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * Return the number of exported branches.
+		 */
+		public int getBranchCount() {
+			return branchCount;
+		}
+
+		public FlightDataType[] getTypes() {
+			return types.clone();
+		}
+
+		public Unit[] getUnits() {
+			return branchUnits.clone();
+		}
+
+		/**
+		 * Return the number of points exported from this branch.
+		 */
+		public int getPointCount() {
+			return pointCount;
+		}
+
+		/**
+		 * Return the flight events of the branch in occurrence order.
+		 */
+		public List<FlightEvent> getEvents() {
+			List<FlightEvent> events = branch.getEvents();
+			Collections.sort(events);
+			return events;
+		}
+
+		/**
+		 * Return whether the branch contains values of a type.
+		 */
+		public boolean contains(FlightDataType type) {
+			return branch.getValues(type, 0, scratch, 0, 0) >= 0;
+		}
+
+		/**
+		 * Return the number of points read at a time.
+		 */
+		public int getChunkSize() {
+			return chunkSize;
+		}
+
+		/**
+		 * Read the values of a column converted to its unit.
+		 *
+		 * @param column	the index of the column.
+		 * @param start		the index of the first exported point to read.
+		 * @param dest		the array to read into.
+		 * @param count		the number of points to read.
+		 * @return			the number of points read, less than <code>count</code> only at the end.
+		 */
+		public int read(int column, int start, double[] dest, int count) throws IOException {
+			int n = readSI(types[column], start, dest, count);
+			Unit unit = branchUnits[column];
+			for (int i = 0; i < n; i++) {
+				dest[i] = unit.toUnit(dest[i]);
+			}
+			progress(n);
+			return n;
+		}
+
+		/**
+		 * Read the values of all columns converted to their units.
+		 *
+		 * @param start		the index of the first exported point to read.
+		 * @param dest		the arrays to read into, one for each column.
+		 * @param count		the number of points to read.
+		 * @return			the number of points read, less than <code>count</code> only at the end.
+		 */
+		public int readRows(int start, double[][] dest, int count) throws IOException {
+			int n = Math.max(Math.min(count, pointCount - start), 0);
+			for (int c = 0; c < types.length; c++) {
+				readSI(types[c], start, dest[c], n);
+				Unit unit = branchUnits[c];
+				double[] values = dest[c];
+				for (int i = 0; i < n; i++) {
+					values[i] = unit.toUnit(values[i]);
+				}
+			}
+			progress((long) n * types.length);
+			return n;
+		}
+
+		/**
+		 * Read the values of a type in SI units.  Values of a type missing from the
+		 * branch are NaN.
+		 *
+		 * @param type		the type to read.
+		 * @param start		the index of the first exported point to read.
+		 * @param dest		the array to read into.
+		 * @param count		the number of points to read.
+		 * @return			the number of points read, less than <code>count</code> only at the end.
+		 */
+		public int readSI(FlightDataType type, int start, double[] dest, int count) {
+			int n = Math.max(Math.min(count, pointCount - start), 0);
+			if (n == 0) {
+				return 0;
+			}
+
+			if (points == null) {
+				if (branch.getValues(type, start, dest, 0, n) < 0) {
+					Arrays.fill(dest, 0, n, Double.NaN);
+				}
+				return n;
+			}
+
+			// Read the windows of the branch containing the selected points
+			int k = 0;
+			while (k < n) {
+				int first = points[start + k];
+				int len = branch.getValues(type, first, scratch, 0, scratch.length);
+				if (len < 0) {
+					Arrays.fill(dest, 0, n, Double.NaN);
+					return n;
+				}
+				while (k < n && points[start + k] < first + len) {
+					dest[k] = scratch[points[start + k] - first];
+					k++;
+				}
+			}
+			return n;
+		}
+
+		/**
+		 * Count values read and report the progress of the export.
+		 */
+		private void progress(long values) throws IOException {
+			if (Thread.interrupted()) {
+				throw new InterruptedIOException("Export was interrupted");
+			}
+			valuesRead += values;
+			if (progressListener == null || types.length == 0) {
+				return;
+			}
+			long written = pointsBefore + valuesRead / types.length;
+			if (written != reported) {
+				reported = written;
+				progressListener.progress(written, totalPoints);
+			}
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package net.sf.openrocket.file.export;
+
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.TextUtil;
+
+/**
+ * Formats double values into a <code>StringBuilder</code> exactly as
+ * {@link TextUtil#doubleToString(double)} does, but without creating intermediate
+ * strings for every value.  The scratch buffers are reused between calls, so an
+ * instance must not be shared between threads.
+ */
+public class NumberFormatter {
+
+	private final StringBuilder exponential = new StringBuilder(16);
+	private final StringBuilder decimal = new StringBuilder(16);
+
+
+	/**
+	 * Append the representation of a value to a string builder.
+	 *
+	 * @param sb	the string builder to append to.
+	 * @param d		the value.
+	 * @return		<code>sb</code>.
+	 */
+	public StringBuilder append(StringBuilder sb, double d) {
+
+		// Check for special cases
+		if (MathUtil.equals(d, 0))
+			return sb.append('0');
+
+		if (Double.isNaN(d))
+			return sb.append("NaN");
+
+		if (Double.isInfinite(d))
+			return sb.append(d < 0 ? "-Inf" : "Inf");
+
+		if (d < 0)
+			sb.append('-');
+		double abs = Math.abs(d);
+
+		// Small and large values always in exponential notation
+		if (abs < 0.001 || abs >= 100000000) {
+			return appendExponential(sb, abs);
+		}
+
+		// Use the shorter of decimal and exponential notation
+		exponential.setLength(0);
+		appendExponential(exponential, abs);
+		decimal.setLength(0);
+		appendDecimal(decimal, abs);
+
+		if (decimal.length() <= exponential.length())
+			return sb.append(decimal);
+		else
+			return sb.append(exponential);
+	}
+
+	/**
+	 * Return the representation of a value.
+	 */
+	public String toString(double d) {
+		return append(new StringBuilder(16), d).toString();
+	}
+
+
+	/*
+	 * value must be positive and not zero!
+	 */
+	private static StringBuilder appendExponential(StringBuilder sb, double value) {
+		int exp = 0;
+		while (value < 1.0) {
+			value *= 10;
+			exp--;
+		}
+		while (value >= 10.0) {
+			value /= 10;
+			exp++;
+		}
+
+		appendShortDecimal(sb, value, 4);
+		return sb.append('e').append(exp);
+	}
+
+	/*
+	 * value must be positive and not zero!
+	 */
+	private static StringBuilder appendDecimal(StringBuilder sb, double value) {
+		if (value >= 10000)
+			return sb.append((int) (value + 0.5));
+
+		int decimals = 1;
+		double v = value;
+		while (v < 1000) {
+			v *= 10;
+			decimals++;
+		}
+
+		return appendShortDecimal(sb, value, decimals);
+	}
+
+	/*
+	 * value must be positive!
+	 */
+	private static StringBuilder appendShortDecimal(StringBuilder sb, double value, int decimals) {
+
+		// Calculate rounding and limit values (rounding slightly smaller)
+		int rounding = 1;
+		double limit = 0.5;
+		for (int i = 0; i < decimals; i++) {
+			rounding *= 10;
+			limit /= 10;
+		}
+
+		// Round value
+		value = (Math.rint(value * rounding) + 0.1) / rounding;
+
+		int whole = (int) value;
+		value -= whole;
+
+		sb.append(whole);
+		if (value < limit)
+			return sb;
+		limit *= 10;
+
+		sb.append('.');
+		for (int i = 0; i < decimals; i++) {
+			value *= 10;
+			whole = (int) value;
+			value -= whole;
+			sb.append((char) ('0' + whole));
+
+			if (value < limit)
+				return sb;
+			limit *= 10;
+		}
+
+		return sb;
+	}
+}
@@ -0,0 +1,135 @@
+package net.sf.openrocket.file.openrocket;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+
+/**
+ * Binary column storage of flight data branches within an OpenRocket archive.
+ * <p>
+ * Each branch is stored as a separate archive entry, referenced from the
+ * &lt;databranch&gt; element with the <code>datafile</code> attribute.  The variable
+ * types are listed in the element, the entry contains only the values:
+ * <pre>
+ *   int     magic number
+ *   int     format version
+ *   int     number of types
+ *   int     number of data points
+ *   byte[]  the values of each type in turn
+ * </pre>
+ * The values are stored in single precision, which retains about seven significant digits
+ * (the XML storage retains five).  The values of a type are encoded as the exclusive or of the
+ * bits of each value with the bits of the previous value, the first value being stored as is.
+ * The bytes of these 32-bit words are stored by significance: first the most significant byte of
+ * every word, then the second most significant byte and so on.  For slowly changing values the
+ * leading bytes are mostly zero, which the compression of the archive reduces efficiently.
+ */
+public final class BinaryFlightData {
+
+	/** Directory of the flight data entries in the archive */
+	public static final String ENTRY_DIRECTORY = "simulationdata/";
+
+	private static final int MAGIC = 0x4F524644; // "ORFD"
+	private static final int VERSION = 1;
+
+	private BinaryFlightData() {
+	}
+
+
+	/**
+	 * Return the name of the archive entry of a flight data branch.
+	 *
+	 * @param simulation	the index of the simulation in the document.
+	 * @param branch		the index of the branch in the flight data.
+	 */
+	public static String getEntryName(int simulation, int branch) {
+		return ENTRY_DIRECTORY + "simulation" + (simulation + 1) + "-branch" + (branch + 1) + ".bin";
+	}
+
+
+	/**
+	 * Write the selected data points of a branch.  The stream is not closed.
+	 *
+	 * @param output	the stream to write to.
+	 * @param branch	the flight data branch.
+	 * @param types		the types to write, in the order listed in the document.
+	 * @param points	the indices of the data points to write.
+	 * @throws IOException	in case of an I/O error.
+	 */
+	public static void write(OutputStream output, FlightDataBranch branch, FlightDataType[] types, int[] points)
+			throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(types.length);
+		out.writeInt(points.length);
+		byte[] buffer = new byte[points.length * 4];
+		for (FlightDataType type : types) {
+			double[] values = branch.getValues(type);
+			int previous = 0;
+			for (int i = 0; i < points.length; i++) {
+				int bits = Float.floatToIntBits((float) values[points[i]]);
+				int word = bits ^ previous;
+				previous = bits;
+				for (int b = 0; b < 4; b++) {
+					buffer[b * points.length + i] = (byte) (word >>> (24 - 8 * b));
+				}
+			}
+			out.write(buffer);
+		}
+		out.flush();
+	}
+
+
+	/**
+	 * Read the values of a branch.
+	 *
+	 * @param data		the contents of the archive entry.
+	 * @param typeCount	the number of types listed in the document.
+	 * @return			the values, one array per type.
+	 * @throws IOException	if the data is not valid.
+	 */
+	public static double[][] read(byte[] data, int typeCount) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		if (in.readInt() != MAGIC) {
+			throw new IOException("Not a flight data entry");
+		}
+		int version = in.readInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported flight data version " + version);
+		}
+		int types = in.readInt();
+		int length = in.readInt();
+		if (types != typeCount) {
+			throw new IOException("Flight data contains " + types + " types, expected " + typeCount);
+		}
+		if (length < 0 || (long) types * length * 4 > data.length - 16) {
+			throw new IOException("Truncated flight data");
+		}
+
+		double[][] values = new double[types][length];
+		byte[] buffer = new byte[length * 4];
+		for (int i = 0; i < types; i++) {
+			in.readFully(buffer);
+			int previous = 0;
+			double[] column = values[i];
+			for (int j = 0; j < length; j++) {
+				int word = 0;
+				for (int b = 0; b < 4; b++) {
+					word = (word << 8) | (buffer[b * length + j] & 0xFF);
+				}
+				int bits = word ^ previous;
+				column[j] = Float.intBitsToFloat(bits);
+				previous = bits;
+			}
+		}
+		return values;
+	}
+
+}
@@ -5,10 +5,13 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,18 +21,23 @@ import net.sf.openrocket.document.OpenRocketDocument;
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.document.StorageOptions;
 import net.sf.openrocket.file.RocketSaver;
+import net.sf.openrocket.file.export.FlightDataExporter;
+import net.sf.openrocket.models.atmosphere.Sounding;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.simulation.BasicLandingStepper;
 import net.sf.openrocket.simulation.FlightData;
 import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationMethod;
 import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.simulation.customexpression.CustomExpression;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.BuildProperties;
 import net.sf.openrocket.util.Config;
+import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.Reflection;
 import net.sf.openrocket.util.TextUtil;
 
@@ -55,11 +63,69 @@ public class OpenRocketSaver extends RocketSaver {
 	private static final int BYTES_PER_COMPONENT_COMPRESSED = 80;
 	private static final int BYTES_PER_SIMULATION_COMPRESSED = 100;
 	private static final int BYTES_PER_DATAPOINT_COMPRESSED = 100;
+	private static final int BYTES_PER_DATAPOINT_BINARY_COMPRESSED = 70;
 	
 	
 	private int indent;
 	private Writer dest;
 	
+	/** The archive entries of the branches written by saveFlightData() */
+	private final Map<FlightDataBranch, String> flightDataEntries = new IdentityHashMap<FlightDataBranch, String>();
+	
+	
+	/**
+	 * Write the simulation data of the document as binary archive entries, if
+	 * selected in the storage options.  This method must be called before
+	 * {@link #save(OutputStream, OpenRocketDocument, StorageOptions)}, which then
+	 * references the entries instead of storing the data points in the XML.  The
+	 * entries are written before the document so that the data is available when
+	 * the document is loaded.
+	 * 
+	 * @param zos		the archive to write to.
+	 * @param document	the document to save.
+	 * @param options	the storage options.
+	 * @throws IOException	in case of an I/O error.
+	 * @see BinaryFlightData
+	 */
+	public void saveFlightData(ZipOutputStream zos, OpenRocketDocument document, StorageOptions options)
+			throws IOException {
+		flightDataEntries.clear();
+		if (!options.isBinarySimulationData()) {
+			return;
+		}
+		
+		List<Simulation> simulations = document.getSimulations();
+		for (int i = 0; i < simulations.size(); i++) {
+			Simulation simulation = simulations.get(i);
+			FlightData data = simulation.getSimulatedData();
+			if (data == null) {
+				continue;
+			}
+			
+			double timeSkip = options.getSimulationTimeSkip();
+			if (simulation.getStatus() == Simulation.Status.EXTERNAL) // Always store external data
+				timeSkip = 0;
+			if (timeSkip == StorageOptions.SIMULATION_DATA_NONE) {
+				continue;
+			}
+			
+			for (int j = 0; j < data.getBranchCount(); j++) {
+				FlightDataBranch branch = data.getBranch(j);
+				FlightDataType[] types = branch.getTypes();
+				if (types.length == 0) {
+					continue;
+				}
+				
+				String name = BinaryFlightData.getEntryName(i, j);
+				log.debug("Writing flight data entry " + name);
+				zos.putNextEntry(new ZipEntry(name));
+				BinaryFlightData.write(zos, branch, types, FlightDataExporter.selectPoints(branch, timeSkip));
+				zos.closeEntry();
+				flightDataEntries.put(branch, name);
+			}
+		}
+	}
+	
 	@Override
 	public void save(OutputStream output, OpenRocketDocument document, StorageOptions options) throws IOException {
 		
@@ -110,6 +176,22 @@ public class OpenRocketSaver extends RocketSaver {
 		dest.flush();
 	}
 	
+	/**
+	 * Write the XML description of a rocket as stored in a document, without the XML
+	 * header.  The values are written at full precision, so the description identifies
+	 * the rocket design including all its flight configurations.  The stream is not closed.
+	 * 
+	 * @param output	the stream to write to.
+	 * @param rocket	the rocket to describe.
+	 * @throws IOException	if an I/O error occurs.
+	 */
+	public void saveRocket(OutputStream output, Rocket rocket) throws IOException {
+		dest = new BufferedWriter(new OutputStreamWriter(output, OPENROCKET_CHARSET));
+		this.indent = 0;
+		saveComponent(rocket);
+		dest.flush();
+	}
+	
 	/*
 	 * Save all the custom expressions
 	 */
@@ -177,13 +259,17 @@ public class OpenRocketSaver extends RocketSaver {
 				FlightData data = s.getSimulatedData();
 				if (data != null) {
 					for (int i = 0; i < data.getBranchCount(); i++) {
-						pointCount += countFlightDataBranchPoints(data.getBranch(i), timeSkip);
+						pointCount += FlightDataExporter.selectPoints(data.getBranch(i), timeSkip).length;
 					}
 				}
 			}
 		}
 		
-		size += pointCount * BYTES_PER_DATAPOINT_COMPRESSED;
+		if (options.isBinarySimulationData()) {
+			size += pointCount * BYTES_PER_DATAPOINT_BINARY_COMPRESSED;
+		} else {
+			size += pointCount * BYTES_PER_DATAPOINT_COMPRESSED;
+		}
 		
 		return size;
 	}
@@ -219,9 +305,33 @@ public class OpenRocketSaver extends RocketSaver {
 		 *  - external pods
 		 *  - Rail Buttons
 		 *  
+		 * File version 1.9 is required for:
+		 *  - simulation data stored as binary archive entries
+		 *  - sounding atmospheres
+		 *  - simulation methods other than 6-DOF
+		 *  - descent time steps other than the recommended one
+		 *  
 		 * Otherwise use version 1.8.
 		 */
 		
+		/////////////////
+		// Version 1.9 // 
+		/////////////////
+		// for simulation data written by saveFlightData(), referenced by the 'datafile' attribute
+		if (!flightDataEntries.isEmpty()) {
+			return FILE_VERSION_DIVISOR + 9;
+		}
+		// for the 'sounding' atmosphere model, which older versions replace by ISA, and
+		// for the 'simulationmethod' tag, which older versions ignore and simulate 6-DOF, and
+		// for the 'descenttimestep' tag, which older versions ignore
+		for (Simulation simulation : document.getSimulations()) {
+			SimulationOptions options = simulation.getOptions();
+			if (options.getSounding() != null || options.getSimulationMethod() != SimulationMethod.SIX_DOF ||
+					!MathUtil.equals(options.getDescentTimeStep(), BasicLandingStepper.RECOMMENDED_TIME_STEP)) {
+				return FILE_VERSION_DIVISOR + 9;
+			}
+		}
+		
 		/////////////////
 		// Version 1.8 // 
 		/////////////////
@@ -341,7 +451,25 @@ public class OpenRocketSaver extends RocketSaver {
 		writeElement("launchlongitude", cond.getLaunchLongitude());
 		writeElement("geodeticmethod", cond.getGeodeticComputation().name().toLowerCase(Locale.ENGLISH));
 		
-		if (cond.isISAAtmosphere()) {
+		if (cond.getSounding() != null) {
+			// The levels are written in SI units at full precision, so the loaded sounding is equal
+			Sounding sounding = cond.getSounding();
+			writeln("<atmosphere model=\"sounding\">");
+			indent++;
+			writeElement("basetemperature", cond.getLaunchTemperature());
+			writeElement("basepressure", cond.getLaunchPressure());
+			writeElement("isa", cond.isISAAtmosphere());
+			writeElement("soundingname", TextUtil.escapeXML(sounding.getName()));
+			for (int i = 0; i < sounding.getLevelCount(); i++) {
+				String level = sounding.getAltitude(i) + " " + sounding.getTemperature(i) + " " + sounding.getPressure(i);
+				if (sounding.hasWind()) {
+					level += " " + sounding.getWindSpeed(i) + " " + sounding.getWindDirection(i);
+				}
+				writeElement("level", level);
+			}
+			indent--;
+			writeln("</atmosphere>");
+		} else if (cond.isISAAtmosphere()) {
 			writeln("<atmosphere model=\"isa\"/>");
 		} else {
 			writeln("<atmosphere model=\"extendedisa\">");
@@ -353,6 +481,12 @@ public class OpenRocketSaver extends RocketSaver {
 		}
 		
 		writeElement("timestep", cond.getTimeStep());
+		if (!MathUtil.equals(cond.getDescentTimeStep(), BasicLandingStepper.RECOMMENDED_TIME_STEP)) {
+			writeElement("descenttimestep", cond.getDescentTimeStep());
+		}
+		if (cond.getSimulationMethod() != SimulationMethod.SIX_DOF) {
+			writeElement("simulationmethod", enumToXMLName(cond.getSimulationMethod()));
+		}
 		
 		indent--;
 		writeln("</conditions>");
@@ -458,8 +592,6 @@ public class OpenRocketSaver extends RocketSaver {
 	
 	private void saveFlightDataBranch(FlightDataBranch branch, double timeSkip)
 			throws IOException {
-		double previousTime = -100000;
-		
 		if (branch == null)
 			return;
 		
@@ -469,13 +601,6 @@ public class OpenRocketSaver extends RocketSaver {
 		if (types.length == 0)
 			return;
 		
-		// Retrieve the data from the branch
-		List<List<Double>> data = new ArrayList<List<Double>>(types.length);
-		for (int i = 0; i < types.length; i++) {
-			data.add(branch.get(types[i]));
-		}
-		List<Double> timeData = branch.get(FlightDataType.TYPE_TIME);
-		
 		// Build the <databranch> tag
 		StringBuilder sb = new StringBuilder();
 		sb.append("<databranch name=\"");
@@ -504,6 +629,13 @@ public class OpenRocketSaver extends RocketSaver {
 			sb.append("\" ");
 		}
 		
+		String dataFile = flightDataEntries.get(branch);
+		if (dataFile != null) {
+			sb.append("datafile=\"");
+			sb.append(TextUtil.escapeXML(dataFile));
+			sb.append("\" ");
+		}
+		
 		sb.append("types=\"");
 		for (int i = 0; i < types.length; i++) {
 			if (i > 0)
@@ -520,85 +652,29 @@ public class OpenRocketSaver extends RocketSaver {
 					+ "\" type=\"" + enumToXMLName(event.getType()) + "\"/>");
 		}
 		
-		// Write the data
-		int length = branch.getLength();
-		if (length > 0) {
-			writeDataPointString(data, 0, sb);
-			previousTime = timeData.get(0);
-		}
-		
-		for (int i = 1; i < length - 1; i++) {
-			if (timeData != null) {
-				if (Math.abs(timeData.get(i) - previousTime - timeSkip) < Math.abs(timeData.get(i + 1) - previousTime - timeSkip)) {
-					writeDataPointString(data, i, sb);
-					previousTime = timeData.get(i);
-				}
-			} else {
-				// If time data is not available, write all points
-				writeDataPointString(data, i, sb);
+		// Write the data, unless stored in a binary entry
+		if (dataFile == null) {
+			double[][] data = new double[types.length][];
+			for (int i = 0; i < types.length; i++) {
+				data[i] = branch.getValues(types[i]);
+			}
+			for (int index : FlightDataExporter.selectPoints(branch, timeSkip)) {
+				writeDataPointString(data, index, sb);
 			}
-		}
-		
-		if (length > 1) {
-			writeDataPointString(data, length - 1, sb);
 		}
 		
 		indent--;
 		writeln("</databranch>");
 	}
 	
-	/* TODO: LOW: This is largely duplicated from above! */
-	private int countFlightDataBranchPoints(FlightDataBranch branch, double timeSkip) {
-		int count = 0;
-		
-		double previousTime = -100000;
-		
-		if (branch == null)
-			return 0;
-		
-		// Retrieve the types from the branch
-		FlightDataType[] types = branch.getTypes();
-		
-		if (types.length == 0)
-			return 0;
-		
-		List<Double> timeData = branch.get(FlightDataType.TYPE_TIME);
-		if (timeData == null) {
-			// If time data not available, store all points
-			return branch.getLength();
-		}
-		
-		// Write the data
-		int length = branch.getLength();
-		if (length > 0) {
-			count++;
-			previousTime = timeData.get(0);
-		}
-		
-		for (int i = 1; i < length - 1; i++) {
-			if (Math.abs(timeData.get(i) - previousTime - timeSkip) < Math.abs(timeData.get(i + 1) - previousTime - timeSkip)) {
-				count++;
-				previousTime = timeData.get(i);
-			}
-		}
-		
-		if (length > 1) {
-			count++;
-		}
-		
-		return count;
-	}
-	
-	
-	
-	private void writeDataPointString(List<List<Double>> data, int index, StringBuilder sb)
+	private void writeDataPointString(double[][] data, int index, StringBuilder sb)
 			throws IOException {
 		sb.setLength(0);
 		sb.append("<datapoint>");
-		for (int j = 0; j < data.size(); j++) {
+		for (int j = 0; j < data.length; j++) {
 			if (j > 0)
 				sb.append(",");
-			sb.append(TextUtil.doubleToString(data.get(j).get(index)));
+			sb.append(TextUtil.doubleToString(data[j][index]));
 		}
 		sb.append("</datapoint>");
 		writeln(sb.toString());
@@ -1,12 +1,15 @@
 package net.sf.openrocket.file.openrocket.importt;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.file.DocumentLoadingContext;
 import net.sf.openrocket.file.simplesax.AbstractElementHandler;
 import net.sf.openrocket.file.simplesax.ElementHandler;
 import net.sf.openrocket.file.simplesax.PlainTextHandler;
+import net.sf.openrocket.models.atmosphere.Sounding;
 import net.sf.openrocket.simulation.SimulationOptions;
 
 import org.xml.sax.SAXException;
@@ -17,6 +20,9 @@ class AtmosphereHandler extends AbstractElementHandler {
 	private final String model;
 	private double temperature = Double.NaN;
 	private double pressure = Double.NaN;
+	private boolean isa = false;
+	private String soundingName = "";
+	private final List<double[]> levels = new ArrayList<double[]>();
 	
 	public AtmosphereHandler(String model, DocumentLoadingContext context) {
 		this.model = model;
@@ -49,6 +55,21 @@ class AtmosphereHandler extends AbstractElementHandler {
 				warnings.add("Illegal base pressure specified, ignoring.");
 			}
 			pressure = d;
+		} else if (element.equals("isa")) {
+			isa = Boolean.parseBoolean(content.trim());
+		} else if (element.equals("soundingname")) {
+			soundingName = content;
+		} else if (element.equals("level")) {
+			String[] pieces = content.trim().split("\\s+");
+			double[] level = new double[pieces.length];
+			try {
+				for (int i = 0; i < pieces.length; i++) {
+					level[i] = Double.parseDouble(pieces[i]);
+				}
+				levels.add(level);
+			} catch (NumberFormatException e) {
+				warnings.add("Illegal sounding level '" + content + "', ignoring.");
+			}
 		} else {
 			super.closeElement(element, attributes, content, warnings);
 		}
@@ -67,10 +88,46 @@ class AtmosphereHandler extends AbstractElementHandler {
 			cond.setISAAtmosphere(true);
 		} else if ("extendedisa".equals(model)) {
 			cond.setISAAtmosphere(false);
+		} else if ("sounding".equals(model)) {
+			cond.setISAAtmosphere(isa);
+			Sounding sounding = createSounding(warnings);
+			if (sounding != null) {
+				cond.setSounding(sounding);
+			}
 		} else {
 			cond.setISAAtmosphere(true);
 			warnings.add("Unknown atmospheric model, using ISA.");
 		}
 	}
 	
+	private Sounding createSounding(WarningSet warnings) {
+		int n = levels.size();
+		boolean wind = n > 0 && levels.get(0).length == 5;
+		double[] altitude = new double[n];
+		double[] temperature = new double[n];
+		double[] pressure = new double[n];
+		double[] windSpeed = wind ? new double[n] : null;
+		double[] windDirection = wind ? new double[n] : null;
+		for (int i = 0; i < n; i++) {
+			double[] level = levels.get(i);
+			if (level.length != (wind ? 5 : 3)) {
+				warnings.add("Illegal atmospheric sounding, using the other atmospheric conditions.");
+				return null;
+			}
+			altitude[i] = level[0];
+			temperature[i] = level[1];
+			pressure[i] = level[2];
+			if (wind) {
+				windSpeed[i] = level[3];
+				windDirection[i] = level[4];
+			}
+		}
+		try {
+			return new Sounding(soundingName, altitude, temperature, pressure, windSpeed, windDirection);
+		} catch (IllegalArgumentException e) {
+			warnings.add("Illegal atmospheric sounding, using the other atmospheric conditions: " + e.getMessage());
+			return null;
+		}
+	}
+	
 }
\ No newline at end of file
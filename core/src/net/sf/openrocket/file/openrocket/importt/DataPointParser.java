@@ -0,0 +1,203 @@
+package net.sf.openrocket.file.openrocket.importt;
+
+/**
+ * Parser of the comma-separated numeric values of flight data points.
+ * <p>
+ * The values are parsed directly from the character data without creating intermediate
+ * strings.  Decimal numbers with at most 15 significant digits and a decimal exponent
+ * of at most 22 in magnitude (which includes all values written by OpenRocket) are
+ * computed exactly using a single floating point multiplication or division.  Other
+ * values are passed to {@link Double#parseDouble(String)}.  The special values "NaN",
+ * "Inf" and "-Inf" are accepted as in {@link DocumentConfig#stringToDouble(String)}.
+ */
+final class DataPointParser {
+
+	private static final int MAX_EXACT_DIGITS = 15;
+
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+	};
+
+	private DataPointParser() {
+	}
+
+
+	/**
+	 * Return the number of comma-separated fields between <code>start</code> and <code>end</code>.
+	 */
+	public static int countFields(CharSequence s, int start, int end) {
+		int count = 1;
+		for (int i = start; i < end; i++) {
+			if (s.charAt(i) == ',') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * Parse comma-separated values into an array.
+	 *
+	 * @param s			the character data.
+	 * @param start		the start index of the values.
+	 * @param end		the end index of the values (exclusive).
+	 * @param values	the array to store the values in.  Exactly <code>values.length</code>
+	 * 					values are expected.
+	 * @throws NumberFormatException	if the number of values is incorrect or a value
+	 * 									cannot be parsed.
+	 */
+	public static void parse(CharSequence s, int start, int end, double[] values) throws NumberFormatException {
+		int field = 0;
+		int pos = start;
+		while (true) {
+			int next = indexOfComma(s, pos, end);
+			if (field >= values.length) {
+				throw new NumberFormatException("Too many values");
+			}
+			values[field++] = parseDouble(s, pos, next);
+			if (next == end) {
+				break;
+			}
+			pos = next + 1;
+		}
+		if (field != values.length) {
+			throw new NumberFormatException("Too few values");
+		}
+	}
+
+
+	/**
+	 * Parse a single field of comma-separated values.
+	 *
+	 * @param s			the character data.
+	 * @param start		the start index of the values.
+	 * @param end		the end index of the values (exclusive).
+	 * @param field		the index of the field to parse.
+	 * @return			the value of the field.
+	 * @throws NumberFormatException	if the field does not exist or cannot be parsed.
+	 */
+	public static double parseField(CharSequence s, int start, int end, int field) throws NumberFormatException {
+		int pos = start;
+		for (int i = 0; i < field; i++) {
+			int next = indexOfComma(s, pos, end);
+			if (next == end) {
+				throw new NumberFormatException("Too few values");
+			}
+			pos = next + 1;
+		}
+		return parseDouble(s, pos, indexOfComma(s, pos, end));
+	}
+
+
+	/**
+	 * Parse a single floating point value.  Leading and trailing whitespace is ignored.
+	 *
+	 * @param s			the character data.
+	 * @param start		the start index of the value.
+	 * @param end		the end index of the value (exclusive).
+	 * @return			the value.
+	 * @throws NumberFormatException	if the value cannot be parsed.
+	 */
+	public static double parseDouble(CharSequence s, int start, int end) throws NumberFormatException {
+		while (start < end && s.charAt(start) <= ' ') {
+			start++;
+		}
+		while (end > start && s.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		if (start == end) {
+			throw new NumberFormatException("Empty value");
+		}
+
+		int pos = start;
+		boolean negative = false;
+		char c = s.charAt(pos);
+		if (c == '-' || c == '+') {
+			negative = (c == '-');
+			pos++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int exponent = 0;
+		boolean anyDigits = false;
+
+		// Integer part
+		while (pos < end && (c = s.charAt(pos)) >= '0' && c <= '9') {
+			anyDigits = true;
+			if (mantissa != 0 || c != '0') {
+				mantissa = mantissa * 10 + (c - '0');
+				digits++;
+			}
+			pos++;
+		}
+
+		// Fraction part
+		if (pos < end && s.charAt(pos) == '.') {
+			pos++;
+			while (pos < end && (c = s.charAt(pos)) >= '0' && c <= '9') {
+				anyDigits = true;
+				if (mantissa != 0 || c != '0') {
+					mantissa = mantissa * 10 + (c - '0');
+					digits++;
+				}
+				exponent--;
+				pos++;
+			}
+		}
+
+		// Exponent part
+		if (anyDigits && pos < end && ((c = s.charAt(pos)) == 'e' || c == 'E')) {
+			pos++;
+			boolean negativeExponent = false;
+			if (pos < end && ((c = s.charAt(pos)) == '-' || c == '+')) {
+				negativeExponent = (c == '-');
+				pos++;
+			}
+			int exp = 0;
+			int expStart = pos;
+			while (pos < end && (c = s.charAt(pos)) >= '0' && c <= '9' && pos - expStart < 6) {
+				exp = exp * 10 + (c - '0');
+				pos++;
+			}
+			if (pos == expStart) {
+				return parseSlow(s, start, end);
+			}
+			exponent += negativeExponent ? -exp : exp;
+		}
+
+		if (!anyDigits || pos != end || digits > MAX_EXACT_DIGITS) {
+			return parseSlow(s, start, end);
+		}
+
+		double value;
+		if (mantissa == 0) {
+			value = 0;
+		} else if (exponent >= 0 && exponent < POWERS_OF_TEN.length) {
+			value = mantissa * POWERS_OF_TEN[exponent];
+		} else if (exponent < 0 && -exponent < POWERS_OF_TEN.length) {
+			value = mantissa / POWERS_OF_TEN[-exponent];
+		} else {
+			return parseSlow(s, start, end);
+		}
+		return negative ? -value : value;
+	}
+
+
+	private static double parseSlow(CharSequence s, int start, int end) throws NumberFormatException {
+		String str = s.subSequence(start, end).toString();
+		return DocumentConfig.stringToDouble(str);
+	}
+
+	private static int indexOfComma(CharSequence s, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (s.charAt(i) == ',') {
+				return i;
+			}
+		}
+		return end;
+	}
+
+}
@@ -1,9 +1,12 @@
 package net.sf.openrocket.file.openrocket.importt;
 
+import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import net.sf.openrocket.aerodynamics.WarningSet;
 import net.sf.openrocket.file.DocumentLoadingContext;
+import net.sf.openrocket.file.openrocket.BinaryFlightData;
 import net.sf.openrocket.file.simplesax.AbstractElementHandler;
 import net.sf.openrocket.file.simplesax.ElementHandler;
 import net.sf.openrocket.file.simplesax.PlainTextHandler;
@@ -17,12 +20,36 @@ import net.sf.openrocket.unit.UnitGroup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Handler of the &lt;databranch&gt; element.  The values of the data points are parsed into
+ * primitive columns, which are added to the branch at once when the element ends.
+ * <p>
+ * If {@link DocumentLoadingContext#isDeferFlightData()} is set, only the time values are
+ * parsed while loading.  The text of the data points is stored and the other values are
+ * parsed when they are first accessed.  Malformed values are then read as NaN.
+ * <p>
+ * The values may also be stored in a binary entry of the document archive, see
+ * {@link BinaryFlightData}.
+ */
 class FlightDataBranchHandler extends AbstractElementHandler {
-	@SuppressWarnings("unused")
 	private final DocumentLoadingContext context;
 	private final FlightDataType[] types;
 	private final FlightDataBranch branch;
 	
+	/** Number of data points read */
+	private int count = 0;
+	/** Values of the data points read, or null for types whose values are deferred */
+	private double[][] columns;
+	private int capacity = 64;
+	private final double[] row;
+	
+	/** Text of the deferred data points separated by newlines, or null if not deferring */
+	private StringBuilder deferredText;
+	/** Index of the time values in the data points, or -1 */
+	private int timeIndex = -1;
+	
+	private boolean finished = false;
+	
 	private static final Logger log = LoggerFactory.getLogger(FlightDataBranchHandler.class);
 	private final SingleSimulationHandler simHandler;
 	
@@ -40,6 +67,44 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		
 		// TODO: LOW: May throw an IllegalArgumentException
 		branch = new FlightDataBranch(name, types);
+		
+		row = new double[types.length];
+		columns = new double[types.length][];
+		if (context.isDeferFlightData()) {
+			deferredText = new StringBuilder();
+			timeIndex = Arrays.asList(types).indexOf(FlightDataType.TYPE_TIME);
+			if (timeIndex >= 0) {
+				columns[timeIndex] = new double[capacity];
+			}
+		} else {
+			for (int i = 0; i < types.length; i++) {
+				columns[i] = new double[capacity];
+			}
+		}
+	}
+	
+	/**
+	 * Read the data points from a binary entry of the document archive.
+	 * 
+	 * @param name		the name of the entry.
+	 * @param warnings	the warning set to add warnings to.
+	 */
+	public void readDataFile(String name, WarningSet warnings) {
+		byte[] data = context.removeContainerEntry(name);
+		if (data == null) {
+			warnings.add("Simulation data file '" + name + "' not found, ignoring.");
+			return;
+		}
+		
+		try {
+			double[][] values = BinaryFlightData.read(data, types.length);
+			columns = values;
+			count = (values.length > 0) ? values[0].length : 0;
+			capacity = count;
+		} catch (IOException e) {
+			log.warn("Unable to read simulation data file " + name, e);
+			warnings.add("Simulation data file '" + name + "' is corrupt, ignoring.");
+		}
 	}
 	
 	/**
@@ -93,6 +158,16 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 	}
 	
 	public FlightDataBranch getBranch() {
+		if (!finished) {
+			finished = true;
+			if (deferredText != null) {
+				branch.addDeferredPoints(types, columns, count, new DeferredDataPoints(deferredText.toString(), types.length));
+				deferredText = null;
+			} else {
+				branch.addPoints(types, columns, count);
+			}
+			columns = null;
+		}
 		branch.immute();
 		return branch;
 	}
@@ -145,27 +220,88 @@ class FlightDataBranchHandler extends AbstractElementHandler {
 		
 		
 		// Check line format
-		String[] split = content.split(",");
-		if (split.length != types.length) {
+		int length = content.length();
+		if (DataPointParser.countFields(content, 0, length) != types.length) {
 			warnings.add("Data point did not contain correct amount of values, ignoring point.");
 			return;
 		}
 		
-		// Parse the doubles
-		double[] values = new double[split.length];
-		for (int i = 0; i < values.length; i++) {
-			try {
-				values[i] = DocumentConfig.stringToDouble(split[i]);
-			} catch (NumberFormatException e) {
-				warnings.add("Data point format error, ignoring point.");
-				return;
+		try {
+			if (deferredText == null) {
+				DataPointParser.parse(content, 0, length, row);
+			} else if (timeIndex >= 0) {
+				row[timeIndex] = DataPointParser.parseField(content, 0, length, timeIndex);
 			}
+		} catch (NumberFormatException e) {
+			warnings.add("Data point format error, ignoring point.");
+			return;
 		}
 		
-		// Add point to branch
-		branch.addPoint();
-		for (int i = 0; i < types.length; i++) {
-			branch.setValue(types[i], values[i]);
+		// Add point to the columns
+		if (count == capacity) {
+			capacity = Math.max(capacity * 2, 64);
+			for (int i = 0; i < columns.length; i++) {
+				if (columns[i] != null) {
+					columns[i] = Arrays.copyOf(columns[i], capacity);
+				}
+			}
+		}
+		for (int i = 0; i < columns.length; i++) {
+			if (columns[i] != null) {
+				columns[i][count] = row[i];
+			}
+		}
+		if (deferredText != null) {
+			deferredText.append(content).append('\n');
+		}
+		count++;
+	}
+	
+	
+	/**
+	 * Parser of the deferred data points.
+	 */
+	private static class DeferredDataPoints implements FlightDataBranch.DeferredData {
+		private static final Logger log = LoggerFactory.getLogger(DeferredDataPoints.class);
+		
+		private final String text;
+		private final int typeCount;
+		
+		public DeferredDataPoints(String text, int typeCount) {
+			this.text = text;
+			this.typeCount = typeCount;
+		}
+		
+		@Override
+		public double[][] decode() {
+			int lines = 0;
+			for (int i = 0; i < text.length(); i++) {
+				if (text.charAt(i) == '\n') {
+					lines++;
+				}
+			}
+			
+			double[][] data = new double[typeCount][lines];
+			int start = 0;
+			for (int n = 0; n < lines; n++) {
+				int end = text.indexOf('\n', start);
+				int pos = start;
+				for (int i = 0; i < typeCount; i++) {
+					int next = text.indexOf(',', pos);
+					if (next < 0 || next > end) {
+						next = end;
+					}
+					try {
+						data[i][n] = DataPointParser.parseDouble(text, pos, next);
+					} catch (NumberFormatException e) {
+						log.warn("Malformed flight data value '" + text.substring(pos, next) + "', using NaN");
+						data[i][n] = Double.NaN;
+					}
+					pos = next + 1;
+				}
+				start = end + 1;
+			}
+			return data;
 		}
 	}
-}
\ No newline at end of file
+}
@@ -65,6 +65,9 @@ class FlightDataHandler extends AbstractElementHandler {
 				}
 				dataHandler.setTimeToOptimumAltitude(timeToOptimumAltitude);
 			}
+			if (attributes.get("datafile") != null) {
+				dataHandler.readDataFile(attributes.get("datafile"), warnings);
+			}
 			return dataHandler;
 		}
 		
@@ -92,7 +95,13 @@ class FlightDataHandler extends AbstractElementHandler {
 	public void endHandler(String element, HashMap<String, String> attributes,
 			String content, WarningSet warnings) {
 		
-		if (branches.size() > 0) {
+		boolean deferred = false;
+		for (FlightDataBranch branch : branches) {
+			deferred |= branch.isDeferred();
+		}
+		
+		// Use the stored summary values for deferred data so that it need not be decoded
+		if (branches.size() > 0 && (!deferred || attributes.get("maxaltitude") == null)) {
 			data = new FlightData(branches.toArray(new FlightDataBranch[0]));
 		} else {
 			double maxAltitude = Double.NaN;
@@ -145,6 +154,9 @@ class FlightDataHandler extends AbstractElementHandler {
 			
 			data = new FlightData(maxAltitude, maxVelocity, maxAcceleration, maxMach,
 					timeToApogee, flightTime, groundHitVelocity, launchRodVelocity, deploymentVelocity);
+			for (FlightDataBranch branch : branches) {
+				data.addBranch(branch, false);
+			}
 		}
 		
 		data.getWarningSet().addAll(warningSet);
@@ -2,7 +2,6 @@ package net.sf.openrocket.file.openrocket.importt;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,6 +44,7 @@ public class OpenRocketLoader extends AbstractRocketLoader {
 		OpenRocketHandler handler = new OpenRocketHandler(context);
 		
 		OpenRocketDocument doc = context.getOpenRocketDocument();
+		boolean binarySimulationData = context.hasContainerEntries();
 		
 		try {
 			SimpleSAX.readXML(xmlSource, handler, warnings);
@@ -68,12 +68,12 @@ public class OpenRocketLoader extends AbstractRocketLoader {
 			FlightDataBranch branch = s.getSimulatedData().getBranch(0);
 			if (branch == null)
 				continue;
-			List<Double> list = branch.get(FlightDataType.TYPE_TIME);
-			if (list == null)
+			double[] times = branch.getValues(FlightDataType.TYPE_TIME);
+			if (times == null)
 				continue;
 				
 			double previousTime = Double.NaN;
-			for (double time : list) {
+			for (double time : times) {
 				if (time - previousTime < timeSkip)
 					timeSkip = time - previousTime;
 				previousTime = time;
@@ -81,6 +81,7 @@ public class OpenRocketLoader extends AbstractRocketLoader {
 		}
 		timeSkip = Math.rint(timeSkip * 100) / 100;
 		doc.getDefaultStorageOptions().setSimulationTimeSkip(timeSkip);
+		doc.getDefaultStorageOptions().setBinarySimulationData(binarySimulationData);
 		doc.getDefaultStorageOptions().setExplicitlySet(false);
 		doc.getDefaultStorageOptions().setFileType(FileType.OPENROCKET);
 		
@@ -9,6 +9,7 @@ import net.sf.openrocket.file.simplesax.ElementHandler;
 import net.sf.openrocket.file.simplesax.PlainTextHandler;
 import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
 import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.SimulationMethod;
 import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.util.GeodeticComputationStrategy;
 
@@ -108,6 +109,13 @@ class SimulationConditionsHandler extends AbstractElementHandler {
 			} else {
 				warnings.add("Unknown geodetic computation method '" + content + "'");
 			}
+		} else if (element.equals("simulationmethod")) {
+			SimulationMethod method = (SimulationMethod) DocumentConfig.findEnum(content, SimulationMethod.class);
+			if (method != null) {
+				options.setSimulationMethod(method);
+			} else {
+				warnings.add("Unknown simulation method '" + content + "'");
+			}
 		} else if (element.equals("atmosphere")) {
 			atmosphereHandler.storeSettings(options, warnings);
 		} else if (element.equals("timestep")) {
@@ -116,6 +124,12 @@ class SimulationConditionsHandler extends AbstractElementHandler {
 			} else {
 				options.setTimeStep(d);
 			}
+		} else if (element.equals("descenttimestep")) {
+			if (Double.isNaN(d) || d <= 0) {
+				warnings.add("Illegal descent time step defined, ignoring.");
+			} else {
+				options.setDescentTimeStep(d);
+			}
 		}
 	}
 }
\ No newline at end of file
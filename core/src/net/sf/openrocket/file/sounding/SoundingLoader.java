@@ -0,0 +1,128 @@
+package net.sf.openrocket.file.sounding;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import net.sf.openrocket.models.atmosphere.Sounding;
+
+/**
+ * Loads a {@link Sounding} from a text file.  Each line contains the values of one level,
+ * separated by whitespace, commas or semicolons:
+ * <pre>
+ *   altitude  temperature  pressure  [wind speed  wind direction]
+ * </pre>
+ * The altitude is in meters above sea level, the temperature in Kelvins, the pressure in
+ * Pascals, the wind speed in m/s and the wind direction, the direction the wind blows from,
+ * in degrees clockwise from north.  Either all or none of the levels contain the wind.
+ * Lines starting with '#' and empty lines are ignored, as is a header line before the first
+ * level.  The levels may be in increasing or decreasing order of altitude.
+ */
+public class SoundingLoader {
+
+	public static final Charset CHARSET = Charset.forName("UTF-8");
+
+
+	/**
+	 * Load a sounding from a stream.
+	 *
+	 * @param stream		the stream to read.
+	 * @param filename		the name of the file, used as the name of the sounding.
+	 * @return				the sounding.
+	 * @throws IOException	if an I/O error occurs or if the file format is illegal.
+	 */
+	public Sounding load(InputStream stream, String filename) throws IOException {
+		return load(new InputStreamReader(stream, CHARSET), filename);
+	}
+
+	/**
+	 * Load a sounding from a reader.
+	 *
+	 * @param reader		the reader.
+	 * @param filename		the name of the file, used as the name of the sounding.
+	 * @return				the sounding.
+	 * @throws IOException	if an I/O error occurs or if the file format is illegal.
+	 */
+	public Sounding load(Reader reader, String filename) throws IOException {
+		BufferedReader in = new BufferedReader(reader);
+		List<double[]> levels = new ArrayList<double[]>();
+		int columns = -1;
+		int lineNumber = 0;
+		boolean header = false;
+
+		String line;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+
+			String[] pieces = line.split("[\\s,;]+");
+			double[] values = new double[pieces.length];
+			try {
+				for (int i = 0; i < pieces.length; i++) {
+					values[i] = Double.parseDouble(pieces[i]);
+				}
+			} catch (NumberFormatException e) {
+				if (levels.isEmpty() && !header) {
+					header = true;
+					continue;
+				}
+				throw new IOException("Illegal number on line " + lineNumber + " of " + filename + ": " + line);
+			}
+
+			if (pieces.length != 3 && pieces.length != 5) {
+				throw new IOException("Expected 3 or 5 values on line " + lineNumber + " of " + filename +
+						", found " + pieces.length);
+			}
+			if (columns >= 0 && pieces.length != columns) {
+				throw new IOException("Expected " + columns + " values on line " + lineNumber + " of " + filename +
+						", found " + pieces.length);
+			}
+			columns = pieces.length;
+			levels.add(values);
+		}
+
+		if (levels.isEmpty()) {
+			throw new IOException("No levels found in " + filename);
+		}
+
+		Collections.sort(levels, new Comparator<double[]>() {
+			@Override
+			public int compare(double[] a, double[] b) {
+				return Double.compare(a[0], b[0]);
+			}
+		});
+
+		int n = levels.size();
+		double[] altitude = new double[n];
+		double[] temperature = new double[n];
+		double[] pressure = new double[n];
+		double[] windSpeed = (columns == 5) ? new double[n] : null;
+		double[] windDirection = (columns == 5) ? new double[n] : null;
+		for (int i = 0; i < n; i++) {
+			double[] values = levels.get(i);
+			altitude[i] = values[0];
+			temperature[i] = values[1];
+			pressure[i] = values[2];
+			if (columns == 5) {
+				windSpeed[i] = values[3];
+				windDirection[i] = Math.toRadians(values[4]);
+			}
+		}
+
+		try {
+			return new Sounding(filename, altitude, temperature, pressure, windSpeed, windDirection);
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Illegal sounding " + filename + ": " + e.getMessage(), e);
+		}
+	}
+}
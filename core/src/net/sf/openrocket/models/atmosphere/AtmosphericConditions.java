@@ -69,6 +69,18 @@ public class AtmosphericConditions implements Cloneable, Monitorable {
 		this.modID = UniqueID.next();
 	}
 
+	/**
+	 * Set both the temperature and the pressure.
+	 * 
+	 * @param temperature	the temperature in Kelvins.
+	 * @param pressure		the pressure in Pascals.
+	 */
+	public void setConditions(double temperature, double pressure) {
+		this.temperature = temperature;
+		this.pressure = pressure;
+		this.modID = UniqueID.next();
+	}
+
 	/**
 	 * Return the current density of air for dry air.
 	 * 
@@ -6,4 +6,13 @@ public interface AtmosphericModel extends Monitorable {
 
 	public AtmosphericConditions getConditions(double altitude);
 	
+	/**
+	 * Store the atmospheric conditions at an altitude into an existing object, without
+	 * allocating a new one.
+	 * 
+	 * @param altitude		the altitude above sea level.
+	 * @param conditions	the object to store the conditions in.
+	 */
+	public void getConditions(double altitude, AtmosphericConditions conditions);
+	
 }
@@ -1,5 +1,7 @@
 package net.sf.openrocket.models.atmosphere;
 
+import net.sf.openrocket.util.UniformLookupTable;
+
 /**
  * An abstract atmospheric model that pre-computes the conditions on a number of layers
  * and later linearly interpolates the values from between these layers.
@@ -10,36 +12,41 @@ public abstract class InterpolatingAtmosphericModel implements AtmosphericModel
 	/** Layer thickness of interpolated altitude. */
 	private static final double DELTA = 500;
 	
-	private AtmosphericConditions[] levels = null;
+	private static final int TEMPERATURE = 0;
+	private static final int PRESSURE = 1;
+	
+	private volatile UniformLookupTable levels = null;
 	
 	
 	@Override
 	public AtmosphericConditions getConditions(double altitude) {
-		if (levels == null)
-			computeLayers();
-		
-		if (altitude <= 0)
-			return levels[0];
-		if (altitude >= DELTA * (levels.length - 1))
-			return levels[levels.length - 1];
-		
-		int n = (int) (altitude / DELTA);
-		double d = (altitude - n * DELTA) / DELTA;
 		AtmosphericConditions c = new AtmosphericConditions();
-		c.setTemperature(levels[n].getTemperature() * (1 - d) + levels[n + 1].getTemperature() * d);
-		c.setPressure(levels[n].getPressure() * (1 - d) + levels[n + 1].getPressure() * d);
-		
+		getConditions(altitude, c);
 		return c;
 	}
 	
+	@Override
+	public void getConditions(double altitude, AtmosphericConditions conditions) {
+		UniformLookupTable table = levels;
+		if (table == null) {
+			table = computeLayers();
+			levels = table;
+		}
+		conditions.setConditions(table.getValue(TEMPERATURE, altitude), table.getValue(PRESSURE, altitude));
+	}
+	
 	
-	private void computeLayers() {
+	private UniformLookupTable computeLayers() {
 		double max = getMaxAltitude();
-		int n = (int) (max / DELTA) + 1;
-		levels = new AtmosphericConditions[n];
+		int n = Math.max((int) (max / DELTA) + 1, 2);
+		double[] temperature = new double[n];
+		double[] pressure = new double[n];
 		for (int i = 0; i < n; i++) {
-			levels[i] = getExactConditions(i * DELTA);
+			AtmosphericConditions c = getExactConditions(i * DELTA);
+			temperature[i] = c.getTemperature();
+			pressure[i] = c.getPressure();
 		}
+		return new UniformLookupTable(0, DELTA, temperature, pressure);
 	}
 	
 	
@@ -0,0 +1,251 @@
+package net.sf.openrocket.models.atmosphere;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.util.UniformLookupTable;
+
+/**
+ * A measured or forecast profile of the atmosphere, such as a radiosonde sounding.  The
+ * sounding consists of levels at increasing altitudes above sea level, each with a
+ * temperature, a pressure and optionally a wind speed and direction.  The wind direction
+ * is the direction the wind blows from, as for the launch conditions.
+ * <p>
+ * For use during simulations the levels are resampled once into a {@link UniformLookupTable},
+ * so that the conditions at any altitude are interpolated in constant time.  The pressure is
+ * interpolated exponentially between the levels.  Instances are immutable.
+ */
+public class Sounding {
+
+	/** The maximum distance between the points of the lookup table, in meters. */
+	private static final double MAX_STEP = 50;
+	/** The minimum distance between the points of the lookup table, in meters. */
+	private static final double MIN_STEP = 1;
+	/** The maximum number of points of the lookup table. */
+	private static final int MAX_POINTS = 100000;
+
+	static final int TEMPERATURE = 0;
+	static final int PRESSURE = 1;
+	static final int WIND_X = 2;
+	static final int WIND_Y = 3;
+
+	private final String name;
+	private final double[] altitude;
+	private final double[] temperature;
+	private final double[] pressure;
+	private final double[] windSpeed;
+	private final double[] windDirection;
+
+	private volatile UniformLookupTable table = null;
+
+
+	/**
+	 * Construct a sounding.  The arrays are copied.
+	 *
+	 * @param name				the name of the sounding, typically the file it was loaded from.
+	 * @param altitude			the strictly increasing altitudes of the levels above sea level, in meters.
+	 * @param temperature		the temperatures, in Kelvins.
+	 * @param pressure			the pressures, in Pascals.
+	 * @param windSpeed			the wind speeds in m/s, or <code>null</code> if the sounding contains no wind.
+	 * @param windDirection		the wind directions in radians, or <code>null</code> if the sounding contains no wind.
+	 * @throws IllegalArgumentException	if the arrays have different lengths, there are no levels, the
+	 * 									altitudes are not increasing or a value is out of range.
+	 */
+	public Sounding(String name, double[] altitude, double[] temperature, double[] pressure,
+			double[] windSpeed, double[] windDirection) {
+		int n = altitude.length;
+		if (n == 0) {
+			throw new IllegalArgumentException("The sounding contains no levels");
+		}
+		if (temperature.length != n || pressure.length != n) {
+			throw new IllegalArgumentException("Array lengths do not match");
+		}
+		if ((windSpeed == null) != (windDirection == null) ||
+				(windSpeed != null && (windSpeed.length != n || windDirection.length != n))) {
+			throw new IllegalArgumentException("Wind array lengths do not match");
+		}
+		for (int i = 0; i < n; i++) {
+			if (Double.isNaN(altitude[i]) || Double.isInfinite(altitude[i]) || (i > 0 && !(altitude[i] > altitude[i - 1]))) {
+				throw new IllegalArgumentException("The altitudes must be strictly increasing, altitude " + altitude[i] +
+						" follows " + altitude[Math.max(i - 1, 0)]);
+			}
+			if (!(temperature[i] > 0) || Double.isInfinite(temperature[i])) {
+				throw new IllegalArgumentException("Illegal temperature " + temperature[i] + " K at altitude " + altitude[i]);
+			}
+			if (!(pressure[i] > 0) || Double.isInfinite(pressure[i])) {
+				throw new IllegalArgumentException("Illegal pressure " + pressure[i] + " Pa at altitude " + altitude[i]);
+			}
+			if (windSpeed != null && (!(windSpeed[i] >= 0) || Double.isInfinite(windSpeed[i]) ||
+					Double.isNaN(windDirection[i]) || Double.isInfinite(windDirection[i]))) {
+				throw new IllegalArgumentException("Illegal wind at altitude " + altitude[i]);
+			}
+		}
+
+		this.name = name;
+		this.altitude = altitude.clone();
+		this.temperature = temperature.clone();
+		this.pressure = pressure.clone();
+		this.windSpeed = (windSpeed == null) ? null : windSpeed.clone();
+		this.windDirection = (windDirection == null) ? null : windDirection.clone();
+	}
+
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLevelCount() {
+		return altitude.length;
+	}
+
+	public double getAltitude(int level) {
+		return altitude[level];
+	}
+
+	public double getTemperature(int level) {
+		return temperature[level];
+	}
+
+	public double getPressure(int level) {
+		return pressure[level];
+	}
+
+	/**
+	 * Return whether the sounding contains the wind.
+	 */
+	public boolean hasWind() {
+		return windSpeed != null;
+	}
+
+	public double getWindSpeed(int level) {
+		return (windSpeed == null) ? 0 : windSpeed[level];
+	}
+
+	/**
+	 * Return the direction the wind blows from, in radians.
+	 */
+	public double getWindDirection(int level) {
+		return (windDirection == null) ? 0 : windDirection[level];
+	}
+
+	public double getMinAltitude() {
+		return altitude[0];
+	}
+
+	public double getMaxAltitude() {
+		return altitude[altitude.length - 1];
+	}
+
+
+	/**
+	 * Return the x component of the wind velocity at an altitude, in the same frame as
+	 * {@link net.sf.openrocket.models.wind.PinkNoiseWindModel}.  The wind above and below
+	 * the sounding is that of the nearest level.
+	 */
+	public double getWindX(double altitude) {
+		return getTable().getValue(WIND_X, altitude);
+	}
+
+	/**
+	 * Return the y component of the wind velocity at an altitude.
+	 *
+	 * @see #getWindX(double)
+	 */
+	public double getWindY(double altitude) {
+		return getTable().getValue(WIND_Y, altitude);
+	}
+
+
+	/**
+	 * Return the lookup table of the sounding.  The columns are the temperature, the
+	 * pressure and the x and y components of the wind velocity, in the same frame as
+	 * {@link net.sf.openrocket.models.wind.PinkNoiseWindModel}.  The table is computed
+	 * on first use.
+	 */
+	UniformLookupTable getTable() {
+		UniformLookupTable t = table;
+		if (t == null) {
+			t = computeTable();
+			table = t;
+		}
+		return t;
+	}
+
+	private UniformLookupTable computeTable() {
+		int n = altitude.length;
+		double start = altitude[0];
+		double range = altitude[n - 1] - start;
+
+		// The step is at most the smallest distance between levels, so each interval of
+		// the table contains at most one level
+		double step = MAX_STEP;
+		for (int i = 1; i < n; i++) {
+			step = Math.min(step, altitude[i] - altitude[i - 1]);
+		}
+		step = Math.max(Math.max(step, MIN_STEP), range / (MAX_POINTS - 1));
+		int count = Math.max((int) Math.ceil(range / step) + 1, 2);
+
+		// Pressure decreases exponentially with altitude
+		double[] logPressure = new double[n];
+		double[] windX = new double[n];
+		double[] windY = new double[n];
+		for (int i = 0; i < n; i++) {
+			logPressure[i] = Math.log(pressure[i]);
+			windX[i] = getWindSpeed(i) * Math.sin(getWindDirection(i));
+			windY[i] = getWindSpeed(i) * Math.cos(getWindDirection(i));
+		}
+
+		double[] p = UniformLookupTable.resample(altitude, logPressure, start, step, count);
+		for (int i = 0; i < count; i++) {
+			p[i] = Math.exp(p[i]);
+		}
+		return new UniformLookupTable(start, step,
+				UniformLookupTable.resample(altitude, temperature, start, step, count),
+				p,
+				UniformLookupTable.resample(altitude, windX, start, step, count),
+				UniformLookupTable.resample(altitude, windY, start, step, count));
+	}
+
+
+	/**
+	 * Return a description of all levels at full precision.  Soundings with equal
+	 * levels have equal descriptions.
+	 */
+	public String getResultDescription() {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < altitude.length; i++) {
+			sb.append(altitude[i]).append(' ').append(temperature[i]).append(' ').append(pressure[i]);
+			if (windSpeed != null) {
+				sb.append(' ').append(windSpeed[i]).append(' ').append(windDirection[i]);
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+
+
+	/**
+	 * Two soundings are equal if their levels are equal.  The name is not compared.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		if (this == other)
+			return true;
+		if (!(other instanceof Sounding))
+			return false;
+		Sounding o = (Sounding) other;
+		return Arrays.equals(altitude, o.altitude) && Arrays.equals(temperature, o.temperature) &&
+				Arrays.equals(pressure, o.pressure) && Arrays.equals(windSpeed, o.windSpeed) &&
+				Arrays.equals(windDirection, o.windDirection);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(altitude) ^ Arrays.hashCode(temperature) ^ Arrays.hashCode(pressure);
+	}
+
+	@Override
+	public String toString() {
+		return "Sounding[" + name + ", " + altitude.length + " levels from " + getMinAltitude() +
+				" to " + getMaxAltitude() + " m]";
+	}
+}
@@ -0,0 +1,59 @@
+package net.sf.openrocket.models.atmosphere;
+
+import static net.sf.openrocket.models.atmosphere.AtmosphericConditions.R;
+import net.sf.openrocket.util.UniformLookupTable;
+
+/**
+ * An atmospheric model interpolating the temperature and pressure of a {@link Sounding}.
+ * Outside the altitudes of the sounding the temperature is that of the nearest level and
+ * the pressure follows the hydrostatic equation for a constant temperature.
+ */
+public class SoundingAtmosphericModel implements AtmosphericModel {
+
+	private static final double G = 9.80665;
+
+	private final Sounding sounding;
+	private final UniformLookupTable table;
+
+
+	public SoundingAtmosphericModel(Sounding sounding) {
+		this.sounding = sounding;
+		this.table = sounding.getTable();
+	}
+
+
+	public Sounding getSounding() {
+		return sounding;
+	}
+
+	@Override
+	public AtmosphericConditions getConditions(double altitude) {
+		AtmosphericConditions c = new AtmosphericConditions();
+		getConditions(altitude, c);
+		return c;
+	}
+
+	@Override
+	public void getConditions(double altitude, AtmosphericConditions conditions) {
+		double temperature = table.getValue(Sounding.TEMPERATURE, altitude);
+		double pressure = table.getValue(Sounding.PRESSURE, altitude);
+
+		double outside = 0;
+		if (altitude > sounding.getMaxAltitude()) {
+			outside = altitude - sounding.getMaxAltitude();
+		} else if (altitude < sounding.getMinAltitude()) {
+			outside = altitude - sounding.getMinAltitude();
+		}
+		if (outside != 0) {
+			pressure *= Math.exp(-outside * G / (R * temperature));
+		}
+
+		conditions.setConditions(temperature, pressure);
+	}
+
+	@Override
+	public int getModID() {
+		return sounding.hashCode();
+	}
+
+}
@@ -1,15 +1,16 @@
 package net.sf.openrocket.models.wind;
 
-import java.util.Random;
-
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
-import net.sf.openrocket.util.PinkNoise;
+import net.sf.openrocket.util.RandomStream;
 
 /**
  * A wind simulator that generates wind speed as pink noise from a specified average wind speed
  * and standard deviance.  Currently the wind is always directed in the direction of the negative
  * X-axis.  The simulated wind is unaffected by the altitude.
+ * <p>
+ * The turbulence is read from a {@link TurbulenceField}, so the wind may be requested at
+ * any time in any order and depends only on the seed.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
@@ -19,29 +20,11 @@ public class PinkNoiseWindModel implements WindModel {
 	private static final int SEED_RANDOMIZATION = 0x7343AA03;
 	
 	
-	
-	/** Pink noise alpha parameter. */
-	private static final double ALPHA = 5.0 / 3.0;
-	
-	/** Number of poles to use in the pink noise IIR filter. */
-	private static final int POLES = 2;
-	
-	/** The standard deviation of the generated pink noise with the specified number of poles. */
-	private static final double STDDEV = 2.252;
-	
-	/** Time difference between random samples. */
-	private static final double DELTA_T = 0.05;
-	
-	
 	private double average = 0;
 	private double direction = Math.PI / 2; // this is an East wind
 	private double standardDeviation = 0;
 	
-	private final int seed;
-	
-	private PinkNoise randomSource = null;
-	private double time1;
-	private double value1, value2;
+	private final TurbulenceField turbulence;
 	
 	
 	/**
@@ -49,7 +32,15 @@ public class PinkNoiseWindModel implements WindModel {
 	 * @param seed	the seed value.
 	 */
 	public PinkNoiseWindModel(int seed) {
-		this.seed = seed ^ SEED_RANDOMIZATION;
+		this(new RandomStream(seed ^ SEED_RANDOMIZATION));
+	}
+	
+	/**
+	 * Construct a new wind simulation using a random stream.
+	 * @param random	the random stream of the turbulence, which may not be shared.
+	 */
+	public PinkNoiseWindModel(RandomStream random) {
+		this.turbulence = new TurbulenceField(random);
 	}
 	
 	
@@ -132,38 +123,23 @@ public class PinkNoiseWindModel implements WindModel {
 	
 	@Override
 	public Coordinate getWindVelocity(double time, double altitude) {
-		if (time < 0) {
-			throw new IllegalArgumentException("Requesting wind speed at t=" + time);
-		}
-		
-		if (randomSource == null) {
-			randomSource = new PinkNoise(ALPHA, POLES, new Random(seed));
-			time1 = 0;
-			value1 = randomSource.nextValue();
-			value2 = randomSource.nextValue();
-		}
-		
-		if (time < time1) {
-			reset();
-			return getWindVelocity(time, altitude);
-		}
-		
-		while (time1 + DELTA_T < time) {
-			value1 = value2;
-			value2 = randomSource.nextValue();
-			time1 += DELTA_T;
-		}
-		
-		double a = (time - time1) / DELTA_T;
-		
-		double speed = average + (value1 * (1 - a) + value2 * a) * standardDeviation / STDDEV;
+		double speed = getWindSpeed(time);
 		return new Coordinate(speed * Math.sin(direction), speed * Math.cos(direction), 0);
-		
 	}
 	
 	
-	private void reset() {
-		randomSource = null;
+	/**
+	 * Return the wind speed at a time.  The speed is the average speed with the pink
+	 * noise turbulence added.
+	 * 
+	 * @param time	the time, not negative.
+	 * @return		the wind speed.
+	 */
+	public double getWindSpeed(double time) {
+		if (time < 0) {
+			throw new IllegalArgumentException("Requesting wind speed at t=" + time);
+		}
+		return average + turbulence.getValue(time, 0) * standardDeviation;
 	}
 	
 	
@@ -0,0 +1,61 @@
+package net.sf.openrocket.models.wind;
+
+import java.util.Objects;
+
+import net.sf.openrocket.models.atmosphere.Sounding;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.RandomStream;
+
+/**
+ * A wind model interpolating the wind speed and direction of a {@link Sounding} at the
+ * altitude of the rocket.  Turbulence is added as pink noise relative to the local
+ * wind speed, with the same characteristics in time as in {@link PinkNoiseWindModel}.
+ * The turbulence is independent between altitudes {@link #LAYER_THICKNESS} apart.
+ */
+public class SoundingWindModel implements WindModel {
+
+	/** The thickness of the altitude layers of the turbulence, in meters. */
+	public static final double LAYER_THICKNESS = 500;
+
+	private final Sounding sounding;
+	private final TurbulenceField turbulence;
+	private final double intensity;
+
+
+	/**
+	 * Construct a wind model.
+	 *
+	 * @param sounding		the sounding, which must contain the wind.
+	 * @param random		the random stream of the turbulence, which may not be shared.
+	 * @param intensity		the turbulence intensity, the standard deviation relative to the wind speed.
+	 */
+	public SoundingWindModel(Sounding sounding, RandomStream random, double intensity) {
+		if (!sounding.hasWind()) {
+			throw new IllegalArgumentException("The sounding " + sounding.getName() + " contains no wind");
+		}
+		this.sounding = sounding;
+		this.turbulence = new TurbulenceField(random, LAYER_THICKNESS);
+		this.intensity = Math.max(intensity, 0);
+	}
+
+
+	public Sounding getSounding() {
+		return sounding;
+	}
+
+	public double getTurbulenceIntensity() {
+		return intensity;
+	}
+
+	@Override
+	public Coordinate getWindVelocity(double time, double altitude) {
+		double factor = 1 + intensity * turbulence.getValue(time, altitude);
+		return new Coordinate(factor * sounding.getWindX(altitude), factor * sounding.getWindY(altitude), 0);
+	}
+
+	@Override
+	public int getModID() {
+		return Objects.hash(sounding, intensity);
+	}
+
+}
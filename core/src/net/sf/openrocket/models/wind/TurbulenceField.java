@@ -0,0 +1,169 @@
+package net.sf.openrocket.models.wind;
+
+import net.sf.openrocket.util.RandomStream;
+
+/**
+ * A field of pink noise turbulence that can be evaluated at any time and altitude, in
+ * any order.  The noise has the same spectrum as {@link net.sf.openrocket.util.PinkNoise}
+ * with alpha 5/3 and two poles, and is normalized to a standard deviation of one.
+ * <p>
+ * The noise is sampled at intervals of {@link #DELTA_T} and generated in blocks of samples.
+ * Each block is computed by running the pink noise filter over white noise read by index
+ * from a {@link RandomStream}, starting well before the block so that the filter has
+ * forgotten its initial state.  The value at a time therefore depends only on the seed,
+ * not on the times evaluated before it, which makes the turbulence reproducible when
+ * simulations are resumed, replayed or run in parallel.
+ * <p>
+ * The altitude is divided into layers with independent noise, between which the values
+ * are interpolated.  Instances are not thread-safe.
+ */
+public class TurbulenceField {
+
+	/** Pink noise alpha parameter. */
+	private static final double ALPHA = 5.0 / 3.0;
+
+	/** Number of poles to use in the pink noise IIR filter. */
+	private static final int POLES = 2;
+
+	/** The standard deviation of the generated pink noise with the specified number of poles. */
+	private static final double STDDEV = 2.252;
+
+	/** Time difference between random samples. */
+	public static final double DELTA_T = 0.05;
+
+	/** Number of samples in a block. */
+	private static final int BLOCK_SIZE = 256;
+
+	/** Number of samples generated before a block, after which the filter state has decayed below 1e-10. */
+	private static final int WARMUP = 256;
+
+	/** Number of generated blocks kept in memory. */
+	private static final int CACHED_BLOCKS = 8;
+
+	private static final double[] MULTIPLIERS = new double[POLES];
+	static {
+		double a = 1;
+		for (int i = 0; i < POLES; i++) {
+			a = (i - ALPHA / 2) * a / (i + 1);
+			MULTIPLIERS[i] = a;
+		}
+	}
+
+
+	private final RandomStream random;
+	private final double layerThickness;
+
+	private final long[] blockLayers = new long[CACHED_BLOCKS];
+	private final long[] blockIndices = new long[CACHED_BLOCKS];
+	private final double[][] blocks = new double[CACHED_BLOCKS][];
+	private int nextBlock = 0;
+
+
+	/**
+	 * Construct a turbulence field that is independent of the altitude.
+	 *
+	 * @param random	the random stream, which is not read sequentially and may not be shared.
+	 */
+	public TurbulenceField(RandomStream random) {
+		this(random, 0);
+	}
+
+	/**
+	 * Construct a turbulence field.
+	 *
+	 * @param random			the random stream, which is not read sequentially and may not be shared.
+	 * @param layerThickness	the thickness of the altitude layers with independent noise in meters,
+	 * 							or zero or infinity for noise independent of the altitude.
+	 */
+	public TurbulenceField(RandomStream random, double layerThickness) {
+		this.random = random;
+		if (layerThickness > 0 && !Double.isInfinite(layerThickness)) {
+			this.layerThickness = layerThickness;
+		} else {
+			this.layerThickness = 0;
+		}
+	}
+
+
+	public RandomStream getRandomStream() {
+		return random;
+	}
+
+	/**
+	 * Return the thickness of the altitude layers, or zero if the noise is independent
+	 * of the altitude.
+	 */
+	public double getLayerThickness() {
+		return layerThickness;
+	}
+
+
+	/**
+	 * Return the value of the field, with mean zero and standard deviation one.
+	 *
+	 * @param time		the time in seconds.
+	 * @param altitude	the altitude in meters.
+	 * @return			the value of the field.
+	 */
+	public double getValue(double time, double altitude) {
+		if (layerThickness == 0) {
+			return getLayerValue(0, time);
+		}
+
+		double h = altitude / layerThickness;
+		long layer = (long) Math.floor(h);
+		double d = h - layer;
+		double value = getLayerValue(layer, time) * (1 - d) + getLayerValue(layer + 1, time) * d;
+		// Interpolation between independent layers reduces the variance
+		return value / Math.sqrt((1 - d) * (1 - d) + d * d);
+	}
+
+
+	private double getLayerValue(long layer, double time) {
+		double t = time / DELTA_T;
+		long n = (long) Math.floor(t);
+		double a = t - n;
+		return getSample(layer, n) * (1 - a) + getSample(layer, n + 1) * a;
+	}
+
+	private double getSample(long layer, long n) {
+		long block = Math.floorDiv(n, BLOCK_SIZE);
+		return getBlock(layer, block)[(int) (n - block * BLOCK_SIZE)];
+	}
+
+	private double[] getBlock(long layer, long block) {
+		for (int i = 0; i < CACHED_BLOCKS; i++) {
+			if (blocks[i] != null && blockIndices[i] == block && blockLayers[i] == layer) {
+				return blocks[i];
+			}
+		}
+
+		double[] values = computeBlock(layer, block);
+		blockLayers[nextBlock] = layer;
+		blockIndices[nextBlock] = block;
+		blocks[nextBlock] = values;
+		nextBlock = (nextBlock + 1) % CACHED_BLOCKS;
+		return values;
+	}
+
+	private double[] computeBlock(long layer, long block) {
+		RandomStream noise = (layer == 0) ? random : random.split(layer);
+		double[] values = new double[BLOCK_SIZE];
+		double[] history = new double[POLES];
+		long start = block * BLOCK_SIZE;
+
+		for (long n = start - WARMUP; n < start + BLOCK_SIZE; n++) {
+			double x = noise.getGaussian(n);
+			for (int i = 0; i < POLES; i++) {
+				x -= MULTIPLIERS[i] * history[i];
+			}
+			System.arraycopy(history, 0, history, 1, POLES - 1);
+			history[0] = x;
+			if (n >= start) {
+				values[(int) (n - start)] = x / STDDEV;
+			}
+		}
+		return values;
+	}
+
+}
@@ -0,0 +1,77 @@
+package net.sf.openrocket.optimization.sweep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.sf.openrocket.optimization.general.Point;
+
+/**
+ * A full factorial grid.  Each modifier takes evenly spaced values from its minimum
+ * to its maximum, and the plan contains every combination of them.  The last
+ * modifier varies fastest.  A modifier with a single step takes its middle value.
+ */
+public class GridSamplingPlan implements SamplingPlan {
+
+	private final int[] steps;
+
+	/**
+	 * Create a grid with a separate number of steps for each modifier.  If there is
+	 * a single value, it is used for every modifier.
+	 *
+	 * @param steps		the number of values of each modifier.
+	 */
+	public GridSamplingPlan(int... steps) {
+		if (steps.length == 0) {
+			throw new IllegalArgumentException("No steps given");
+		}
+		for (int n : steps) {
+			if (n < 1) {
+				throw new IllegalArgumentException("Number of steps must be positive, was " + n);
+			}
+		}
+		this.steps = steps.clone();
+	}
+
+
+	@Override
+	public List<Point> getPoints(int dimensions) {
+		if (steps.length != 1 && steps.length != dimensions) {
+			throw new IllegalArgumentException("Grid has " + steps.length + " dimensions, sweep has " + dimensions);
+		}
+		int[] n = new int[dimensions];
+		long count = 1;
+		for (int i = 0; i < dimensions; i++) {
+			n[i] = steps[steps.length == 1 ? 0 : i];
+			count *= n[i];
+		}
+		if (count > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Grid has too many points: " + count);
+		}
+
+		List<Point> points = new ArrayList<Point>((int) count);
+		int[] index = new int[dimensions];
+		for (int p = 0; p < count; p++) {
+			double[] value = new double[dimensions];
+			for (int i = 0; i < dimensions; i++) {
+				value[i] = (n[i] == 1) ? 0.5 : (double) index[i] / (n[i] - 1);
+			}
+			points.add(new Point(value));
+
+			// Advance the index with the last dimension fastest
+			for (int i = dimensions - 1; i >= 0; i--) {
+				index[i]++;
+				if (index[i] < n[i]) {
+					break;
+				}
+				index[i] = 0;
+			}
+		}
+		return points;
+	}
+
+	@Override
+	public String toString() {
+		return "GridSamplingPlan" + Arrays.toString(steps);
+	}
+}
@@ -0,0 +1,67 @@
+package net.sf.openrocket.optimization.sweep;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import net.sf.openrocket.optimization.general.Point;
+
+/**
+ * A Latin hypercube sample.  The range of each modifier is divided into as many
+ * equal intervals as there are samples, and each interval of each modifier contains
+ * exactly one sample at a random position.  This covers the range of every modifier
+ * evenly with far fewer points than a grid when there are many modifiers.
+ * <p>
+ * The sample is determined by the random seed, so the same seed gives the same points.
+ */
+public class LatinHypercubeSamplingPlan implements SamplingPlan {
+
+	private final int samples;
+	private final long seed;
+
+	/**
+	 * @param samples	the number of points.
+	 * @param seed		the random seed.
+	 */
+	public LatinHypercubeSamplingPlan(int samples, long seed) {
+		if (samples < 1) {
+			throw new IllegalArgumentException("Number of samples must be positive, was " + samples);
+		}
+		this.samples = samples;
+		this.seed = seed;
+	}
+
+
+	@Override
+	public List<Point> getPoints(int dimensions) {
+		Random random = new Random(seed);
+		double[][] values = new double[samples][dimensions];
+		int[] strata = new int[samples];
+		for (int i = 0; i < dimensions; i++) {
+			// Random permutation of the intervals (Fisher-Yates)
+			for (int j = 0; j < samples; j++) {
+				strata[j] = j;
+			}
+			for (int j = samples - 1; j > 0; j--) {
+				int k = random.nextInt(j + 1);
+				int tmp = strata[j];
+				strata[j] = strata[k];
+				strata[k] = tmp;
+			}
+			for (int j = 0; j < samples; j++) {
+				values[j][i] = (strata[j] + random.nextDouble()) / samples;
+			}
+		}
+
+		List<Point> points = new ArrayList<Point>(samples);
+		for (double[] value : values) {
+			points.add(new Point(value));
+		}
+		return points;
+	}
+
+	@Override
+	public String toString() {
+		return "LatinHypercubeSamplingPlan[samples=" + samples + ", seed=" + seed + "]";
+	}
+}
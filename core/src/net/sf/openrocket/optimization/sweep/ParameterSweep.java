@@ -0,0 +1,288 @@
+package net.sf.openrocket.optimization.sweep;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.optimization.general.OptimizationException;
+import net.sf.openrocket.optimization.general.Point;
+import net.sf.openrocket.optimization.rocketoptimization.OptimizableParameter;
+import net.sf.openrocket.optimization.rocketoptimization.SimulationModifier;
+import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * Evaluates a set of optimizable parameters over a sampled design space, without
+ * an optimization goal.  Each point of a {@link SamplingPlan} is applied to a copy of
+ * the base simulation using the simulation modifiers, for each of the selected flight
+ * configurations, and the parameters are computed for the modified simulation.
+ * <p>
+ * The evaluations run in parallel.  Each thread modifies its own copy of the base
+ * simulation and rocket, which is possible because every evaluation sets the values
+ * of all modifiers.  The results are passed to a {@link SweepListener} in the order
+ * of the points as soon as all earlier results are available, so large sweeps can be
+ * written out while they are running.
+ * <p>
+ * A point that cannot be evaluated, for example because a modifier value is invalid for
+ * the component, is reported with an error and does not stop the sweep.
+ */
+public class ParameterSweep {
+	private static final Logger log = LoggerFactory.getLogger(ParameterSweep.class);
+
+	private final Simulation baseSimulation;
+	private final SimulationModifier[] modifiers;
+	private final OptimizableParameter[] parameters;
+	private List<FlightConfigurationId> configurations;
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+
+
+	/**
+	 * Sole constructor.  The base simulation is not modified.
+	 *
+	 * @param baseSimulation	the simulation to modify.
+	 * @param modifiers			the modifiers spanning the design space, with their min and max values set.
+	 * @param parameters		the parameters to compute at each point.
+	 */
+	public ParameterSweep(Simulation baseSimulation, SimulationModifier[] modifiers, OptimizableParameter[] parameters) {
+		if (modifiers.length == 0) {
+			throw new IllegalArgumentException("No SimulationModifiers specified");
+		}
+		if (parameters.length == 0) {
+			throw new IllegalArgumentException("No OptimizableParameters specified");
+		}
+		this.baseSimulation = baseSimulation;
+		this.modifiers = modifiers.clone();
+		this.parameters = parameters.clone();
+		this.configurations = Collections.singletonList(baseSimulation.getFlightConfigurationId());
+	}
+
+
+	public Simulation getBaseSimulation() {
+		return baseSimulation;
+	}
+
+	public SimulationModifier[] getModifiers() {
+		return modifiers.clone();
+	}
+
+	public OptimizableParameter[] getParameters() {
+		return parameters.clone();
+	}
+
+	/**
+	 * Return the flight configurations each point is evaluated in.
+	 */
+	public List<FlightConfigurationId> getFlightConfigurations() {
+		return configurations;
+	}
+
+	/**
+	 * Set the flight configurations each point is evaluated in.  By default only the
+	 * configuration of the base simulation is used.
+	 */
+	public void setFlightConfigurations(List<FlightConfigurationId> configurations) {
+		if (configurations.isEmpty()) {
+			throw new IllegalArgumentException("No flight configurations specified");
+		}
+		this.configurations = Collections.unmodifiableList(new ArrayList<FlightConfigurationId>(configurations));
+	}
+
+	/**
+	 * Set the number of points evaluated concurrently.  The default is the number of
+	 * processors.
+	 */
+	public void setThreadCount(int threadCount) {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("threadCount must be positive, was " + threadCount);
+		}
+		this.threadCount = threadCount;
+	}
+
+
+	/**
+	 * Evaluate the points of a sampling plan.
+	 *
+	 * @param plan		the sampling plan.
+	 * @param listener	the listener receiving the results.
+	 * @throws InterruptedException		if the sweep is interrupted.
+	 * @throws OptimizationException	if a parameter reports an error that prevents continuing.
+	 */
+	public void run(SamplingPlan plan, SweepListener listener) throws InterruptedException, OptimizationException {
+		run(plan.getPoints(modifiers.length), listener);
+	}
+
+	/**
+	 * Evaluate a list of points.
+	 *
+	 * @param points	the scaled points, with one coordinate for each modifier.
+	 * @param listener	the listener receiving the results.
+	 * @throws InterruptedException		if the sweep is interrupted.
+	 * @throws OptimizationException	if a parameter reports an error that prevents continuing.
+	 */
+	public void run(List<Point> points, SweepListener listener) throws InterruptedException, OptimizationException {
+		for (Point p : points) {
+			if (p.dim() != modifiers.length) {
+				throw new IllegalArgumentException("Point has length " + p.dim() + " while sweep has " +
+						modifiers.length + " simulation modifiers");
+			}
+		}
+
+		final Evaluation evaluation = new Evaluation(points, listener);
+		int threads = Math.max(Math.min(threadCount, evaluation.total), 1);
+		log.info("Running parameter sweep of " + evaluation.total + " evaluations on " + threads + " threads");
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "ParameterSweep-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+		try {
+			List<Future<Void>> futures = new ArrayList<Future<Void>>();
+			for (int i = 0; i < threads; i++) {
+				futures.add(executor.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws Exception {
+						evaluation.evaluateAll();
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof InterruptedException) {
+						throw (InterruptedException) cause;
+					}
+					if (cause instanceof OptimizationException) {
+						throw (OptimizationException) cause;
+					}
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					throw new BugException("Parameter sweep threw unknown exception", e);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+	/**
+	 * Return a copy of the base simulation and rocket.
+	 */
+	private Simulation newSimulationInstance() {
+		synchronized (baseSimulation) {
+			return baseSimulation.duplicateSimulation(baseSimulation.getRocket().copyWithOriginalID());
+		}
+	}
+
+
+	/**
+	 * The state of one run, shared by the sweep threads.
+	 */
+	private class Evaluation {
+		private final List<Point> points;
+		private final SweepListener listener;
+		private final int total;
+		private final AtomicInteger next = new AtomicInteger();
+		private final Map<Integer, SweepResult> completed = new HashMap<Integer, SweepResult>();
+		private int delivered = 0;
+
+		public Evaluation(List<Point> points, SweepListener listener) {
+			this.points = points;
+			this.listener = listener;
+			this.total = points.size() * configurations.size();
+		}
+
+		public void evaluateAll() throws InterruptedException, OptimizationException {
+			Simulation simulation = null;
+			Set<FlightConfigurationId> initialized = new HashSet<FlightConfigurationId>();
+			int index;
+			while ((index = next.getAndIncrement()) < total) {
+				if (Thread.interrupted()) {
+					throw new InterruptedException();
+				}
+				if (simulation == null) {
+					simulation = newSimulationInstance();
+				}
+				deliver(evaluate(simulation, initialized, index));
+			}
+		}
+
+		/**
+		 * Evaluate a point in a configuration.  The modifiers are initialized for each
+		 * configuration of the simulation copy, since they may modify configuration
+		 * specific values such as the deployment event.
+		 */
+		private SweepResult evaluate(Simulation simulation, Set<FlightConfigurationId> initialized, int index)
+				throws InterruptedException, OptimizationException {
+			Point point = points.get(index / configurations.size());
+			FlightConfigurationId configuration = configurations.get(index % configurations.size());
+			double[] modifierValues = new double[modifiers.length];
+			double[] parameterValues = new double[parameters.length];
+			Arrays.fill(parameterValues, Double.NaN);
+
+			simulation.setFlightConfigurationId(configuration);
+			for (int i = 0; i < modifiers.length; i++) {
+				modifierValues[i] = MathUtil.map(point.get(i), 0, 1, modifiers[i].getMinValue(), modifiers[i].getMaxValue());
+			}
+			try {
+				if (!initialized.contains(configuration)) {
+					for (SimulationModifier modifier : modifiers) {
+						modifier.initialize(simulation);
+					}
+					initialized.add(configuration);
+				}
+				for (int i = 0; i < modifiers.length; i++) {
+					modifiers[i].modify(simulation, point.get(i));
+					modifierValues[i] = modifiers[i].getCurrentSIValue(simulation);
+				}
+			} catch (OptimizationException | RuntimeException e) {
+				log.warn("Unable to apply point " + point + " in configuration " + configuration, e);
+				return new SweepResult(index, point, configuration, modifierValues, parameterValues, String.valueOf(e.getMessage()));
+			}
+
+			for (int i = 0; i < parameters.length; i++) {
+				parameterValues[i] = parameters[i].computeValue(simulation);
+			}
+			return new SweepResult(index, point, configuration, modifierValues, parameterValues, null);
+		}
+
+		/**
+		 * Pass a result and all results following it that are complete to the listener.
+		 */
+		private synchronized void deliver(SweepResult result) {
+			completed.put(result.getIndex(), result);
+			SweepResult r;
+			while ((r = completed.remove(delivered)) != null) {
+				listener.evaluated(r);
+				delivered++;
+			}
+		}
+	}
+}
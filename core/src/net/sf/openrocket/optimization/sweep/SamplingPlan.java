@@ -0,0 +1,22 @@
+package net.sf.openrocket.optimization.sweep;
+
+import java.util.List;
+
+import net.sf.openrocket.optimization.general.Point;
+
+/**
+ * A set of points in the scaled design space [0...1]^n of a parameter sweep.
+ * Each coordinate is the scaled value of one {@link net.sf.openrocket.optimization.rocketoptimization.SimulationModifier}.
+ */
+public interface SamplingPlan {
+
+	/**
+	 * Return the points of the plan.  The order of the points is the order of the
+	 * sweep results, and must be the same every time for the same arguments.
+	 *
+	 * @param dimensions	the number of modifiers.
+	 * @return				the points, each with <code>dimensions</code> coordinates in the range [0...1].
+	 */
+	public List<Point> getPoints(int dimensions);
+
+}
@@ -0,0 +1,95 @@
+package net.sf.openrocket.optimization.sweep;
+
+import java.io.PrintWriter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import net.sf.openrocket.optimization.rocketoptimization.OptimizableParameter;
+import net.sf.openrocket.optimization.rocketoptimization.SimulationModifier;
+import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.unit.UnitGroup;
+
+/**
+ * A sweep listener that writes each result as a line of CSV with the values in SI
+ * units.  The header line is written when the writer is created, and each line is
+ * flushed as it is written so the file can be followed while the sweep runs.
+ */
+public class SweepCsvWriter implements SweepListener {
+
+	private final PrintWriter writer;
+	private final Map<FlightConfigurationId, String> configurationNames = new HashMap<FlightConfigurationId, String>();
+
+	/**
+	 * @param sweep		the sweep whose results are written.
+	 * @param writer	the writer to write to.  It is not closed.
+	 */
+	public SweepCsvWriter(ParameterSweep sweep, PrintWriter writer) {
+		this.writer = writer;
+
+		Rocket rocket = sweep.getBaseSimulation().getRocket();
+		List<FlightConfigurationId> configurations = sweep.getFlightConfigurations();
+		for (FlightConfigurationId id : configurations) {
+			configurationNames.put(id, rocket.getFlightConfiguration(id).getName());
+		}
+
+		StringBuilder sb = new StringBuilder("Point,Flight configuration");
+		for (SimulationModifier modifier : sweep.getModifiers()) {
+			String name = modifier.getName();
+			if (modifier.getRelatedObject() instanceof RocketComponent) {
+				name = ((RocketComponent) modifier.getRelatedObject()).getName() + ": " + name;
+			}
+			sb.append(',').append(csv(label(name, modifier.getUnitGroup())));
+		}
+		for (OptimizableParameter parameter : sweep.getParameters()) {
+			sb.append(',').append(csv(label(parameter.getName(), parameter.getUnitGroup())));
+		}
+		sb.append(",Error");
+		writer.println(sb);
+		writer.flush();
+	}
+
+	@Override
+	public void evaluated(SweepResult result) {
+		StringBuilder sb = new StringBuilder();
+		sb.append(result.getIndex()).append(',');
+		sb.append(csv(configurationNames.get(result.getFlightConfigurationId())));
+		for (double value : result.getModifierValues()) {
+			sb.append(',').append(number(value));
+		}
+		for (double value : result.getParameterValues()) {
+			sb.append(',').append(number(value));
+		}
+		sb.append(',').append(csv(result.getError()));
+		writer.println(sb);
+		writer.flush();
+	}
+
+
+	private static String label(String name, UnitGroup group) {
+		// Some names state the unit shown in the UI, e.g. "Stability (cm)"
+		name = name.replaceFirst("\\s*\\([^()]*\\)$", "");
+		String unit = group.getSIUnit().getUnit();
+		return unit.isEmpty() ? name : name + " (" + unit + ")";
+	}
+
+	private static String number(double value) {
+		if (Double.isNaN(value)) {
+			return "";
+		}
+		return String.format(Locale.US, "%.6g", value);
+	}
+
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+}
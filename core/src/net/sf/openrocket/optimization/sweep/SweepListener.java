@@ -0,0 +1,16 @@
+package net.sf.openrocket.optimization.sweep;
+
+/**
+ * A listener that receives the results of a {@link ParameterSweep}.
+ */
+public interface SweepListener {
+
+	/**
+	 * Called for each result, in the order of the result indices.  The calls are
+	 * made from the sweep threads but never concurrently.
+	 *
+	 * @param result	the result.
+	 */
+	public void evaluated(SweepResult result);
+
+}
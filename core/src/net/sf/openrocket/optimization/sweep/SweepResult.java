@@ -0,0 +1,78 @@
+package net.sf.openrocket.optimization.sweep;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.optimization.general.Point;
+import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
+
+/**
+ * The result of one evaluation of a parameter sweep: one point of the sampling plan
+ * in one flight configuration.
+ */
+public final class SweepResult {
+
+	private final int index;
+	private final Point point;
+	private final FlightConfigurationId configuration;
+	private final double[] modifierValues;
+	private final double[] parameterValues;
+	private final String error;
+
+	SweepResult(int index, Point point, FlightConfigurationId configuration, double[] modifierValues,
+			double[] parameterValues, String error) {
+		this.index = index;
+		this.point = point;
+		this.configuration = configuration;
+		this.modifierValues = modifierValues;
+		this.parameterValues = parameterValues;
+		this.error = error;
+	}
+
+	/**
+	 * Return the index of the result.  Results are numbered point by point, with all
+	 * flight configurations of a point before the next point.
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * Return the scaled point of the sampling plan.
+	 */
+	public Point getPoint() {
+		return point;
+	}
+
+	public FlightConfigurationId getFlightConfigurationId() {
+		return configuration;
+	}
+
+	/**
+	 * Return the values of the modifiers in SI units, in the order of the modifiers.
+	 */
+	public double[] getModifierValues() {
+		return modifierValues.clone();
+	}
+
+	/**
+	 * Return the values of the parameters in SI units, in the order of the parameters.
+	 * A value is NaN if it could not be computed.
+	 */
+	public double[] getParameterValues() {
+		return parameterValues.clone();
+	}
+
+	/**
+	 * Return the error that prevented evaluating the point, or <code>null</code>.
+	 */
+	public String getError() {
+		return error;
+	}
+
+	@Override
+	public String toString() {
+		return "SweepResult[index=" + index + ", configuration=" + configuration +
+				", modifiers=" + Arrays.toString(modifierValues) + ", parameters=" + Arrays.toString(parameterValues) +
+				(error != null ? ", error=" + error : "") + "]";
+	}
+}
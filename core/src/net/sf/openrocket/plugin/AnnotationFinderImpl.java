@@ -1,14 +1,24 @@
 package net.sf.openrocket.plugin;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.lang.annotation.Annotation;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.JarUtil;
@@ -18,41 +28,70 @@ import eu.infomas.annotation.AnnotationDetector.TypeReporter;
 /**
  * An AnnotationFinder that uses annotation-detector library to scan
  * the class path.  Compatible with the JIJ loader.
+ * <p>
+ * When searching for {@link Plugin} types, JARs and class directories that contain
+ * a plugin index generated by {@link PluginIndexProcessor} are not scanned; the
+ * classes listed in the index are used instead.
  */
 public class AnnotationFinderImpl implements AnnotationFinder {
 	
+	private static final Logger log = LoggerFactory.getLogger(AnnotationFinderImpl.class);
+	
 	@Override
 	public List<Class<?>> findAnnotatedTypes(Class<?> annotation) {
+		List<File> files = new ArrayList<File>();
+		ClassLoader loader = this.getClass().getClassLoader();
+		if (loader instanceof URLClassLoader) {
+			
+			/*
+			 * In case of URLClassLoader (which may be our own instantiation)
+			 * use the URLs from there, as java.class.path may not be up-to-date.
+			 */
+			
+			URLClassLoader urlClassLoader = (URLClassLoader) loader;
+			URL[] urls = urlClassLoader.getURLs();
+			
+			for (URL url : urls) {
+				if (url.getProtocol().equals("file")) {
+					files.add(JarUtil.urlToFile(url));
+				}
+			}
+		} else {
+			
+			/*
+			 * If not using a URLClassLoader, use the class path as the
+			 * annotation-detector default does.
+			 */
+			for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+				if (path.length() > 0) {
+					files.add(new File(path));
+				}
+			}
+		}
+		
+		return findAnnotatedTypes(annotation, files);
+	}
+	
+	
+	/**
+	 * Find the annotated types of the given class path entries.
+	 * 
+	 * @param annotation	the annotation to search for
+	 * @param files			the JARs and class directories to search
+	 * @return				the annotated types
+	 */
+	List<Class<?>> findAnnotatedTypes(Class<?> annotation, List<File> files) {
 		final List<Class<?>> classes = new ArrayList<Class<?>>();
 		
-		TypeReporter reporter = new ListReporter(classes);
+		ListReporter reporter = new ListReporter(classes);
 		final AnnotationDetector cf = new AnnotationDetector(reporter);
 		try {
-			ClassLoader loader = this.getClass().getClassLoader();
-			if (loader instanceof URLClassLoader) {
-				
-				/*
-				 * In case of URLClassLoader (which may be our own instantiation)
-				 * use the URLs from there, as java.class.path may not be up-to-date.
-				 */
-				
-				URLClassLoader urlClassLoader = (URLClassLoader) loader;
-				URL[] urls = urlClassLoader.getURLs();
-				
-				List<File> files = new ArrayList<File>();
-				for (URL url : urls) {
-					if (url.getProtocol().equals("file")) {
-						files.add(JarUtil.urlToFile(url));
-					}
-				}
-				
+			if (annotation == Plugin.class) {
+				files = readIndexes(files, reporter);
+			}
+			if (!files.isEmpty()) {
+				log.debug("Scanning " + files + " for " + annotation.getSimpleName() + " annotations");
 				cf.detect(files.toArray(new File[0]));
-			} else {
-				
-				/*
-				 * If not using a URLClassLoader, just do the default.
-				 */
-				cf.detect();
 			}
 			
 		} catch (IOException e) {
@@ -63,6 +102,88 @@ public class AnnotationFinderImpl implements AnnotationFinder {
 	}
 	
 	
+	/**
+	 * Report the classes listed in the plugin indexes of the given class path entries.
+	 *
+	 * @return	the class path entries that do not contain a plugin index
+	 */
+	private List<File> readIndexes(List<File> files, ListReporter reporter) throws IOException {
+		List<File> unindexed = new ArrayList<File>();
+		for (File file : files) {
+			boolean indexed;
+			if (file.isDirectory()) {
+				indexed = readDirectoryIndexes(file, reporter);
+			} else if (file.isFile()) {
+				indexed = readJarIndexes(file, reporter);
+			} else {
+				continue;
+			}
+			if (!indexed) {
+				unindexed.add(file);
+			}
+		}
+		return unindexed;
+	}
+	
+	private boolean readDirectoryIndexes(File dir, ListReporter reporter) throws IOException {
+		File[] indexes = new File(dir, PluginIndexProcessor.INDEX_DIRECTORY).listFiles();
+		if (indexes == null) {
+			return false;
+		}
+		boolean found = false;
+		for (File index : indexes) {
+			if (index.getName().endsWith(PluginIndexProcessor.INDEX_EXTENSION)) {
+				log.debug("Reading plugin index " + index);
+				readIndex(new FileInputStream(index), reporter);
+				found = true;
+			}
+		}
+		return found;
+	}
+	
+	private boolean readJarIndexes(File file, ListReporter reporter) throws IOException {
+		JarFile jar;
+		try {
+			jar = new JarFile(file);
+		} catch (IOException e) {
+			// Not a JAR file, let annotation-detector handle it
+			return false;
+		}
+		try {
+			boolean found = false;
+			Enumeration<JarEntry> entries = jar.entries();
+			while (entries.hasMoreElements()) {
+				JarEntry entry = entries.nextElement();
+				String name = entry.getName();
+				if (name.startsWith(PluginIndexProcessor.INDEX_DIRECTORY) &&
+						name.endsWith(PluginIndexProcessor.INDEX_EXTENSION)) {
+					log.debug("Reading plugin index " + name + " from " + file);
+					readIndex(jar.getInputStream(entry), reporter);
+					found = true;
+				}
+			}
+			return found;
+		} finally {
+			jar.close();
+		}
+	}
+	
+	private void readIndex(InputStream stream, ListReporter reporter) throws IOException {
+		BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() > 0 && !line.startsWith("#")) {
+					reporter.reportIndexedType(line);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+	}
+	
+	
 	private static class ListReporter implements TypeReporter {
 		private final List<Class<?>> classes;
 		private final Set<String> names = new HashSet<String>();
@@ -87,5 +208,22 @@ public class AnnotationFinderImpl implements AnnotationFinder {
 				}
 			}
 		}
+		
+		/**
+		 * Report a class listed in a plugin index.  Stale entries of classes that
+		 * no longer exist or are no longer annotated are ignored.
+		 */
+		public void reportIndexedType(String className) {
+			if (names.add(className)) {
+				try {
+					Class<?> c = this.getClass().getClassLoader().loadClass(className);
+					if (c.isAnnotationPresent(Plugin.class)) {
+						classes.add(c);
+					}
+				} catch (ClassNotFoundException e) {
+					// Ignore
+				}
+			}
+		}
 	}
 }
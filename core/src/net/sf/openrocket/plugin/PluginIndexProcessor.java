@@ -0,0 +1,120 @@
+package net.sf.openrocket.plugin;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor that writes an index of the {@link Plugin} types
+ * (interfaces and implementations) of a compilation.
+ * <p>
+ * The index is written to META-INF/openrocket/plugins/&lt;name&gt;.idx in the class output,
+ * one binary class name per line.  The name is given by the processor option
+ * {@value #INDEX_NAME_OPTION} and defaults to {@value #DEFAULT_INDEX_NAME}; modules that
+ * end up in the same JAR must use different names.  {@link AnnotationFinderImpl} reads the
+ * index instead of scanning the classes of a JAR or directory that contains one.
+ * <p>
+ * Entries of an existing index are kept, so that incremental compilation does not
+ * drop plugins from classes that were not recompiled.  Entries that no longer denote
+ * plugin classes are ignored when the index is read.
+ * <p>
+ * This class must not reference the Plugin annotation class directly, so that it can
+ * be used from a processor path containing only this class.
+ */
+@SupportedAnnotationTypes("net.sf.openrocket.plugin.Plugin")
+@SupportedOptions(PluginIndexProcessor.INDEX_NAME_OPTION)
+public class PluginIndexProcessor extends AbstractProcessor {
+
+	/** Directory of the plugin indexes within a JAR or class directory */
+	public static final String INDEX_DIRECTORY = "META-INF/openrocket/plugins/";
+	/** File name extension of the plugin indexes */
+	public static final String INDEX_EXTENSION = ".idx";
+
+	public static final String INDEX_NAME_OPTION = "openrocket.plugin.index";
+	public static final String DEFAULT_INDEX_NAME = "plugins";
+
+	private final Set<String> classNames = new TreeSet<String>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for (TypeElement annotation : annotations) {
+			for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if (element instanceof TypeElement) {
+					classNames.add(processingEnv.getElementUtils().getBinaryName((TypeElement) element).toString());
+				}
+			}
+		}
+
+		if (roundEnv.processingOver() && !classNames.isEmpty()) {
+			writeIndex();
+		}
+		return false;
+	}
+
+	private void writeIndex() {
+		String name = processingEnv.getOptions().get(INDEX_NAME_OPTION);
+		if (name == null) {
+			name = DEFAULT_INDEX_NAME;
+		}
+		String path = INDEX_DIRECTORY + name + INDEX_EXTENSION;
+
+		try {
+			readExistingIndex(path);
+
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", path);
+			Writer writer = file.openWriter();
+			try {
+				writer.write("# OpenRocket plugin index, generated by " + PluginIndexProcessor.class.getName() + "\n");
+				for (String className : classNames) {
+					writer.write(className);
+					writer.write('\n');
+				}
+			} finally {
+				writer.close();
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write plugin index " + path + ": " + e);
+		}
+	}
+
+	private void readExistingIndex(String path) {
+		try {
+			FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", path);
+			Reader reader = existing.openReader(true);
+			try {
+				BufferedReader in = new BufferedReader(reader);
+				String line;
+				while ((line = in.readLine()) != null) {
+					line = line.trim();
+					if (line.length() > 0 && !line.startsWith("#")) {
+						classNames.add(line);
+					}
+				}
+			} finally {
+				reader.close();
+			}
+		} catch (IOException e) {
+			// No existing index
+		}
+	}
+
+}
@@ -19,13 +19,25 @@ public class PluginModule extends AbstractModule {
 	
 	private Map<Class<?>, Multibinder<?>> binders = new HashMap<Class<?>, Multibinder<?>>();
 	private AnnotationFinder finder = new AnnotationFinderImpl();
+	private List<Class<?>> classes = null;
 	
 	
+	/**
+	 * Search for the plugin classes.  This is done when the module is configured
+	 * if it has not been called before, but calling it beforehand allows the search
+	 * to run concurrently with other startup work.
+	 */
+	public synchronized void findPlugins() {
+		if (classes == null) {
+			classes = finder.findAnnotatedTypes(Plugin.class);
+		}
+	}
+	
 	@SuppressWarnings("unchecked")
 	@Override
 	protected void configure() {
 		
-		List<Class<?>> classes = finder.findAnnotatedTypes(Plugin.class);
+		findPlugins();
 		List<Class<?>> interfaces = new ArrayList<Class<?>>();
 		List<Class<?>> unusedInterfaces;
 		
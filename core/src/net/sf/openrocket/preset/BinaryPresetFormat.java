@@ -0,0 +1,47 @@
+package net.sf.openrocket.preset;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Constants and key lookup shared by {@link BinaryPresetWriter} and {@link BinaryPresetReader}.
+ * <p>
+ * Layout of a binary preset database (all values big-endian, as written by DataOutputStream):
+ * <pre>
+ *   int     MAGIC
+ *   int     VERSION
+ *   short   number of keys, followed by the key names (UTF)
+ *   short   number of type blocks, followed for each block by
+ *             UTF     ComponentPreset.Type name
+ *             int     number of presets in the block
+ *             int     length of the block in bytes
+ *   byte[]  the type blocks, in the order of the index
+ * </pre>
+ * Each preset within a block is stored as its digest (UTF), the number of properties (short)
+ * and for each property the index of its key in the key table (short) followed by the value
+ * encoded according to the key type.
+ */
+abstract class BinaryPresetFormat {
+
+	/** "ORPD" */
+	static final int MAGIC = 0x4F525044;
+
+	static final int VERSION = 1;
+
+	private static final Map<String, TypedKey<?>> KEYS = new HashMap<String, TypedKey<?>>();
+	static {
+		for (TypedKey<?> key : ComponentPreset.ORDERED_KEY_LIST) {
+			KEYS.put(key.getName(), key);
+		}
+		KEYS.put(ComponentPreset.TYPE.getName(), ComponentPreset.TYPE);
+		KEYS.put(ComponentPreset.IMAGE.getName(), ComponentPreset.IMAGE);
+	}
+
+	/**
+	 * Return the preset key with the given name, or <code>null</code> if the key is not known.
+	 */
+	static TypedKey<?> getKey(String name) {
+		return KEYS.get(name);
+	}
+
+}
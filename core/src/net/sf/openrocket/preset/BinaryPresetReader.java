@@ -0,0 +1,195 @@
+package net.sf.openrocket.preset;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.Transition.Shape;
+import net.sf.openrocket.util.FileUtils;
+
+/**
+ * Reader for the binary preset database format written by {@link BinaryPresetWriter}.
+ * <p>
+ * Only the header and the type index are parsed when the reader is constructed.  The
+ * presets of a type are decoded when {@link #read(ComponentPreset.Type)} is called, so
+ * callers only pay for the types they actually use.  The instance is thread-safe.
+ *
+ * @see BinaryPresetFormat
+ */
+public class BinaryPresetReader {
+
+	private final String fileName;
+	private final byte[] data;
+	private final TypedKey<?>[] keys;
+	private final Map<ComponentPreset.Type, Block> blocks =
+			new EnumMap<ComponentPreset.Type, Block>(ComponentPreset.Type.class);
+
+	/**
+	 * Read the header and index of a binary preset database.  The contents of the
+	 * stream are read fully into memory, the stream is not closed.
+	 *
+	 * @param stream	the stream to read
+	 * @param fileName	the file name, used in error messages
+	 * @throws IOException	if an I/O error occurs or the stream is not a supported preset database
+	 */
+	public BinaryPresetReader(InputStream stream, String fileName) throws IOException {
+		this.fileName = fileName;
+		this.data = FileUtils.readBytes(stream);
+
+		DataInputStream is = new DataInputStream(new ByteArrayInputStream(data));
+		if (is.readInt() != BinaryPresetFormat.MAGIC) {
+			throw new IOException(fileName + " is not a binary preset database");
+		}
+		int version = is.readInt();
+		if (version != BinaryPresetFormat.VERSION) {
+			throw new IOException(fileName + " has unsupported preset database version " + version);
+		}
+
+		int keyCount = is.readUnsignedShort();
+		keys = new TypedKey<?>[keyCount];
+		for (int i = 0; i < keyCount; i++) {
+			String name = is.readUTF();
+			keys[i] = BinaryPresetFormat.getKey(name);
+			if (keys[i] == null) {
+				throw new IOException(fileName + " contains unknown preset key " + name);
+			}
+		}
+
+		int blockCount = is.readUnsignedShort();
+		List<ComponentPreset.Type> types = new ArrayList<ComponentPreset.Type>(blockCount);
+		List<Integer> counts = new ArrayList<Integer>(blockCount);
+		List<Integer> lengths = new ArrayList<Integer>(blockCount);
+		for (int i = 0; i < blockCount; i++) {
+			types.add(ComponentPreset.Type.valueOf(is.readUTF()));
+			counts.add(is.readInt());
+			lengths.add(is.readInt());
+		}
+
+		int offset = data.length - is.available();
+		for (int i = 0; i < blockCount; i++) {
+			blocks.put(types.get(i), new Block(offset, lengths.get(i), counts.get(i)));
+			offset += lengths.get(i);
+		}
+		if (offset != data.length) {
+			throw new IOException(fileName + " is truncated or corrupt");
+		}
+	}
+
+	/**
+	 * Return the preset types stored in the database.
+	 */
+	public Set<ComponentPreset.Type> getTypes() {
+		return Collections.unmodifiableSet(blocks.keySet());
+	}
+
+	/**
+	 * Return the number of presets of the given type, without decoding them.
+	 */
+	public int getPresetCount(ComponentPreset.Type type) {
+		Block block = blocks.get(type);
+		return (block == null) ? 0 : block.count;
+	}
+
+	/**
+	 * Decode the presets of a single type.  Every call decodes the presets anew.
+	 *
+	 * @param type	the preset type to decode
+	 * @return		the presets of the type, an empty list if none are stored
+	 * @throws IOException	if the block is corrupt
+	 */
+	public List<ComponentPreset> read(ComponentPreset.Type type) throws IOException {
+		Block block = blocks.get(type);
+		if (block == null) {
+			return Collections.emptyList();
+		}
+
+		DataInputStream is = new DataInputStream(new ByteArrayInputStream(data, block.offset, block.length));
+		List<ComponentPreset> presets = new ArrayList<ComponentPreset>(block.count);
+		for (int i = 0; i < block.count; i++) {
+			ComponentPreset preset = new ComponentPreset();
+			String digest = is.readUTF();
+			int propertyCount = is.readUnsignedShort();
+			for (int j = 0; j < propertyCount; j++) {
+				int keyIndex = is.readUnsignedShort();
+				if (keyIndex >= keys.length) {
+					throw new IOException(fileName + " contains invalid key index " + keyIndex);
+				}
+				readValue(is, keys[keyIndex], preset);
+			}
+			if (preset.getType() != type) {
+				throw new IOException(fileName + " contains preset of type " + preset.getType() + " in block " + type);
+			}
+			preset.setDigest(digest);
+			presets.add(preset);
+		}
+		return presets;
+	}
+
+	/**
+	 * Decode all presets in the database.
+	 */
+	public List<ComponentPreset> readAll() throws IOException {
+		List<ComponentPreset> presets = new ArrayList<ComponentPreset>();
+		for (ComponentPreset.Type type : blocks.keySet()) {
+			presets.addAll(read(type));
+		}
+		return presets;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static void readValue(DataInputStream is, TypedKey<?> key, ComponentPreset preset) throws IOException {
+		Class<?> type = key.getType();
+		if (type == Double.class) {
+			preset.put((TypedKey<Double>) key, is.readDouble());
+		} else if (type == Integer.class) {
+			preset.put((TypedKey<Integer>) key, is.readInt());
+		} else if (type == Boolean.class) {
+			preset.put((TypedKey<Boolean>) key, is.readBoolean());
+		} else if (type == String.class) {
+			preset.put((TypedKey<String>) key, is.readUTF());
+		} else if (type == Manufacturer.class) {
+			preset.put((TypedKey<Manufacturer>) key, Manufacturer.getManufacturer(is.readUTF()));
+		} else if (type == ComponentPreset.Type.class) {
+			preset.put((TypedKey<ComponentPreset.Type>) key, ComponentPreset.Type.valueOf(is.readUTF()));
+		} else if (type == Shape.class) {
+			preset.put((TypedKey<Shape>) key, Shape.valueOf(is.readUTF()));
+		} else if (type == Finish.class) {
+			preset.put((TypedKey<Finish>) key, Finish.valueOf(is.readUTF()));
+		} else if (type == Material.class) {
+			Material.Type materialType = Material.Type.valueOf(is.readUTF());
+			String name = is.readUTF();
+			double density = is.readDouble();
+			boolean userDefined = is.readBoolean();
+			preset.put((TypedKey<Material>) key, Material.newMaterial(materialType, name, density, userDefined));
+		} else if (type == byte[].class) {
+			byte[] bytes = new byte[is.readInt()];
+			is.readFully(bytes);
+			preset.put((TypedKey<byte[]>) key, bytes);
+		} else {
+			throw new IOException("Unsupported preset property type " + type + " for key " + key);
+		}
+	}
+
+	private static class Block {
+		private final int offset;
+		private final int length;
+		private final int count;
+
+		private Block(int offset, int length, int count) {
+			this.offset = offset;
+			this.length = length;
+			this.count = count;
+		}
+	}
+
+}
@@ -0,0 +1,141 @@
+package net.sf.openrocket.preset;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.rocketcomponent.ExternalComponent.Finish;
+import net.sf.openrocket.rocketcomponent.Transition.Shape;
+import net.sf.openrocket.util.BugException;
+
+/**
+ * Writer for the binary preset database format.  The presets are partitioned by
+ * their ComponentPreset.Type so that {@link BinaryPresetReader} can decode
+ * each type independently.
+ *
+ * @see BinaryPresetFormat
+ */
+public class BinaryPresetWriter {
+
+	private final Map<String, Integer> keyIndex = new LinkedHashMap<String, Integer>();
+
+	/**
+	 * Write the presets to the output stream.  The stream is flushed but not closed.
+	 *
+	 * @param out		the stream to write to
+	 * @param presets	the presets to store
+	 * @throws IOException	if an I/O error occurs
+	 */
+	public void save(OutputStream out, Collection<ComponentPreset> presets) throws IOException {
+		keyIndex.clear();
+
+		Map<ComponentPreset.Type, List<ComponentPreset>> partitions =
+				new EnumMap<ComponentPreset.Type, List<ComponentPreset>>(ComponentPreset.Type.class);
+		for (ComponentPreset preset : presets) {
+			List<ComponentPreset> partition = partitions.get(preset.getType());
+			if (partition == null) {
+				partition = new ArrayList<ComponentPreset>();
+				partitions.put(preset.getType(), partition);
+			}
+			partition.add(preset);
+		}
+
+		// Encode the blocks first, this also builds the key table
+		Map<ComponentPreset.Type, byte[]> blocks = new EnumMap<ComponentPreset.Type, byte[]>(ComponentPreset.Type.class);
+		for (Entry<ComponentPreset.Type, List<ComponentPreset>> e : partitions.entrySet()) {
+			blocks.put(e.getKey(), encodeBlock(e.getValue()));
+		}
+
+		DataOutputStream os = new DataOutputStream(out);
+		os.writeInt(BinaryPresetFormat.MAGIC);
+		os.writeInt(BinaryPresetFormat.VERSION);
+
+		os.writeShort(keyIndex.size());
+		for (String name : keyIndex.keySet()) {
+			os.writeUTF(name);
+		}
+
+		os.writeShort(blocks.size());
+		for (Entry<ComponentPreset.Type, byte[]> e : blocks.entrySet()) {
+			os.writeUTF(e.getKey().name());
+			os.writeInt(partitions.get(e.getKey()).size());
+			os.writeInt(e.getValue().length);
+		}
+		for (byte[] block : blocks.values()) {
+			os.write(block);
+		}
+		os.flush();
+	}
+
+	private byte[] encodeBlock(List<ComponentPreset> presets) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		DataOutputStream os = new DataOutputStream(bos);
+		for (ComponentPreset preset : presets) {
+			TypedPropertyMap properties = preset.getProperties();
+			os.writeUTF(preset.getDigest());
+			os.writeShort(properties.size());
+			for (Entry<TypedKey<?>, Object> e : properties.entrySet()) {
+				os.writeShort(getKeyIndex(e.getKey()));
+				writeValue(os, e.getKey(), e.getValue());
+			}
+		}
+		os.flush();
+		return bos.toByteArray();
+	}
+
+	private int getKeyIndex(TypedKey<?> key) {
+		Integer index = keyIndex.get(key.getName());
+		if (index == null) {
+			if (BinaryPresetFormat.getKey(key.getName()) == null) {
+				throw new BugException("Unknown preset key " + key);
+			}
+			index = keyIndex.size();
+			keyIndex.put(key.getName(), index);
+		}
+		return index;
+	}
+
+	private static void writeValue(DataOutputStream os, TypedKey<?> key, Object value) throws IOException {
+		Class<?> type = key.getType();
+		if (type == Double.class) {
+			os.writeDouble((Double) value);
+		} else if (type == Integer.class) {
+			os.writeInt((Integer) value);
+		} else if (type == Boolean.class) {
+			os.writeBoolean((Boolean) value);
+		} else if (type == String.class) {
+			os.writeUTF((String) value);
+		} else if (type == Manufacturer.class) {
+			os.writeUTF(((Manufacturer) value).getDisplayName());
+		} else if (type == ComponentPreset.Type.class) {
+			os.writeUTF(((ComponentPreset.Type) value).name());
+		} else if (type == Shape.class) {
+			os.writeUTF(((Shape) value).name());
+		} else if (type == Finish.class) {
+			os.writeUTF(((Finish) value).name());
+		} else if (type == Material.class) {
+			Material material = (Material) value;
+			os.writeUTF(material.getType().name());
+			os.writeUTF(material.getName());
+			os.writeDouble(material.getDensity());
+			os.writeBoolean(material.isUserDefined());
+		} else if (type == byte[].class) {
+			byte[] bytes = (byte[]) value;
+			os.writeInt(bytes.length);
+			os.write(bytes);
+		} else {
+			throw new BugException("Unsupported preset property type " + type + " for key " + key);
+		}
+	}
+
+}
@@ -290,6 +290,13 @@ public class ComponentPreset implements Comparable<ComponentPreset>, Serializabl
 		properties.put(key, value);
 	}
 
+	/**
+	 * Package scope so the binary preset reader and writer can access it.
+	 */
+	TypedPropertyMap getProperties() {
+		return properties;
+	}
+
 	public <T> T get(TypedKey<T> key) {
 		T value = properties.get(key);
 		if (value == null) {
@@ -340,6 +347,13 @@ public class ComponentPreset implements Comparable<ComponentPreset>, Serializabl
 		return digest != null ? digest.hashCode() : 0;
 	}
 
+	/**
+	 * Package scope so the binary preset reader can restore a stored digest.
+	 */
+	void setDigest(String digest) {
+		this.digest = digest;
+	}
+
 	/**
 	 * Package scope so the factory can call it.
 	 */
@@ -243,6 +243,11 @@ public class BodyTube extends SymmetricComponent implements BoxBounded, MotorMou
 		return getOuterRadius();
 	}
 	
+	@Override
+	protected double[] getProfileParameters() {
+		return new double[] { getOuterRadius() };
+	}
+	
 	/**
 	 * Returns the inner radius at the position x.  If the tube is filled, returns always zero.
 	 */
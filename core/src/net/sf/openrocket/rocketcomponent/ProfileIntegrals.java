@@ -0,0 +1,393 @@
+package net.sf.openrocket.rocketcomponent;
+
+import java.util.Arrays;
+import net.sf.openrocket.util.LRUCache;
+import net.sf.openrocket.util.MathUtil;
+
+/**
+ * Volume, area and inertia integrals of the radius profile of a
+ * {@link SymmetricComponent}.
+ * <p>
+ * The profile is approximated by conical frustums.  The frustums are refined
+ * adaptively by bisection until the volume and wetted area no longer change
+ * within the tolerance, and curved profiles are refined where the curvature
+ * is large, e.g. at the tip of an ogive or ellipsoid.  The volume, area and inertia
+ * of each frustum are integrated exactly, so conical and cylindrical profiles are
+ * integrated exactly with a few frustums.
+ * <p>
+ * The integrals are immutable.  Integrals of profiles that are determined by the
+ * {@link SymmetricComponent#getProfileParameters() profile parameters} of the
+ * component are cached and shared between all components with the same profile.
+ */
+final class ProfileIntegrals {
+
+	/** Number of uniform divisions before the adaptive refinement */
+	private static final int INITIAL_DIVISIONS = 16;
+	/** Maximum number of bisections of an initial division */
+	private static final int MAX_DEPTH = 10;
+	/** Relative tolerance of the volume and wetted area */
+	private static final double TOLERANCE = 1e-5;
+
+	private static final int CACHE_SIZE = 1000;
+
+	private static final LRUCache<ProfileKey, ProfileIntegrals> cache =
+			new LRUCache<ProfileKey, ProfileIntegrals>(CACHE_SIZE);
+
+
+	final double volume;
+	final double fullVolume;
+	final double cgx;
+	final double wetArea;
+	final double planArea;
+	final double planCenter;
+
+	/** Unit inertias relative to the fore end, NaN if the volume is zero */
+	final double volumeLongitudinalInertia;
+	final double volumeRotationalInertia;
+	/** Unit inertias of the surface relative to the fore end, NaN if the surface is zero */
+	final double surfaceLongitudinalInertia;
+	final double surfaceRotationalInertia;
+
+
+	/**
+	 * Return the integrals of the current profile of a component.  The integrals
+	 * are taken from the shared cache when the component provides profile parameters.
+	 */
+	static ProfileIntegrals get(SymmetricComponent component) {
+		double[] parameters = component.getProfileParameters();
+		if (parameters == null) {
+			return new ProfileIntegrals(component);
+		}
+
+		ProfileKey key = new ProfileKey(component, parameters);
+		ProfileIntegrals integrals = cache.get(key);
+		if (integrals == null) {
+			integrals = new ProfileIntegrals(component);
+			cache.put(key, integrals);
+		}
+		return integrals;
+	}
+
+	/**
+	 * Remove all cached integrals.
+	 */
+	static void clearCache() {
+		cache.clear();
+	}
+
+
+	private ProfileIntegrals(SymmetricComponent component) {
+		final double length = component.getLength();
+		final double thickness = component.getThickness();
+		final boolean filled = component.isFilled();
+
+		if (length <= 0) {
+			volume = 0;
+			fullVolume = 0;
+			cgx = 0;
+			wetArea = 0;
+			planArea = 0;
+			planCenter = 0;
+			volumeLongitudinalInertia = Double.NaN;
+			volumeRotationalInertia = Double.NaN;
+			surfaceLongitudinalInertia = Double.NaN;
+			surfaceRotationalInertia = Double.NaN;
+			return;
+		}
+
+		Profile profile = new Profile(component, length, thickness, filled);
+
+		// Volume, CG, wetted area and planform area
+		double v = 0, fullV = 0, cg = 0, wet = 0, plan = 0, center = 0;
+		for (int n = 1; n < profile.count; n++) {
+			final double x = profile.x[n - 1];
+			final double l = profile.x[n] - x;
+			final double r1 = profile.r[n - 1];
+			final double r2 = profile.r[n];
+			final double hyp = MathUtil.hypot(r2 - r1, l);
+
+			final double dFullV = frustumVolume(l, r1, r2);
+			final double dV = shellVolume(l, r1, r2, hyp, thickness, filled);
+
+			v += dV;
+			fullV += dFullV;
+			cg += (x + centroid(l, r1, r2, dV == dFullV)) * dV;
+
+			// Wetted area ( * PI at the end)
+			wet += hyp * (r1 + r2);
+
+			// Planform area & center
+			final double p = l * (r1 + r2);
+			plan += p;
+			center += (x + centroid(l, r1, r2, false)) * p;
+		}
+
+		wetArea = wet * Math.PI;
+		planArea = plan;
+		planCenter = (plan > 0) ? center / plan : 0;
+		fullVolume = fullV;
+		if (v < 0.0000000001) { // 0.1 mm^3
+			volume = 0;
+			cgx = length / 2;
+		} else {
+			volume = v;
+			cgx = cg / v;
+		}
+
+		// Inertia based on the volume, exact for each frustum
+		double rot = 0, lon = 0;
+		v = 0;
+		for (int n = 1; n < profile.count; n++) {
+			final double x = profile.x[n - 1];
+			final double l = profile.x[n] - x;
+			final double r1 = profile.r[n - 1];
+			final double r2 = profile.r[n];
+			final double hyp = MathUtil.hypot(r2 - r1, l);
+			final double height = thickness * hyp / l;
+
+			rot += solidRotationalInertia(l, r1, r2);
+			lon += solidLongitudinalInertia(x, l, r1, r2);
+			if (filled || r1 < height || r2 < height) {
+				v += frustumVolume(l, r1, r2);
+			} else {
+				// Subtract the hollow frustum inside the wall
+				rot -= solidRotationalInertia(l, r1 - height, r2 - height);
+				lon -= solidLongitudinalInertia(x, l, r1 - height, r2 - height);
+				v += Math.PI * l * height * (r1 + r2 - height);
+			}
+		}
+		if (MathUtil.equals(v, 0)) {
+			volumeLongitudinalInertia = Double.NaN;
+			volumeRotationalInertia = Double.NaN;
+		} else {
+			volumeLongitudinalInertia = lon / v;
+			volumeRotationalInertia = rot / v;
+		}
+
+		// Inertia based on the surface, exact for each frustum
+		double surface = 0;
+		rot = 0;
+		lon = 0;
+		for (int n = 1; n < profile.count; n++) {
+			final double x = profile.x[n - 1];
+			final double l = profile.x[n] - x;
+			final double r1 = profile.r[n - 1];
+			final double r2 = profile.r[n];
+
+			// Surface element per unit length dS/dx = 2 * PI * r * hyp / l
+			final double dS = 2 * Math.PI * MathUtil.hypot(r2 - r1, l) / l;
+
+			rot += dS * moment(l, r1, r2, 3, 0);
+			lon += dS * (moment(l, r1, r2, 3, 0) / 2 + axialMoment(x, l, r1, r2, 1));
+			surface += dS * moment(l, r1, r2, 1, 0);
+		}
+		if (MathUtil.equals(surface, 0)) {
+			surfaceLongitudinalInertia = Double.NaN;
+			surfaceRotationalInertia = Double.NaN;
+		} else {
+			surfaceLongitudinalInertia = lon / surface;
+			surfaceRotationalInertia = rot / surface;
+		}
+	}
+
+
+	private static double frustumVolume(double l, double r1, double r2) {
+		return Math.PI / 3.0 * l * (r1 * r1 + r1 * r2 + r2 * r2);
+	}
+
+	/**
+	 * Rotational inertia of a solid frustum of unit density.
+	 */
+	private static double solidRotationalInertia(double l, double r1, double r2) {
+		return Math.PI / 2 * moment(l, r1, r2, 4, 0);
+	}
+
+	/**
+	 * Longitudinal inertia of a solid frustum of unit density at position x, relative
+	 * to the fore end of the component.
+	 */
+	private static double solidLongitudinalInertia(double x, double l, double r1, double r2) {
+		return Math.PI / 4 * moment(l, r1, r2, 4, 0) + Math.PI * axialMoment(x, l, r1, r2, 2);
+	}
+
+	/**
+	 * Integral of r^p * (x + t)^2 over t = 0...l, where the radius r changes linearly
+	 * from r1 to r2.
+	 */
+	private static double axialMoment(double x, double l, double r1, double r2, int p) {
+		return x * x * moment(l, r1, r2, p, 0) + 2 * x * moment(l, r1, r2, p, 1) + moment(l, r1, r2, p, 2);
+	}
+
+	/**
+	 * Integral of r^p * t^k over t = 0...l, where the radius r changes linearly
+	 * from r1 to r2.
+	 */
+	private static double moment(double l, double r1, double r2, int p, int k) {
+		// Binomial expansion of (r1 + (r2 - r1) * s)^p * s^k over s = 0...1
+		final double d = r2 - r1;
+		double sum = 0;
+		double binomial = 1;
+		for (int j = 0; j <= p; j++) {
+			sum += binomial * Math.pow(r1, p - j) * Math.pow(d, j) / (k + j + 1);
+			binomial = binomial * (p - j) / (j + 1);
+		}
+		return Math.pow(l, k + 1) * sum;
+	}
+
+	/**
+	 * Axial position of the centroid of a solid frustum, or of its lateral surface
+	 * (and of the trapezoidal planform), relative to the fore end.
+	 */
+	private static double centroid(double l, double r1, double r2, boolean solid) {
+		if (solid) {
+			final double d = r1 * r1 + r1 * r2 + r2 * r2;
+			return (d > 0) ? l * (r1 * r1 + 2 * r1 * r2 + 3 * r2 * r2) / (4 * d) : l / 2;
+		}
+		final double d = r1 + r2;
+		return (d > 0) ? l * (r1 + 2 * r2) / (3 * d) : l / 2;
+	}
+
+	/**
+	 * Volume of a frustum with a wall of the given thickness.  The thickness is normal
+	 * to the surface, and is projected to the radial direction.  Frustums whose radius
+	 * is smaller than the wall are filled.
+	 */
+	private static double shellVolume(double l, double r1, double r2, double hyp, double thickness, boolean filled) {
+		if (filled) {
+			return frustumVolume(l, r1, r2);
+		}
+		final double height = thickness * hyp / l;
+		if (r1 < height || r2 < height) {
+			return frustumVolume(l, r1, r2);
+		}
+		return MathUtil.max(Math.PI * l * height * (r1 + r2 - height), 0);
+	}
+
+
+	/**
+	 * The sample points of the adaptively refined profile.
+	 */
+	private static final class Profile {
+		private final SymmetricComponent component;
+		private final double thickness;
+		private final boolean filled;
+
+		private double[] x = new double[4 * INITIAL_DIVISIONS + 1];
+		private double[] r = new double[4 * INITIAL_DIVISIONS + 1];
+		private int count = 0;
+
+		private double volumeTolerance;
+		private double shellTolerance;
+		private double areaTolerance;
+
+		Profile(SymmetricComponent component, double length, double thickness, boolean filled) {
+			this.component = component;
+			this.thickness = thickness;
+			this.filled = filled;
+
+			// Uniform divisions for estimating the magnitudes
+			final double[] xs = new double[INITIAL_DIVISIONS + 1];
+			final double[] rs = new double[INITIAL_DIVISIONS + 1];
+			double fullV = 0, v = 0, wet = 0;
+			for (int n = 0; n <= INITIAL_DIVISIONS; n++) {
+				// Clamp the last point to the length to prevent round off error
+				xs[n] = (n == INITIAL_DIVISIONS) ? length : n * length / INITIAL_DIVISIONS;
+				rs[n] = component.getRadius(xs[n]);
+				if (n > 0) {
+					final double l = xs[n] - xs[n - 1];
+					final double hyp = MathUtil.hypot(rs[n] - rs[n - 1], l);
+					fullV += frustumVolume(l, rs[n - 1], rs[n]);
+					v += shellVolume(l, rs[n - 1], rs[n], hyp, thickness, filled);
+					wet += hyp * (rs[n - 1] + rs[n]);
+				}
+			}
+			volumeTolerance = TOLERANCE * fullV / length;
+			shellTolerance = TOLERANCE * v / length;
+			areaTolerance = TOLERANCE * wet / length;
+
+			add(xs[0], rs[0]);
+			for (int n = 1; n <= INITIAL_DIVISIONS; n++) {
+				refine(xs[n - 1], rs[n - 1], xs[n], rs[n], 0);
+			}
+		}
+
+		/**
+		 * Add the points of the interval (x1, x2] to the profile, bisecting it until the
+		 * volume and wetted area of the halves match the whole interval.
+		 */
+		private void refine(double x1, double r1, double x2, double r2, int depth) {
+			if (depth < MAX_DEPTH) {
+				final double l = x2 - x1;
+				final double xm = (x1 + x2) / 2;
+				final double rm = component.getRadius(xm);
+
+				final double hyp = MathUtil.hypot(r2 - r1, l);
+				final double hyp1 = MathUtil.hypot(rm - r1, l / 2);
+				final double hyp2 = MathUtil.hypot(r2 - rm, l / 2);
+
+				final double fullV = frustumVolume(l, r1, r2);
+				final double fullHalves = frustumVolume(l / 2, r1, rm) + frustumVolume(l / 2, rm, r2);
+				final double v = shellVolume(l, r1, r2, hyp, thickness, filled);
+				final double vHalves = shellVolume(l / 2, r1, rm, hyp1, thickness, filled) +
+						shellVolume(l / 2, rm, r2, hyp2, thickness, filled);
+				final double wet = hyp * (r1 + r2);
+				final double wetHalves = hyp1 * (r1 + rm) + hyp2 * (rm + r2);
+
+				if (Math.abs(fullHalves - fullV) > volumeTolerance * l ||
+						Math.abs(vHalves - v) > shellTolerance * l ||
+						Math.abs(wetHalves - wet) > areaTolerance * l) {
+					refine(x1, r1, xm, rm, depth + 1);
+					refine(xm, rm, x2, r2, depth + 1);
+					return;
+				}
+				add(xm, rm);
+			}
+			add(x2, r2);
+		}
+
+		private void add(double px, double pr) {
+			if (count == x.length) {
+				x = Arrays.copyOf(x, 2 * count);
+				r = Arrays.copyOf(r, 2 * count);
+			}
+			x[count] = px;
+			r[count] = pr;
+			count++;
+		}
+	}
+
+
+	/**
+	 * Cache key of a profile.  Profiles are equal if the component class, length,
+	 * wall and profile parameters are equal.
+	 */
+	private static final class ProfileKey {
+		private final Class<?> type;
+		private final double[] values;
+		private final int hashCode;
+
+		ProfileKey(SymmetricComponent component, double[] parameters) {
+			this.type = component.getClass();
+			this.values = Arrays.copyOf(parameters, parameters.length + 3);
+			values[parameters.length] = component.getLength();
+			values[parameters.length + 1] = component.getThickness();
+			values[parameters.length + 2] = component.isFilled() ? 1 : 0;
+			this.hashCode = 31 * type.hashCode() + Arrays.hashCode(values);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof ProfileKey))
+				return false;
+			ProfileKey other = (ProfileKey) obj;
+			return type == other.type && Arrays.equals(values, other.values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+}
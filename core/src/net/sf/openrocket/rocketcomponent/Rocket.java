@@ -336,7 +336,10 @@ public class Rocket extends ComponentAssembly {
 		copyRocket.stageMap = new HashMap<>();
 		for( Map.Entry<Integer,AxialStage> entry : this.stageMap.entrySet()){
 			final AxialStage stage = (AxialStage)copyRocket.findComponent(entry.getValue().getID());
-			copyRocket.stageMap.put(entry.getKey(), stage);
+			// a copy without children (see copyComponentWithOriginalID) has no stages
+			if (stage != null) {
+				copyRocket.stageMap.put(entry.getKey(), stage);
+			}
 		}
 
 		// these flight configurations need to reference the _new_ Rocket copy
@@ -448,6 +451,10 @@ public class Rocket extends ComponentAssembly {
 	@Override
 	protected void fireComponentChangeEvent(ComponentChangeEvent cce) {
 		if( ! this.eventsEnabled ){
+			// Changes are not reported, but the undo history must not share stale copies
+			if (!cce.isUndoChange()) {
+				markModified(cce.getSource(), UniqueID.next());
+			}
 			return;
 		}
 		
@@ -470,6 +477,7 @@ public class Rocket extends ComponentAssembly {
 					treeModID = modID;
 				if (cce.isFunctionalChange())
 					functionalModID = modID;
+				markModified(cce.getSource(), modID);
 			}
 			
 			// Check whether frozen
@@ -500,6 +508,23 @@ public class Rocket extends ComponentAssembly {
 		updateConfigurations();
 	}
 	
+	/**
+	 * Rebuild the stage map and the flight configurations after the component tree
+	 * has been assembled from component copies.  The stages retain their stage numbers.
+	 */
+	/*package-local*/ void rebuildStageMap() {
+		this.stageMap.clear();
+		Iterator<RocketComponent> iterator = this.iterator(false);
+		while (iterator.hasNext()) {
+			RocketComponent component = iterator.next();
+			if (component instanceof AxialStage) {
+				AxialStage stage = (AxialStage) component;
+				this.stageMap.put(stage.getStageNumber(), stage);
+			}
+		}
+		updateConfigurations();
+	}
+	
 	private void updateStageMap(){
 		for( RocketComponent component : getChildren() ){
 			if (component instanceof AxialStage) {
@@ -517,6 +542,22 @@ public class Rocket extends ComponentAssembly {
 	}
 	
 	
+	/**
+	 * Update the component modification ID of the event source.  Events fired by the
+	 * rocket itself may concern any component (e.g. flight configuration changes), so
+	 * they mark all components modified.
+	 */
+	private void markModified(final Object source, final int id) {
+		if (source == this) {
+			Iterator<RocketComponent> iterator = this.iterator(true);
+			while (iterator.hasNext()) {
+				iterator.next().setComponentModID(id);
+			}
+		} else if (source instanceof RocketComponent) {
+			((RocketComponent) source).setComponentModID(id);
+		}
+	}
+	
 	private void notifyAllListeners(final ComponentChangeEvent cce){
 		// Copy the list before iterating to prevent concurrent modification exceptions.
 		EventListener[] list = listenerList.toArray(new EventListener[0]);
@@ -115,6 +115,9 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	// Unique ID of the component
 	private String id = null;
 	
+	// Modification ID of the component, updated by the rocket when the component is changed
+	private int componentModID = UniqueID.next();
+	
 	// Preset component this component is based upon
 	private ComponentPreset presetComponent = null;
 	
@@ -410,6 +413,40 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	}
 	
 	
+	/**
+	 * Make a copy of this component alone, without its children, while maintaining
+	 * the component ID.  The copy has no parent and is not affected by the later
+	 * invalidation of this component.  This is used by the undo history, which
+	 * stores the components of the rocket separately.  This method does not fire
+	 * any events.
+	 *
+	 * @return	a copy of this component without children.
+	 * @see #copyWithOriginalID()
+	 */
+	public final RocketComponent copyComponentWithOriginalID() {
+		mutex.lock("copyComponentWithOriginalID");
+		try {
+			checkState();
+			RocketComponent shell;
+			try {
+				shell = (RocketComponent) this.clone();
+			} catch (CloneNotSupportedException e) {
+				throw new BugException("CloneNotSupportedException encountered, report a bug!", e);
+			}
+			
+			// Copy a childless shell so the overridden copy methods clone the mutable fields
+			shell.mutex = SafetyMutex.newInstance();
+			shell.parent = null;
+			shell.children = new ArrayList<RocketComponent>();
+			RocketComponent copy = shell.copyWithOriginalID();
+			copy.invalidator = new Invalidator(copy);
+			return copy;
+		} finally {
+			mutex.unlock("copyComponentWithOriginalID");
+		}
+	}
+	
+	
 	//////////////  Methods that may not be overridden  ////////////
 	
 	
@@ -892,6 +929,25 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		this.id = UniqueID.uuid();
 	}
 	
+	/**
+	 * Return the modification ID of this component.  The ID changes every time an event
+	 * with this component as the source is fired, also while the events of the rocket are
+	 * disabled or the component is not attached to a rocket, and is retained when the
+	 * component is copied.  Two components with the same ID and modification ID thus
+	 * have the same state, which is used by the undo history to share unchanged component
+	 * copies.  Changes to the child components do not affect the ID.
+	 *
+	 * @return	the modification ID of this component.
+	 * @see Rocket#getModID()
+	 */
+	public final int getComponentModID() {
+		return componentModID;
+	}
+	
+	/*package-local*/ final void setComponentModID(int modID) {
+		this.componentModID = modID;
+	}
+	
 	
 	
 	
@@ -1751,7 +1807,9 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 	 *
 	 * If the component tree root is not a Rocket, the event is ignored.  This is the
 	 * case when constructing components not in any Rocket tree.  In this case it
-	 * would be impossible for the component to have listeners in any case.
+	 * would be impossible for the component to have listeners in any case.  The
+	 * component modification ID of the source is still updated, since the component
+	 * may be added back to a rocket whose undo history contains a copy of it.
 	 *
 	 * @param e  Event to send
 	 */
@@ -1759,6 +1817,9 @@ public abstract class RocketComponent implements ChangeSource, Cloneable, Iterab
 		checkState();
 		if (parent == null) {
 			/* Ignore if root invalid. */
+			if (!e.isUndoChange() && e.getSource() instanceof RocketComponent) {
+				((RocketComponent) e.getSource()).setComponentModID(UniqueID.next());
+			}
 			return;
 		}
 		getRoot().fireComponentChangeEvent(e);
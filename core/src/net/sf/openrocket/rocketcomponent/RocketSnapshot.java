@@ -0,0 +1,145 @@
+package net.sf.openrocket.rocketcomponent;
+
+/**
+ * An immutable snapshot of the state of a rocket, used by the undo history.
+ * <p>
+ * The snapshot is a tree of component copies without children.  When a snapshot is
+ * created, the copies of a previous snapshot are reused for all components whose
+ * {@link RocketComponent#getComponentModID() component modification ID} has not
+ * changed, and unchanged subtrees are shared as a whole.  Creating a snapshot
+ * therefore copies only the components that have been modified since the previous
+ * snapshot, and its memory consumption is proportional to the modified components
+ * and their ancestors.  The rocket itself is always copied.
+ * <p>
+ * The component copies are never modified or handed out; {@link #toRocket()} returns
+ * a new copy of the rocket each time.
+ *
+ * @see net.sf.openrocket.document.OpenRocketDocument
+ */
+public final class RocketSnapshot {
+
+	private final Node root;
+	private final int modID;
+	private final int copyCount;
+
+	private RocketSnapshot(Node root, int modID, int copyCount) {
+		this.root = root;
+		this.modID = modID;
+		this.copyCount = copyCount;
+	}
+
+
+	/**
+	 * Create a snapshot of the current state of a rocket.
+	 *
+	 * @param rocket	the rocket.
+	 * @param previous	a previous snapshot of the same rocket whose component copies
+	 * 					may be shared, or <code>null</code> to copy all components.
+	 * @return			the snapshot of the rocket.
+	 */
+	public static RocketSnapshot create(Rocket rocket, RocketSnapshot previous) {
+		int[] copies = new int[1];
+		Node root = snapshot(rocket, (previous == null) ? null : previous.root, copies);
+		return new RocketSnapshot(root, rocket.getModID(), copies[0]);
+	}
+
+
+	/**
+	 * Return the modification ID of the rocket at the time the snapshot was taken.
+	 *
+	 * @see Rocket#getModID()
+	 */
+	public int getModID() {
+		return modID;
+	}
+
+	/**
+	 * Return the number of components that were copied when the snapshot was created.
+	 * The rest of the components are shared with the previous snapshot.
+	 */
+	public int getCopiedComponentCount() {
+		return copyCount;
+	}
+
+
+	/**
+	 * Return a new copy of the rocket in the state of this snapshot.  The copy has the
+	 * original component ID's and is suitable for {@link Rocket#loadFrom(Rocket)}.
+	 *
+	 * @return	a new copy of the rocket.
+	 */
+	public Rocket toRocket() {
+		Rocket rocket = (Rocket) restore(root);
+		rocket.rebuildStageMap();
+		rocket.checkComponentStructure();
+		return rocket;
+	}
+
+
+	private static Node snapshot(RocketComponent component, Node previous, int[] copies) {
+
+		// Snapshot the children, reusing the previous nodes of the same components
+		Node[] children = new Node[component.children.size()];
+		boolean childrenShared = (previous != null && previous.children.length == children.length);
+		for (int i = 0; i < children.length; i++) {
+			RocketComponent child = component.children.get(i);
+			Node p = findChild(previous, child.getID(), i);
+			children[i] = snapshot(child, p, copies);
+			childrenShared = childrenShared && (children[i] == previous.children[i]);
+		}
+
+		RocketComponent copy;
+		if (previous != null && !(component instanceof Rocket) &&
+				previous.component.getClass() == component.getClass() &&
+				previous.component.getComponentModID() == component.getComponentModID()) {
+			if (childrenShared) {
+				return previous;
+			}
+			copy = previous.component;
+		} else {
+			copy = component.copyComponentWithOriginalID();
+			copies[0]++;
+		}
+		return new Node(copy, children);
+	}
+
+	/**
+	 * Find the child node of a component ID, checking the node at the same position first.
+	 */
+	private static Node findChild(Node parent, String id, int index) {
+		if (parent == null) {
+			return null;
+		}
+		if (index < parent.children.length && parent.children[index].component.getID().equals(id)) {
+			return parent.children[index];
+		}
+		for (Node n : parent.children) {
+			if (n.component.getID().equals(id)) {
+				return n;
+			}
+		}
+		return null;
+	}
+
+	private static RocketComponent restore(Node node) {
+		RocketComponent component = node.component.copyComponentWithOriginalID();
+		for (Node n : node.children) {
+			RocketComponent child = restore(n);
+			// Don't use addChild(...) method since it fires events
+			component.children.add(child);
+			child.parent = component;
+		}
+		return component;
+	}
+
+
+	private static final class Node {
+		private final RocketComponent component;
+		private final Node[] children;
+
+		public Node(RocketComponent component, Node[] children) {
+			this.component = component;
+			this.children = children;
+		}
+	}
+}
@@ -25,8 +25,6 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 	public static final double DEFAULT_RADIUS = 0.025;
 	public static final double DEFAULT_THICKNESS = 0.002;
 	
-	private static final int DIVISIONS = 100; // No. of divisions when integrating
-	
 	protected boolean filled = false;
 	protected double thickness = DEFAULT_THICKNESS;
 	
@@ -40,6 +38,7 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 	private double longitudinalInertia = -1;
 	private double rotationalInertia = -1;
 	private Coordinate cg = null;
+	private ProfileIntegrals integrals = null;
 	
 
 	public SymmetricComponent() {
@@ -294,235 +293,84 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 	}
 	
 	/**
-	 * Performs integration over the length of the component and updates the cached variables.
+	 * Return the parameters that determine the radius profile {@link #getRadius(double)}
+	 * of the component together with the component class, length, thickness and filled
+	 * state.  Components with equal profile parameters share the integrated volume, area
+	 * and inertia values.  Returns <code>null</code> if the profile is not determined by
+	 * a set of parameters, in which case the profile is always integrated separately.
+	 * <p>
+	 * Subclasses that change the radius profile must override this method.
+	 * 
+	 * @return	the profile parameters, or <code>null</code>.
+	 */
+	protected double[] getProfileParameters() {
+		return null;
+	}
+	
+	private ProfileIntegrals getIntegrals() {
+		if (integrals == null)
+			integrals = ProfileIntegrals.get(this);
+		return integrals;
+	}
+	
+	/**
+	 * Updates the cached variables from the integrals of the radius profile.
 	 */
 	private void integrate() {
-		double x, r1, r2;
-		double cgx;
+		ProfileIntegrals integrals = getIntegrals();
 		
-		// Check length > 0
+		wetArea = integrals.wetArea;
+		planArea = integrals.planArea;
+		planCenter = integrals.planCenter;
+		fullVolume = integrals.fullVolume;
+		volume = integrals.volume;
 		if (length <= 0) {
-			wetArea = 0;
-			planArea = 0;
-			planCenter = 0;
-			volume = 0;
 			cg = Coordinate.NUL;
-			return;
-		}
-		
-
-		// Integrate for volume, CG, wetted area and planform area
-		
-		final double step = length / DIVISIONS;
-		final double pi3 = Math.PI / 3.0;
-		r1 = getRadius(0);
-		x = 0;
-		wetArea = 0;
-		planArea = 0;
-		planCenter = 0;
-		fullVolume = 0;
-		volume = 0;
-		cgx = 0;
-		
-		for (int n = 1; n <= DIVISIONS; n++) {
-			/*
-			 * r1 and r2 are the two radii
-			 * x is the position of r1
-			 * hyp is the length of the hypotenuse from r1 to r2
-			 * height if the y-axis height of the component if not filled
-			 */
-			/*
-			 * l is the step size for the current loop.  Could also be called delta-x.
-			 * 
-			 * to account for accumulated errors in the x position during the loop
-			 * during the last iteration (n== DIVISIONS) we recompute l to be
-			 * whatever is left.
-			 */
-			double l = (n==DIVISIONS) ? length -x : step;
-
-			// Further to prevent round off error from the previous statement,
-			// we clamp r2 to length at the last iteration.
-			r2 = getRadius((n==DIVISIONS) ? length : x + l);
-			
-			final double hyp = MathUtil.hypot(r2 - r1, l);
-			
-			// Volume differential elements
-			final double dV;
-			final double dFullV;
-			
-			dFullV = pi3 * l * (r1 * r1 + r1 * r2 + r2 * r2);
-			
-			if ( filled ) {
-				dV = dFullV;
-			} else {
-				// hollow
-				// Thickness is normal to the surface of the component
-				// here we use simple trig to project the Thickness
-				// on to the y dimension (radius).
-				double height = thickness * hyp / l;
-				if (r1 < height || r2 < height) {
-					// Filled portion of piece
-					dV = dFullV;
-				} else {
-					// Hollow portion of piece
-					dV = MathUtil.max(Math.PI* l * height * (r1 + r2 - height), 0);
-				}
-			}
-
-			// Add to the volume-related components
-			volume += dV;
-			fullVolume += dFullV;
-			cgx += (x + l / 2) * dV;
-			
-			// Wetted area ( * PI at the end)
-			wetArea += hyp * (r1 + r2);
-			
-			// Planform area & center
-			final double p = l * (r1 + r2);
-			planArea += p;
-			planCenter += (x + l / 2) * p;
-
-			// Update for next iteration
-			r1 = r2;
-			x += l;
-		}
-		
-		wetArea *= Math.PI;
-		
-		if (planArea > 0)
-			planCenter /= planArea;
-		
-		if (volume < 0.0000000001) { // 0.1 mm^3
-			volume = 0;
-			cg = new Coordinate(length / 2, 0, 0, 0);
+		} else if (volume == 0) {
+			cg = new Coordinate(integrals.cgx, 0, 0, 0);
 		} else {
 			// the mass of this shape is the material density * volume.
 			// it cannot come from super.getComponentMass() since that 
 			// includes the shoulders
-			cg = new Coordinate(cgx / volume, 0, 0, getMaterial().getDensity() * volume );
+			cg = new Coordinate(integrals.cgx, 0, 0, getMaterial().getDensity() * volume);
 		}
 	}
 	
 	
 	/**
-	 * Integrate the longitudinal and rotational inertia based on component volume.
-	 * This method may be used only if the total volume is zero.
+	 * Update the longitudinal and rotational inertia based on component volume.
+	 * If the volume is zero, the inertia is based on the component surface area.
 	 */
 	private void integrateInertiaVolume() {
-		double x, r1, r2;
-		
-		final double l = length / DIVISIONS;
-		final double pil = Math.PI * l; // PI * l
-		final double pil3 = Math.PI * l / 3; // PI * l/3
-		
-		r1 = getRadius(0);
-		x = 0;
-		longitudinalInertia = 0;
-		rotationalInertia = 0;
-		
-		double vol = 0;
-		
-		for (int n = 1; n <= DIVISIONS; n++) {
-			/*
-			 * r1 and r2 are the two radii, outer is their average
-			 * x is the position of r1
-			 * hyp is the length of the hypotenuse from r1 to r2
-			 * height if the y-axis height of the component if not filled
-			 */
-			r2 = getRadius(x + l);
-			final double outer = (r1 + r2) / 2;
-			
-
-			// Volume differential elements
-			final double inner;
-			final double dV;
-			
-			final double hyp = MathUtil.hypot(r2 - r1, l);
-			final double height = thickness * hyp / l;
-			if (filled || r1 < height || r2 < height ) {
-				inner = 0;
-				dV = pil3 * (r1 * r1 + r1 * r2 + r2 * r2);
-			} else {
-				dV = pil * height * (r1 + r2 - height);
-				inner = Math.max(outer - height, 0.);
-			}
-			
-			rotationalInertia += dV * (pow2(outer) + pow2(inner)) / 2;
-			longitudinalInertia += dV * ((3 * (pow2(outer) + pow2(inner)) + pow2(l)) / 12 + pow2(x + l / 2));
-			
-			vol += dV;
-			
-			// Update for next iteration
-			r1 = r2;
-			x += l;
-		}
-		
-		if (MathUtil.equals(vol, 0)) {
+		ProfileIntegrals integrals = getIntegrals();
+		if (Double.isNaN(integrals.volumeRotationalInertia)) {
 			integrateInertiaSurface();
 			return;
 		}
 		
-		rotationalInertia /= vol;
-		longitudinalInertia /= vol;
+		rotationalInertia = integrals.volumeRotationalInertia;
 		
 		// Shift longitudinal inertia to CG
-		longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
+		longitudinalInertia = Math.max(integrals.volumeLongitudinalInertia - pow2(getComponentCG().x), 0);
 	}
 	
 	
 
 	/**
-	 * Integrate the longitudinal and rotational inertia based on component surface area.
-	 * This method may be used only if the total volume is zero.
+	 * Update the longitudinal and rotational inertia based on component surface area.
 	 */
 	private void integrateInertiaSurface() {
-		double x, r1, r2;
-		
-		final double l = length / DIVISIONS;
-		
-		r1 = getRadius(0);
-		//System.out.println(r1);
-		x = 0;
-		
-		longitudinalInertia = 0;
-		rotationalInertia = 0;
-		
-		double surface = 0;
-		
-		for (int n = 1; n <= DIVISIONS; n++) {
-			/*
-			 * r1 and r2 are the two radii, outer is their average
-			 * x is the position of r1
-			 * hyp is the length of the hypotenuse from r1 to r2
-			 * height if the y-axis height of the component if not filled
-			 */
-			r2 = getRadius(x + l);
-			final double hyp = MathUtil.hypot(r2 - r1, l);
-			final double outer = (r1 + r2) / 2;
-			
-			final double dS = hyp * (r1 + r2) * Math.PI;
-			
-			rotationalInertia += dS * pow2(outer);
-			longitudinalInertia += dS * ((6 * pow2(outer) + pow2(l)) / 12 + pow2(x + l / 2));
-			
-			surface += dS;
-			
-			// Update for next iteration
-			r1 = r2;
-			x += l;
-		}
-		
-		if (MathUtil.equals(surface, 0)) {
+		ProfileIntegrals integrals = getIntegrals();
+		if (Double.isNaN(integrals.surfaceRotationalInertia)) {
 			longitudinalInertia = 0;
 			rotationalInertia = 0;
 			return;
 		}
 		
-		longitudinalInertia /= surface;
-		rotationalInertia /= surface;
+		rotationalInertia = integrals.surfaceRotationalInertia;
 		
 		// Shift longitudinal inertia to CG
-		longitudinalInertia = Math.max(longitudinalInertia - pow2(getComponentCG().x), 0);
+		longitudinalInertia = Math.max(integrals.surfaceLongitudinalInertia - pow2(getComponentCG().x), 0);
 	}
 	
 	
@@ -543,6 +391,7 @@ public abstract class SymmetricComponent extends BodyComponent implements BoxBou
 			longitudinalInertia = -1;
 			rotationalInertia = -1;
 			cg = null;
+			integrals = null;
 		}
 	}
 	
@@ -377,6 +377,11 @@ public class Transition extends SymmetricComponent {
 		}
 	}
 
+	@Override
+	protected double[] getProfileParameters() {
+		return new double[] { type.ordinal(), shapeParameter, getForeRadius(), getAftRadius(), isClipped() ? 1 : 0 };
+	}
+
 	/**
 	 * Numerically solve clipLength from the equation
 	 *     r1 == type.getRadius(clipLength,r2,clipLength+length)
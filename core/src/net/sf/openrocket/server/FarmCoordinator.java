@@ -0,0 +1,409 @@
+package net.sf.openrocket.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonValue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.batch.BatchSimulator;
+
+/**
+ * The coordinator of a simulation farm.  The coordinator distributes a list of
+ * {@link FarmTask}s over a set of {@link FarmWorker}s, which may run in other
+ * processes or on other machines, and collects the results in the order of the tasks.
+ * <p>
+ * Each worker is kept busy with up to twice as many tasks as it has threads.  If a
+ * worker fails, i.e. its connection is closed, it sends an invalid message or does not
+ * answer within the task timeout, the worker is dropped and its unfinished tasks are
+ * given to the remaining workers.  A task that has been lost with a failing worker more
+ * than the maximum number of retries is reported as failed, so a task that crashes
+ * workers cannot take down the whole farm.
+ * <p>
+ * The results are JSON objects in the format of the simulation server results, in the
+ * order of the tasks regardless of which worker finished first.  Each task is run with
+ * the random seed of {@link FarmTask#getRandomSeed()}, so the wind turbulence of a task
+ * does not depend on which worker ran it.
+ */
+public class FarmCoordinator {
+
+	private static final Logger log = LoggerFactory.getLogger(FarmCoordinator.class);
+
+	private static final int CONNECT_TIMEOUT = 10000;
+
+	private final List<InetSocketAddress> workers;
+	private int maxRetries = 2;
+	private int taskTimeout = 0;
+	private PrintStream progress = null;
+
+
+	/**
+	 * @param workers	the addresses of the workers.
+	 */
+	public FarmCoordinator(List<InetSocketAddress> workers) {
+		if (workers.isEmpty()) {
+			throw new IllegalArgumentException("No workers given");
+		}
+		this.workers = new ArrayList<InetSocketAddress>(workers);
+	}
+
+	/**
+	 * Set how many times a task is given to another worker after the worker running it
+	 * has failed.
+	 */
+	public void setMaxRetries(int maxRetries) {
+		if (maxRetries < 0) {
+			throw new IllegalArgumentException("maxRetries must not be negative, was " + maxRetries);
+		}
+		this.maxRetries = maxRetries;
+	}
+
+	/**
+	 * Set the time in milliseconds after which a worker that has not returned any
+	 * result is considered failed, or 0 to wait forever.
+	 */
+	public void setTaskTimeout(int taskTimeout) {
+		if (taskTimeout < 0) {
+			throw new IllegalArgumentException("taskTimeout must not be negative, was " + taskTimeout);
+		}
+		this.taskTimeout = taskTimeout;
+	}
+
+	/**
+	 * Set a stream to print the number of completed tasks to, or <code>null</code>
+	 * for no progress output.
+	 */
+	public void setProgressStream(PrintStream progress) {
+		this.progress = progress;
+	}
+
+
+	/**
+	 * Run tasks on the workers.
+	 *
+	 * @param tasks		the tasks.
+	 * @return			the result of each task, in the order of the tasks.
+	 * @throws InterruptedException	if interrupted while waiting for the workers.
+	 */
+	public List<JsonObject> run(List<FarmTask> tasks) throws InterruptedException {
+		Schedule schedule = new Schedule(tasks);
+		List<Thread> threads = new ArrayList<Thread>();
+		for (final InetSocketAddress address : workers) {
+			Thread t = new Thread(new WorkerConnection(address, schedule), "FarmCoordinator-" + address);
+			t.setDaemon(true);
+			threads.add(t);
+			t.start();
+		}
+
+		try {
+			schedule.awaitCompletion(threads.size());
+		} finally {
+			for (Thread t : threads) {
+				t.interrupt();
+			}
+		}
+		return schedule.getResults();
+	}
+
+
+	/**
+	 * The state of the tasks of one run, shared by the worker connections.
+	 */
+	private class Schedule {
+		private final List<FarmTask> tasks;
+		private final Deque<Integer> pending = new ArrayDeque<Integer>();
+		private final JsonObject[] results;
+		private final int[] attempts;
+		private final List<String> contents = new ArrayList<String>();
+		private final int[] documentIds;
+		private int remaining;
+		private int failedWorkers = 0;
+		private int reported = 0;
+
+		public Schedule(List<FarmTask> tasks) {
+			this.tasks = tasks;
+			this.results = new JsonObject[tasks.size()];
+			this.attempts = new int[tasks.size()];
+			this.documentIds = new int[tasks.size()];
+			this.remaining = tasks.size();
+
+			// Read each document once
+			Map<File, Integer> ids = new HashMap<File, Integer>();
+			Map<File, String> errors = new HashMap<File, String>();
+			for (int i = 0; i < tasks.size(); i++) {
+				File file = tasks.get(i).getDocument().getAbsoluteFile();
+				if (!ids.containsKey(file) && !errors.containsKey(file)) {
+					try {
+						contents.add(Base64.getEncoder().encodeToString(Files.readAllBytes(file.toPath())));
+						ids.put(file, contents.size() - 1);
+					} catch (IOException e) {
+						log.warn("Unable to read " + file + ": " + e);
+						errors.put(file, "Unable to read " + file + ": " + e.getMessage());
+					}
+				}
+				if (ids.containsKey(file)) {
+					documentIds[i] = ids.get(file);
+					pending.add(i);
+				} else {
+					complete(i, failure(tasks.get(i), BatchSimulator.Status.FILE_ERROR, errors.get(file)));
+				}
+			}
+		}
+
+		/**
+		 * Take up to <code>count</code> pending tasks, waiting until there are pending tasks
+		 * if <code>wait</code> is true.  Returns an empty list when all tasks are complete.
+		 */
+		public synchronized List<Integer> take(int count, boolean wait) throws InterruptedException {
+			while (wait && pending.isEmpty() && remaining > 0) {
+				wait();
+			}
+			List<Integer> list = new ArrayList<Integer>();
+			while (list.size() < count && !pending.isEmpty()) {
+				list.add(pending.poll());
+			}
+			return list;
+		}
+
+		public synchronized void complete(int task, JsonObject result) {
+			if (results[task] != null) {
+				return;
+			}
+			results[task] = result;
+			remaining--;
+			if (progress != null) {
+				int done = tasks.size() - remaining;
+				int percent = (int) (100L * done / tasks.size());
+				if (percent > reported || remaining == 0) {
+					reported = percent;
+					progress.println(done + "/" + tasks.size() + " tasks complete");
+				}
+			}
+			notifyAll();
+		}
+
+		/**
+		 * Return the tasks of a failed worker to the queue.
+		 */
+		public synchronized void fail(Set<Integer> inFlight) {
+			failedWorkers++;
+			for (int task : inFlight) {
+				if (results[task] != null) {
+					continue;
+				}
+				attempts[task]++;
+				if (attempts[task] > maxRetries) {
+					complete(task, failure(tasks.get(task), BatchSimulator.Status.FAILED,
+							"The task was lost with " + attempts[task] + " failed workers"));
+				} else {
+					pending.addFirst(task);
+				}
+			}
+			notifyAll();
+		}
+
+		public synchronized void awaitCompletion(int workerCount) throws InterruptedException {
+			while (remaining > 0 && failedWorkers < workerCount) {
+				wait();
+			}
+			if (remaining > 0) {
+				log.error("All workers have failed, " + remaining + " tasks not run");
+				for (int i = 0; i < results.length; i++) {
+					if (results[i] == null) {
+						complete(i, failure(tasks.get(i), BatchSimulator.Status.FAILED, "No workers available"));
+					}
+				}
+			}
+		}
+
+		public synchronized List<JsonObject> getResults() {
+			List<JsonObject> list = new ArrayList<JsonObject>();
+			for (JsonObject r : results) {
+				list.add(r);
+			}
+			return list;
+		}
+
+		private JsonObject failure(FarmTask task, BatchSimulator.Status status, String message) {
+			return Json.createObjectBuilder().add("simulation", task.getSimulation())
+					.add("status", status.name()).add("message", message).build();
+		}
+	}
+
+
+	/**
+	 * The connection to one worker.
+	 */
+	private class WorkerConnection implements Runnable {
+		private final InetSocketAddress address;
+		private final Schedule schedule;
+		private final Set<Integer> inFlight = new HashSet<Integer>();
+		private final Set<Integer> sentDocuments = new HashSet<Integer>();
+
+		public WorkerConnection(InetSocketAddress address, Schedule schedule) {
+			this.address = address;
+			this.schedule = schedule;
+		}
+
+		@Override
+		public void run() {
+			Socket socket = new Socket();
+			try {
+				socket.connect(address, CONNECT_TIMEOUT);
+				socket.setSoTimeout(taskTimeout);
+				socket.setTcpNoDelay(true);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				Writer writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+
+				JsonObject hello = FarmProtocol.read(reader);
+				if (hello == null || !FarmProtocol.HELLO.equals(hello.getString("type", null))) {
+					throw new IOException("Invalid handshake " + hello);
+				}
+				int capacity = 2 * Math.max(hello.getInt("threads", 1), 1);
+				log.info("Connected to worker " + address + " with " + hello.getInt("threads", 1) + " threads");
+
+				while (true) {
+					// Tasks are in flight from when they are taken, so that a failure while sending does not lose them
+					List<Integer> taken = schedule.take(capacity - inFlight.size(), inFlight.isEmpty());
+					inFlight.addAll(taken);
+					for (int task : taken) {
+						send(writer, task);
+					}
+					if (inFlight.isEmpty()) {
+						break;
+					}
+
+					JsonObject message = FarmProtocol.read(reader);
+					if (message == null) {
+						throw new IOException("Connection closed by worker");
+					}
+					if (!FarmProtocol.RESULT.equals(message.getString("type", null))) {
+						throw new IOException("Unexpected message " + message.getString("type", null));
+					}
+					int task = message.getInt("task");
+					if (!inFlight.remove(task)) {
+						throw new IOException("Unexpected result for task " + task);
+					}
+					schedule.complete(task, message.getJsonObject("result"));
+				}
+				log.info("Worker " + address + " finished");
+			} catch (InterruptedException e) {
+				// Run has been completed or abandoned
+			} catch (IOException | RuntimeException e) {
+				log.warn("Worker " + address + " failed with " + inFlight.size() + " unfinished tasks: " + e);
+				schedule.fail(inFlight);
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException e) {
+				}
+			}
+		}
+
+		private void send(Writer writer, int task) throws IOException {
+			int document = schedule.documentIds[task];
+			if (sentDocuments.add(document)) {
+				FarmProtocol.write(writer, Json.createObjectBuilder()
+						.add("type", FarmProtocol.DOCUMENT)
+						.add("document", document)
+						.add("content", schedule.contents.get(document))
+						.build());
+			}
+			FarmTask t = schedule.tasks.get(task);
+			JsonObjectBuilder message = Json.createObjectBuilder()
+					.add("type", FarmProtocol.TASK)
+					.add("task", task)
+					.add("document", document)
+					.add("simulation", t.getSimulation());
+			JsonObjectBuilder options = Json.createObjectBuilder();
+			if (t.getOptions() != null) {
+				for (Map.Entry<String, JsonValue> e : t.getOptions().entrySet()) {
+					options.add(e.getKey(), e.getValue());
+				}
+			}
+			message.add("options", options.add("randomSeed", t.getRandomSeed()));
+			FarmProtocol.write(writer, message.build());
+		}
+	}
+
+
+	/**
+	 * Write a CSV summary of farm results, one line per task, with the values in SI units.
+	 */
+	public static void writeSummary(List<FarmTask> tasks, List<JsonObject> results, PrintWriter writer) {
+		final String[] keys = { "maxAltitude", "maxVelocity", "maxAcceleration", "maxMachNumber", "timeToApogee",
+				"flightTime", "groundHitVelocity", "launchRodVelocity", "deploymentVelocity" };
+		writer.println("File,Simulation,Options,Status,Max altitude (m),Max velocity (m/s),Max acceleration (m/s^2)," +
+				"Max Mach number,Time to apogee (s),Flight time (s),Ground hit velocity (m/s)," +
+				"Launch rod velocity (m/s),Deployment velocity (m/s),Warnings,Message");
+		for (int i = 0; i < tasks.size(); i++) {
+			FarmTask task = tasks.get(i);
+			JsonObject result = results.get(i);
+			StringBuilder sb = new StringBuilder();
+			sb.append(csv(task.getDocument().getPath())).append(',');
+			sb.append(csv(task.getSimulation())).append(',');
+			sb.append(csv(task.getOptions() != null ? task.getOptions().toString() : null)).append(',');
+			sb.append(result.getString("status", ""));
+			for (String key : keys) {
+				sb.append(',');
+				JsonValue value = result.get(key);
+				if (value instanceof JsonNumber) {
+					sb.append(String.format(Locale.US, "%.4f", ((JsonNumber) value).doubleValue()));
+				}
+			}
+			sb.append(',');
+			JsonArray warnings = result.containsKey("warnings") ? result.getJsonArray("warnings") : null;
+			if (warnings != null) {
+				StringBuilder w = new StringBuilder();
+				for (int j = 0; j < warnings.size(); j++) {
+					if (j > 0) {
+						w.append("; ");
+					}
+					w.append(warnings.getString(j));
+				}
+				sb.append(csv(w.toString()));
+			}
+			sb.append(',').append(csv(result.getString("message", null)));
+			writer.println(sb);
+		}
+		writer.flush();
+	}
+
+	private static String csv(String value) {
+		if (value == null) {
+			return "";
+		}
+		if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+			return "\"" + value.replace("\"", "\"\"") + "\"";
+		}
+		return value;
+	}
+}
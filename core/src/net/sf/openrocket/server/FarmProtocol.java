@@ -0,0 +1,75 @@
+package net.sf.openrocket.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonWriter;
+
+/**
+ * The messages exchanged between a {@link FarmCoordinator} and its {@link FarmWorker}s.
+ * <p>
+ * Each message is a JSON object on a single line with a "type" field.  After
+ * connecting, the worker sends
+ * <pre>
+ * {"type": "hello", "threads": 4}
+ * </pre>
+ * announcing how many tasks it runs concurrently.  The coordinator then sends each
+ * document once per connection before the first task using it, followed by tasks:
+ * <pre>
+ * {"type": "document", "document": 0, "content": "&lt;base64 encoded .ork file&gt;"}
+ * {"type": "task", "task": 17, "document": 0, "simulation": "Simulation 1", "options": {...}}
+ * </pre>
+ * and the worker answers every task, in any order, with
+ * <pre>
+ * {"type": "result", "task": 17, "result": {"simulation": "Simulation 1", "status": "OK", ...}}
+ * </pre>
+ * The coordinator closes the connection when all tasks are done.
+ */
+final class FarmProtocol {
+
+	static final String HELLO = "hello";
+	static final String DOCUMENT = "document";
+	static final String TASK = "task";
+	static final String RESULT = "result";
+
+	private FarmProtocol() {
+	}
+
+	/**
+	 * Write a message and flush the writer.  Must be synchronized by the caller if
+	 * several threads write to the same writer.
+	 */
+	static void write(Writer writer, JsonObject message) throws IOException {
+		StringWriter sw = new StringWriter();
+		JsonWriter json = Json.createWriter(sw);
+		json.write(message);
+		json.close();
+		writer.write(sw.toString());
+		writer.write('\n');
+		writer.flush();
+	}
+
+	/**
+	 * Read a message.
+	 *
+	 * @return	the message, or <code>null</code> if the connection was closed.
+	 * @throws IOException	if reading fails or the message is not valid.
+	 */
+	static JsonObject read(BufferedReader reader) throws IOException {
+		String line = reader.readLine();
+		if (line == null) {
+			return null;
+		}
+		try {
+			return Json.createReader(new StringReader(line)).readObject();
+		} catch (JsonException e) {
+			throw new IOException("Invalid message: " + e.getMessage(), e);
+		}
+	}
+}
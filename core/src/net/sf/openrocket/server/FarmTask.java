@@ -0,0 +1,68 @@
+package net.sf.openrocket.server;
+
+import java.io.File;
+
+import javax.json.JsonObject;
+
+import net.sf.openrocket.simulation.SimulationOptions;
+
+/**
+ * A simulation to run in a simulation farm: a simulation of a document, by name,
+ * with optional option overrides in SI units as accepted by the simulation server.
+ */
+public final class FarmTask {
+
+	private final File document;
+	private final String simulation;
+	private final JsonObject options;
+
+	/**
+	 * @param document		the OpenRocket document.
+	 * @param simulation	the name of the simulation in the document.
+	 * @param options		the option overrides, or <code>null</code> for none.
+	 * @throws IllegalArgumentException	if an option override is invalid.
+	 */
+	public FarmTask(File document, String simulation, JsonObject options) {
+		if (document == null || simulation == null) {
+			throw new IllegalArgumentException("document=" + document + " simulation=" + simulation);
+		}
+		if (options != null) {
+			SimulationJob.applyOptions(new SimulationOptions(), options);
+		}
+		this.document = document;
+		this.simulation = simulation;
+		this.options = options;
+	}
+
+	public File getDocument() {
+		return document;
+	}
+
+	public String getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Return the option overrides, or <code>null</code> for none.
+	 */
+	public JsonObject getOptions() {
+		return options;
+	}
+
+	/**
+	 * Return the random seed of the simulation.  Unless the options override it, the
+	 * seed is derived from the document name, the simulation name and the options, so
+	 * that it does not depend on the worker or on the run.
+	 */
+	public int getRandomSeed() {
+		if (options != null && options.containsKey("randomSeed")) {
+			return options.getInt("randomSeed");
+		}
+		return (document.getName() + "/" + simulation + "/" + options).hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return document.getName() + ": " + simulation + (options != null ? " " + options : "");
+	}
+}
@@ -0,0 +1,275 @@
+package net.sf.openrocket.server;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.batch.BatchSimulator;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.RocketLoadException;
+
+/**
+ * A worker of a simulation farm.  The worker listens for connections from a
+ * {@link FarmCoordinator} and runs the tasks it receives on a fixed number of threads.
+ * See {@link FarmProtocol} for the messages.
+ * <p>
+ * The connections are not authenticated, so by default the worker listens only on the
+ * loopback interface.  Listening on other addresses should be limited to trusted networks.
+ * <p>
+ * Each task runs on a copy of the named simulation, so that tasks of the same
+ * simulation with different option overrides can run concurrently.  The documents
+ * of a connection are loaded once and kept until the connection closes.
+ * <p>
+ * The Application object must have been initialized before starting the worker, for
+ * example with {@link net.sf.openrocket.startup.HeadlessModule#initializeApplication()}.
+ */
+public class FarmWorker {
+
+	private static final Logger log = LoggerFactory.getLogger(FarmWorker.class);
+
+	private final ServerSocket serverSocket;
+	private final int threadCount;
+	private final ExecutorService executor;
+	private volatile boolean stopped = false;
+
+
+	/**
+	 * Create a worker.
+	 *
+	 * @param address		the address to listen on, or <code>null</code> for the loopback address.
+	 * @param port			the port to listen to, or 0 for any free port.
+	 * @param threadCount	the number of tasks run concurrently.
+	 * @throws IOException	if the port cannot be bound.
+	 */
+	public FarmWorker(InetAddress address, int port, int threadCount) throws IOException {
+		if (threadCount < 1) {
+			throw new IllegalArgumentException("threadCount must be positive, was " + threadCount);
+		}
+		this.threadCount = threadCount;
+		if (address == null) {
+			address = InetAddress.getLoopbackAddress();
+		}
+		this.serverSocket = new ServerSocket(port, 50, address);
+		this.executor = Executors.newFixedThreadPool(threadCount, new SimulationServer.NamedThreadFactory("FarmWorker"));
+	}
+
+	public InetAddress getAddress() {
+		return serverSocket.getInetAddress();
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Start accepting connections in a background thread.
+	 */
+	public void start() {
+		Thread acceptor = new Thread("FarmWorker-accept") {
+			@Override
+			public void run() {
+				acceptConnections();
+			}
+		};
+		acceptor.setDaemon(true);
+		acceptor.start();
+		log.info("Farm worker listening on " + getAddress().getHostAddress() + " port " + getPort() + " with " + threadCount + " threads");
+	}
+
+	/**
+	 * Stop accepting connections and running tasks.
+	 */
+	public void stop() {
+		stopped = true;
+		try {
+			serverSocket.close();
+		} catch (IOException e) {
+			log.warn("Error closing server socket", e);
+		}
+		executor.shutdownNow();
+	}
+
+
+	private void acceptConnections() {
+		while (!stopped) {
+			final Socket socket;
+			try {
+				socket = serverSocket.accept();
+			} catch (IOException e) {
+				if (!stopped) {
+					log.error("Error accepting connections", e);
+				}
+				return;
+			}
+			Thread t = new Thread("FarmWorker-" + socket.getRemoteSocketAddress()) {
+				@Override
+				public void run() {
+					new Connection(socket).serve();
+				}
+			};
+			t.setDaemon(true);
+			t.start();
+		}
+	}
+
+
+	/**
+	 * The tasks and documents of one coordinator connection.
+	 */
+	private class Connection {
+		private final Socket socket;
+		private final Map<Integer, byte[]> contents = new HashMap<Integer, byte[]>();
+		private final Map<Integer, OpenRocketDocument> documents = new HashMap<Integer, OpenRocketDocument>();
+		private Writer writer;
+
+		public Connection(Socket socket) {
+			this.socket = socket;
+		}
+
+		public void serve() {
+			log.info("Coordinator connected from " + socket.getRemoteSocketAddress());
+			try {
+				socket.setTcpNoDelay(true);
+				BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				writer = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+				synchronized (writer) {
+					FarmProtocol.write(writer, Json.createObjectBuilder()
+							.add("type", FarmProtocol.HELLO).add("threads", threadCount).build());
+				}
+
+				JsonObject message;
+				while ((message = FarmProtocol.read(reader)) != null) {
+					String type = message.getString("type", "");
+					if (type.equals(FarmProtocol.DOCUMENT)) {
+						synchronized (this) {
+							contents.put(message.getInt("document"), Base64.getDecoder().decode(message.getString("content")));
+						}
+					} else if (type.equals(FarmProtocol.TASK)) {
+						final JsonObject task = message;
+						executor.execute(new Runnable() {
+							@Override
+							public void run() {
+								runTask(task);
+							}
+						});
+					} else {
+						throw new IOException("Unknown message type '" + type + "'");
+					}
+				}
+			} catch (SocketException e) {
+				log.info("Connection closed: " + e.getMessage());
+			} catch (Exception e) {
+				log.warn("Error serving coordinator " + socket.getRemoteSocketAddress(), e);
+			} finally {
+				close();
+			}
+			log.info("Coordinator " + socket.getRemoteSocketAddress() + " disconnected");
+		}
+
+		private void runTask(JsonObject task) {
+			if (socket.isClosed()) {
+				return;
+			}
+			int id = task.getInt("task");
+			String name = task.getString("simulation");
+			JsonObjectBuilder result = Json.createObjectBuilder().add("simulation", name);
+			try {
+				Simulation simulation = getSimulation(task.getInt("document"), name);
+				if (simulation == null) {
+					result.add("status", BatchSimulator.Status.FAILED.name()).add("message", "No simulation named '" + name + "'");
+				} else {
+					run(simulation, task.containsKey("options") ? task.getJsonObject("options") : null, result);
+				}
+			} catch (RocketLoadException e) {
+				result.add("status", BatchSimulator.Status.FILE_ERROR.name()).add("message", String.valueOf(e.getMessage()));
+			} catch (RuntimeException e) {
+				log.warn("Task " + id + " failed", e);
+				result.add("status", BatchSimulator.Status.FAILED.name()).add("message", String.valueOf(e.getMessage()));
+			}
+
+			try {
+				synchronized (writer) {
+					FarmProtocol.write(writer, Json.createObjectBuilder()
+							.add("type", FarmProtocol.RESULT).add("task", id).add("result", result).build());
+				}
+			} catch (IOException e) {
+				log.info("Unable to send the result of task " + id + ": " + e.getMessage());
+				close();
+			}
+		}
+
+		/**
+		 * Return a copy of a simulation of a document that can be modified and run.
+		 */
+		private synchronized Simulation getSimulation(int documentId, String name) throws RocketLoadException {
+			OpenRocketDocument document = documents.get(documentId);
+			if (document == null) {
+				byte[] content = contents.get(documentId);
+				if (content == null) {
+					throw new RocketLoadException("Document " + documentId + " was not sent");
+				}
+				GeneralRocketLoader loader = new GeneralRocketLoader(new File("document" + documentId + ".ork"));
+				loader.setDeferFlightData(true);
+				document = loader.load(new ByteArrayInputStream(content));
+				documents.put(documentId, document);
+				contents.remove(documentId);
+			}
+			for (Simulation simulation : document.getSimulations()) {
+				if (simulation.getName().equals(name)) {
+					return simulation.duplicateSimulation(document.getRocket());
+				}
+			}
+			return null;
+		}
+
+		private void run(Simulation simulation, JsonObject options, JsonObjectBuilder result) {
+			if (options != null) {
+				SimulationJob.applyOptions(simulation.getOptions(), options);
+			}
+			if (simulation.getStatus() == Simulation.Status.CANT_RUN) {
+				result.add("status", BatchSimulator.Status.SKIPPED.name())
+						.add("message", "Cannot be simulated (" + simulation.getStatus() + ")");
+				return;
+			}
+			try {
+				simulation.simulate();
+			} catch (Exception e) {
+				result.add("status", BatchSimulator.Status.FAILED.name()).add("message", String.valueOf(e.getMessage()));
+				return;
+			}
+			result.add("status", BatchSimulator.Status.OK.name());
+			SimulationJob.addSummary(result, simulation, false);
+		}
+
+		private void close() {
+			try {
+				socket.close();
+			} catch (IOException e) {
+			}
+		}
+	}
+}
@@ -0,0 +1,472 @@
+package net.sf.openrocket.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.aerodynamics.Warning;
+import net.sf.openrocket.batch.BatchSimulator;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.SimulationMethod;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.SimulationStatus;
+import net.sf.openrocket.simulation.exception.SimulationCancelledException;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
+
+/**
+ * A request to run the simulations of one document in the {@link SimulationServer}.
+ * <p>
+ * A job is created from a JSON request of the form
+ * <pre>
+ * {
+ *   "file": "/path/to/design.ork",      or "content": "&lt;base64 encoded .ork file&gt;",
+ *   "simulations": ["Simulation 1"],    optional, default all simulations
+ *   "options": { "windSpeedAverage": 4 },  optional overrides in SI units
+ *   "data": true                        optional, include the flight data
+ * }
+ * </pre>
+ * The job records its progress as a list of events, which clients can follow while
+ * the job runs, and the results of its simulations.  Both are returned as JSON.
+ */
+public class SimulationJob implements Runnable {
+
+	private static final Logger log = LoggerFactory.getLogger(SimulationJob.class);
+
+	/** Minimum interval of the progress events of a simulation in milliseconds */
+	private static final long PROGRESS_INTERVAL = 200;
+
+	public enum State {
+		QUEUED, RUNNING, DONE, FAILED, CANCELLED;
+
+		public boolean isFinished() {
+			return this == DONE || this == FAILED || this == CANCELLED;
+		}
+	}
+
+	private String id;
+	private final String file;
+	private final byte[] content;
+	private final List<String> simulationNames;
+	private final JsonObject options;
+	private final boolean includeData;
+
+	private State state = State.QUEUED;
+	private String message = null;
+	private volatile boolean cancelled = false;
+	private Future<?> future = null;
+	private final List<JsonObject> events = new ArrayList<JsonObject>();
+	private final List<JsonObject> results = new ArrayList<JsonObject>();
+
+
+	/**
+	 * Create a job from a JSON request.
+	 *
+	 * @param request	the JSON request.
+	 * @throws IllegalArgumentException	if the request is invalid.
+	 */
+	public SimulationJob(JsonObject request) {
+		try {
+			if (request.containsKey("file") == request.containsKey("content")) {
+				throw new IllegalArgumentException("Exactly one of 'file' and 'content' must be given");
+			}
+			this.file = request.containsKey("file") ? request.getString("file") : null;
+			this.content = request.containsKey("content") ?
+					Base64.getMimeDecoder().decode(request.getString("content")) : null;
+
+			List<String> names = new ArrayList<String>();
+			if (request.containsKey("simulations")) {
+				for (JsonString name : request.getJsonArray("simulations").getValuesAs(JsonString.class)) {
+					names.add(name.getString());
+				}
+			}
+			this.simulationNames = Collections.unmodifiableList(names);
+
+			this.options = request.containsKey("options") ? request.getJsonObject("options") : null;
+			if (options != null) {
+				// Validate the overrides before queueing
+				applyOptions(new SimulationOptions(), options);
+			}
+			this.includeData = request.getBoolean("data", false);
+		} catch (ClassCastException e) {
+			throw new IllegalArgumentException("Invalid request: " + e.getMessage(), e);
+		}
+	}
+
+
+	public synchronized String getId() {
+		return id;
+	}
+
+	synchronized void setId(String id) {
+		this.id = id;
+	}
+
+	public synchronized State getState() {
+		return state;
+	}
+
+	synchronized void setFuture(Future<?> future) {
+		this.future = future;
+	}
+
+	/**
+	 * Cancel the job.  A queued job is never started, and a running simulation stops
+	 * at its next time step.
+	 *
+	 * @return	whether the job was cancelled, <code>false</code> if it had already finished.
+	 */
+	public boolean cancel() {
+		Future<?> f;
+		synchronized (this) {
+			if (state.isFinished()) {
+				return false;
+			}
+			cancelled = true;
+			f = future;
+			if (state == State.QUEUED) {
+				setState(State.CANCELLED, null);
+			}
+		}
+		if (f != null) {
+			f.cancel(false);
+		}
+		return true;
+	}
+
+
+	@Override
+	public void run() {
+		synchronized (this) {
+			if (cancelled) {
+				return;
+			}
+			setState(State.RUNNING, null);
+		}
+
+		try {
+			OpenRocketDocument document = load();
+			for (Simulation simulation : document.getSimulations()) {
+				if (!simulationNames.isEmpty() && !simulationNames.contains(simulation.getName())) {
+					continue;
+				}
+				if (cancelled) {
+					break;
+				}
+				JsonObject result = simulate(simulation);
+				synchronized (this) {
+					results.add(result);
+				}
+				addEvent(Json.createObjectBuilder().add("event", "result").add("result", result));
+			}
+			setState(cancelled ? State.CANCELLED : State.DONE, null);
+		} catch (RocketLoadException e) {
+			log.warn("Job " + id + ": unable to load document: " + e.getMessage());
+			setState(State.FAILED, e.getMessage());
+		} catch (RuntimeException e) {
+			log.error("Job " + id + " failed", e);
+			setState(State.FAILED, String.valueOf(e.getMessage()));
+		}
+	}
+
+
+	private OpenRocketDocument load() throws RocketLoadException {
+		if (file != null) {
+			GeneralRocketLoader loader = new GeneralRocketLoader(new File(file));
+			loader.setDeferFlightData(true);
+			return loader.load();
+		} else {
+			GeneralRocketLoader loader = new GeneralRocketLoader(new File(id + ".ork"));
+			loader.setDeferFlightData(true);
+			return loader.load(new ByteArrayInputStream(content));
+		}
+	}
+
+	private JsonObject simulate(final Simulation simulation) {
+		JsonObjectBuilder result = Json.createObjectBuilder().add("simulation", simulation.getName());
+
+		if (simulation.getStatus() == Simulation.Status.CANT_RUN ||
+				simulation.getStatus() == Simulation.Status.EXTERNAL) {
+			return result.add("status", BatchSimulator.Status.SKIPPED.name())
+					.add("message", "Cannot be simulated (" + simulation.getStatus() + ")").build();
+		}
+		if (options != null) {
+			applyOptions(simulation.getOptions(), options);
+		}
+
+		addEvent(Json.createObjectBuilder().add("event", "start").add("simulation", simulation.getName()));
+		try {
+			simulation.simulate(new ProgressListener(simulation.getName()));
+		} catch (SimulationCancelledException e) {
+			return result.add("status", State.CANCELLED.name()).build();
+		} catch (SimulationException e) {
+			log.info("Job " + id + ": simulation " + simulation.getName() + " failed: " + e.getMessage());
+			return result.add("status", BatchSimulator.Status.FAILED.name()).add("message", String.valueOf(e.getMessage())).build();
+		} catch (RuntimeException e) {
+			log.warn("Job " + id + ": simulation " + simulation.getName() + " failed", e);
+			return result.add("status", BatchSimulator.Status.FAILED.name()).add("message", String.valueOf(e.getMessage())).build();
+		}
+		// The simulation engine ends a flight branch with a warning when a listener throws
+		if (cancelled) {
+			return result.add("status", State.CANCELLED.name()).build();
+		}
+
+		result.add("status", BatchSimulator.Status.OK.name());
+		addSummary(result, simulation, includeData);
+		return result.build();
+	}
+
+	/**
+	 * Add the summary values and warnings of a simulated simulation to a JSON result,
+	 * optionally with the flight data.
+	 */
+	static void addSummary(JsonObjectBuilder result, Simulation simulation, boolean includeData) {
+		FlightData data = simulation.getSimulatedData();
+		number(result, "maxAltitude", data.getMaxAltitude());
+		number(result, "maxVelocity", data.getMaxVelocity());
+		number(result, "maxAcceleration", data.getMaxAcceleration());
+		number(result, "maxMachNumber", data.getMaxMachNumber());
+		number(result, "timeToApogee", data.getTimeToApogee());
+		number(result, "flightTime", data.getFlightTime());
+		number(result, "groundHitVelocity", data.getGroundHitVelocity());
+		number(result, "launchRodVelocity", data.getLaunchRodVelocity());
+		number(result, "deploymentVelocity", data.getDeploymentVelocity());
+
+		JsonArrayBuilder warnings = Json.createArrayBuilder();
+		for (Warning w : simulation.getSimulatedWarnings()) {
+			warnings.add(w.toString());
+		}
+		result.add("warnings", warnings);
+
+		if (includeData) {
+			JsonArrayBuilder branches = Json.createArrayBuilder();
+			for (int i = 0; i < data.getBranchCount(); i++) {
+				branches.add(branch(data.getBranch(i)));
+			}
+			result.add("branches", branches);
+		}
+	}
+
+	/**
+	 * Return a flight data branch as JSON, with one array of SI values per data type.
+	 */
+	private static JsonObject branch(FlightDataBranch branch) {
+		JsonObjectBuilder columns = Json.createObjectBuilder();
+		for (FlightDataType type : branch.getTypes()) {
+			JsonArrayBuilder values = Json.createArrayBuilder();
+			for (Double v : branch.get(type)) {
+				if (v == null || v.isNaN() || v.isInfinite()) {
+					values.addNull();
+				} else {
+					values.add(v);
+				}
+			}
+			columns.add(type.getName(), values);
+		}
+		return Json.createObjectBuilder().add("name", branch.getBranchName()).add("data", columns).build();
+	}
+
+
+	/**
+	 * Apply option overrides in SI units to simulation options.
+	 *
+	 * @throws IllegalArgumentException	if an option is unknown or has a value of the wrong type.
+	 */
+	static void applyOptions(SimulationOptions target, JsonObject overrides) {
+		for (String key : overrides.keySet()) {
+			JsonValue value = overrides.get(key);
+			if (key.equals("launchIntoWind")) {
+				target.setLaunchIntoWind(bool(key, value));
+			} else if (key.equals("useISA")) {
+				target.setISAAtmosphere(bool(key, value));
+			} else if (key.equals("randomSeed")) {
+				target.setRandomSeed((int) number(key, value));
+			} else if (key.equals("launchRodLength")) {
+				target.setLaunchRodLength(number(key, value));
+			} else if (key.equals("launchRodAngle")) {
+				target.setLaunchRodAngle(number(key, value));
+			} else if (key.equals("launchRodDirection")) {
+				target.setLaunchRodDirection(number(key, value));
+			} else if (key.equals("windSpeedAverage")) {
+				target.setWindSpeedAverage(number(key, value));
+			} else if (key.equals("windSpeedDeviation")) {
+				target.setWindSpeedDeviation(number(key, value));
+			} else if (key.equals("windTurbulenceIntensity")) {
+				target.setWindTurbulenceIntensity(number(key, value));
+			} else if (key.equals("windDirection")) {
+				target.setWindDirection(number(key, value));
+			} else if (key.equals("launchAltitude")) {
+				target.setLaunchAltitude(number(key, value));
+			} else if (key.equals("launchLatitude")) {
+				target.setLaunchLatitude(number(key, value));
+			} else if (key.equals("launchLongitude")) {
+				target.setLaunchLongitude(number(key, value));
+			} else if (key.equals("launchTemperature")) {
+				target.setLaunchTemperature(number(key, value));
+			} else if (key.equals("launchPressure")) {
+				target.setLaunchPressure(number(key, value));
+			} else if (key.equals("timeStep")) {
+				target.setTimeStep(number(key, value));
+			} else if (key.equals("maximumStepAngle")) {
+				target.setMaximumStepAngle(number(key, value));
+			} else if (key.equals("descentTimeStep")) {
+				target.setDescentTimeStep(number(key, value));
+			} else if (key.equals("simulationMethod")) {
+				target.setSimulationMethod(method(key, value));
+			} else {
+				throw new IllegalArgumentException("Unknown option '" + key + "'");
+			}
+		}
+	}
+
+	private static double number(String key, JsonValue value) {
+		if (!(value instanceof JsonNumber)) {
+			throw new IllegalArgumentException("Option '" + key + "' must be a number");
+		}
+		return ((JsonNumber) value).doubleValue();
+	}
+
+	private static SimulationMethod method(String key, JsonValue value) {
+		if (value instanceof JsonString) {
+			String name = ((JsonString) value).getString();
+			for (SimulationMethod method : SimulationMethod.values()) {
+				if (method.name().equalsIgnoreCase(name)) {
+					return method;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Option '" + key + "' must be one of " + Arrays.toString(SimulationMethod.values()));
+	}
+
+	private static boolean bool(String key, JsonValue value) {
+		if (value == JsonValue.TRUE) {
+			return true;
+		} else if (value == JsonValue.FALSE) {
+			return false;
+		}
+		throw new IllegalArgumentException("Option '" + key + "' must be true or false");
+	}
+
+	private static void number(JsonObjectBuilder builder, String key, double value) {
+		if (Double.isNaN(value) || Double.isInfinite(value)) {
+			builder.addNull(key);
+		} else {
+			builder.add(key, value);
+		}
+	}
+
+
+	private void setState(State newState, String newMessage) {
+		synchronized (this) {
+			state = newState;
+			message = newMessage;
+		}
+		JsonObjectBuilder event = Json.createObjectBuilder().add("event", "state").add("state", newState.name());
+		if (newMessage != null) {
+			event.add("message", newMessage);
+		}
+		addEvent(event);
+	}
+
+	private synchronized void addEvent(JsonObjectBuilder event) {
+		events.add(event.build());
+		notifyAll();
+	}
+
+	/**
+	 * Return the events after the first <code>from</code> events, waiting for at most
+	 * <code>timeout</code> milliseconds for new events if there are none.  An empty list
+	 * is returned if no new events arrived within the timeout, or if the job has finished
+	 * and all its events have been returned.
+	 */
+	public synchronized List<JsonObject> getEvents(int from, long timeout) throws InterruptedException {
+		long end = System.currentTimeMillis() + timeout;
+		while (events.size() <= from && !state.isFinished()) {
+			long wait = end - System.currentTimeMillis();
+			if (wait <= 0) {
+				break;
+			}
+			wait(wait);
+		}
+		return new ArrayList<JsonObject>(events.subList(Math.min(from, events.size()), events.size()));
+	}
+
+	/**
+	 * Return the state and the results of the job as JSON.
+	 */
+	public synchronized JsonObject toJson() {
+		JsonObjectBuilder json = Json.createObjectBuilder().add("id", id).add("state", state.name());
+		if (message != null) {
+			json.add("message", message);
+		}
+		JsonArrayBuilder array = Json.createArrayBuilder();
+		for (JsonObject r : results) {
+			array.add(r);
+		}
+		json.add("results", array);
+		return json.build();
+	}
+
+
+	/**
+	 * Publishes the progress of a simulation and stops it when the job is cancelled.
+	 */
+	private class ProgressListener extends AbstractSimulationListener implements CacheableSimulationListener {
+		private final String name;
+		private long last = 0;
+
+		public ProgressListener(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String getResultDescription() {
+			return "";
+		}
+
+		@Override
+		public void postStep(SimulationStatus status) throws SimulationException {
+			if (cancelled) {
+				throw new SimulationCancelledException("The simulation was cancelled.");
+			}
+			long now = System.currentTimeMillis();
+			if (now - last >= PROGRESS_INTERVAL) {
+				last = now;
+				addEvent(Json.createObjectBuilder()
+						.add("event", "progress")
+						.add("simulation", name)
+						.add("time", status.getSimulationTime())
+						.add("altitude", status.getRocketPosition().z)
+						.add("velocity", status.getRocketVelocity().length()));
+			}
+		}
+
+		@Override
+		public boolean isSystemListener() {
+			return true;
+		}
+	}
+}
@@ -0,0 +1,357 @@
+package net.sf.openrocket.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.json.Json;
+import javax.json.JsonArrayBuilder;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonStructure;
+import javax.json.JsonWriter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import net.sf.openrocket.util.BuildProperties;
+
+/**
+ * A local HTTP server that runs simulation jobs sent as JSON.
+ * <p>
+ * The server keeps the Application, including the motor and component databases,
+ * loaded between jobs, so clients do not pay for the startup of a new JVM for every
+ * simulation.  Jobs are run on a fixed number of worker threads and queued up to a
+ * maximum queue length.  The server listens only on the loopback interface.
+ * <p>
+ * The interface is:
+ * <dl>
+ * <dt><code>GET /status</code></dt>
+ * <dd>the server version, the worker count and the number of queued and running jobs</dd>
+ * <dt><code>POST /jobs</code></dt>
+ * <dd>submit a job, see {@link SimulationJob} for the request format.  Returns
+ *     202 with the job, 400 for an invalid request or 503 if the queue is full.</dd>
+ * <dt><code>GET /jobs</code></dt>
+ * <dd>the identifiers and states of all known jobs</dd>
+ * <dt><code>GET /jobs/{id}</code></dt>
+ * <dd>the state of a job and the results of its completed simulations</dd>
+ * <dt><code>GET /jobs/{id}/events?from=n</code></dt>
+ * <dd>stream the events of a job as newline-delimited JSON, starting from event n,
+ *     until the job has finished.  Empty lines are sent while there are no events.</dd>
+ * <dt><code>DELETE /jobs/{id}</code></dt>
+ * <dd>cancel a job, returns 409 if it has already finished</dd>
+ * </dl>
+ * The Application object must have been initialized before starting the server, for
+ * example with {@link net.sf.openrocket.startup.HeadlessModule#initializeApplication()}.
+ */
+public class SimulationServer {
+
+	private static final Logger log = LoggerFactory.getLogger(SimulationServer.class);
+
+	/** Number of finished jobs whose results are kept */
+	private static final int MAX_FINISHED_JOBS = 1000;
+
+	/** Interval at which an idle event stream is checked for a closed connection */
+	private static final long EVENT_TIMEOUT = 1000;
+
+	private final HttpServer server;
+	private final ThreadPoolExecutor workers;
+	private final ExecutorService handlers;
+	private int nextId = 1;
+	private final Map<String, SimulationJob> jobs = new LinkedHashMap<String, SimulationJob>();
+
+
+	/**
+	 * Create a server.  The server is not started before calling {@link #start()}.
+	 *
+	 * @param port			the port to listen to on the loopback interface, or 0 for any free port.
+	 * @param threadCount	the number of jobs run concurrently.
+	 * @param queueLength	the maximum number of jobs waiting to be run.
+	 * @throws IOException	if the port cannot be bound.
+	 */
+	public SimulationServer(int port, int threadCount, int queueLength) throws IOException {
+		if (threadCount < 1 || queueLength < 1) {
+			throw new IllegalArgumentException("threadCount=" + threadCount + " queueLength=" + queueLength);
+		}
+		workers = new ThreadPoolExecutor(threadCount, threadCount, 0, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueLength), new NamedThreadFactory("SimulationWorker"));
+		handlers = Executors.newCachedThreadPool(new NamedThreadFactory("SimulationServer"));
+
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		server.setExecutor(handlers);
+		server.createContext("/status", new StatusHandler());
+		server.createContext("/jobs", new JobsHandler());
+	}
+
+	public void start() {
+		server.start();
+		log.info("Simulation server listening on " + server.getAddress());
+	}
+
+	/**
+	 * Stop the server, cancelling all jobs.
+	 */
+	public void stop() {
+		server.stop(0);
+		synchronized (jobs) {
+			for (SimulationJob job : jobs.values()) {
+				job.cancel();
+			}
+		}
+		workers.shutdownNow();
+		handlers.shutdownNow();
+	}
+
+	/**
+	 * Return the port the server listens to.
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+
+	/**
+	 * Queue a new job.
+	 *
+	 * @return	the job.
+	 * @throws IllegalArgumentException		if the request is invalid.
+	 * @throws RejectedExecutionException	if the queue is full.
+	 */
+	public SimulationJob submit(JsonObject request) {
+		SimulationJob job = new SimulationJob(request);
+		synchronized (jobs) {
+			job.setId(String.valueOf(nextId));
+			job.setFuture(workers.submit(job));
+			nextId++;
+			jobs.put(job.getId(), job);
+			removeFinishedJobs();
+		}
+		log.info("Queued job " + job.getId());
+		return job;
+	}
+
+	public SimulationJob getJob(String id) {
+		synchronized (jobs) {
+			return jobs.get(id);
+		}
+	}
+
+	private void removeFinishedJobs() {
+		int finished = 0;
+		for (SimulationJob job : jobs.values()) {
+			if (job.getState().isFinished()) {
+				finished++;
+			}
+		}
+		Iterator<SimulationJob> iterator = jobs.values().iterator();
+		while (finished > MAX_FINISHED_JOBS && iterator.hasNext()) {
+			if (iterator.next().getState().isFinished()) {
+				iterator.remove();
+				finished--;
+			}
+		}
+	}
+
+
+	private class StatusHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				if (!exchange.getRequestMethod().equals("GET")) {
+					sendError(exchange, 405, "Method not allowed");
+					return;
+				}
+				JsonObject status = Json.createObjectBuilder()
+						.add("version", BuildProperties.getVersion())
+						.add("threads", workers.getMaximumPoolSize())
+						.add("running", workers.getActiveCount())
+						.add("queued", workers.getQueue().size())
+						.add("queueLength", workers.getQueue().size() + workers.getQueue().remainingCapacity())
+						.build();
+				send(exchange, 200, status);
+			} finally {
+				exchange.close();
+			}
+		}
+	}
+
+	private class JobsHandler implements HttpHandler {
+		@Override
+		public void handle(HttpExchange exchange) throws IOException {
+			try {
+				String method = exchange.getRequestMethod();
+				String[] path = exchange.getRequestURI().getPath().replaceAll("^/jobs/?|/$", "").split("/");
+
+				if (path.length == 1 && path[0].isEmpty()) {
+					if (method.equals("POST")) {
+						submitJob(exchange);
+					} else if (method.equals("GET")) {
+						listJobs(exchange);
+					} else {
+						sendError(exchange, 405, "Method not allowed");
+					}
+					return;
+				}
+
+				SimulationJob job = getJob(path[0]);
+				if (job == null || path.length > 2 || (path.length == 2 && !path[1].equals("events"))) {
+					sendError(exchange, 404, "Not found");
+				} else if (path.length == 2) {
+					if (method.equals("GET")) {
+						streamEvents(exchange, job);
+					} else {
+						sendError(exchange, 405, "Method not allowed");
+					}
+				} else if (method.equals("GET")) {
+					send(exchange, 200, job.toJson());
+				} else if (method.equals("DELETE")) {
+					if (job.cancel()) {
+						workers.purge();
+						log.info("Cancelled job " + job.getId());
+						send(exchange, 200, job.toJson());
+					} else {
+						sendError(exchange, 409, "Job has already finished");
+					}
+				} else {
+					sendError(exchange, 405, "Method not allowed");
+				}
+			} catch (RuntimeException e) {
+				log.error("Error handling " + exchange.getRequestURI(), e);
+				sendError(exchange, 500, String.valueOf(e.getMessage()));
+			} finally {
+				exchange.close();
+			}
+		}
+
+		private void submitJob(HttpExchange exchange) throws IOException {
+			JsonObject request;
+			InputStream in = exchange.getRequestBody();
+			try {
+				JsonReader reader = Json.createReader(in);
+				request = reader.readObject();
+			} catch (JsonException e) {
+				sendError(exchange, 400, "Invalid JSON: " + e.getMessage());
+				return;
+			} finally {
+				in.close();
+			}
+
+			SimulationJob job;
+			try {
+				job = submit(request);
+			} catch (IllegalArgumentException e) {
+				sendError(exchange, 400, e.getMessage());
+				return;
+			} catch (RejectedExecutionException e) {
+				sendError(exchange, 503, "The job queue is full");
+				return;
+			}
+			exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+			send(exchange, 202, job.toJson());
+		}
+
+		private void listJobs(HttpExchange exchange) throws IOException {
+			JsonArrayBuilder list = Json.createArrayBuilder();
+			synchronized (jobs) {
+				for (SimulationJob job : jobs.values()) {
+					list.add(Json.createObjectBuilder().add("id", job.getId()).add("state", job.getState().name()));
+				}
+			}
+			send(exchange, 200, Json.createObjectBuilder().add("jobs", list).build());
+		}
+
+		private void streamEvents(HttpExchange exchange, SimulationJob job) throws IOException {
+			int from = 0;
+			String query = exchange.getRequestURI().getQuery();
+			if (query != null && query.matches("from=\\d+")) {
+				from = Integer.parseInt(query.substring(5));
+			}
+
+			exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson; charset=utf-8");
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream out = exchange.getResponseBody();
+			try {
+				while (true) {
+					List<JsonObject> events = job.getEvents(from, EVENT_TIMEOUT);
+					if (events.isEmpty()) {
+						if (job.getState().isFinished() && job.getEvents(from, 0).isEmpty()) {
+							break;
+						}
+						// Detect a closed connection while idle
+						out.write('\n');
+					}
+					for (JsonObject event : events) {
+						out.write(format(event).getBytes(StandardCharsets.UTF_8));
+						out.write('\n');
+					}
+					out.flush();
+					from += events.size();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+
+	private static void sendError(HttpExchange exchange, int code, String message) throws IOException {
+		send(exchange, code, Json.createObjectBuilder().add("error", message).build());
+	}
+
+	private static void send(HttpExchange exchange, int code, JsonStructure json) throws IOException {
+		byte[] body = format(json).getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(code, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	private static String format(JsonStructure json) {
+		StringWriter sw = new StringWriter();
+		JsonWriter writer = Json.createWriter(sw);
+		writer.write(json);
+		writer.close();
+		return sw.toString();
+	}
+
+
+	static class NamedThreadFactory implements ThreadFactory {
+		private final String name;
+		private final AtomicInteger count = new AtomicInteger(1);
+
+		public NamedThreadFactory(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = new Thread(r, name + "-" + count.getAndIncrement());
+			t.setDaemon(true);
+			return t;
+		}
+	}
+}
@@ -34,8 +34,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 	private static final Translator trans = Application.getTranslator();
 	private static final Logger log = LoggerFactory.getLogger(BasicEventSimulationEngine.class);
 	
-	// TODO: MEDIUM: Allow selecting steppers
-	private SimulationStepper flightStepper  = new RK4SimulationStepper();
+	private SimulationStepper flightStepper;
 	private SimulationStepper landingStepper = new BasicLandingStepper();
 	private SimulationStepper tumbleStepper  = new BasicTumbleStepper();
 	private SimulationStepper groundStepper  = new GroundStepper();
@@ -70,6 +69,7 @@ public class BasicEventSimulationEngine implements SimulationEngine {
 			throw new MotorIgnitionException(trans.get("BasicEventSimulationEngine.error.noMotorsDefined"));
 		}
 		
+		flightStepper = simulationConditions.getSimulationMethod().createFlightStepper();
 		currentStatus = new SimulationStatus(simulationConfig, simulationConditions);
 		currentStatus.getEventQueue().add(new FlightEvent(FlightEvent.Type.LAUNCH, 0, simulationConditions.getRocket()));
 		{
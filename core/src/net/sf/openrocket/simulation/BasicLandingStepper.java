@@ -1,16 +1,45 @@
 package net.sf.openrocket.simulation;
 
 import net.sf.openrocket.models.atmosphere.AtmosphericConditions;
+import net.sf.openrocket.rocketcomponent.DeploymentConfiguration;
 import net.sf.openrocket.rocketcomponent.RecoveryDevice;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.GeodeticComputationStrategy;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.WorldCoordinate;
 
+/**
+ * A stepper for the descent under deployed recovery devices.
+ * <p>
+ * During a step the quadratic drag is linearized around the terminal velocity once the
+ * velocity is close to it, which makes the terminal velocity exact, and otherwise around
+ * the current air speed.  The velocity then relaxes exponentially towards the equilibrium
+ * velocity, which is the terminal descent velocity drifting with the wind.  The step is
+ * integrated in closed form, so it is stable for any step length.  Short steps are only taken while the velocity
+ * changes, and once the descent has settled the steps are as long as the descent time step
+ * of the simulation conditions.  Steps end exactly at the ground and at the deployment
+ * altitudes of recovery devices deploying on the way down.
+ */
 public class BasicLandingStepper extends AbstractSimulationStepper {
 	
-	private static final double RECOVERY_TIME_STEP = 0.5;
+	/**
+	 * The recommended maximum time step during the descent.
+	 */
+	public static final double RECOMMENDED_TIME_STEP = 2.0;
+	
+	/** Maximum velocity change during a step while the drag is negligible. */
+	private static final double MAX_VELOCITY_CHANGE = 0.5;
+	
+	/** Maximum relative change of the air speed during a step. */
+	private static final double MAX_AIR_SPEED_CHANGE = 0.1;
+	
+	private static final double MIN_TIME_STEP = 0.001;
+	
+	/** Distance below the ground or deployment altitude where a step ends. */
+	private static final double ALTITUDE_MARGIN = 0.001;
+	
 	
 	@Override
 	public SimulationStatus initialize(SimulationStatus status) {
@@ -40,7 +69,10 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 		double dragForce = totalCD * dynP * refArea;
 		double mass = calculateStructureMass(status).getMass();
 		
-
+		// Drag acceleration per square of air speed, constant during the step
+		double drag = 0.5 * atmosphere.getDensity() * totalCD * refArea / mass;
+		
+		
 		// Compute drag acceleration
 		Coordinate linearAcceleration;
 		if (airSpeed.length() > 0.001) {
@@ -51,32 +83,42 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 		
 		// Add effect of gravity
 		double gravity = modelGravity(status);
-		linearAcceleration = linearAcceleration.sub(0, 0, gravity);
+		Coordinate constantAcceleration = new Coordinate(0, 0, -gravity);
+		
 		
-
 		// Add coriolis acceleration
 		Coordinate coriolisAcceleration = status.getSimulationConditions().getGeodeticComputation().getCoriolisAcceleration(
 				status.getRocketWorldPosition(), status.getRocketVelocity());
-		linearAcceleration = linearAcceleration.add(coriolisAcceleration);
+		constantAcceleration = constantAcceleration.add(coriolisAcceleration);
+		linearAcceleration = linearAcceleration.add(constantAcceleration);
+		
+		Descent descent = new Descent(status.getRocketPosition(), status.getRocketVelocity(), windSpeed,
+				constantAcceleration, linearAcceleration, drag, airSpeed.length());
+		
 		
-
-
 		// Select time step
-		double timeStep = MathUtil.min(0.5 / linearAcceleration.length(), RECOVERY_TIME_STEP);
+		double timeStep = MathUtil.min(status.getSimulationConditions().getDescentTimeStep(), maxTimeStep);
+		timeStep = MathUtil.min(timeStep, descent.getMaxTimeStep());
+		timeStep = MathUtil.max(timeStep, MIN_TIME_STEP);
+		
+		// End the step at the ground or an altitude deployment
+		double target = getTargetAltitude(status);
+		if (descent.getPosition(timeStep).z < target) {
+			timeStep = descent.getTime(target, timeStep);
+		}
 		
-		// Perform Euler integration
-		status.setRocketPosition(status.getRocketPosition().add(status.getRocketVelocity().multiply(timeStep)).
-				add(linearAcceleration.multiply(MathUtil.pow2(timeStep) / 2)));
-		status.setRocketVelocity(status.getRocketVelocity().add(linearAcceleration.multiply(timeStep)));
+		// Perform the integration
+		status.setRocketPosition(descent.getPosition(timeStep));
+		status.setRocketVelocity(descent.getVelocity(timeStep));
 		status.setSimulationTime(status.getSimulationTime() + timeStep);
 		
-
+		
 		// Update the world coordinate
 		WorldCoordinate w = status.getSimulationConditions().getLaunchSite();
 		w = status.getSimulationConditions().getGeodeticComputation().addCoordinate(w, status.getRocketPosition());
 		status.setRocketWorldPosition(w);
 		
-
+		
 		// Store data
 		FlightDataBranch data = status.getFlightData();
 		boolean extra = status.getSimulationConditions().isCalculateExtras();
@@ -105,7 +147,7 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 			data.setValue(FlightDataType.TYPE_REYNOLDS_NUMBER, Re);
 		}
 		
-
+		
 		data.setValue(FlightDataType.TYPE_LATITUDE, status.getRocketWorldPosition().getLatitudeRad());
 		data.setValue(FlightDataType.TYPE_LONGITUDE, status.getRocketWorldPosition().getLongitudeRad());
 		data.setValue(FlightDataType.TYPE_GRAVITY, gravity);
@@ -114,11 +156,12 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 			data.setValue(FlightDataType.TYPE_CORIOLIS_ACCELERATION, coriolisAcceleration.length());
 		}
 		
-
+		
 		data.setValue(FlightDataType.TYPE_VELOCITY_Z, status.getRocketVelocity().z);
 		data.setValue(FlightDataType.TYPE_ACCELERATION_Z, linearAcceleration.z);
 		
-		data.setValue(FlightDataType.TYPE_VELOCITY_TOTAL, airSpeed.length());
+		// Air speed at the end of the step, with the wind used during the step
+		data.setValue(FlightDataType.TYPE_VELOCITY_TOTAL, status.getRocketVelocity().add(windSpeed).length());
 		data.setValue(FlightDataType.TYPE_MACH_NUMBER, mach);
 		
 		data.setValue(FlightDataType.TYPE_MASS, mass);
@@ -137,4 +180,121 @@ public class BasicLandingStepper extends AbstractSimulationStepper {
 				(System.nanoTime() - status.getSimulationStartWallTime()) / 1000000000.0);
 	}
 	
+	
+	/**
+	 * Return the altitude at which the next step should end at the latest.  This is the
+	 * highest deployment altitude below the rocket of a recovery device that has not
+	 * been deployed, or the ground.
+	 */
+	private double getTargetAltitude(SimulationStatus status) {
+		double altitude = status.getRocketPosition().z;
+		double target = 0;
+		for (RocketComponent c : status.getConfiguration().getActiveInstances().keySet()) {
+			if (!(c instanceof RecoveryDevice) || status.getDeployedRecoveryDevices().contains(c)) {
+				continue;
+			}
+			DeploymentConfiguration deployConfig = ((RecoveryDevice) c).getDeploymentConfigurations()
+					.get(status.getConfiguration().getFlightConfigurationID());
+			if (deployConfig.getDeployEvent() == DeploymentConfiguration.DeployEvent.ALTITUDE &&
+					deployConfig.getDeployAltitude() < altitude) {
+				target = Math.max(target, deployConfig.getDeployAltitude());
+			}
+		}
+		return target - ALTITUDE_MARGIN;
+	}
+	
+	
+	/**
+	 * The closed form solution of the motion with a drag proportional to the air speed,
+	 * dv/dt = -k (v + w) + a, where the wind w and the acceleration a are constant.
+	 * The quadratic drag is linearized around the terminal velocity once the velocity is
+	 * close to it, which makes the terminal velocity exact, and otherwise around the
+	 * current air speed.  Without drag the acceleration is constant.
+	 */
+	private static class Descent {
+		private final Coordinate position;
+		private final Coordinate velocity;
+		private final Coordinate acceleration;
+		private double k = 0;
+		
+		/** The equilibrium velocity, or null without drag. */
+		private Coordinate terminalVelocity = null;
+		
+		/** The allowed velocity change during a step. */
+		private double allowedChange = MAX_VELOCITY_CHANGE;
+		
+		public Descent(Coordinate position, Coordinate velocity, Coordinate windSpeed,
+				Coordinate constantAcceleration, Coordinate acceleration, double drag, double airSpeed) {
+			this.position = position;
+			this.velocity = velocity;
+			this.acceleration = acceleration;
+			if (!(drag > 0)) {
+				return;
+			}
+			
+			double terminalSpeed = Math.sqrt(constantAcceleration.length() / drag);
+			allowedChange = Math.max(MAX_AIR_SPEED_CHANGE * terminalSpeed, MAX_VELOCITY_CHANGE);
+			k = drag * terminalSpeed;
+			terminalVelocity = constantAcceleration.multiply(1 / k).sub(windSpeed);
+			if (velocity.sub(terminalVelocity).length() <= allowedChange) {
+				return;
+			}
+			
+			if (airSpeed > 0.001) {
+				k = drag * airSpeed;
+				terminalVelocity = constantAcceleration.multiply(1 / k).sub(windSpeed);
+			} else {
+				k = 0;
+				terminalVelocity = null;
+			}
+		}
+		
+		/**
+		 * Return the maximum time step during which the linearized drag is accurate.
+		 */
+		public double getMaxTimeStep() {
+			if (terminalVelocity == null) {
+				return allowedChange / acceleration.length();
+			}
+			double change = velocity.sub(terminalVelocity).length();
+			if (change <= allowedChange) {
+				return Double.MAX_VALUE;
+			}
+			return -Math.log(1 - allowedChange / change) / k;
+		}
+		
+		public Coordinate getVelocity(double t) {
+			if (terminalVelocity == null) {
+				return velocity.add(acceleration.multiply(t));
+			}
+			return terminalVelocity.add(velocity.sub(terminalVelocity).multiply(Math.exp(-k * t)));
+		}
+		
+		public Coordinate getPosition(double t) {
+			if (terminalVelocity == null) {
+				return position.add(velocity.multiply(t)).add(acceleration.multiply(MathUtil.pow2(t) / 2));
+			}
+			return position.add(terminalVelocity.multiply(t))
+					.add(velocity.sub(terminalVelocity).multiply(-Math.expm1(-k * t) / k));
+		}
+		
+		/**
+		 * Return the time when the altitude falls below the target altitude.  The target
+		 * must be below the current altitude and above the altitude at time tMax.
+		 */
+		public double getTime(double target, double tMax) {
+			double low = 0;
+			double high = tMax;
+			while (high - low > MIN_TIME_STEP / 10) {
+				double t = (low + high) / 2;
+				if (getPosition(t).z < target) {
+					high = t;
+				} else {
+					low = t;
+				}
+			}
+			return high;
+		}
+	}
+
 }
@@ -120,12 +120,24 @@ public class FlightData {
 	
 	
 	public void addBranch(FlightDataBranch branch) {
+		addBranch(branch, true);
+	}
+	
+	/**
+	 * Add a branch, optionally keeping the current summary values.  Keeping the summary values
+	 * is useful when they are already known, for example when loaded from a file, as the
+	 * values of a deferred branch are then not decoded.
+	 * 
+	 * @param branch			the branch to add.
+	 * @param calculateSummary	whether to calculate the summary values if this is the first branch.
+	 */
+	public void addBranch(FlightDataBranch branch, boolean calculateSummary) {
 		mutable.check();
 		
 		branch.immute();
 		branches.add(branch);
 		
-		if (branches.size() == 1) {
+		if (calculateSummary && branches.size() == 1) {
 			calculateInterestingValues();
 		}
 	}
@@ -1,7 +1,6 @@
 package net.sf.openrocket.simulation;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +20,11 @@ import net.sf.openrocket.util.Mutable;
  * not defined in the constructor can be added using {@link #setValue(FlightDataType, double)}, they
  * will be created and all previous values will be set to NaN.
  * <p>
+ * Multiple data points can be added at once using {@link #addPoints(FlightDataType[], double[][], int)}.
+ * Data loaded from a file can be added using
+ * {@link #addDeferredPoints(FlightDataType[], double[][], int, DeferredData)}, in which case the
+ * values are decoded only when they are first accessed.
+ * <p>
  * After populating a FlightDataBranch object it can be made immutable by calling {@link #immute()}.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
@@ -30,11 +34,18 @@ public class FlightDataBranch implements Monitorable {
 	/** The name of this flight data branch. */
 	private final String branchName;
 	
-	private final Map<FlightDataType, ArrayList<Double>> values =
-			new LinkedHashMap<FlightDataType, ArrayList<Double>>();
+	/**
+	 * The values of each type.  The value of a type is <code>null</code> while its values
+	 * are pending decoding by {@link #deferred}.
+	 */
+	private final Map<FlightDataType, Column> values = new LinkedHashMap<FlightDataType, Column>();
+	
+	/** The number of data points */
+	private int length = 0;
 	
-	private final Map<FlightDataType, Double> maxValues = new HashMap<FlightDataType, Double>();
-	private final Map<FlightDataType, Double> minValues = new HashMap<FlightDataType, Double>();
+	/** Source of the values not yet decoded, or <code>null</code> */
+	private volatile DeferredData deferred = null;
+	private FlightDataType[] deferredTypes = null;
 	
 	/**
 	 * time for the rocket to reach apogee if the flight had been no recovery deployment
@@ -70,9 +81,7 @@ public class FlightDataBranch implements Monitorable {
 						"times in constructor.");
 			}
 			
-			values.put(t, new ArrayList<Double>());
-			minValues.put(t, Double.NaN);
-			maxValues.put(t, Double.NaN);
+			values.put(t, new Column(0));
 		}
 	}
 	
@@ -94,10 +103,12 @@ public class FlightDataBranch implements Monitorable {
 	 */
 	public void addPoint() {
 		mutable.check();
+		decode();
 		
-		for (FlightDataType t : values.keySet()) {
-			values.get(t).add(Double.NaN);
+		for (Column c : values.values()) {
+			c.add(Double.NaN);
 		}
+		length++;
 		modID++;
 	}
 	
@@ -112,37 +123,142 @@ public class FlightDataBranch implements Monitorable {
 	 */
 	public void setValue(FlightDataType type, double value) {
 		mutable.check();
+		decode();
 		
-		ArrayList<Double> list = values.get(type);
+		Column column = values.get(type);
 		
-		if (list == null) {
-			list = new ArrayList<Double>();
-			int n = getLength();
-			for (int i = 0; i < n; i++) {
-				list.add(Double.NaN);
+		if (column == null) {
+			column = new Column(length);
+			for (int i = 0; i < length; i++) {
+				column.add(Double.NaN);
 			}
-			values.put(type, list);
-			minValues.put(type, value);
-			maxValues.put(type, value);
+			column.min = value;
+			column.max = value;
+			values.put(type, column);
 		}
 		
-		if (list.size() > 0) {
-			list.set(list.size() - 1, value);
+		if (column.size > 0) {
+			column.data[column.size - 1] = value;
 		}
+		column.update(value);
+		modID++;
+	}
+	
+	
+	/**
+	 * Add a number of data points at once.  The values of types not included in
+	 * <code>types</code> are set to NaN, and types not yet present are added to the branch.
+	 * 
+	 * @param types		the variable types of the values.
+	 * @param data		the values, one array per type containing at least <code>count</code> values.
+	 * @param count		the number of data points to add.
+	 * @throws IllegalStateException	if this object has been made immutable.
+	 */
+	public void addPoints(FlightDataType[] types, double[][] data, int count) {
+		mutable.check();
+		decode();
 		
-		double min = minValues.get(type);
-		double max = maxValues.get(type);
+		if (count <= 0) {
+			return;
+		}
 		
-		if (Double.isNaN(min) || (value < min)) {
-			minValues.put(type, value);
+		for (int i = 0; i < types.length; i++) {
+			Column column = values.get(types[i]);
+			if (column == null) {
+				column = new Column(length + count);
+				column.fill(Double.NaN, length);
+				values.put(types[i], column);
+			}
+			column.addAll(data[i], count);
 		}
-		if (Double.isNaN(max) || (value > max)) {
-			maxValues.put(type, value);
+		for (Column c : values.values()) {
+			if (c.size < length + count) {
+				c.fill(Double.NaN, length + count - c.size);
+			}
 		}
+		length += count;
 		modID++;
 	}
 	
 	
+	/**
+	 * Add a number of data points whose values are decoded only when they are first
+	 * accessed.  The branch must not contain any data points yet.  Values already available
+	 * can be given in <code>data</code>; the rest are obtained from <code>source</code>
+	 * the first time any value of these types is needed.
+	 * 
+	 * @param types		the variable types of the data.
+	 * @param data		values already available, one array per type, or <code>null</code>
+	 * 					for the values to decode later.
+	 * @param count		the number of data points.
+	 * @param source	the source of the deferred values.
+	 * @throws IllegalStateException	if this object has been made immutable or already contains data points.
+	 */
+	public void addDeferredPoints(FlightDataType[] types, double[][] data, int count, DeferredData source) {
+		mutable.check();
+		if (length > 0 || deferred != null) {
+			throw new IllegalStateException("Deferred data points can only be added to an empty branch");
+		}
+		
+		boolean pending = false;
+		for (int i = 0; i < types.length; i++) {
+			if (data[i] != null) {
+				Column column = new Column(count);
+				column.addAll(data[i], count);
+				values.put(types[i], column);
+			} else {
+				values.put(types[i], null);
+				pending = true;
+			}
+		}
+		for (Map.Entry<FlightDataType, Column> e : values.entrySet()) {
+			if (e.getValue() != null && e.getValue().size < count) {
+				e.getValue().fill(Double.NaN, count - e.getValue().size);
+			}
+		}
+		
+		length = count;
+		if (pending) {
+			deferredTypes = types.clone();
+			deferred = source;
+		}
+		modID++;
+	}
+	
+	
+	/**
+	 * Decode the deferred values, if any.
+	 */
+	private void decode() {
+		if (deferred == null) {
+			return;
+		}
+		synchronized (this) {
+			DeferredData source = deferred;
+			if (source == null) {
+				return;
+			}
+			double[][] data = source.decode();
+			for (int i = 0; i < deferredTypes.length; i++) {
+				if (values.get(deferredTypes[i]) == null) {
+					Column column = new Column(length);
+					column.addAll(data[i], length);
+					values.put(deferredTypes[i], column);
+				}
+			}
+			deferredTypes = null;
+			deferred = null;
+		}
+	}
+	
+	/**
+	 * Return whether some of the values of this branch have not been decoded yet.
+	 */
+	public boolean isDeferred() {
+		return deferred != null;
+	}
+	
+	
 	/**
 	 * Return the branch name.
 	 */
@@ -164,10 +280,16 @@ public class FlightDataBranch implements Monitorable {
 	 * Return the number of data points in this branch.
 	 */
 	public int getLength() {
-		for (FlightDataType t : values.keySet()) {
-			return values.get(t).size();
+		return length;
+	}
+	
+	private Column getColumn(FlightDataType type) {
+		Column column = values.get(type);
+		if (column == null && deferred != null) {
+			decode();
+			column = values.get(type);
 		}
-		return 0;
+		return column;
 	}
 	
 	/**
@@ -178,10 +300,53 @@ public class FlightDataBranch implements Monitorable {
 	 * 				the variable type hasn't been added to this branch.
 	 */
 	public List<Double> get(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null)
+		Column column = getColumn(type);
+		if (column == null)
+			return null;
+		ArrayList<Double> list = new ArrayList<Double>(column.size);
+		for (int i = 0; i < column.size; i++) {
+			list.add(column.data[i]);
+		}
+		return list;
+	}
+	
+	/**
+	 * Return the values for the specified variable type as a new array.
+	 * 
+	 * @param type	the variable type.
+	 * @return		the variable values, or <code>null</code> if
+	 * 				the variable type hasn't been added to this branch.
+	 */
+	public double[] getValues(FlightDataType type) {
+		Column column = getColumn(type);
+		if (column == null)
 			return null;
-		return list.clone();
+		return Arrays.copyOf(column.data, column.size);
+	}
+	
+	/**
+	 * Copy a range of the values of the specified variable type into an array.  This
+	 * allows reading long branches in chunks without copying the whole column.
+	 * 
+	 * @param type		the variable type.
+	 * @param start		the index of the first point to copy.
+	 * @param dest		the array to copy the values into.
+	 * @param offset	the position in <code>dest</code> of the first value.
+	 * @param count		the maximum number of values to copy.
+	 * @return			the number of values copied, which is less than <code>count</code> only
+	 * 					at the end of the branch, or -1 if the variable type hasn't been added
+	 * 					to this branch.
+	 */
+	public int getValues(FlightDataType type, int start, double[] dest, int offset, int count) {
+		Column column = getColumn(type);
+		if (column == null)
+			return -1;
+		if (start < 0 || start > column.size) {
+			throw new IndexOutOfBoundsException("start=" + start + " size=" + column.size);
+		}
+		int n = Math.min(count, column.size - start);
+		System.arraycopy(column.data, start, dest, offset, n);
+		return n;
 	}
 	
 	/**
@@ -192,10 +357,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the last value in this branch, or NaN.
 	 */
 	public double getLast(FlightDataType type) {
-		ArrayList<Double> list = values.get(type);
-		if (list == null || list.isEmpty())
+		Column column = getColumn(type);
+		if (column == null || column.size == 0)
 			return Double.NaN;
-		return list.get(list.size() - 1);
+		return column.data[column.size - 1];
 	}
 	
 	/**
@@ -206,10 +371,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the minimum value in this branch, or NaN.
 	 */
 	public double getMinimum(FlightDataType type) {
-		Double v = minValues.get(type);
-		if (v == null)
+		Column column = getColumn(type);
+		if (column == null)
 			return Double.NaN;
-		return v;
+		return column.min;
 	}
 	
 	/**
@@ -220,10 +385,10 @@ public class FlightDataBranch implements Monitorable {
 	 * @return		the maximum value in this branch, or NaN.
 	 */
 	public double getMaximum(FlightDataType type) {
-		Double v = maxValues.get(type);
-		if (v == null)
+		Column column = getColumn(type);
+		if (column == null)
 			return Double.NaN;
-		return v;
+		return column.max;
 	}
 	
 	
@@ -344,4 +509,72 @@ public class FlightDataBranch implements Monitorable {
 		return modID;
 	}
 	
+	
+	/**
+	 * A source of flight data values that are decoded only when first needed.
+	 * 
+	 * @see FlightDataBranch#addDeferredPoints(FlightDataType[], double[][], int, DeferredData)
+	 */
+	public interface DeferredData {
+		
+		/**
+		 * Decode the deferred values.  This method is called at most once.
+		 * 
+		 * @return	one array of values per type given when adding the deferred points, each
+		 * 			containing at least the number of points added.  The arrays of the types
+		 * 			whose values were already available may be <code>null</code>.
+		 */
+		public double[][] decode();
+	}
+	
+	
+	/**
+	 * The values of a single variable type, stored as primitive doubles.
+	 */
+	private static class Column {
+		private double[] data;
+		private int size = 0;
+		private double min = Double.NaN;
+		private double max = Double.NaN;
+		
+		public Column(int capacity) {
+			data = new double[Math.max(capacity, 16)];
+		}
+		
+		public void add(double value) {
+			ensureCapacity(size + 1);
+			data[size++] = value;
+		}
+		
+		public void addAll(double[] array, int count) {
+			ensureCapacity(size + count);
+			System.arraycopy(array, 0, data, size, count);
+			size += count;
+			for (int i = 0; i < count; i++) {
+				update(array[i]);
+			}
+		}
+		
+		public void fill(double value, int count) {
+			ensureCapacity(size + count);
+			Arrays.fill(data, size, size + count, value);
+			size += count;
+		}
+		
+		public void update(double value) {
+			if (Double.isNaN(min) || (value < min)) {
+				min = value;
+			}
+			if (Double.isNaN(max) || (value > max)) {
+				max = value;
+			}
+		}
+		
+		private void ensureCapacity(int capacity) {
+			if (capacity > data.length) {
+				data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+			}
+		}
+	}
+	
 }
@@ -165,6 +165,10 @@ public class MotorClusterState {
 	public boolean isSpent(){
 		return currentState == ThrustState.SPENT;
 	}
+
+	public boolean isThrusting(){
+		return currentState.isThrusting();
+	}
 	
 	/**
 	 * alias to 'resetToPreflight()'
@@ -1,7 +1,6 @@
 package net.sf.openrocket.simulation;
 
 import java.util.Arrays;
-import java.util.Random;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +19,7 @@ import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.GeodeticComputationStrategy;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.Quaternion;
+import net.sf.openrocket.util.RandomStream;
 import net.sf.openrocket.util.Rotation2D;
 import net.sf.openrocket.util.WorldCoordinate;
 
@@ -29,8 +29,8 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	private static final Translator trans = Application.getTranslator();
 	
 
-	/** Random value with which to XOR the random seed value */
-	private static final int SEED_RANDOMIZATION = 0x23E3A01F;
+	/** The name of the random stream of the pitch and yaw randomization */
+	private static final String RANDOM_STREAM = "pitch-yaw";
 	
 
 	/**
@@ -61,7 +61,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 	private static final double MIN_TIME_STEP = 0.001;
 	
 	
-	private Random random;
+	private RandomStream random;
 	
 	
 	
@@ -81,7 +81,7 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 				Math.cos(sim.getLaunchRodAngle())
 				));
 		
-		this.random = new Random(original.getSimulationConditions().getRandomSeed() ^ SEED_RANDOMIZATION);
+		this.random = sim.getRandomStream(RANDOM_STREAM);
 		
 		return status;
 	}
@@ -448,10 +448,12 @@ public class RK4SimulationStepper extends AbstractSimulationStepper {
 				.getAerodynamicForces(status.getConfiguration(), store.flightConditions, warnings);
 		
 
-		// Add very small randomization to yaw & pitch moments to prevent over-perfect flight
+		// Add very small randomization to yaw & pitch moments to prevent over-perfect flight.
+		// The values are indexed by the time, so they do not depend on the preceding steps.
 		// TODO: HIGH: This should rather be performed as a listener
-		store.forces.setCm(store.forces.getCm() + (PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5)));
-		store.forces.setCyaw(store.forces.getCyaw() + (PITCH_YAW_RANDOM * 2 * (random.nextDouble() - 0.5)));
+		long index = 2 * Double.doubleToLongBits(status.getSimulationTime());
+		store.forces.setCm(store.forces.getCm() + (PITCH_YAW_RANDOM * 2 * (random.getDouble(index) - 0.5)));
+		store.forces.setCyaw(store.forces.getCyaw() + (PITCH_YAW_RANDOM * 2 * (random.getDouble(index + 1) - 0.5)));
 		
 
 		// Call post-listeners
@@ -16,6 +16,7 @@ import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.GeodeticComputationStrategy;
 import net.sf.openrocket.util.Monitorable;
+import net.sf.openrocket.util.RandomStream;
 import net.sf.openrocket.util.WorldCoordinate;
 
 /**
@@ -47,6 +48,8 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	
 	private GeodeticComputationStrategy geodeticComputation = GeodeticComputationStrategy.SPHERICAL;
 	
+	private SimulationMethod simulationMethod = SimulationMethod.SIX_DOF;
+	
 	
 	private WindModel windModel;
 	private AtmosphericModel atmosphericModel;
@@ -57,6 +60,7 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	
 	
 	private double timeStep = RK4SimulationStepper.RECOMMENDED_TIME_STEP;
+	private double descentTimeStep = BasicLandingStepper.RECOMMENDED_TIME_STEP;
 	private double maximumAngleStep = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
 	
 	/* Whether to calculate additional data or only primary simulation figures */
@@ -196,6 +200,21 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	}
 	
 	
+	public SimulationMethod getSimulationMethod() {
+		return simulationMethod;
+	}
+	
+	public void setSimulationMethod(SimulationMethod simulationMethod) {
+		if (this.simulationMethod == simulationMethod)
+			return;
+		if (simulationMethod == null) {
+			throw new IllegalArgumentException("method cannot be null");
+		}
+		this.simulationMethod = simulationMethod;
+		this.modID++;
+	}
+	
+	
 	public WindModel getWindModel() {
 		return windModel;
 	}
@@ -246,6 +265,17 @@ public class SimulationConditions implements Monitorable, Cloneable {
 	}
 	
 	
+	public double getDescentTimeStep() {
+		return descentTimeStep;
+	}
+	
+	
+	public void setDescentTimeStep(double descentTimeStep) {
+		this.descentTimeStep = descentTimeStep;
+		this.modID++;
+	}
+	
+	
 	public double getMaximumAngleStep() {
 		return maximumAngleStep;
 	}
@@ -279,6 +309,18 @@ public class SimulationConditions implements Monitorable, Cloneable {
 		this.modID++;
 	}
 	
+	/**
+	 * Return a new random stream for a stochastic model of the simulation.  The stream
+	 * is split from the random seed by name, so the values obtained by each model are
+	 * independent of the other models and of the order in which the models are used.
+	 * 
+	 * @param name	the name of the stream, typically identifying the model.
+	 * @return		a new random stream.
+	 */
+	public RandomStream getRandomStream(String name) {
+		return new RandomStream(randomSeed).split(name);
+	}
+	
 	public void setSimulation(Simulation sim) {
 		this.simulation = sim;
 	}
@@ -0,0 +1,68 @@
+package net.sf.openrocket.simulation;
+
+import java.util.Locale;
+
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.startup.Application;
+
+/**
+ * The method used to simulate the flight of the rocket before the recovery devices
+ * are deployed.
+ */
+public enum SimulationMethod {
+
+	/**
+	 * Six degree-of-freedom simulation of the translation and rotation of the rocket.
+	 */
+	SIX_DOF {
+		@Override
+		public SimulationStepper createFlightStepper() {
+			return new RK4SimulationStepper();
+		}
+	},
+
+	/**
+	 * Three degree-of-freedom point-mass simulation with an approximation of
+	 * weathercocking.  Intended for fast screening of stable designs.  It takes about
+	 * 4-15 times fewer steps than the 6-DOF simulation, depending on how much of the
+	 * flight is spent coasting.  Designs that are not statically stable give meaningless
+	 * results and a warning.
+	 */
+	THREE_DOF {
+		@Override
+		public SimulationStepper createFlightStepper() {
+			return new ThreeDOFSimulationStepper();
+		}
+	};
+
+
+	private static final Translator trans = Application.getTranslator();
+
+	/**
+	 * Return the name of this simulation method.
+	 */
+	public String getName() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".name");
+	}
+
+	/**
+	 * Return a description of this simulation method.
+	 */
+	public String getDescription() {
+		return trans.get(name().toLowerCase(Locale.ENGLISH) + ".desc");
+	}
+
+	@Override
+	public String toString() {
+		return getName();
+	}
+
+
+	/**
+	 * Create a new stepper simulating the free flight with this method.
+	 *
+	 * @return	a new simulation stepper.
+	 */
+	public abstract SimulationStepper createFlightStepper();
+
+}
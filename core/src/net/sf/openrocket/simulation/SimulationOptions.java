@@ -13,9 +13,12 @@ import net.sf.openrocket.aerodynamics.BarrowmanCalculator;
 import net.sf.openrocket.masscalc.MassCalculator;
 import net.sf.openrocket.models.atmosphere.AtmosphericModel;
 import net.sf.openrocket.models.atmosphere.ExtendedISAModel;
+import net.sf.openrocket.models.atmosphere.Sounding;
+import net.sf.openrocket.models.atmosphere.SoundingAtmosphericModel;
 import net.sf.openrocket.models.gravity.GravityModel;
 import net.sf.openrocket.models.gravity.WGSGravityModel;
 import net.sf.openrocket.models.wind.PinkNoiseWindModel;
+import net.sf.openrocket.models.wind.SoundingWindModel;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.startup.Preferences;
 import net.sf.openrocket.util.BugException;
@@ -44,6 +47,11 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	 */
 	private static final AtmosphericModel ISA_ATMOSPHERIC_MODEL = new ExtendedISAModel();
 	
+	/**
+	 * The name of the random stream of the wind turbulence.
+	 */
+	private static final String WIND_RANDOM_STREAM = "wind";
+	
 	protected final Preferences preferences = Application.getPreferences();
 	
 	/*
@@ -74,9 +82,12 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	private boolean useISA = preferences.getBoolean(Preferences.LAUNCH_USE_ISA, true);
 	private double launchTemperature = preferences.getDouble(Preferences.LAUNCH_TEMPERATURE, ExtendedISAModel.STANDARD_TEMPERATURE);
 	private double launchPressure = preferences.getDouble(Preferences.LAUNCH_PRESSURE, ExtendedISAModel.STANDARD_PRESSURE);
+	private Sounding sounding = null;
 	
 	private double timeStep = preferences.getDouble(Preferences.SIMULATION_TIME_STEP, RK4SimulationStepper.RECOMMENDED_TIME_STEP);
 	private double maximumAngle = RK4SimulationStepper.RECOMMENDED_ANGLE_STEP;
+	private SimulationMethod simulationMethod = SimulationMethod.SIX_DOF;
+	private double descentTimeStep = BasicLandingStepper.RECOMMENDED_TIME_STEP;
 	
 	private int randomSeed = new Random().nextInt();
 	
@@ -257,6 +268,21 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	}
 	
 	
+	public SimulationMethod getSimulationMethod() {
+		return simulationMethod;
+	}
+	
+	public void setSimulationMethod(SimulationMethod simulationMethod) {
+		if (this.simulationMethod == simulationMethod)
+			return;
+		if (simulationMethod == null) {
+			throw new IllegalArgumentException("method cannot be null");
+		}
+		this.simulationMethod = simulationMethod;
+		fireChangeEvent();
+	}
+	
+	
 	public boolean isISAAtmosphere() {
 		return useISA;
 	}
@@ -298,6 +324,29 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	}
 	
 	
+	/**
+	 * Return the sounding defining the atmosphere, or <code>null</code> if the atmosphere
+	 * is defined by the ISA or the launch temperature and pressure.
+	 */
+	public Sounding getSounding() {
+		return sounding;
+	}
+	
+	/**
+	 * Set the sounding defining the atmosphere.  The sounding takes precedence over the
+	 * other atmospheric conditions and, if it contains the wind, over the average wind
+	 * speed and direction.
+	 * 
+	 * @param sounding	the sounding, or <code>null</code> to not use a sounding.
+	 */
+	public void setSounding(Sounding sounding) {
+		if (this.sounding == null ? sounding == null : this.sounding.equals(sounding))
+			return;
+		this.sounding = sounding;
+		fireChangeEvent();
+	}
+	
+	
 	/**
 	 * Returns an atmospheric model corresponding to the launch conditions.  The
 	 * atmospheric models may be shared between different calls.
@@ -305,6 +354,9 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 	 * @return	an AtmosphericModel object.
 	 */
 	private AtmosphericModel getAtmosphericModel() {
+		if (sounding != null) {
+			return new SoundingAtmosphericModel(sounding);
+		}
 		if (useISA) {
 			return ISA_ATMOSPHERIC_MODEL;
 		}
@@ -323,6 +375,21 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		fireChangeEvent();
 	}
 	
+	/**
+	 * Return the maximum time step during the descent under recovery devices, which is also
+	 * the interval of the data points once the descent velocity has settled.
+	 */
+	public double getDescentTimeStep() {
+		return descentTimeStep;
+	}
+	
+	public void setDescentTimeStep(double descentTimeStep) {
+		if (MathUtil.equals(this.descentTimeStep, descentTimeStep))
+			return;
+		this.descentTimeStep = descentTimeStep;
+		fireChangeEvent();
+	}
+	
 	public double getMaximumStepAngle() {
 		return maximumAngle;
 	}
@@ -403,11 +470,14 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		this.launchTemperature = src.launchTemperature;
 		this.maximumAngle = src.maximumAngle;
 		this.timeStep = src.timeStep;
+		this.simulationMethod = src.simulationMethod;
+		this.descentTimeStep = src.descentTimeStep;
 		this.windAverage = src.windAverage;
 		this.windTurbulence = src.windTurbulence;
 		this.windDirection = src.windDirection;
 		this.calculateExtras = src.calculateExtras;
 		this.randomSeed = src.randomSeed;
+		this.sounding = src.sounding;
 		
 		fireChangeEvent();
 	}
@@ -457,6 +527,14 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 			isChanged = true;
 			this.timeStep = src.timeStep;
 		}
+		if (this.simulationMethod != src.simulationMethod) {
+			isChanged = true;
+			this.simulationMethod = src.simulationMethod;
+		}
+		if (this.descentTimeStep != src.descentTimeStep) {
+			isChanged = true;
+			this.descentTimeStep = src.descentTimeStep;
+		}
 		if (this.windAverage != src.windAverage) {
 			isChanged = true;
 			this.windAverage = src.windAverage;
@@ -473,6 +551,10 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 			isChanged = true;
 			this.calculateExtras = src.calculateExtras;
 		}
+		if (this.sounding == null ? src.sounding != null : !this.sounding.equals(src.sounding)) {
+			isChanged = true;
+			this.sounding = src.sounding;
+		}
 		
 		if (isChanged) {
 			// Only copy the randomSeed if something else has changed.
@@ -502,10 +584,51 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 				MathUtil.equals(this.launchTemperature, o.launchTemperature) &&
 				MathUtil.equals(this.maximumAngle, o.maximumAngle) &&
 				MathUtil.equals(this.timeStep, o.timeStep) &&
+				this.simulationMethod == o.simulationMethod &&
+				MathUtil.equals(this.descentTimeStep, o.descentTimeStep) &&
 				MathUtil.equals(this.windAverage, o.windAverage) &&
 				MathUtil.equals(this.windTurbulence, o.windTurbulence) &&
 				MathUtil.equals(this.windDirection, o.windDirection) &&
-				this.calculateExtras == o.calculateExtras && this.randomSeed == o.randomSeed);
+				this.calculateExtras == o.calculateExtras && this.randomSeed == o.randomSeed &&
+				(this.sounding == null ? o.sounding == null : this.sounding.equals(o.sounding)));
+	}
+	
+	/**
+	 * Return a description of all values that affect the simulation results, at full
+	 * precision.  Options with identical values have identical descriptions.  New options
+	 * affecting the results must be added here.
+	 * 
+	 * @param includeRandomSeed		whether to include the random seed of the wind turbulence.
+	 * @return						the description.
+	 */
+	public String getResultDescription(boolean includeRandomSeed) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("launchAltitude=").append(launchAltitude).append('\n');
+		sb.append("launchLatitude=").append(launchLatitude).append('\n');
+		sb.append("launchLongitude=").append(launchLongitude).append('\n');
+		sb.append("geodeticComputation=").append(geodeticComputation.name()).append('\n');
+		sb.append("useISA=").append(useISA).append('\n');
+		sb.append("launchPressure=").append(launchPressure).append('\n');
+		sb.append("launchTemperature=").append(launchTemperature).append('\n');
+		sb.append("launchRodAngle=").append(launchRodAngle).append('\n');
+		sb.append("launchRodDirection=").append(launchRodDirection).append('\n');
+		sb.append("launchIntoWind=").append(launchIntoWind).append('\n');
+		sb.append("launchRodLength=").append(launchRodLength).append('\n');
+		sb.append("maximumAngle=").append(maximumAngle).append('\n');
+		sb.append("timeStep=").append(timeStep).append('\n');
+		sb.append("simulationMethod=").append(simulationMethod.name()).append('\n');
+		sb.append("descentTimeStep=").append(descentTimeStep).append('\n');
+		sb.append("windAverage=").append(windAverage).append('\n');
+		sb.append("windTurbulence=").append(windTurbulence).append('\n');
+		sb.append("windDirection=").append(windDirection).append('\n');
+		sb.append("calculateExtras=").append(calculateExtras).append('\n');
+		if (sounding != null) {
+			sb.append("sounding=\n").append(sounding.getResultDescription());
+		}
+		if (includeRandomSeed) {
+			sb.append("randomSeed=").append(randomSeed).append('\n');
+		}
+		return sb.toString();
 	}
 	
 	/**
@@ -551,12 +674,22 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		conditions.setGeodeticComputation(getGeodeticComputation());
 		conditions.setRandomSeed(randomSeed);
 		
-		PinkNoiseWindModel windModel = new PinkNoiseWindModel(randomSeed);
-		windModel.setAverage(getWindSpeedAverage());
-		windModel.setStandardDeviation(getWindSpeedDeviation());
-		windModel.setDirection(windDirection);
-		
-		conditions.setWindModel(windModel);
+		if (sounding != null && sounding.hasWind()) {
+			conditions.setWindModel(new SoundingWindModel(sounding, conditions.getRandomStream(WIND_RANDOM_STREAM),
+					getWindTurbulenceIntensity()));
+			if (launchIntoWind) {
+				// Launch into the wind at the launch site instead of the average wind
+				double altitude = getLaunchAltitude();
+				conditions.setLaunchRodDirection(Math.atan2(sounding.getWindX(altitude), sounding.getWindY(altitude)));
+			}
+		} else {
+			PinkNoiseWindModel windModel = new PinkNoiseWindModel(conditions.getRandomStream(WIND_RANDOM_STREAM));
+			windModel.setAverage(getWindSpeedAverage());
+			windModel.setStandardDeviation(getWindSpeedDeviation());
+			windModel.setDirection(windDirection);
+			
+			conditions.setWindModel(windModel);
+		}
 		
 		conditions.setAtmosphericModel(getAtmosphericModel());
 		
@@ -569,6 +702,8 @@ public class SimulationOptions implements ChangeSource, Cloneable {
 		
 		conditions.setTimeStep(getTimeStep());
 		conditions.setMaximumAngleStep(getMaximumStepAngle());
+		conditions.setSimulationMethod(getSimulationMethod());
+		conditions.setDescentTimeStep(getDescentTimeStep());
 		
 		conditions.setCalculateExtras(getCalculateExtras());
 		
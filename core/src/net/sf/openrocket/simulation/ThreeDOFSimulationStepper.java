@@ -0,0 +1,405 @@
+package net.sf.openrocket.simulation;
+
+import net.sf.openrocket.aerodynamics.AerodynamicForces;
+import net.sf.openrocket.aerodynamics.FlightConditions;
+import net.sf.openrocket.aerodynamics.Warning;
+import net.sf.openrocket.aerodynamics.WarningSet;
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.masscalc.RigidBody;
+import net.sf.openrocket.models.atmosphere.AtmosphericConditions;
+import net.sf.openrocket.simulation.exception.SimulationCalculationException;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.SimulationListenerHelper;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.GeodeticComputationStrategy;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.Quaternion;
+import net.sf.openrocket.util.WorldCoordinate;
+
+/**
+ * A three degree-of-freedom simulation stepper for fast screening of designs.  The rocket
+ * is a point mass with the drag of zero angle of attack, which is the axial force of the
+ * aerodynamic calculator, and the mass of the mass calculator, as in
+ * {@link RK4SimulationStepper}.  The rotational dynamics and the time step limits they
+ * require are omitted.
+ * <p>
+ * The thrust acts along the launch rod while on it, and then along the heading of the
+ * rocket.  Weathercocking is approximated by turning the heading towards the relative
+ * wind with the time constant of the undamped pitch oscillation of the rocket,
+ * sqrt(I / (q A CNa (CP - CG))).  A rocket that is not statically stable is turned into the
+ * relative wind immediately, so the results for such designs are not meaningful and
+ * a warning is added to the simulation.
+ * <p>
+ * The position and velocity are integrated with the fourth order Runge-Kutta method.  The
+ * aerodynamic forces, mass, atmosphere and wind are evaluated once per step, and only the
+ * direction and magnitude of the drag are updated between the sub-steps.  While no motor
+ * is thrusting and the rocket is off the launch rod, the time step is
+ * {@link #COAST_STEP_MULTIPLIER} times the time step of the simulation conditions.
+ * Listeners of the acceleration calculation are not called.
+ */
+public class ThreeDOFSimulationStepper extends AbstractSimulationStepper {
+
+	private static final Translator trans = Application.getTranslator();
+
+	/** Multiplier of the time step while no motor is thrusting. */
+	public static final double COAST_STEP_MULTIPLIER = 10;
+
+	private static final double MIN_TIME_STEP = 0.001;
+
+	/** Air speed below which the direction of the rocket is not changed. */
+	private static final double MIN_AIR_SPEED = 0.01;
+
+
+	private Coordinate launchRodDirection;
+
+
+	@Override
+	public SimulationStatus initialize(SimulationStatus status) {
+		SimulationConditions sim = status.getSimulationConditions();
+		launchRodDirection = new Coordinate(
+				Math.sin(sim.getLaunchRodAngle()) * Math.cos(Math.PI / 2.0 - sim.getLaunchRodDirection()),
+				Math.sin(sim.getLaunchRodAngle()) * Math.sin(Math.PI / 2.0 - sim.getLaunchRodDirection()),
+				Math.cos(sim.getLaunchRodAngle()));
+		status.setRocketRotationVelocity(Coordinate.NUL);
+		return status;
+	}
+
+
+	@Override
+	public void step(SimulationStatus status, double maxTimeStep) throws SimulationException {
+		DataStore store = new DataStore();
+
+		store.timestep = selectTimeStep(status, maxTimeStep);
+		store.thrustForce = calculateAverageThrust(status, store.timestep, Double.NaN, null, true);
+
+		// Conditions at the start of the step, used for the whole step
+		AtmosphericConditions atmosphere = modelAtmosphericConditions(status);
+		Coordinate wind = modelWindVelocity(status);
+		store.windSpeed = wind.length();
+		calculateForces(status, store, atmosphere, wind);
+
+		RigidBody structureMass = calculateStructureMass(status);
+		store.motorMass = calculateMotorMass(status);
+		store.rocketMass = structureMass.add(store.motorMass);
+
+		store.gravity = modelGravity(status);
+		store.coriolisAcceleration = status.getSimulationConditions().getGeodeticComputation()
+				.getCoriolisAcceleration(status.getRocketWorldPosition(), status.getRocketVelocity());
+
+		Derivative derivative = new Derivative(status, store, wind);
+
+
+		//// Perform RK4 integration of the position and velocity
+		double dt = store.timestep;
+		Coordinate v1 = status.getRocketVelocity();
+		Coordinate a1 = derivative.acceleration(v1);
+		Coordinate v2 = v1.add(a1.multiply(dt / 2));
+		Coordinate a2 = derivative.acceleration(v2);
+		Coordinate v3 = v1.add(a2.multiply(dt / 2));
+		Coordinate a3 = derivative.acceleration(v3);
+		Coordinate v4 = v1.add(a3.multiply(dt));
+		Coordinate a4 = derivative.acceleration(v4);
+
+		store.linearAcceleration = a1;
+		store.dragForce = derivative.dragForce(v1);
+		checkNaN(a1);
+
+		// Store data at the start of the step
+		storeData(status, store);
+
+		Coordinate deltaV = a2.add(a3).multiply(2).add(a1).add(a4).multiply(dt / 6);
+		Coordinate deltaP = v2.add(v3).multiply(2).add(v1).add(v4).multiply(dt / 6);
+
+		status.setRocketVelocity(status.getRocketVelocity().add(deltaV));
+		status.setRocketPosition(status.getRocketPosition().add(deltaP));
+		checkNaN(status.getRocketVelocity());
+		checkNaN(status.getRocketPosition());
+
+		WorldCoordinate w = status.getSimulationConditions().getLaunchSite();
+		w = status.getSimulationConditions().getGeodeticComputation().addCoordinate(w, status.getRocketPosition());
+		status.setRocketWorldPosition(w);
+
+		// Turn the rocket towards the new air speed
+		Coordinate direction = weathercock(status, store, derivative.heading,
+				status.getRocketVelocity().add(wind), dt);
+		status.setRocketOrientationQuaternion(orientation(direction));
+
+		status.setSimulationTime(status.getSimulationTime() + dt);
+		status.setPreviousTimeStep(dt);
+
+		// Verify that values don't run out of range
+		if (status.getRocketVelocity().length2() > 1e18 ||
+				status.getRocketPosition().length2() > 1e18) {
+			throw new SimulationCalculationException(trans.get("error.valuesTooLarge"));
+		}
+	}
+
+
+	/**
+	 * Select the length of the next time step.  It is the minimum of the time step of the
+	 * simulation conditions (or 1/5th of it on the launch rod, or {@link #COAST_STEP_MULTIPLIER}
+	 * times it while coasting), maxTimeStep and 1/10th of the launch rod length while on the rod.
+	 */
+	private double selectTimeStep(SimulationStatus status, double maxTimeStep) {
+		double timeStep = MathUtil.max(status.getSimulationConditions().getTimeStep(), MIN_TIME_STEP);
+
+		if (!status.isLaunchRodCleared()) {
+			timeStep /= 5.0;
+			double velocity = status.getRocketVelocity().length();
+			if (velocity > 0) {
+				timeStep = MathUtil.min(timeStep, status.getSimulationConditions().getLaunchRodLength() / velocity / 10);
+			}
+		} else if (!isThrusting(status)) {
+			timeStep *= COAST_STEP_MULTIPLIER;
+		}
+
+		timeStep = MathUtil.min(timeStep, maxTimeStep);
+		timeStep = MathUtil.max(timeStep, MIN_TIME_STEP);
+		checkNaN(timeStep);
+		return timeStep;
+	}
+
+	private boolean isThrusting(SimulationStatus status) {
+		for (MotorClusterState motor : status.getMotors()) {
+			if (motor.isThrusting()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+
+	/**
+	 * Calculate the flight conditions and the aerodynamic forces at zero angle of attack
+	 * into the data store, allowing listeners to override.
+	 */
+	private void calculateForces(SimulationStatus status, DataStore store, AtmosphericConditions atmosphere,
+			Coordinate wind) throws SimulationException {
+
+		store.flightConditions = SimulationListenerHelper.firePreFlightConditions(status);
+		if (store.flightConditions == null) {
+			store.flightConditions = new FlightConditions(status.getConfiguration());
+			store.flightConditions.setAtmosphericConditions(atmosphere);
+			store.flightConditions.setVelocity(status.getRocketVelocity().add(wind).length());
+			store.flightConditions.setAOA(0);
+			store.flightConditions = SimulationListenerHelper.firePostFlightConditions(status, store.flightConditions);
+		}
+
+		store.forces = SimulationListenerHelper.firePreAerodynamicCalculation(status);
+		if (store.forces == null) {
+			// Ignore warnings on the launch rod, where the angle of attack is not meaningful
+			WarningSet warnings = status.isLaunchRodCleared() ? status.getWarnings() : null;
+			store.forces = status.getSimulationConditions().getAerodynamicCalculator()
+					.getAerodynamicForces(status.getConfiguration(), store.flightConditions, warnings);
+			store.forces = SimulationListenerHelper.firePostAerodynamicCalculation(status, store.forces);
+		}
+	}
+
+
+	/**
+	 * Return the heading of the rocket after a time step, turned from the current heading
+	 * towards the direction of the air speed.
+	 */
+	private Coordinate weathercock(SimulationStatus status, DataStore store, Coordinate heading,
+			Coordinate airSpeed, double dt) {
+		if (!status.isLaunchRodCleared()) {
+			return launchRodDirection;
+		}
+		double length = airSpeed.length();
+		if (length < MIN_AIR_SPEED) {
+			return heading;
+		}
+		Coordinate target = airSpeed.multiply(1 / length);
+
+		// Square of the angular frequency of the pitch oscillation
+		double velocity = store.flightConditions.getVelocity();
+		double dynP = 0.5 * store.flightConditions.getAtmosphericConditions().getDensity() * velocity * velocity;
+		double margin = store.forces.getCP().x - store.rocketMass.getCM().x;
+		double omega2 = dynP * store.flightConditions.getRefArea() * store.forces.getCNa() * margin /
+				store.rocketMass.getLongitudinalInertia();
+		if (!(omega2 > 0)) {
+			if (dynP > 0) {
+				status.getWarnings().add(Warning.UNSTABLE_THREE_DOF);
+			}
+			return target;
+		}
+
+		double fraction = 1 - Math.exp(-Math.sqrt(omega2) * dt);
+		Coordinate direction = heading.add(target.sub(heading).multiply(fraction));
+		if (direction.length2() < MathUtil.EPSILON) {
+			return target;
+		}
+		return direction.normalize();
+	}
+
+
+	/**
+	 * Return the orientation of a rocket pointing in a direction, with zero roll.
+	 */
+	private static Quaternion orientation(Coordinate direction) {
+		double angle = Math.acos(MathUtil.clamp(direction.z, -1, 1));
+		double len = MathUtil.hypot(direction.x, direction.y);
+		if (len < 1e-10) {
+			return (direction.z > 0) ? new Quaternion() : Quaternion.rotation(new Coordinate(angle, 0, 0));
+		}
+		return Quaternion.rotation(new Coordinate(-direction.y / len * angle, direction.x / len * angle, 0));
+	}
+
+
+	/**
+	 * The acceleration of the rocket as a function of its velocity, with the heading and
+	 * the forces other than the drag constant during a step.
+	 */
+	private class Derivative {
+		private final SimulationStatus status;
+		private final Coordinate wind;
+		private final double thrust;
+		private final double mass;
+		private final double dragFactor;
+		private final Coordinate constantAcceleration;
+		private final Coordinate heading;
+
+		public Derivative(SimulationStatus status, DataStore store, Coordinate wind) {
+			this.status = status;
+			this.wind = wind;
+			this.thrust = store.thrustForce;
+			this.mass = store.rocketMass.getMass();
+			this.dragFactor = store.forces.getCaxial() * 0.5 * store.flightConditions.getAtmosphericConditions().getDensity() *
+					store.flightConditions.getRefArea();
+			this.constantAcceleration = store.coriolisAcceleration.sub(0, 0, store.gravity);
+			if (status.isLaunchRodCleared()) {
+				this.heading = status.getRocketOrientationQuaternion().rotateZ();
+			} else {
+				this.heading = launchRodDirection;
+			}
+		}
+
+		public double dragForce(Coordinate velocity) {
+			return dragFactor * velocity.add(wind).length2();
+		}
+
+		public Coordinate acceleration(Coordinate velocity) {
+			Coordinate airSpeed = velocity.add(wind);
+			double airSpeedLength = airSpeed.length();
+
+			Coordinate acceleration = heading.multiply(thrust / mass);
+			if (airSpeedLength > MIN_AIR_SPEED) {
+				acceleration = acceleration.sub(airSpeed.multiply(dragFactor * airSpeedLength / mass));
+			}
+			acceleration = acceleration.add(constantAcceleration);
+
+			// On the launch rod only the acceleration along the rod is effective
+			if (!status.isLaunchRodCleared()) {
+				acceleration = launchRodDirection.multiply(acceleration.dot(launchRodDirection));
+			}
+			return acceleration;
+		}
+	}
+
+
+	private void storeData(SimulationStatus status, DataStore store) {
+
+		FlightDataBranch data = status.getFlightData();
+		boolean extra = status.getSimulationConditions().isCalculateExtras();
+		AtmosphericConditions atmosphere = store.flightConditions.getAtmosphericConditions();
+
+		data.addPoint();
+		data.setValue(FlightDataType.TYPE_TIME, status.getSimulationTime());
+		data.setValue(FlightDataType.TYPE_ALTITUDE, status.getRocketPosition().z);
+		data.setValue(FlightDataType.TYPE_POSITION_X, status.getRocketPosition().x);
+		data.setValue(FlightDataType.TYPE_POSITION_Y, status.getRocketPosition().y);
+
+		data.setValue(FlightDataType.TYPE_LATITUDE, status.getRocketWorldPosition().getLatitudeRad());
+		data.setValue(FlightDataType.TYPE_LONGITUDE, status.getRocketWorldPosition().getLongitudeRad());
+		if (status.getSimulationConditions().getGeodeticComputation() != GeodeticComputationStrategy.FLAT) {
+			data.setValue(FlightDataType.TYPE_CORIOLIS_ACCELERATION, store.coriolisAcceleration.length());
+		}
+
+		if (extra) {
+			data.setValue(FlightDataType.TYPE_POSITION_XY,
+					MathUtil.hypot(status.getRocketPosition().x, status.getRocketPosition().y));
+			data.setValue(FlightDataType.TYPE_POSITION_DIRECTION,
+					Math.atan2(status.getRocketPosition().y, status.getRocketPosition().x));
+
+			data.setValue(FlightDataType.TYPE_VELOCITY_XY,
+					MathUtil.hypot(status.getRocketVelocity().x, status.getRocketVelocity().y));
+			data.setValue(FlightDataType.TYPE_ACCELERATION_XY,
+					MathUtil.hypot(store.linearAcceleration.x, store.linearAcceleration.y));
+			data.setValue(FlightDataType.TYPE_ACCELERATION_TOTAL, store.linearAcceleration.length());
+
+			double Re = (store.flightConditions.getVelocity() *
+					status.getConfiguration().getLength() /
+					atmosphere.getKinematicViscosity());
+			data.setValue(FlightDataType.TYPE_REYNOLDS_NUMBER, Re);
+
+			Coordinate c = status.getRocketOrientationQuaternion().rotateZ();
+			double theta = Math.atan2(c.z, MathUtil.hypot(c.x, c.y));
+			double phi = Math.atan2(c.y, c.x);
+			if (phi < -(Math.PI - 0.0001))
+				phi = Math.PI;
+			data.setValue(FlightDataType.TYPE_ORIENTATION_THETA, theta);
+			data.setValue(FlightDataType.TYPE_ORIENTATION_PHI, phi);
+		}
+
+		data.setValue(FlightDataType.TYPE_VELOCITY_Z, status.getRocketVelocity().z);
+		data.setValue(FlightDataType.TYPE_ACCELERATION_Z, store.linearAcceleration.z);
+		data.setValue(FlightDataType.TYPE_VELOCITY_TOTAL, status.getRocketVelocity().length());
+		data.setValue(FlightDataType.TYPE_MACH_NUMBER, store.flightConditions.getMach());
+
+		data.setValue(FlightDataType.TYPE_CG_LOCATION, store.rocketMass.getCM().x);
+		if (status.isLaunchRodCleared()) {
+			data.setValue(FlightDataType.TYPE_CP_LOCATION, store.forces.getCP().x);
+			data.setValue(FlightDataType.TYPE_STABILITY,
+					(store.forces.getCP().x - store.rocketMass.getCM().x) / store.flightConditions.getRefLength());
+		}
+
+		data.setValue(FlightDataType.TYPE_PROPELLANT_MASS, store.motorMass.getMass());
+		data.setValue(FlightDataType.TYPE_MASS, store.rocketMass.getMass());
+		data.setValue(FlightDataType.TYPE_LONGITUDINAL_INERTIA, store.rocketMass.getLongitudinalInertia());
+		data.setValue(FlightDataType.TYPE_ROTATIONAL_INERTIA, store.rocketMass.getRotationalInertia());
+
+		data.setValue(FlightDataType.TYPE_THRUST_FORCE, store.thrustForce);
+		data.setValue(FlightDataType.TYPE_DRAG_FORCE, store.dragForce);
+		data.setValue(FlightDataType.TYPE_GRAVITY, store.gravity);
+
+		data.setValue(FlightDataType.TYPE_DRAG_COEFF, store.forces.getCD());
+		data.setValue(FlightDataType.TYPE_AXIAL_DRAG_COEFF, store.forces.getCaxial());
+		data.setValue(FlightDataType.TYPE_FRICTION_DRAG_COEFF, store.forces.getFrictionCD());
+		data.setValue(FlightDataType.TYPE_PRESSURE_DRAG_COEFF, store.forces.getPressureCD());
+		data.setValue(FlightDataType.TYPE_BASE_DRAG_COEFF, store.forces.getBaseCD());
+
+		data.setValue(FlightDataType.TYPE_REFERENCE_LENGTH, store.flightConditions.getRefLength());
+		data.setValue(FlightDataType.TYPE_REFERENCE_AREA, store.flightConditions.getRefArea());
+		data.setValue(FlightDataType.TYPE_AOA, store.flightConditions.getAOA());
+
+		data.setValue(FlightDataType.TYPE_WIND_VELOCITY, store.windSpeed);
+		data.setValue(FlightDataType.TYPE_AIR_TEMPERATURE, atmosphere.getTemperature());
+		data.setValue(FlightDataType.TYPE_AIR_PRESSURE, atmosphere.getPressure());
+		data.setValue(FlightDataType.TYPE_SPEED_OF_SOUND, atmosphere.getMachSpeed());
+
+		data.setValue(FlightDataType.TYPE_TIME_STEP, store.timestep);
+		data.setValue(FlightDataType.TYPE_COMPUTATION_TIME,
+				(System.nanoTime() - status.getSimulationStartWallTime()) / 1000000000.0);
+	}
+
+
+	private static class DataStore {
+		public double timestep = Double.NaN;
+
+		public FlightConditions flightConditions;
+		public AerodynamicForces forces;
+
+		public RigidBody rocketMass;
+		public RigidBody motorMass;
+
+		public Coordinate coriolisAcceleration;
+		public Coordinate linearAcceleration;
+
+		public double windSpeed = Double.NaN;
+		public double gravity = Double.NaN;
+		public double thrustForce = Double.NaN;
+		public double dragForce = Double.NaN;
+	}
+
+}
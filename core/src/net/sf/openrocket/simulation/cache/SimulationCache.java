@@ -0,0 +1,524 @@
+package net.sf.openrocket.simulation.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.aerodynamics.Warning;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.openrocket.OpenRocketSaver;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.extension.CacheableSimulationExtension;
+import net.sf.openrocket.simulation.extension.SimulationExtension;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
+import net.sf.openrocket.simulation.listeners.SimulationListener;
+import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.BuildProperties;
+import net.sf.openrocket.util.Config;
+import net.sf.openrocket.util.TextUtil;
+
+/**
+ * A persistent cache of simulation results in a directory.  The results are stored by
+ * a key that is a hash of everything affecting the results: the OpenRocket version,
+ * the description of the rocket design as stored in a document, the flight configuration,
+ * the simulation options and extensions and the additional simulation listeners.  A
+ * simulation whose rocket and options are unchanged, or changed and then restored,
+ * therefore finds its previous results, also in a later session.  Only simulations whose
+ * extensions and listeners are described by the key, as indicated by
+ * {@link CacheableSimulationExtension} and {@link CacheableSimulationListener}, can be
+ * cached.
+ * <p>
+ * Values that do not affect the results, such as component names and appearances, are
+ * part of the key, so changing them causes the simulation to be run again.  The random
+ * seed of the wind turbulence is by default not part of the key, since it is not stored
+ * in documents and a new seed is chosen in every session.  The results of a cached
+ * simulation are then one realization of the turbulence.  Callers that want a new
+ * realization run the simulation without loading cached results.
+ * <p>
+ * The total size of the cache is limited by removing the least recently used results.
+ * Several processes may share the directory.  Errors reading or writing the cache are
+ * logged and otherwise ignored.
+ */
+public class SimulationCache {
+	private static final Logger log = LoggerFactory.getLogger(SimulationCache.class);
+
+	/** The default maximum size of a cache in bytes. */
+	public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+
+	private static final int MAGIC = 0x4F525343; // "ORSC"
+	private static final int VERSION = 2;
+	private static final String SUFFIX = ".sim";
+	private static final String TEMPORARY_SUFFIX = ".tmp";
+	/** Temporary files older than this were left by interrupted writes */
+	private static final long TEMPORARY_FILE_AGE = 60 * 60 * 1000;
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private final File directory;
+	private final long maxSize;
+	private boolean includeRandomSeed = false;
+
+	/** The total size of the entries, or -1 if not yet known */
+	private long size = -1;
+
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param directory		the directory to store the results in.  It is created when needed.
+	 * @param maxSize		the maximum total size of the results in bytes.
+	 */
+	public SimulationCache(File directory, long maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize must be positive, was " + maxSize);
+		}
+		this.directory = directory;
+		this.maxSize = maxSize;
+	}
+
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	public long getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Set whether the random seed of the wind turbulence is part of the key.  If it is,
+	 * results are only reused for the same seed, which is needed to reproduce results
+	 * run with an explicitly set seed.  The default is <code>false</code>.
+	 */
+	public void setIncludeRandomSeed(boolean includeRandomSeed) {
+		this.includeRandomSeed = includeRandomSeed;
+	}
+
+
+	/**
+	 * Return whether the results of a simulation run with the given additional listeners
+	 * can be cached.  This is the case if all listeners are cacheable.
+	 *
+	 * @param listeners		the additional simulation listeners.
+	 * @return				whether the results can be cached.
+	 */
+	public static boolean isCacheable(SimulationListener... listeners) {
+		for (SimulationListener l : listeners) {
+			if (!(l instanceof CacheableSimulationListener)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Return whether the results of a simulation run with the given additional listeners
+	 * can be cached.  This is the case if all extensions of the simulation and all
+	 * listeners are cacheable.
+	 *
+	 * @param simulation	the simulation.
+	 * @param listeners		the additional simulation listeners.
+	 * @return				whether the results can be cached.
+	 */
+	public static boolean isCacheable(Simulation simulation, SimulationListener... listeners) {
+		for (SimulationExtension extension : simulation.getSimulationExtensions()) {
+			if (!(extension instanceof CacheableSimulationExtension)) {
+				return false;
+			}
+		}
+		return isCacheable(listeners);
+	}
+
+	/**
+	 * Compute the key of a simulation.
+	 *
+	 * @param simulation	the simulation, whose extensions must be cacheable.
+	 * @param listeners		the additional simulation listeners, which must be cacheable.
+	 * @return				the key, a hexadecimal string.
+	 */
+	public String getKey(Simulation simulation, SimulationListener... listeners) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new BugException("SHA-256 not supported", e);
+		}
+
+		try {
+			DigestOutputStream out = new DigestOutputStream(new OutputStream() {
+				@Override
+				public void write(int b) {
+				}
+
+				@Override
+				public void write(byte[] b, int off, int len) {
+				}
+			}, digest);
+
+			Writer writer = new OutputStreamWriter(out, UTF8);
+			writer.write("OpenRocket " + BuildProperties.getVersion() + "\n");
+			writer.write("cache " + VERSION + "\n");
+			writer.write("configuration=" + simulation.getId().key + "\n");
+			writer.write(simulation.getOptions().getResultDescription(includeRandomSeed));
+
+			for (SimulationExtension extension : simulation.getSimulationExtensions()) {
+				if (!(extension instanceof CacheableSimulationExtension)) {
+					throw new IllegalArgumentException("Extension " + extension.getId() + " is not cacheable");
+				}
+				writer.write("extension=" + extension.getClass().getName() + " " + extension.getId() + "\n");
+				Config config = extension.getConfig();
+				if (config != null) {
+					List<String> keys = new ArrayList<String>(config.keySet());
+					Collections.sort(keys);
+					for (String key : keys) {
+						writer.write(key + "=" + config.get(key, null) + "\n");
+					}
+				}
+			}
+
+			for (SimulationListener l : listeners) {
+				if (!(l instanceof CacheableSimulationListener)) {
+					throw new IllegalArgumentException("Listener " + l + " is not cacheable");
+				}
+				String description = ((CacheableSimulationListener) l).getResultDescription();
+				if (description.length() > 0) {
+					writer.write("listener=" + description + "\n");
+				}
+			}
+			writer.flush();
+
+			new OpenRocketSaver().saveRocket(out, simulation.getRocket());
+		} catch (IOException e) {
+			throw new BugException("Writing to a digest failed", e);
+		}
+
+		return TextUtil.hexString(digest.digest());
+	}
+
+
+	/**
+	 * Return the results stored by a key.
+	 *
+	 * @param key	the key.
+	 * @return		the results, or <code>null</code> if the cache does not contain the key.
+	 */
+	public FlightData get(String key) {
+		File file = getFile(key);
+		if (!file.isFile()) {
+			return null;
+		}
+
+		FlightData data;
+		DataInputStream in = null;
+		try {
+			in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))));
+			data = read(in, key);
+		} catch (IOException e) {
+			log.warn("Unable to read cached simulation " + file + ", removing it", e);
+			data = null;
+		} finally {
+			close(in);
+		}
+
+		if (data == null) {
+			remove(file);
+			return null;
+		}
+		// Mark as recently used
+		file.setLastModified(System.currentTimeMillis());
+		log.info("Loaded simulation results from the cache " + file);
+		return data;
+	}
+
+	/**
+	 * Store results by a key, replacing any previous results of the key.  Least recently
+	 * used results are removed if the cache becomes too large.
+	 *
+	 * @param key	the key.
+	 * @param data	the results.
+	 */
+	public void put(String key, FlightData data) {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			log.warn("Unable to create the simulation cache directory " + directory);
+			return;
+		}
+
+		File file = getFile(key);
+		File temporary = null;
+		try {
+			temporary = File.createTempFile(key + ".entry", TEMPORARY_SUFFIX, directory);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+					new GZIPOutputStream(new FileOutputStream(temporary))));
+			try {
+				write(out, key, data);
+			} finally {
+				out.close();
+			}
+			try {
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			temporary = null;
+		} catch (IOException e) {
+			log.warn("Unable to write simulation results to the cache " + file, e);
+			return;
+		} finally {
+			if (temporary != null) {
+				remove(temporary);
+			}
+		}
+		log.debug("Stored simulation results in the cache " + file);
+
+		synchronized (this) {
+			if (size >= 0) {
+				size += file.length();
+			}
+			if (size < 0 || size > maxSize) {
+				evict();
+			}
+		}
+	}
+
+	/**
+	 * Return the total size of the stored results in bytes.
+	 */
+	public synchronized long getSize() {
+		long total = 0;
+		for (File f : listEntries()) {
+			total += f.length();
+		}
+		size = total;
+		return size;
+	}
+
+	/**
+	 * Remove all stored results.
+	 */
+	public synchronized void clear() {
+		for (File f : listEntries()) {
+			remove(f);
+		}
+		size = 0;
+	}
+
+
+	/**
+	 * Remove the least recently used results until the cache fits its maximum size, and
+	 * remove temporary files left by interrupted writes.
+	 */
+	private void evict() {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		List<File> entries = new ArrayList<File>();
+		long total = 0;
+		for (File f : files) {
+			if (f.getName().endsWith(SUFFIX)) {
+				entries.add(f);
+				total += f.length();
+			} else if (f.getName().endsWith(TEMPORARY_SUFFIX) && now - f.lastModified() > TEMPORARY_FILE_AGE) {
+				remove(f);
+			}
+		}
+
+		if (total > maxSize) {
+			final long[] modified = new long[entries.size()];
+			File[] sorted = entries.toArray(new File[0]);
+			for (int i = 0; i < sorted.length; i++) {
+				modified[i] = sorted[i].lastModified();
+			}
+			Integer[] order = new Integer[sorted.length];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer a, Integer b) {
+					return Long.compare(modified[a], modified[b]);
+				}
+			});
+
+			for (int i = 0; i < order.length && total > maxSize; i++) {
+				File f = sorted[order[i]];
+				long length = f.length();
+				if (remove(f)) {
+					total -= length;
+				}
+			}
+			log.info("Evicted simulation results from the cache, size now " + total + " bytes");
+		}
+		size = total;
+	}
+
+	private File[] listEntries() {
+		File[] files = directory.listFiles(new FilenameFilter() {
+			@Override
+			public boolean accept(File dir, String name) {
+				return name.endsWith(SUFFIX);
+			}
+		});
+		return (files == null) ? new File[0] : files;
+	}
+
+	private File getFile(String key) {
+		return new File(directory, key + SUFFIX);
+	}
+
+
+	private static void write(DataOutputStream out, String key, FlightData data) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeUTF(key);
+
+		out.writeDouble(data.getMaxAltitude());
+		out.writeDouble(data.getMaxVelocity());
+		out.writeDouble(data.getMaxAcceleration());
+		out.writeDouble(data.getMaxMachNumber());
+		out.writeDouble(data.getTimeToApogee());
+		out.writeDouble(data.getFlightTime());
+		out.writeDouble(data.getGroundHitVelocity());
+		out.writeDouble(data.getLaunchRodVelocity());
+		out.writeDouble(data.getDeploymentVelocity());
+
+		out.writeInt(data.getWarningSet().size());
+		for (Warning w : data.getWarningSet()) {
+			out.writeUTF(w.toString());
+		}
+
+		out.writeInt(data.getBranchCount());
+		for (int b = 0; b < data.getBranchCount(); b++) {
+			FlightDataBranch branch = data.getBranch(b);
+			FlightDataType[] types = branch.getTypes();
+			int length = branch.getLength();
+
+			out.writeUTF(branch.getBranchName());
+			out.writeDouble(branch.getOptimumAltitude());
+			out.writeDouble(branch.getTimeToOptimumAltitude());
+			out.writeInt(types.length);
+			out.writeInt(length);
+			for (FlightDataType type : types) {
+				out.writeUTF(type.getName());
+				out.writeUTF(type.getSymbol());
+				double[] values = branch.getValues(type);
+				for (int i = 0; i < length; i++) {
+					out.writeDouble(values[i]);
+				}
+			}
+
+			List<FlightEvent> events = branch.getEvents();
+			out.writeInt(events.size());
+			for (FlightEvent e : events) {
+				out.writeUTF(e.getType().name());
+				out.writeDouble(e.getTime());
+			}
+		}
+	}
+
+	/**
+	 * Read results, returning <code>null</code> if they are not for the key.
+	 */
+	private static FlightData read(DataInputStream in, String key) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != VERSION || !in.readUTF().equals(key)) {
+			return null;
+		}
+
+		FlightData data = new FlightData(in.readDouble(), in.readDouble(), in.readDouble(),
+				in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+				in.readDouble(), in.readDouble());
+
+		int warnings = in.readInt();
+		for (int i = 0; i < warnings; i++) {
+			data.getWarningSet().add(Warning.fromString(in.readUTF()));
+		}
+
+		int branches = in.readInt();
+		for (int b = 0; b < branches; b++) {
+			String name = in.readUTF();
+			double optimumAltitude = in.readDouble();
+			double timeToOptimumAltitude = in.readDouble();
+			FlightDataType[] types = new FlightDataType[in.readInt()];
+			int length = in.readInt();
+			double[][] values = new double[types.length][length];
+			for (int t = 0; t < types.length; t++) {
+				String typeName = in.readUTF();
+				String symbol = in.readUTF();
+				types[t] = FlightDataType.getType(typeName, symbol, null);
+				for (int i = 0; i < length; i++) {
+					values[t][i] = in.readDouble();
+				}
+			}
+
+			FlightDataBranch branch = new FlightDataBranch(name, types);
+			branch.addPoints(types, values, length);
+			branch.setOptimumAltitude(optimumAltitude);
+			branch.setTimeToOptimumAltitude(timeToOptimumAltitude);
+
+			int events = in.readInt();
+			for (int i = 0; i < events; i++) {
+				String type = in.readUTF();
+				double time = in.readDouble();
+				try {
+					branch.addEvent(new FlightEvent(FlightEvent.Type.valueOf(type), time));
+				} catch (IllegalArgumentException e) {
+					log.warn("Unknown flight event type " + type + " in cached simulation");
+				}
+			}
+			data.addBranch(branch, false);
+		}
+		data.getWarningSet().immute();
+		data.immute();
+		return data;
+	}
+
+
+	private static boolean remove(File file) {
+		if (!file.delete() && file.exists()) {
+			log.warn("Unable to delete " + file);
+			return false;
+		}
+		return true;
+	}
+
+	private static void close(DataInputStream in) {
+		if (in != null) {
+			try {
+				in.close();
+			} catch (IOException e) {
+				log.warn("Error closing file", e);
+			}
+		}
+	}
+}
@@ -6,11 +6,12 @@ import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class CustomExpressionSimulationListener extends AbstractSimulationListener {
+public class CustomExpressionSimulationListener extends AbstractSimulationListener implements CacheableSimulationListener {
 	
 	private static final Logger log = LoggerFactory.getLogger(CustomExpressionSimulationListener.class);
 	private final List<CustomExpression> expressions;
@@ -34,6 +35,18 @@ public class CustomExpressionSimulationListener extends AbstractSimulationListen
 		}
 	}
 	
+	@Override
+	public String getResultDescription() {
+		StringBuilder sb = new StringBuilder(getClass().getName());
+		if (expressions != null) {
+			for (CustomExpression expression : expressions) {
+				sb.append(' ').append(expression.getName()).append(';').append(expression.getSymbol())
+						.append(';').append(expression.getUnit()).append(';').append(expression.getExpressionString());
+			}
+		}
+		return sb.toString();
+	}
+	
 	@Override
 	public boolean isSystemListener() {
 		return true;
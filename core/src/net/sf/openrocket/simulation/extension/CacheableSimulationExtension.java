@@ -0,0 +1,14 @@
+package net.sf.openrocket.simulation.extension;
+
+import net.sf.openrocket.simulation.cache.SimulationCache;
+
+/**
+ * A simulation extension whose effect on the simulation results is fully described by
+ * its ID and configuration.  Extensions that run code not stored in their configuration,
+ * such as Java classes or plugins that may change between sessions, must not implement
+ * this interface.  Simulations can be stored in and loaded from the
+ * {@link SimulationCache} only if all of their extensions implement this interface.
+ */
+public interface CacheableSimulationExtension extends SimulationExtension {
+	
+}
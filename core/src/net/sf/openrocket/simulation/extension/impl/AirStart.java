@@ -5,11 +5,12 @@ import net.sf.openrocket.simulation.SimulationConditions;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.extension.AbstractSimulationExtension;
+import net.sf.openrocket.simulation.extension.CacheableSimulationExtension;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
 import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.util.Coordinate;
 
-public class AirStart extends AbstractSimulationExtension {
+public class AirStart extends AbstractSimulationExtension implements CacheableSimulationExtension {
 	
 	@Override
 	public void initialize(SimulationConditions conditions) throws SimulationException {
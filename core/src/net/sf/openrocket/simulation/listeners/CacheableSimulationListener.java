@@ -0,0 +1,21 @@
+package net.sf.openrocket.simulation.listeners;
+
+import net.sf.openrocket.simulation.cache.SimulationCache;
+
+/**
+ * A simulation listener whose effect on the simulation results is fully described by
+ * a string.  Simulations run with additional listeners can be stored in and loaded from
+ * the {@link SimulationCache} only if all of the listeners implement this interface.
+ */
+public interface CacheableSimulationListener extends SimulationListener {
+
+	/**
+	 * Return a string identifying the effect of this listener on the simulation results.
+	 * Listeners that only observe the simulation, for example to report the progress or
+	 * to cancel it, return an empty string.
+	 *
+	 * @return	the description of the effect on the results.
+	 */
+	public String getResultDescription();
+
+}
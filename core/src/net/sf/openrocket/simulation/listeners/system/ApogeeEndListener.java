@@ -3,6 +3,7 @@ package net.sf.openrocket.simulation.listeners.system;
 import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
 
 
 /**
@@ -10,7 +11,7 @@ import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
-public class ApogeeEndListener extends AbstractSimulationListener {
+public class ApogeeEndListener extends AbstractSimulationListener implements CacheableSimulationListener {
 	
 	public static final ApogeeEndListener INSTANCE = new ApogeeEndListener();
 	
@@ -22,6 +23,11 @@ public class ApogeeEndListener extends AbstractSimulationListener {
 		return true;
 	}
 	
+	@Override
+	public String getResultDescription() {
+		return getClass().getName();
+	}
+	
 	@Override
 	public boolean isSystemListener() {
 		return true;
@@ -4,6 +4,7 @@ import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationCancelledException;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
 
 
 /**
@@ -13,7 +14,7 @@ import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
-public class InterruptListener extends AbstractSimulationListener {
+public class InterruptListener extends AbstractSimulationListener implements CacheableSimulationListener {
 	
 	public static final InterruptListener INSTANCE = new InterruptListener();
 	
@@ -24,6 +25,11 @@ public class InterruptListener extends AbstractSimulationListener {
 		}
 	}
 	
+	@Override
+	public String getResultDescription() {
+		return "";
+	}
+	
 	@Override
 	public boolean isSystemListener() {
 		return true;
@@ -5,6 +5,7 @@ import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
 
 /**
  * Simulation listener which ignores recovery deployment events and ends the simulation
@@ -13,7 +14,7 @@ import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
  * @author kevin
  *
  */
-public class OptimumCoastListener extends AbstractSimulationListener {
+public class OptimumCoastListener extends AbstractSimulationListener implements CacheableSimulationListener {
 	
 	public static final OptimumCoastListener INSTANCE = new OptimumCoastListener();
 	
@@ -30,6 +31,11 @@ public class OptimumCoastListener extends AbstractSimulationListener {
 		return false;
 	}
 	
+	@Override
+	public String getResultDescription() {
+		return getClass().getName();
+	}
+	
 	@Override
 	public boolean isSystemListener() {
 		return true;
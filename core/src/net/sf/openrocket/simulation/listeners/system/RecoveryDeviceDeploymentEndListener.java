@@ -5,6 +5,7 @@ import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
 
 
 /**
@@ -12,7 +13,7 @@ import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
-public class RecoveryDeviceDeploymentEndListener extends AbstractSimulationListener {
+public class RecoveryDeviceDeploymentEndListener extends AbstractSimulationListener implements CacheableSimulationListener {
 	
 	public static final RecoveryDeviceDeploymentEndListener INSTANCE = new RecoveryDeviceDeploymentEndListener();
 	
@@ -22,6 +23,11 @@ public class RecoveryDeviceDeploymentEndListener extends AbstractSimulationListe
 		return true;
 	}
 	
+	@Override
+	public String getResultDescription() {
+		return getClass().getName();
+	}
+	
 	@Override
 	public boolean isSystemListener() {
 		return true;
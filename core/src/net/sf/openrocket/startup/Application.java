@@ -7,6 +7,7 @@ import net.sf.openrocket.l10n.ClassBasedTranslator;
 import net.sf.openrocket.l10n.DebugTranslator;
 import net.sf.openrocket.l10n.ExceptionSuppressingTranslator;
 import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.simulation.cache.SimulationCache;
 
 import com.google.inject.Injector;
 
@@ -21,6 +22,8 @@ public final class Application {
 	
 	private static Injector injector;
 	
+	private static SimulationCache simulationCache;
+	
 	/**
 	 * Return whether to use additional safety code checks.
 	 */
@@ -109,6 +112,17 @@ public final class Application {
 		Application.injector = injector;
 	}
 	
+	/**
+	 * Return the cache of simulation results, or <code>null</code> if results are not cached.
+	 */
+	public static SimulationCache getSimulationCache() {
+		return simulationCache;
+	}
+	
+	public static void setSimulationCache(SimulationCache simulationCache) {
+		Application.simulationCache = simulationCache;
+	}
+	
 	
 	
 	
@@ -0,0 +1,222 @@
+package net.sf.openrocket.startup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import net.sf.openrocket.batch.BatchSimulator;
+import net.sf.openrocket.batch.BatchSimulator.Result;
+import net.sf.openrocket.batch.BatchSimulator.Status;
+import net.sf.openrocket.simulation.cache.SimulationCache;
+
+/**
+ * Run the simulations of OpenRocket documents from the command line without the
+ * user interface.  AWT is never initialized, so this can be used on headless machines.
+ * <p>
+ * A summary line of each simulation is written in CSV format to the standard output
+ * or to a file.  The exit status is {@link #EXIT_OK} if all simulations were run or
+ * skipped, {@link #EXIT_SIMULATION_FAILED} if a simulation failed,
+ * {@link #EXIT_FILE_ERROR} if a file could not be read or written and
+ * {@link #EXIT_USAGE} for invalid arguments.
+ */
+public class BatchStartup {
+
+	public static final int EXIT_OK = 0;
+	public static final int EXIT_SIMULATION_FAILED = 1;
+	public static final int EXIT_USAGE = 2;
+	public static final int EXIT_FILE_ERROR = 3;
+
+	private static final String USAGE =
+			"Usage: BatchStartup [options] FILE...\n" +
+			"Run the simulations of OpenRocket documents.\n" +
+			"\n" +
+			"  -t, --threads N        number of simulations to run concurrently (default: number of processors)\n" +
+			"  -s, --simulation NAME  run only the simulations with this name, may be repeated (default: all)\n" +
+			"  -o, --summary FILE     write the summary CSV to FILE instead of the standard output\n" +
+			"  -d, --data DIR         export the flight data of each simulation as CSV into DIR\n" +
+			"      --binary           export the flight data in the binary column format instead of CSV\n" +
+			"      --cache DIR        reuse the results of unchanged simulations stored in DIR\n" +
+			"      --save             save the documents with the new simulation results\n" +
+			"      --save-to DIR      save the documents into DIR instead of overwriting them\n" +
+			"  -q, --quiet            do not print the progress to the standard error\n" +
+			"  -v, --verbose          log informational messages to the standard error\n" +
+			"  -h, --help             print this help\n" +
+			"\n" +
+			"Exit status: 0 if all simulations succeeded or were skipped, 1 if a simulation failed,\n" +
+			"2 for invalid arguments, 3 if a file could not be read or written.";
+
+
+	public static void main(String[] args) {
+		System.exit(run(args));
+	}
+
+	/**
+	 * Run the batch simulation with the given command line arguments.
+	 *
+	 * @param args	the command line arguments.
+	 * @return		the exit status.
+	 */
+	public static int run(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+
+		BatchSimulator simulator = new BatchSimulator();
+		List<File> files = new ArrayList<File>();
+		List<String> names = new ArrayList<String>();
+		File summary = null;
+		File saveDirectory = null;
+		File cacheDirectory = null;
+		boolean save = false;
+		boolean quiet = false;
+		boolean verbose = false;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-h") || arg.equals("--help")) {
+					System.out.println(USAGE);
+					return EXIT_OK;
+				} else if (arg.equals("-t") || arg.equals("--threads")) {
+					simulator.setThreadCount(Integer.parseInt(value(args, ++i, arg)));
+				} else if (arg.equals("-s") || arg.equals("--simulation")) {
+					names.add(value(args, ++i, arg));
+				} else if (arg.equals("-o") || arg.equals("--summary")) {
+					summary = new File(value(args, ++i, arg));
+				} else if (arg.equals("-d") || arg.equals("--data")) {
+					simulator.setDataDirectory(directory(value(args, ++i, arg)));
+				} else if (arg.equals("--binary")) {
+					simulator.setBinaryData(true);
+				} else if (arg.equals("--cache")) {
+					cacheDirectory = directory(value(args, ++i, arg));
+				} else if (arg.equals("--save")) {
+					save = true;
+				} else if (arg.equals("--save-to")) {
+					save = true;
+					saveDirectory = directory(value(args, ++i, arg));
+				} else if (arg.equals("-q") || arg.equals("--quiet")) {
+					quiet = true;
+				} else if (arg.equals("-v") || arg.equals("--verbose")) {
+					verbose = true;
+				} else if (arg.startsWith("-")) {
+					throw new IllegalArgumentException("Unknown option " + arg);
+				} else {
+					files.add(new File(arg));
+				}
+			}
+			if (files.isEmpty()) {
+				throw new IllegalArgumentException("No files given");
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return EXIT_USAGE;
+		}
+
+		initializeLogging(verbose);
+		simulator.setSimulationNames(names);
+		simulator.setSave(save, saveDirectory);
+		if (!quiet) {
+			simulator.setProgressStream(System.err);
+		}
+
+		HeadlessModule module = HeadlessModule.initializeApplication();
+		module.blockUntilLoaded();
+		if (cacheDirectory != null) {
+			Application.setSimulationCache(new SimulationCache(cacheDirectory, SimulationCache.DEFAULT_MAX_SIZE));
+		}
+
+		List<Result> results;
+		try {
+			results = simulator.run(files);
+		} catch (InterruptedException e) {
+			System.err.println("Interrupted");
+			return EXIT_SIMULATION_FAILED;
+		}
+
+		try {
+			PrintWriter writer;
+			if (summary == null) {
+				writer = new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"));
+			} else {
+				writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(summary), "UTF-8"));
+			}
+			BatchSimulator.writeSummary(results, writer);
+			if (summary != null) {
+				writer.close();
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to write summary: " + e.getMessage());
+			return EXIT_FILE_ERROR;
+		}
+
+		return getExitStatus(results);
+	}
+
+	/**
+	 * Return the exit status for a list of results.  File errors take precedence over
+	 * simulation failures.
+	 */
+	static int getExitStatus(List<Result> results) {
+		int status = EXIT_OK;
+		for (Result r : BatchSimulator.getFailures(results)) {
+			if (r.getStatus() == Status.FILE_ERROR) {
+				return EXIT_FILE_ERROR;
+			}
+			status = EXIT_SIMULATION_FAILED;
+		}
+		return status;
+	}
+
+	/**
+	 * Return the value of a command line option, which is the argument at the index.
+	 * Also used by the other command line startup classes.
+	 */
+	static String value(String[] args, int index, String option) {
+		if (index >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + option);
+		}
+		return args[index];
+	}
+
+	private static File directory(String name) {
+		File dir = new File(name);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IllegalArgumentException("Cannot create directory " + name);
+		}
+		return dir;
+	}
+
+	/**
+	 * Log warnings, or also informational messages if verbose, to the standard error.
+	 */
+	static void initializeLogging(boolean verbose) {
+		Logger logger = (Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME);
+		LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+		logger.detachAndStopAllAppenders();
+		logger.setLevel(verbose ? Level.INFO : Level.WARN);
+
+		PatternLayoutEncoder layout = new PatternLayoutEncoder();
+		layout.setContext(context);
+		layout.setPattern("%-5level [%thread] %logger{2} - %message%n");
+		layout.start();
+
+		ConsoleAppender<ILoggingEvent> appender = new ConsoleAppender<ILoggingEvent>();
+		appender.setName("console");
+		appender.setContext(context);
+		appender.setTarget("System.err");
+		appender.setEncoder(layout);
+		appender.start();
+		logger.addAppender(appender);
+	}
+}
@@ -0,0 +1,220 @@
+package net.sf.openrocket.startup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.server.FarmCoordinator;
+import net.sf.openrocket.server.FarmTask;
+import net.sf.openrocket.server.FarmWorker;
+
+/**
+ * Run a simulation farm worker or coordinator without the user interface.
+ * See {@link FarmCoordinator} and {@link FarmWorker}.
+ */
+public class FarmStartup {
+
+	private static final int DEFAULT_PORT = 7879;
+
+	private static final String USAGE =
+			"Usage: FarmStartup worker [options]\n" +
+			"       FarmStartup coordinator -w HOST:PORT [-w HOST:PORT]... [options] FILE...\n" +
+			"Run the simulations of OpenRocket documents on several worker processes.\n" +
+			"\n" +
+			"Worker options:\n" +
+			"  -p, --port PORT        port to listen to (default: " + DEFAULT_PORT + ")\n" +
+			"  -b, --bind ADDRESS     address to listen on, e.g. 0.0.0.0 for all addresses (default: loopback)\n" +
+			"  -t, --threads N        number of simulations to run concurrently (default: number of processors)\n" +
+			"\n" +
+			"Coordinator options:\n" +
+			"  -w, --worker HOST:PORT address of a worker, may be repeated\n" +
+			"  -s, --simulation NAME  run only the simulations with this name, may be repeated (default: all)\n" +
+			"  -O, --options JSON     option overrides in SI units for all simulations, e.g. '{\"windSpeedAverage\": 4}'\n" +
+			"  -r, --retries N        number of times a task lost with a failed worker is retried (default: 2)\n" +
+			"      --timeout SECONDS  time after which a worker without results is considered failed (default: none)\n" +
+			"  -o, --summary FILE     write the summary CSV to FILE instead of the standard output\n" +
+			"  -q, --quiet            do not print the progress to the standard error\n" +
+			"\n" +
+			"  -v, --verbose          log informational messages to the standard error\n" +
+			"  -h, --help             print this help\n" +
+			"\n" +
+			"The workers accept unauthenticated connections and should only be exposed to trusted networks.\n" +
+			"The exit status of the coordinator is as for BatchStartup.";
+
+
+	public static void main(String[] args) throws Exception {
+		System.setProperty("java.awt.headless", "true");
+		if (args.length == 0 || args[0].equals("-h") || args[0].equals("--help")) {
+			System.out.println(USAGE);
+			System.exit(args.length == 0 ? BatchStartup.EXIT_USAGE : BatchStartup.EXIT_OK);
+		}
+		try {
+			if (args[0].equals("worker")) {
+				worker(args);
+			} else if (args[0].equals("coordinator")) {
+				System.exit(coordinator(args));
+			} else {
+				throw new IllegalArgumentException("Unknown mode " + args[0]);
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(BatchStartup.EXIT_USAGE);
+		}
+	}
+
+	private static void worker(String[] args) throws IOException, InterruptedException {
+		int port = DEFAULT_PORT;
+		InetAddress address = InetAddress.getLoopbackAddress();
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean verbose = false;
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("-p") || arg.equals("--port")) {
+				port = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+			} else if (arg.equals("-b") || arg.equals("--bind")) {
+				address = InetAddress.getByName(BatchStartup.value(args, ++i, arg));
+			} else if (arg.equals("-t") || arg.equals("--threads")) {
+				threads = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+			} else if (arg.equals("-v") || arg.equals("--verbose")) {
+				verbose = true;
+			} else {
+				throw new IllegalArgumentException("Unknown option " + arg);
+			}
+		}
+
+		BatchStartup.initializeLogging(verbose);
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+
+		FarmWorker worker = new FarmWorker(address, port, threads);
+		worker.start();
+		System.err.println("Worker listening on " + worker.getAddress().getHostAddress() + " port " + worker.getPort());
+		Thread.currentThread().join();
+	}
+
+	private static int coordinator(String[] args) throws InterruptedException {
+		List<InetSocketAddress> workers = new ArrayList<InetSocketAddress>();
+		List<String> names = new ArrayList<String>();
+		List<File> files = new ArrayList<File>();
+		JsonObject options = null;
+		int retries = 2;
+		int timeout = 0;
+		File summary = null;
+		boolean quiet = false;
+		boolean verbose = false;
+
+		for (int i = 1; i < args.length; i++) {
+			String arg = args[i];
+			if (arg.equals("-w") || arg.equals("--worker")) {
+				workers.add(address(BatchStartup.value(args, ++i, arg)));
+			} else if (arg.equals("-s") || arg.equals("--simulation")) {
+				names.add(BatchStartup.value(args, ++i, arg));
+			} else if (arg.equals("-O") || arg.equals("--options")) {
+				try {
+					options = Json.createReader(new StringReader(BatchStartup.value(args, ++i, arg))).readObject();
+				} catch (JsonException e) {
+					throw new IllegalArgumentException("Invalid options: " + e.getMessage());
+				}
+			} else if (arg.equals("-r") || arg.equals("--retries")) {
+				retries = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+			} else if (arg.equals("--timeout")) {
+				timeout = (int) (Double.parseDouble(BatchStartup.value(args, ++i, arg)) * 1000);
+			} else if (arg.equals("-o") || arg.equals("--summary")) {
+				summary = new File(BatchStartup.value(args, ++i, arg));
+			} else if (arg.equals("-q") || arg.equals("--quiet")) {
+				quiet = true;
+			} else if (arg.equals("-v") || arg.equals("--verbose")) {
+				verbose = true;
+			} else if (arg.startsWith("-")) {
+				throw new IllegalArgumentException("Unknown option " + arg);
+			} else {
+				files.add(new File(arg));
+			}
+		}
+		if (workers.isEmpty() || files.isEmpty()) {
+			throw new IllegalArgumentException("No workers or files given");
+		}
+
+		BatchStartup.initializeLogging(verbose);
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+
+		// The simulations of each document are listed by loading it locally
+		List<FarmTask> tasks = new ArrayList<FarmTask>();
+		boolean fileError = false;
+		for (File file : files) {
+			OpenRocketDocument document;
+			try {
+				GeneralRocketLoader loader = new GeneralRocketLoader(file);
+				loader.setDeferFlightData(true);
+				document = loader.load();
+			} catch (RocketLoadException e) {
+				System.err.println("Unable to load " + file + ": " + e.getMessage());
+				fileError = true;
+				continue;
+			}
+			for (Simulation simulation : document.getSimulations()) {
+				if (names.isEmpty() || names.contains(simulation.getName())) {
+					tasks.add(new FarmTask(file, simulation.getName(), options));
+				}
+			}
+		}
+
+		FarmCoordinator coordinator = new FarmCoordinator(workers);
+		coordinator.setMaxRetries(retries);
+		coordinator.setTaskTimeout(timeout);
+		if (!quiet) {
+			coordinator.setProgressStream(System.err);
+		}
+		List<JsonObject> results = coordinator.run(tasks);
+
+		try {
+			PrintWriter writer;
+			if (summary == null) {
+				writer = new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"));
+			} else {
+				writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(summary), "UTF-8"));
+			}
+			FarmCoordinator.writeSummary(tasks, results, writer);
+			if (summary != null) {
+				writer.close();
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to write summary: " + e.getMessage());
+			return BatchStartup.EXIT_FILE_ERROR;
+		}
+
+		int status = fileError ? BatchStartup.EXIT_FILE_ERROR : BatchStartup.EXIT_OK;
+		for (JsonObject result : results) {
+			String s = result.getString("status", "");
+			if (s.equals("FILE_ERROR")) {
+				status = BatchStartup.EXIT_FILE_ERROR;
+			} else if (s.equals("FAILED") && status == BatchStartup.EXIT_OK) {
+				status = BatchStartup.EXIT_SIMULATION_FAILED;
+			}
+		}
+		return status;
+	}
+
+	private static InetSocketAddress address(String value) {
+		int colon = value.lastIndexOf(':');
+		if (colon < 0) {
+			return new InetSocketAddress(value, DEFAULT_PORT);
+		}
+		return new InetSocketAddress(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+	}
+}
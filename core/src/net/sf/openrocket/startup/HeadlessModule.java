@@ -0,0 +1,93 @@
+package net.sf.openrocket.startup;
+
+import java.util.Locale;
+
+import net.sf.openrocket.database.ComponentPresetDao;
+import net.sf.openrocket.database.SystemDatabaseLoader;
+import net.sf.openrocket.database.motor.MotorDatabase;
+import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
+import net.sf.openrocket.formatting.RocketDescriptor;
+import net.sf.openrocket.formatting.RocketDescriptorImpl;
+import net.sf.openrocket.l10n.L10N;
+import net.sf.openrocket.l10n.ResourceBundleTranslator;
+import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.plugin.PluginModule;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Provider;
+import com.google.inject.Scopes;
+
+/**
+ * HeadlessModule is the Guice Module for running OpenRocket without the user interface,
+ * for example in batch simulations.  It does not initialize AWT or Swing.
+ * <p>
+ * The preferences are kept in memory and only the system motor and component
+ * databases are loaded, see {@link HeadlessPreferences} and {@link SystemDatabaseLoader}.
+ * The locale can be selected with the openrocket.locale system property.
+ */
+public class HeadlessModule extends AbstractModule {
+
+	private final SystemDatabaseLoader loader = new SystemDatabaseLoader();
+
+	@Override
+	protected void configure() {
+
+		bind(Preferences.class).to(HeadlessPreferences.class).in(Scopes.SINGLETON);
+		bind(Translator.class).toProvider(new Provider<Translator>() {
+			@Override
+			public Translator get() {
+				String langcode = System.getProperty("openrocket.locale");
+				if (langcode != null) {
+					Locale.setDefault(L10N.toLocale(langcode));
+				}
+				return new ResourceBundleTranslator("l10n.messages");
+			}
+		}).in(Scopes.SINGLETON);
+		bind(RocketDescriptor.class).to(RocketDescriptorImpl.class).in(Scopes.SINGLETON);
+
+		Provider<ThrustCurveMotorSetDatabase> motorDatabaseProvider = new Provider<ThrustCurveMotorSetDatabase>() {
+			@Override
+			public ThrustCurveMotorSetDatabase get() {
+				return loader.getMotorDatabase();
+			}
+		};
+		bind(ThrustCurveMotorSetDatabase.class).toProvider(motorDatabaseProvider).in(Scopes.SINGLETON);
+		bind(MotorDatabase.class).toProvider(motorDatabaseProvider).in(Scopes.SINGLETON);
+		bind(ComponentPresetDao.class).toProvider(new Provider<ComponentPresetDao>() {
+			@Override
+			public ComponentPresetDao get() {
+				return loader.getPresetDatabase();
+			}
+		}).in(Scopes.SINGLETON);
+	}
+
+	/**
+	 * startLoader must be called after the Injector created with this module is registered
+	 * in the Application object.
+	 */
+	public void startLoader() {
+		loader.startLoading();
+	}
+
+	/**
+	 * Block the current thread until the databases have been loaded.
+	 */
+	public void blockUntilLoaded() {
+		loader.blockUntilLoaded();
+	}
+
+
+	/**
+	 * Initialize the Application object for headless use with this module and the
+	 * plugin module, and start loading the databases in the background.
+	 *
+	 * @return	the module used, whose databases are being loaded.
+	 */
+	public static HeadlessModule initializeApplication() {
+		HeadlessModule module = new HeadlessModule();
+		Application.setInjector(Guice.createInjector(module, new PluginModule()));
+		module.startLoader();
+		return module;
+	}
+}
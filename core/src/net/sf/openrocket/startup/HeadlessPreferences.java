@@ -0,0 +1,133 @@
+package net.sf.openrocket.startup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.preset.ComponentPreset;
+
+/**
+ * Preferences used when running without the user interface.
+ * <p>
+ * All values are kept in memory and start out as the defaults, so that batch runs
+ * are reproducible and do not depend on or modify the settings of the user's
+ * OpenRocket installation.  Only the preference nodes (for example the trusted
+ * simulation scripts) are shared with the user interface.
+ */
+public class HeadlessPreferences extends Preferences {
+
+	private static final String NODENAME = "OpenRocket";
+
+	private final Map<String, Object> values = new HashMap<String, Object>();
+	private final Set<Material> userMaterials = new HashSet<Material>();
+	private final Map<ComponentPreset.Type, Set<String>> favorites = new HashMap<ComponentPreset.Type, Set<String>>();
+
+	@Override
+	public boolean getBoolean(String key, boolean defaultValue) {
+		Object value = get(key);
+		return (value instanceof Boolean) ? (Boolean) value : defaultValue;
+	}
+
+	@Override
+	public void putBoolean(String key, boolean value) {
+		put(key, value);
+	}
+
+	@Override
+	public int getInt(String key, int defaultValue) {
+		Object value = get(key);
+		return (value instanceof Integer) ? (Integer) value : defaultValue;
+	}
+
+	@Override
+	public void putInt(String key, int value) {
+		put(key, value);
+	}
+
+	@Override
+	public double getDouble(String key, double defaultValue) {
+		Object value = get(key);
+		return (value instanceof Double) ? (Double) value : defaultValue;
+	}
+
+	@Override
+	public void putDouble(String key, double value) {
+		put(key, value);
+	}
+
+	@Override
+	public String getString(String key, String defaultValue) {
+		Object value = get(key);
+		return (value instanceof String) ? (String) value : defaultValue;
+	}
+
+	@Override
+	public void putString(String key, String value) {
+		put(key, value);
+	}
+
+	@Override
+	public String getString(String directory, String key, String defaultValue) {
+		return getString(directory + "/" + key, defaultValue);
+	}
+
+	@Override
+	public void putString(String directory, String key, String value) {
+		putString(directory + "/" + key, value);
+	}
+
+	@Override
+	public java.util.prefs.Preferences getNode(String nodeName) {
+		return java.util.prefs.Preferences.userRoot().node(NODENAME).node(nodeName);
+	}
+
+	@Override
+	public synchronized void addUserMaterial(Material m) {
+		userMaterials.add(m);
+	}
+
+	@Override
+	public synchronized Set<Material> getUserMaterials() {
+		return new HashSet<Material>(userMaterials);
+	}
+
+	@Override
+	public synchronized void removeUserMaterial(Material m) {
+		userMaterials.remove(m);
+	}
+
+	@Override
+	public synchronized void setComponentFavorite(ComponentPreset preset, ComponentPreset.Type type, boolean favorite) {
+		Set<String> set = favorites.get(type);
+		if (set == null) {
+			set = new HashSet<String>();
+			favorites.put(type, set);
+		}
+		if (favorite) {
+			set.add(preset.preferenceKey());
+		} else {
+			set.remove(preset.preferenceKey());
+		}
+	}
+
+	@Override
+	public synchronized Set<String> getComponentFavorites(ComponentPreset.Type type) {
+		Set<String> set = favorites.get(type);
+		return (set == null) ? Collections.<String> emptySet() : new HashSet<String>(set);
+	}
+
+	private synchronized Object get(String key) {
+		return values.get(key);
+	}
+
+	private synchronized void put(String key, Object value) {
+		if (value == null) {
+			values.remove(key);
+		} else {
+			values.put(key, value);
+		}
+	}
+}
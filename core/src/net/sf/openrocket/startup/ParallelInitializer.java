@@ -0,0 +1,154 @@
+package net.sf.openrocket.startup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a set of initialization tasks concurrently while respecting the
+ * dependencies between them.  A task is started as soon as all of its
+ * dependencies have completed, either on the initializer's own thread pool
+ * or on an executor given for the task (for example the Swing event dispatch thread).
+ * <p>
+ * Dependencies must be added before the tasks depending on them, which
+ * guarantees that the dependency graph is acyclic.  Each task is recorded as
+ * a phase of the given {@link StartupTimeline}.
+ */
+public class ParallelInitializer {
+
+	private static final Logger log = LoggerFactory.getLogger(ParallelInitializer.class);
+
+	private final StartupTimeline timeline;
+	private final Map<String, Task> tasks = new LinkedHashMap<String, Task>();
+
+	public ParallelInitializer(StartupTimeline timeline) {
+		this.timeline = timeline;
+	}
+
+	/**
+	 * Add a task run on the initializer's thread pool.
+	 *
+	 * @param name			unique name of the task
+	 * @param task			the task
+	 * @param dependencies	names of the tasks that must complete before this one starts
+	 */
+	public void add(String name, Runnable task, String... dependencies) {
+		add(name, null, task, dependencies);
+	}
+
+	/**
+	 * Add a task run on the specified executor.
+	 *
+	 * @param name			unique name of the task
+	 * @param executor		the executor to run the task on, or <code>null</code> for the thread pool
+	 * @param task			the task
+	 * @param dependencies	names of the tasks that must complete before this one starts
+	 * @throws IllegalArgumentException	if the name is already used or a dependency has not been added
+	 */
+	public void add(String name, Executor executor, Runnable task, String... dependencies) {
+		if (tasks.containsKey(name)) {
+			throw new IllegalArgumentException("Duplicate initialization task " + name);
+		}
+		for (String dependency : dependencies) {
+			if (!tasks.containsKey(dependency)) {
+				throw new IllegalArgumentException("Task " + name + " depends on unknown task " + dependency);
+			}
+		}
+		tasks.put(name, new Task(name, executor, task, dependencies));
+	}
+
+	/**
+	 * Run all tasks and wait for them to complete.  If any task fails, the tasks
+	 * depending on it are not run and the first failure is rethrown once the
+	 * other tasks have completed.
+	 *
+	 * @param threads	the maximum number of pool threads to use
+	 * @throws ExecutionException	if a task threw a checked exception
+	 * @throws InterruptedException	if the calling thread was interrupted while waiting
+	 */
+	public void run(int threads) throws ExecutionException, InterruptedException {
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads), new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "StartupThread-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+
+		try {
+			Map<String, CompletableFuture<Void>> futures = new LinkedHashMap<String, CompletableFuture<Void>>();
+			for (final Task task : tasks.values()) {
+				List<CompletableFuture<Void>> dependencies = new ArrayList<CompletableFuture<Void>>();
+				for (String dependency : task.dependencies) {
+					dependencies.add(futures.get(dependency));
+				}
+				Executor executor = (task.executor != null) ? task.executor : pool;
+				CompletableFuture<Void> future = CompletableFuture
+						.allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+						.thenRunAsync(new Runnable() {
+							@Override
+							public void run() {
+								timeline.run(task.name, task.runnable);
+							}
+						}, executor);
+				futures.put(task.name, future);
+			}
+
+			Throwable failure = null;
+			for (Map.Entry<String, CompletableFuture<Void>> e : futures.entrySet()) {
+				try {
+					e.getValue().get();
+				} catch (ExecutionException ex) {
+					Throwable cause = ex.getCause();
+					if (cause instanceof CompletionException && cause.getCause() != null) {
+						cause = cause.getCause();
+					}
+					log.debug("Initialization task " + e.getKey() + " did not complete: " + cause);
+					if (failure == null) {
+						failure = cause;
+					}
+				}
+			}
+
+			if (failure instanceof RuntimeException) {
+				throw (RuntimeException) failure;
+			} else if (failure instanceof Error) {
+				throw (Error) failure;
+			} else if (failure != null) {
+				throw new ExecutionException(failure);
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static class Task {
+		private final String name;
+		private final Executor executor;
+		private final Runnable runnable;
+		private final String[] dependencies;
+
+		private Task(String name, Executor executor, Runnable runnable, String[] dependencies) {
+			this.name = name;
+			this.executor = executor;
+			this.runnable = runnable;
+			this.dependencies = dependencies.clone();
+		}
+	}
+
+}
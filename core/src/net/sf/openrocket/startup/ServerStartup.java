@@ -0,0 +1,85 @@
+package net.sf.openrocket.startup;
+
+import java.io.IOException;
+
+import net.sf.openrocket.server.SimulationServer;
+
+/**
+ * Run OpenRocket as a local simulation server without the user interface.
+ * See {@link SimulationServer} for the HTTP interface.
+ */
+public class ServerStartup {
+
+	private static final int DEFAULT_PORT = 7878;
+
+	private static final String USAGE =
+			"Usage: ServerStartup [options]\n" +
+			"Run a local HTTP server that runs OpenRocket simulations sent as JSON.\n" +
+			"\n" +
+			"  -p, --port PORT        port to listen to on the loopback interface (default: " + DEFAULT_PORT + ")\n" +
+			"  -t, --threads N        number of jobs to run concurrently (default: number of processors)\n" +
+			"  -q, --queue N          maximum number of queued jobs (default: 100)\n" +
+			"  -v, --verbose          log informational messages to the standard error\n" +
+			"  -h, --help             print this help";
+
+
+	public static void main(String[] args) throws InterruptedException {
+		System.setProperty("java.awt.headless", "true");
+
+		int port = DEFAULT_PORT;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int queue = 100;
+		boolean verbose = false;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-h") || arg.equals("--help")) {
+					System.out.println(USAGE);
+					return;
+				} else if (arg.equals("-p") || arg.equals("--port")) {
+					port = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-t") || arg.equals("--threads")) {
+					threads = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-q") || arg.equals("--queue")) {
+					queue = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-v") || arg.equals("--verbose")) {
+					verbose = true;
+				} else {
+					throw new IllegalArgumentException("Unknown option " + arg);
+				}
+			}
+			if (threads < 1 || queue < 1) {
+				throw new IllegalArgumentException("The thread count and queue length must be positive");
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			System.exit(BatchStartup.EXIT_USAGE);
+		}
+
+		BatchStartup.initializeLogging(verbose);
+		HeadlessModule module = HeadlessModule.initializeApplication();
+		module.blockUntilLoaded();
+
+		final SimulationServer server;
+		try {
+			server = new SimulationServer(port, threads, queue);
+		} catch (IOException e) {
+			System.err.println("Unable to listen to port " + port + ": " + e.getMessage());
+			System.exit(BatchStartup.EXIT_FILE_ERROR);
+			return;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread() {
+			@Override
+			public void run() {
+				server.stop();
+			}
+		});
+		server.start();
+		System.err.println("Listening on http://localhost:" + server.getPort() + "/");
+
+		// The server threads are daemons
+		Thread.currentThread().join();
+	}
+}
@@ -0,0 +1,175 @@
+package net.sf.openrocket.startup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A record of the phases executed during application startup.  Each phase
+ * records its start and end time (from the monotonic System.nanoTime() clock,
+ * relative to the creation of the timeline) and the thread it ran on.
+ * <p>
+ * The timeline is thread-safe; phases may be recorded concurrently from
+ * multiple threads.
+ *
+ * @see ParallelInitializer
+ */
+public class StartupTimeline {
+
+	private static final StartupTimeline INSTANCE = new StartupTimeline();
+
+	private final long origin;
+	private final List<Phase> phases = new ArrayList<Phase>();
+
+	/**
+	 * Return the timeline of the current application startup.  Its origin is the
+	 * time this class was first loaded.
+	 */
+	public static StartupTimeline getInstance() {
+		return INSTANCE;
+	}
+
+	public StartupTimeline() {
+		origin = System.nanoTime();
+	}
+
+	/**
+	 * Start a new phase on the current thread.  The phase is included in the
+	 * report once {@link Phase#end()} has been called.
+	 *
+	 * @param name	the name of the phase
+	 * @return		the started phase
+	 */
+	public Phase begin(String name) {
+		return new Phase(name);
+	}
+
+	/**
+	 * Run the task as a phase of the timeline.
+	 *
+	 * @param name	the name of the phase
+	 * @param task	the task to run
+	 */
+	public void run(String name, Runnable task) {
+		Phase phase = begin(name);
+		try {
+			task.run();
+		} finally {
+			phase.end();
+		}
+	}
+
+	/**
+	 * Return the completed phases, ordered by their start time.
+	 */
+	public List<Phase> getPhases() {
+		List<Phase> list;
+		synchronized (phases) {
+			list = new ArrayList<Phase>(phases);
+		}
+		Collections.sort(list, new Comparator<Phase>() {
+			@Override
+			public int compare(Phase a, Phase b) {
+				return Long.compare(a.start, b.start);
+			}
+		});
+		return list;
+	}
+
+	/**
+	 * Return the time elapsed since the origin of the timeline, in milliseconds.
+	 */
+	public double getElapsedMillis() {
+		return toMillis(System.nanoTime());
+	}
+
+	/**
+	 * Return a human-readable report of the completed phases.  Each line contains
+	 * the start and end time and duration in milliseconds, the thread and the phase name.
+	 */
+	public String getReport() {
+		List<Phase> list = getPhases();
+
+		int nameWidth = 5;
+		int threadWidth = 6;
+		for (Phase p : list) {
+			nameWidth = Math.max(nameWidth, p.name.length());
+			threadWidth = Math.max(threadWidth, p.thread.length());
+		}
+
+		String format = "%9s %9s %9s  %-" + threadWidth + "s  %-" + nameWidth + "s%n";
+		StringBuilder sb = new StringBuilder();
+		sb.append(String.format(Locale.ENGLISH, format, "start", "end", "duration", "thread", "phase"));
+		for (Phase p : list) {
+			sb.append(String.format(Locale.ENGLISH, format,
+					String.format(Locale.ENGLISH, "%.1f", p.getStartMillis()),
+					String.format(Locale.ENGLISH, "%.1f", p.getEndMillis()),
+					String.format(Locale.ENGLISH, "%.1f", p.getDurationMillis()),
+					p.thread, p.name));
+		}
+		sb.append(String.format(Locale.ENGLISH, "Total %.1f ms%n", getElapsedMillis()));
+		return sb.toString();
+	}
+
+	private double toMillis(long nanoTime) {
+		return (nanoTime - origin) / 1000000.0;
+	}
+
+
+	/**
+	 * A single phase of the startup timeline.
+	 */
+	public class Phase {
+		private final String name;
+		private final String thread;
+		private final long start;
+		private long end = -1;
+
+		private Phase(String name) {
+			this.name = name;
+			this.thread = Thread.currentThread().getName();
+			this.start = System.nanoTime();
+		}
+
+		/**
+		 * End the phase and add it to the timeline.  Calling this method again has no effect.
+		 */
+		public void end() {
+			synchronized (phases) {
+				if (end >= 0) {
+					return;
+				}
+				end = System.nanoTime();
+				phases.add(this);
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getThread() {
+			return thread;
+		}
+
+		public double getStartMillis() {
+			return toMillis(start);
+		}
+
+		public double getEndMillis() {
+			return toMillis(end);
+		}
+
+		public double getDurationMillis() {
+			return (end - start) / 1000000.0;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ENGLISH, "%s: %.1f ms on %s", name, getDurationMillis(), thread);
+		}
+	}
+
+}
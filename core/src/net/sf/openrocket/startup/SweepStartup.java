@@ -0,0 +1,315 @@
+package net.sf.openrocket.startup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.RocketLoadException;
+import net.sf.openrocket.optimization.general.OptimizationException;
+import net.sf.openrocket.optimization.rocketoptimization.OptimizableParameter;
+import net.sf.openrocket.optimization.rocketoptimization.SimulationModifier;
+import net.sf.openrocket.optimization.services.OptimizationServiceHelper;
+import net.sf.openrocket.optimization.sweep.GridSamplingPlan;
+import net.sf.openrocket.optimization.sweep.LatinHypercubeSamplingPlan;
+import net.sf.openrocket.optimization.sweep.ParameterSweep;
+import net.sf.openrocket.optimization.sweep.SamplingPlan;
+import net.sf.openrocket.optimization.sweep.SweepCsvWriter;
+import net.sf.openrocket.optimization.sweep.SweepListener;
+import net.sf.openrocket.optimization.sweep.SweepResult;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+
+/**
+ * Run a parameter sweep of a simulation from the command line without the user
+ * interface.  See {@link ParameterSweep}.
+ */
+public class SweepStartup {
+
+	private static final String USAGE =
+			"Usage: SweepStartup [options] -m MODIFIER [-m MODIFIER]... FILE\n" +
+			"Evaluate parameters of a simulation over a grid or Latin hypercube sample of design modifications.\n" +
+			"\n" +
+			"  -s, --simulation NAME  the simulation to modify (default: the first simulation)\n" +
+			"  -m, --modifier COMPONENT:MODIFIER[=MIN,MAX]\n" +
+			"                         a modifier and its range in SI units, may be repeated\n" +
+			"                         (default range: half to twice the current value)\n" +
+			"  -p, --parameter NAME   a parameter to compute, may be repeated (default: the first listed)\n" +
+			"  -c, --all-configurations\n" +
+			"                         evaluate each point in every flight configuration\n" +
+			"  -g, --grid N           use a grid of N values of each modifier (default: 5)\n" +
+			"  -l, --lhs N            use a Latin hypercube sample of N points instead of a grid\n" +
+			"      --seed N           random seed of the Latin hypercube sample (default: 0)\n" +
+			"  -t, --threads N        number of points to evaluate concurrently (default: number of processors)\n" +
+			"  -o, --output FILE      write the results to FILE instead of the standard output\n" +
+			"      --list             list the modifiers and parameters available for the simulation\n" +
+			"  -q, --quiet            do not print the progress to the standard error\n" +
+			"  -v, --verbose          log informational messages to the standard error\n" +
+			"  -h, --help             print this help\n" +
+			"\n" +
+			"The exit status is as for BatchStartup.";
+
+
+	public static void main(String[] args) {
+		System.exit(run(args));
+	}
+
+	/**
+	 * Run the sweep with the given command line arguments.
+	 *
+	 * @param args	the command line arguments.
+	 * @return		the exit status.
+	 */
+	public static int run(String[] args) {
+		System.setProperty("java.awt.headless", "true");
+
+		File file = null;
+		String simulationName = null;
+		List<String> modifierSpecs = new ArrayList<String>();
+		List<String> parameterNames = new ArrayList<String>();
+		boolean allConfigurations = false;
+		int gridSteps = 5;
+		int samples = 0;
+		long seed = 0;
+		int threads = 0;
+		File output = null;
+		boolean list = false;
+		boolean quiet = false;
+		boolean verbose = false;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String arg = args[i];
+				if (arg.equals("-h") || arg.equals("--help")) {
+					System.out.println(USAGE);
+					return BatchStartup.EXIT_OK;
+				} else if (arg.equals("-s") || arg.equals("--simulation")) {
+					simulationName = BatchStartup.value(args, ++i, arg);
+				} else if (arg.equals("-m") || arg.equals("--modifier")) {
+					modifierSpecs.add(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-p") || arg.equals("--parameter")) {
+					parameterNames.add(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-c") || arg.equals("--all-configurations")) {
+					allConfigurations = true;
+				} else if (arg.equals("-g") || arg.equals("--grid")) {
+					gridSteps = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-l") || arg.equals("--lhs")) {
+					samples = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("--seed")) {
+					seed = Long.parseLong(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-t") || arg.equals("--threads")) {
+					threads = Integer.parseInt(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("-o") || arg.equals("--output")) {
+					output = new File(BatchStartup.value(args, ++i, arg));
+				} else if (arg.equals("--list")) {
+					list = true;
+				} else if (arg.equals("-q") || arg.equals("--quiet")) {
+					quiet = true;
+				} else if (arg.equals("-v") || arg.equals("--verbose")) {
+					verbose = true;
+				} else if (arg.startsWith("-") || file != null) {
+					throw new IllegalArgumentException("Unknown option " + arg);
+				} else {
+					file = new File(arg);
+				}
+			}
+			if (file == null) {
+				throw new IllegalArgumentException("No file given");
+			}
+			if (modifierSpecs.isEmpty() && !list) {
+				throw new IllegalArgumentException("No modifiers given");
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println(USAGE);
+			return BatchStartup.EXIT_USAGE;
+		}
+
+		BatchStartup.initializeLogging(verbose);
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+
+		OpenRocketDocument document;
+		try {
+			GeneralRocketLoader loader = new GeneralRocketLoader(file);
+			loader.setDeferFlightData(true);
+			document = loader.load();
+		} catch (RocketLoadException e) {
+			System.err.println("Unable to load " + file + ": " + e.getMessage());
+			return BatchStartup.EXIT_FILE_ERROR;
+		}
+
+		List<SimulationModifier> availableModifiers = new ArrayList<SimulationModifier>(
+				OptimizationServiceHelper.getSimulationModifiers(document));
+		List<OptimizableParameter> availableParameters = new ArrayList<OptimizableParameter>(
+				OptimizationServiceHelper.getOptimizableParameters(document));
+		if (list) {
+			System.out.println("Modifiers (default range in SI units):");
+			for (SimulationModifier m : availableModifiers) {
+				System.out.println(String.format(Locale.US, "  %s=%g,%g", name(m), m.getMinValue(), m.getMaxValue()));
+			}
+			System.out.println("Parameters:");
+			for (OptimizableParameter p : availableParameters) {
+				System.out.println("  " + p.getName());
+			}
+			return BatchStartup.EXIT_OK;
+		}
+
+		ParameterSweep sweep;
+		SamplingPlan plan;
+		try {
+			Simulation simulation = null;
+			for (Simulation s : document.getSimulations()) {
+				if (simulationName == null || s.getName().equals(simulationName)) {
+					simulation = s;
+					break;
+				}
+			}
+			if (simulation == null) {
+				throw new IllegalArgumentException(simulationName == null ? "The document has no simulations" :
+						"No simulation named '" + simulationName + "'");
+			}
+
+			List<SimulationModifier> modifiers = new ArrayList<SimulationModifier>();
+			for (String spec : modifierSpecs) {
+				modifiers.add(modifier(spec, availableModifiers));
+			}
+			List<OptimizableParameter> parameters = new ArrayList<OptimizableParameter>();
+			for (String name : parameterNames) {
+				parameters.add(parameter(name, availableParameters));
+			}
+			if (parameters.isEmpty()) {
+				parameters.add(availableParameters.get(0));
+			}
+
+			sweep = new ParameterSweep(simulation, modifiers.toArray(new SimulationModifier[0]),
+					parameters.toArray(new OptimizableParameter[0]));
+			if (allConfigurations) {
+				sweep.setFlightConfigurations(document.getRocket().getIds());
+			}
+			if (threads > 0) {
+				sweep.setThreadCount(threads);
+			}
+			plan = (samples > 0) ? new LatinHypercubeSamplingPlan(samples, seed) : new GridSamplingPlan(gridSteps);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return BatchStartup.EXIT_USAGE;
+		}
+
+		PrintWriter writer;
+		try {
+			if (output == null) {
+				writer = new PrintWriter(new OutputStreamWriter(System.out, "UTF-8"));
+			} else {
+				writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(output), "UTF-8"));
+			}
+		} catch (IOException e) {
+			System.err.println("Unable to write " + output + ": " + e.getMessage());
+			return BatchStartup.EXIT_FILE_ERROR;
+		}
+
+		final SweepCsvWriter csv = new SweepCsvWriter(sweep, writer);
+		final int total = plan.getPoints(sweep.getModifiers().length).size() * sweep.getFlightConfigurations().size();
+		final PrintStream progress = quiet ? null : System.err;
+		final int[] failures = new int[1];
+		try {
+			sweep.run(plan, new SweepListener() {
+				private int reported = 0;
+
+				@Override
+				public void evaluated(SweepResult result) {
+					csv.evaluated(result);
+					if (result.getError() != null) {
+						failures[0]++;
+					}
+					int done = result.getIndex() + 1;
+					int percent = (int) (100L * done / total);
+					if (progress != null && (percent > reported || done == total)) {
+						reported = percent;
+						progress.println(done + "/" + total + " points evaluated");
+					}
+				}
+			});
+		} catch (InterruptedException e) {
+			System.err.println("Interrupted");
+			return BatchStartup.EXIT_SIMULATION_FAILED;
+		} catch (OptimizationException e) {
+			System.err.println("Sweep failed: " + e.getMessage());
+			return BatchStartup.EXIT_SIMULATION_FAILED;
+		} finally {
+			if (output != null) {
+				writer.close();
+			}
+		}
+
+		if (writer.checkError()) {
+			System.err.println("Unable to write the results");
+			return BatchStartup.EXIT_FILE_ERROR;
+		}
+		return failures[0] > 0 ? BatchStartup.EXIT_SIMULATION_FAILED : BatchStartup.EXIT_OK;
+	}
+
+
+	/**
+	 * Find a modifier by "COMPONENT:MODIFIER" and set its range if given.
+	 */
+	private static SimulationModifier modifier(String spec, List<SimulationModifier> available) {
+		String name = spec;
+		String range = null;
+		int eq = spec.indexOf('=');
+		if (eq >= 0) {
+			name = spec.substring(0, eq).trim();
+			range = spec.substring(eq + 1);
+		}
+
+		SimulationModifier modifier = null;
+		for (SimulationModifier m : available) {
+			if (name(m).equalsIgnoreCase(name)) {
+				if (modifier != null) {
+					throw new IllegalArgumentException("Modifier '" + name + "' is ambiguous");
+				}
+				modifier = m;
+			}
+		}
+		if (modifier == null) {
+			throw new IllegalArgumentException("No modifier '" + name + "', use --list to list the modifiers");
+		}
+
+		if (range != null) {
+			String[] values = range.split(",");
+			if (values.length != 2) {
+				throw new IllegalArgumentException("Invalid range '" + range + "', expected MIN,MAX");
+			}
+			double min = Double.parseDouble(values[0].trim());
+			double max = Double.parseDouble(values[1].trim());
+			if (!(min <= max)) {
+				throw new IllegalArgumentException("Invalid range '" + range + "', minimum is greater than maximum");
+			}
+			modifier.setMaxValue(max);
+			modifier.setMinValue(min);
+		}
+		return modifier;
+	}
+
+	private static OptimizableParameter parameter(String name, List<OptimizableParameter> available) {
+		for (OptimizableParameter p : available) {
+			if (p.getName().equalsIgnoreCase(name)) {
+				return p;
+			}
+		}
+		throw new IllegalArgumentException("No parameter '" + name + "', use --list to list the parameters");
+	}
+
+	private static String name(SimulationModifier modifier) {
+		if (modifier.getRelatedObject() instanceof RocketComponent) {
+			return ((RocketComponent) modifier.getRelatedObject()).getName() + ":" + modifier.getName();
+		}
+		return modifier.getName();
+	}
+}
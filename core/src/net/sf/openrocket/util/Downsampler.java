@@ -0,0 +1,99 @@
+package net.sf.openrocket.util;
+
+/**
+ * Shape-preserving downsampling of polylines using the largest-triangle-three-buckets
+ * algorithm.
+ * <p>
+ * The points between the first and last point are divided into buckets of equal size,
+ * and from each bucket the point that forms the largest triangle with the point selected
+ * from the previous bucket and the average of the next bucket is selected.  This retains
+ * the peaks and sharp changes of the line, which simple decimation may lose.
+ * <p>
+ * The algorithm is invariant to scaling of the coordinates, so the values may be given in
+ * any units.  The values must be finite.
+ */
+public final class Downsampler {
+
+	private Downsampler() {
+	}
+
+
+	/**
+	 * Select the points that represent a polyline.
+	 *
+	 * @param x			the x coordinates.
+	 * @param y			the y coordinates.
+	 * @param from		the index of the first point (inclusive).
+	 * @param to		the index of the last point (exclusive).
+	 * @param count		the maximum number of points to select, at least 2.
+	 * @return			the indices of the selected points in increasing order.  The first and
+	 * 					last points are always selected.  If the polyline contains at most
+	 * 					<code>count</code> points, all points are selected.
+	 */
+	public static int[] select(double[] x, double[] y, int from, int to, int count) {
+		int n = to - from;
+		if (n < 0 || from < 0 || to > x.length || to > y.length) {
+			throw new IllegalArgumentException("Invalid range from=" + from + " to=" + to);
+		}
+		if (count < 2) {
+			throw new IllegalArgumentException("count must be at least 2, was " + count);
+		}
+
+		if (n <= count) {
+			int[] all = new int[n];
+			for (int i = 0; i < n; i++) {
+				all[i] = from + i;
+			}
+			return all;
+		}
+
+		int[] selected = new int[count];
+		int s = 0;
+		selected[s++] = from;
+
+		// Size of the buckets between the first and last points
+		double every = (double) (n - 2) / (count - 2);
+		int previous = from;
+
+		for (int bucket = 0; bucket < count - 2; bucket++) {
+			int start = from + (int) (bucket * every) + 1;
+			int end = from + (int) ((bucket + 1) * every) + 1;
+
+			// Average of the next bucket, or the last point
+			int nextStart = end;
+			int nextEnd = Math.min(from + (int) ((bucket + 2) * every) + 1, to);
+			if (nextEnd <= nextStart || bucket == count - 3) {
+				nextStart = to - 1;
+				nextEnd = to;
+			}
+			double avgX = 0;
+			double avgY = 0;
+			for (int i = nextStart; i < nextEnd; i++) {
+				avgX += x[i];
+				avgY += y[i];
+			}
+			avgX /= (nextEnd - nextStart);
+			avgY /= (nextEnd - nextStart);
+
+			// Point of the current bucket forming the largest triangle
+			double px = x[previous];
+			double py = y[previous];
+			double maxArea = -1;
+			int best = start;
+			for (int i = start; i < end; i++) {
+				double area = Math.abs((px - avgX) * (y[i] - py) - (px - x[i]) * (avgY - py));
+				if (area > maxArea) {
+					maxArea = area;
+					best = i;
+				}
+			}
+
+			selected[s++] = best;
+			previous = best;
+		}
+
+		selected[s++] = to - 1;
+		return selected;
+	}
+
+}
@@ -0,0 +1,69 @@
+package net.sf.openrocket.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe cache of a limited size.  When the cache is full, the least
+ * recently used entry is removed.
+ *
+ * @param <K>	the key type.
+ * @param <V>	the value type.
+ */
+public class LRUCache<K, V> {
+
+	private final Map<K, V> map;
+
+	/**
+	 * Create a new cache.
+	 *
+	 * @param maxSize	the maximum number of entries in the cache.
+	 */
+	public LRUCache(final int maxSize) {
+		if (maxSize <= 0) {
+			throw new IllegalArgumentException("maxSize=" + maxSize);
+		}
+		this.map = new LinkedHashMap<K, V>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+				return size() > maxSize;
+			}
+		};
+	}
+
+	/**
+	 * Return the cached value of a key and mark it recently used.
+	 *
+	 * @param key	the key.
+	 * @return		the cached value, or <code>null</code> if none.
+	 */
+	public synchronized V get(K key) {
+		return map.get(key);
+	}
+
+	/**
+	 * Store a value in the cache, removing the least recently used entry if the
+	 * cache is full.
+	 *
+	 * @param key	the key.
+	 * @param value	the value.
+	 */
+	public synchronized void put(K key, V value) {
+		map.put(key, value);
+	}
+
+	/**
+	 * Return the number of entries in the cache.
+	 */
+	public synchronized int size() {
+		return map.size();
+	}
+
+	/**
+	 * Remove all entries from the cache.
+	 */
+	public synchronized void clear() {
+		map.clear();
+	}
+
+}
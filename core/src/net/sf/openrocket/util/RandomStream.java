@@ -0,0 +1,144 @@
+package net.sf.openrocket.util;
+
+/**
+ * A deterministic, splittable source of random numbers.  The generator is the SplitMix64
+ * algorithm, where the n:th value of a stream is a hash of its seed and n.  This allows
+ * both reading the values sequentially and accessing any value directly by its index,
+ * and deriving any number of independent streams from one seed with {@link #split(long)}.
+ * <p>
+ * The values depend only on the seed and are computed with {@link StrictMath}, so they
+ * are identical on all platforms.  Unlike {@link java.util.Random} the class performs no
+ * synchronization; each thread and simulation should use its own streams.
+ */
+public class RandomStream {
+
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+	private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+	private final long seed;
+	private long index = 0;
+
+
+	/**
+	 * Construct a stream with a specific seed.
+	 *
+	 * @param seed	the seed value.
+	 */
+	public RandomStream(long seed) {
+		this.seed = seed;
+	}
+
+
+	public long getSeed() {
+		return seed;
+	}
+
+
+	/**
+	 * Return a new stream independent of this stream and of streams split with other keys.
+	 * The result depends only on the seed of this stream and the key, not on the values
+	 * read from this stream.
+	 *
+	 * @param key	the key identifying the new stream.
+	 * @return		a new stream.
+	 */
+	public RandomStream split(long key) {
+		return new RandomStream(mix64(seed ^ mix64(key + GOLDEN_GAMMA)));
+	}
+
+	/**
+	 * Return a new stream identified by a name, for example the model using the stream.
+	 *
+	 * @param name	the name of the new stream.
+	 * @return		a new stream.
+	 * @see #split(long)
+	 */
+	public RandomStream split(String name) {
+		long key = 0;
+		for (int i = 0; i < name.length(); i++) {
+			key = key * 31 + name.charAt(i);
+		}
+		return split(key);
+	}
+
+
+
+	/**
+	 * Return the value at a specific index of the stream.  The values are uniformly
+	 * distributed over all long values.
+	 *
+	 * @param n		the index of the value.
+	 * @return		the value.
+	 */
+	public long getLong(long n) {
+		return mix64(seed + (n + 1) * GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Return the value at a specific index of the stream as a double uniformly
+	 * distributed in the range [0, 1).
+	 *
+	 * @param n		the index of the value.
+	 * @return		the value.
+	 */
+	public double getDouble(long n) {
+		return (getLong(n) >>> 11) * DOUBLE_UNIT;
+	}
+
+	/**
+	 * Return a Gaussian distributed value with mean 0 and standard deviation 1 computed
+	 * from the values at indices 2n and 2n+1 of the stream.
+	 *
+	 * @param n		the index of the value.
+	 * @return		the value.
+	 */
+	public double getGaussian(long n) {
+		// Box-Muller transform, with the first value in the range (0, 1]
+		double u = 1.0 - getDouble(2 * n);
+		double v = getDouble(2 * n + 1);
+		return StrictMath.sqrt(-2 * StrictMath.log(u)) * StrictMath.cos(2 * Math.PI * v);
+	}
+
+
+
+	/**
+	 * Return the next value of the stream.
+	 *
+	 * @see #getLong(long)
+	 */
+	public long nextLong() {
+		return getLong(index++);
+	}
+
+	/**
+	 * Return the next value of the stream as a double in the range [0, 1).
+	 *
+	 * @see #getDouble(long)
+	 */
+	public double nextDouble() {
+		return getDouble(index++);
+	}
+
+	/**
+	 * Return the next Gaussian distributed value.  Each Gaussian value consumes two
+	 * values of the stream.
+	 *
+	 * @see #getGaussian(long)
+	 */
+	public double nextGaussian() {
+		if ((index & 1) != 0) {
+			index++;
+		}
+		double value = getGaussian(index / 2);
+		index += 2;
+		return value;
+	}
+
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -0,0 +1,140 @@
+package net.sf.openrocket.util;
+
+/**
+ * A table of values at uniformly spaced points, from which values are linearly
+ * interpolated in constant time.  The table may contain several columns sharing the
+ * same points.  Values outside the range of the table are those at the ends.
+ * <p>
+ * Unlike {@link LinearInterpolator}, which searches a sorted map, the interval containing
+ * a point is computed directly from its position, so the lookup cost does not depend on
+ * the number of points.  Instances are immutable.
+ */
+public class UniformLookupTable {
+
+	private final double start;
+	private final double step;
+	private final int last;
+	private final double[][] columns;
+
+
+	/**
+	 * Construct a table.  The arrays are not copied and must not be modified afterwards.
+	 *
+	 * @param start		the position of the first point.
+	 * @param step		the distance between points, positive.
+	 * @param columns	the values of each column at the points, at least two each.
+	 * @throws IllegalArgumentException		if the step is not positive or the columns have
+	 * 										different or too few values.
+	 */
+	public UniformLookupTable(double start, double step, double[]... columns) {
+		if (!(step > 0)) {
+			throw new IllegalArgumentException("Step must be positive, was " + step);
+		}
+		if (columns.length == 0) {
+			throw new IllegalArgumentException("No columns");
+		}
+		for (double[] c : columns) {
+			if (c.length < 2 || c.length != columns[0].length) {
+				throw new IllegalArgumentException("Columns must have an equal number of at least two values");
+			}
+		}
+		this.start = start;
+		this.step = step;
+		this.last = columns[0].length - 1;
+		this.columns = columns;
+	}
+
+
+	/**
+	 * Resample a piecewise linear function onto uniformly spaced points.  The function is
+	 * constant outside the given points.
+	 *
+	 * @param x			the increasing x-coordinates of the function.
+	 * @param y			the values of the function.
+	 * @param start		the first point to sample.
+	 * @param step		the distance between the points to sample.
+	 * @param count		the number of points to sample.
+	 * @return			the sampled values.
+	 */
+	public static double[] resample(double[] x, double[] y, double start, double step, int count) {
+		if (x.length != y.length || x.length == 0) {
+			throw new IllegalArgumentException("Array lengths do not match or are zero, x=" + x.length +
+					" y=" + y.length);
+		}
+		double[] values = new double[count];
+		int n = 0;
+		for (int i = 0; i < count; i++) {
+			double position = start + i * step;
+			while (n < x.length - 1 && x[n + 1] <= position) {
+				n++;
+			}
+			if (position <= x[0]) {
+				values[i] = y[0];
+			} else if (n == x.length - 1) {
+				values[i] = y[n];
+			} else {
+				double d = (position - x[n]) / (x[n + 1] - x[n]);
+				values[i] = y[n] * (1 - d) + y[n + 1] * d;
+			}
+		}
+		return values;
+	}
+
+
+	/**
+	 * Return the linearly interpolated value of a column.
+	 *
+	 * @param column	the column index.
+	 * @param x			the position.
+	 * @return			the interpolated value.
+	 */
+	public double getValue(int column, double x) {
+		double[] values = columns[column];
+		double offset = x - start;
+		int n = Math.min(Math.max((int) (offset / step), 0), last - 1);
+		double d = Math.min(Math.max((offset - n * step) / step, 0), 1);
+		return values[n] * (1 - d) + values[n + 1] * d;
+	}
+
+	/**
+	 * Store the linearly interpolated values of all columns into an array.
+	 *
+	 * @param x			the position.
+	 * @param dest		the array to store the values in, at least as long as the number of columns.
+	 */
+	public void getValues(double x, double[] dest) {
+		double offset = x - start;
+		int n = Math.min(Math.max((int) (offset / step), 0), last - 1);
+		double d = Math.min(Math.max((offset - n * step) / step, 0), 1);
+		for (int c = 0; c < columns.length; c++) {
+			dest[c] = columns[c][n] * (1 - d) + columns[c][n + 1] * d;
+		}
+	}
+
+
+	public double getStart() {
+		return start;
+	}
+
+	public double getStep() {
+		return step;
+	}
+
+	/**
+	 * Return the position of the last point.
+	 */
+	public double getEnd() {
+		return start + last * step;
+	}
+
+	/**
+	 * Return the number of points.
+	 */
+	public int size() {
+		return last + 1;
+	}
+
+	public int getColumnCount() {
+		return columns.length;
+	}
+}
@@ -0,0 +1,112 @@
+package net.sf.openrocket.utils;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.SimulationMethod;
+import net.sf.openrocket.simulation.exception.SimulationException;
+import net.sf.openrocket.simulation.listeners.system.ApogeeEndListener;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.TestRockets;
+
+/**
+ * Report the deviation of the 3-DOF simulation from the 6-DOF simulation for the
+ * reference designs of {@link TestRockets}.  The flights are simulated up to apogee
+ * with and without wind, and the apogee, maximum velocity, time to apogee and the
+ * simulation time of both methods are printed, along with the stability margin of the
+ * rocket at launch rod clearance.  The 3-DOF simulation assumes a stable rocket, so the
+ * deviation of designs with a small or negative margin is arbitrarily large.
+ * <p>
+ * Usage:  SimulationMethodComparison [repetitions]
+ */
+public class SimulationMethodComparison {
+
+	private static final int DEFAULT_REPETITIONS = 5;
+
+
+	public static void main(String[] args) throws SimulationException {
+		int repetitions = DEFAULT_REPETITIONS;
+		if (args.length > 0) {
+			repetitions = Integer.parseInt(args[0]);
+		}
+
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+
+		Rocket[] rockets = {
+				TestRockets.makeEstesAlphaIII(),
+				TestRockets.makeBeta(),
+				TestRockets.makeFalcon9Heavy()
+		};
+
+		System.out.printf("%-12s %-8s %5s %6s  %8s %8s %7s  %7s %7s  %6s %6s  %7s %7s %6s%n",
+				"Rocket", "Config", "Wind", "Cal", "Apogee6", "Apogee3", "Dev%", "Vmax6", "Vmax3", "Tapo6", "Tapo3",
+				"ms6", "ms3", "Speed");
+		for (Rocket rocket : rockets) {
+			String name = rocket.getName();
+			if (name.length() > 12) {
+				name = name.substring(0, 12);
+			}
+			for (FlightConfigurationId id : rocket.getIds()) {
+				if (!rocket.getFlightConfiguration(id).hasMotors()) {
+					continue;
+				}
+				for (double wind : new double[] { 0, 2 }) {
+					Result six = simulate(rocket, id, wind, SimulationMethod.SIX_DOF, repetitions);
+					Result three = simulate(rocket, id, wind, SimulationMethod.THREE_DOF, repetitions);
+					if (Double.isNaN(six.data.getMaxAltitude())) {
+						// Not launched
+						continue;
+					}
+					System.out.printf("%-12s %-8s %5.1f %6.2f  %8.1f %8.1f %7.2f  %7.1f %7.1f  %6.2f %6.2f  %7.2f %7.2f %6.1f%n",
+							name, id.toShortKey(), wind, getStability(three.data),
+							six.data.getMaxAltitude(), three.data.getMaxAltitude(),
+							100 * (three.data.getMaxAltitude() - six.data.getMaxAltitude()) / six.data.getMaxAltitude(),
+							six.data.getMaxVelocity(), three.data.getMaxVelocity(),
+							six.data.getTimeToApogee(), three.data.getTimeToApogee(),
+							six.time * 1000, three.time * 1000, six.time / three.time);
+				}
+			}
+		}
+	}
+
+
+	private static Result simulate(Rocket rocket, FlightConfigurationId id, double wind, SimulationMethod method,
+			int repetitions) throws SimulationException {
+		Result result = new Result();
+		result.time = Double.MAX_VALUE;
+		for (int i = 0; i < repetitions; i++) {
+			Simulation simulation = new Simulation(rocket);
+			simulation.setFlightConfigurationId(id);
+			simulation.getOptions().setRandomSeed(1);
+			simulation.getOptions().setWindSpeedAverage(wind);
+			simulation.getOptions().setWindSpeedDeviation(0);
+			simulation.getOptions().setSimulationMethod(method);
+
+			long start = System.nanoTime();
+			simulation.simulate(ApogeeEndListener.INSTANCE);
+			result.time = Math.min(result.time, (System.nanoTime() - start) / 1e9);
+			result.data = simulation.getSimulatedData();
+		}
+		return result;
+	}
+
+	/**
+	 * Return the stability margin at the first point after launch rod clearance.
+	 */
+	private static double getStability(FlightData data) {
+		for (Double stability : data.getBranch(0).get(FlightDataType.TYPE_STABILITY)) {
+			if (!Double.isNaN(stability)) {
+				return stability;
+			}
+		}
+		return Double.NaN;
+	}
+
+	private static class Result {
+		FlightData data;
+		double time;
+	}
+
+}
@@ -0,0 +1,162 @@
+package net.sf.openrocket.aerodynamics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+
+import net.sf.openrocket.ServicesForTesting;
+import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.rocketcomponent.FlightConfiguration;
+import net.sf.openrocket.rocketcomponent.NoseCone;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.util.TestRockets;
+
+public class AerodynamicSweepTest {
+	private static final double EPSILON = 1e-12;
+
+	private static final double[] MACHS = { 0, 0.3, 0.6, 0.9, 1.2, 2.0 };
+	private static final double[] AOAS = { 0, 0.02, 0.05, 0.1, 0.3, 1.0 };
+
+	private static ExecutorService executor;
+
+	@BeforeClass
+	public static void setup() {
+		Module applicationModule = new ServicesForTesting();
+		Module pluginModule = new PluginModule();
+		Injector injector = Guice.createInjector(applicationModule, pluginModule);
+		Application.setInjector(injector);
+
+		executor = Executors.newFixedThreadPool(3);
+	}
+
+	@AfterClass
+	public static void shutdown() {
+		executor.shutdownNow();
+	}
+
+
+	@Test
+	public void testGridPointsMatchCalculator() throws InterruptedException {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		FlightConditions conditions = new FlightConditions(config);
+		conditions.setTheta(0.3);
+		BarrowmanCalculator calc = new BarrowmanCalculator();
+
+		AerodynamicSweep sweep = new AerodynamicSweep(config, conditions, calc, MACHS, AOAS);
+		assertFalse(sweep.isComputed());
+		sweep.compute(executor, 4);
+		assertTrue(sweep.isComputed());
+
+		for (double mach : MACHS) {
+			for (double aoa : AOAS) {
+				conditions.setMach(mach);
+				conditions.setAOA(aoa);
+				Map<RocketComponent, AerodynamicForces> expected =
+						new BarrowmanCalculator().getForceAnalysis(config, conditions, new WarningSet());
+				Map<RocketComponent, AerodynamicForces> actual = sweep.getForceAnalysis(mach, aoa, null);
+				assertEquals(expected.keySet(), actual.keySet());
+
+				for (RocketComponent c : expected.keySet()) {
+					AerodynamicForces e = expected.get(c);
+					AerodynamicForces a = actual.get(c);
+					assertEquals(e.getCP().x, a.getCP().x, EPSILON);
+					assertEquals(e.getCNa(), a.getCNa(), EPSILON);
+					assertEquals(e.getCD(), a.getCD(), EPSILON);
+					assertEquals(e.getPressureCD(), a.getPressureCD(), EPSILON);
+					assertEquals(e.getBaseCD(), a.getBaseCD(), EPSILON);
+					assertEquals(e.getFrictionCD(), a.getFrictionCD(), EPSILON);
+					assertEquals(e.getCroll(), a.getCroll(), EPSILON);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testInterpolation() throws InterruptedException {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		FlightConditions conditions = new FlightConditions(config);
+
+		AerodynamicSweep sweep = new AerodynamicSweep(config, conditions, new BarrowmanCalculator(), MACHS, AOAS);
+		sweep.compute(executor, 1);
+
+		double cd00 = sweep.getTotalForces(0.3, 0.1).getCD();
+		double cd01 = sweep.getTotalForces(0.3, 0.3).getCD();
+		double cd10 = sweep.getTotalForces(0.6, 0.1).getCD();
+		double cd11 = sweep.getTotalForces(0.6, 0.3).getCD();
+		double expected = 0.75 * (0.5 * cd00 + 0.5 * cd01) + 0.25 * (0.5 * cd10 + 0.5 * cd11);
+		assertEquals(expected, sweep.getTotalForces(0.375, 0.2).getCD(), EPSILON);
+
+		AerodynamicForces total = sweep.getForces(rocket, 0.375, 0.2);
+		assertNotNull(total);
+		assertEquals(expected, total.getCD(), EPSILON);
+		assertEquals(rocket, total.getComponent());
+	}
+
+	@Test
+	public void testIndependentOfRocketChanges() throws InterruptedException {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		FlightConditions conditions = new FlightConditions(config);
+
+		AerodynamicSweep parallel = new AerodynamicSweep(config, conditions, new BarrowmanCalculator(), MACHS, AOAS);
+		AerodynamicSweep serial = new AerodynamicSweep(config, conditions, new BarrowmanCalculator(), MACHS, AOAS);
+
+		// Modifying the rocket after construction does not affect the sweep
+		((NoseCone) rocket.getChild(0).getChild(0)).setLength(1.0);
+
+		parallel.compute(executor, 3);
+		serial.compute(executor, 1);
+		for (double mach : new double[] { 0.1, 0.95, 1.7 }) {
+			for (double aoa : new double[] { 0.01, 0.2, 0.7 }) {
+				AerodynamicForces p = parallel.getTotalForces(mach, aoa);
+				AerodynamicForces s = serial.getTotalForces(mach, aoa);
+				assertEquals(s.getCD(), p.getCD(), 0);
+				assertEquals(s.getCP().x, p.getCP().x, 0);
+				assertEquals(s.getCNa(), p.getCNa(), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testOutsideGrid() throws InterruptedException {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightConfiguration config = rocket.getSelectedConfiguration();
+		AerodynamicSweep sweep = new AerodynamicSweep(config, new FlightConditions(config),
+				new BarrowmanCalculator(), MACHS, AOAS);
+
+		try {
+			sweep.getTotalForces(0.3, 0.1);
+			fail("Sweep not computed");
+		} catch (IllegalStateException expected) {
+		}
+
+		sweep.compute(executor, 2);
+		assertTrue(sweep.contains(2.0, 1.0));
+		assertFalse(sweep.contains(2.1, 0.5));
+		assertFalse(sweep.contains(1.0, -0.1));
+		try {
+			sweep.getTotalForces(2.1, 0.5);
+			fail("Point outside grid");
+		} catch (IllegalArgumentException expected) {
+		}
+	}
+
+}
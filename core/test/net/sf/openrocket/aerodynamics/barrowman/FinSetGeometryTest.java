@@ -0,0 +1,103 @@
+package net.sf.openrocket.aerodynamics.barrowman;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.EllipticalFinSet;
+import net.sf.openrocket.rocketcomponent.FreeformFinSet;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.TrapezoidFinSet;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.TestRockets;
+
+public class FinSetGeometryTest extends BaseTestCase {
+	private static final double EPSILON = 1e-12;
+
+	@Test
+	public void testTrapezoidExact() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		TrapezoidFinSet fins = (TrapezoidFinSet) rocket.getChild(0).getChild(1).getChild(0);
+		final double root = fins.getRootChord();
+		final double tip = fins.getTipChord();
+		final double sweep = fins.getSweep();
+		final double height = fins.getHeight();
+		final double radius = fins.getFinFront().y;
+
+		FinSetGeometry g = FinSetGeometry.get(fins);
+		assertEquals(2.0 / 3 * (root + tip - root * tip / (root + tip)), g.macLength, EPSILON);
+		assertEquals(sweep * (root + 2 * tip) / (3 * (root + tip)), g.macLead, EPSILON);
+		assertEquals(height * (root + 2 * tip) / (3 * (root + tip)), g.macSpan, EPSILON);
+		assertEquals(height / Math.hypot(sweep + (tip - root) / 2, height), g.cosGamma, EPSILON);
+		assertEquals(height / Math.hypot(sweep, height), g.cosGammaLead, EPSILON);
+
+		// Integral of the chord times (radius + y)^2
+		double slope = (tip - root) / height;
+		double rollSum = 0;
+		double[] powers = { 1, 2 * radius, radius * radius };
+		for (int i = 0; i < 3; i++) {
+			int p = 2 - i;
+			rollSum += powers[i] * (root * Math.pow(height, p + 1) / (p + 1) + slope * Math.pow(height, p + 2) / (p + 2));
+		}
+		assertEquals(rollSum, g.rollSum, EPSILON);
+
+		assertEquals(root, g.chordLength[0], EPSILON);
+		assertEquals(tip, g.chordLength[FinSetGeometry.DIVISIONS - 1], EPSILON);
+		assertFalse(g.jagged);
+	}
+
+	@Test
+	public void testFreeformPolygon() {
+		FreeformFinSet fins = new FreeformFinSet();
+		new BodyTube(0.1, 0.1).addChild(fins);
+		// A square fin and a triangle on top of it
+		fins.setPoints(new Coordinate[] {
+				new Coordinate(0, 0),
+				new Coordinate(0, 0.04),
+				new Coordinate(0.02, 0.06),
+				new Coordinate(0.04, 0.04),
+				new Coordinate(0.04, 0)
+		});
+
+		// Area 0.0016 + 0.0004 = 0.002
+		FinSetGeometry g = FinSetGeometry.get(fins);
+		assertEquals((0.04 * 0.04 * 0.04 + 0.04 * 0.04 * 0.02 / 3) / 0.002, g.macLength, EPSILON);
+		assertEquals((0.0016 * 0.02 + 0.0004 * (0.04 + 0.02 / 3)) / 0.002, g.macSpan, EPSILON);
+		assertEquals((0.04 + 0.02 / Math.sqrt(2)) / 0.06, g.cosGammaLead, EPSILON);
+		assertEquals(1.0, g.cosGamma, EPSILON);
+	}
+
+	@Test
+	public void testSymmetricPoints() {
+		// The points on both sides of an elliptical fin are at nearly equal heights
+		EllipticalFinSet fins = new EllipticalFinSet();
+		new BodyTube(0.1, 0.0275).addChild(fins);
+		fins.setLength(0.06);
+		fins.setHeight(0.06);
+
+		FinSetGeometry g = FinSetGeometry.get(fins);
+		assertEquals(8 * 0.06 / (3 * Math.PI), g.macLength, 0.001);
+		assertEquals(0.03 - g.macLength / 2, g.macLead, 0.001);
+		assertTrue(g.cosGamma > 0.99 && g.cosGamma <= 1);
+		assertTrue(g.cosGammaLead > 0 && g.cosGammaLead < 1);
+		assertTrue(g.rollSum > 0);
+	}
+
+	@Test
+	public void testSharedGeometry() {
+		Rocket r1 = TestRockets.makeEstesAlphaIII();
+		Rocket r2 = TestRockets.makeEstesAlphaIII();
+		TrapezoidFinSet f1 = (TrapezoidFinSet) r1.getChild(0).getChild(1).getChild(0);
+		TrapezoidFinSet f2 = (TrapezoidFinSet) r2.getChild(0).getChild(1).getChild(0);
+		assertTrue(FinSetGeometry.get(f1) == FinSetGeometry.get(f2));
+		assertTrue(new FinSetCalc(f1).chordLength == new FinSetCalc(f2).chordLength);
+
+		f2.setTipChord(0.02);
+		assertFalse(FinSetGeometry.get(f1) == FinSetGeometry.get(f2));
+		assertEquals(0.02, FinSetGeometry.get(f2).chordLength[FinSetGeometry.DIVISIONS - 1], EPSILON);
+	}
+}
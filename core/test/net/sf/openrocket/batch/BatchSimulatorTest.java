@@ -0,0 +1,126 @@
+package net.sf.openrocket.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.batch.BatchSimulator.Result;
+import net.sf.openrocket.batch.BatchSimulator.Status;
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.GeneralRocketSaver;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.TestRockets;
+
+public class BatchSimulatorTest {
+
+	private File dir;
+	private File file;
+
+	@BeforeClass
+	public static void setup() {
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+	}
+
+	@Before
+	public void createDocument() throws Exception {
+		dir = Files.createTempDirectory("batch").toFile();
+		file = new File(dir, "alpha.ork");
+
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation b4 = new Simulation(rocket);
+		b4.setName("B4");
+		b4.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		doc.addSimulation(b4);
+		Simulation c6 = new Simulation(rocket);
+		c6.setName("C6");
+		c6.setFlightConfigurationId(TestRockets.TEST_FCID_2);
+		doc.addSimulation(c6);
+		new GeneralRocketSaver().save(file, doc, new StorageOptions());
+	}
+
+	@After
+	public void deleteFiles() {
+		delete(dir);
+	}
+
+	@Test
+	public void testRunAll() throws Exception {
+		BatchSimulator simulator = new BatchSimulator();
+		simulator.setThreadCount(2);
+		File data = new File(dir, "data");
+		data.mkdir();
+		simulator.setDataDirectory(data);
+
+		File missing = new File(dir, "missing.ork");
+		List<Result> results = simulator.run(Arrays.asList(file, missing));
+
+		assertEquals(3, results.size());
+		assertEquals("B4", results.get(0).getSimulationName());
+		assertEquals(Status.OK, results.get(0).getStatus());
+		assertEquals("C6", results.get(1).getSimulationName());
+		assertEquals(Status.OK, results.get(1).getStatus());
+		assertTrue(results.get(1).getData().getMaxAltitude() > results.get(0).getData().getMaxAltitude());
+		assertEquals(Status.FILE_ERROR, results.get(2).getStatus());
+		assertNull(results.get(2).getSimulationName());
+		assertEquals(Collections.singletonList(results.get(2)), BatchSimulator.getFailures(results));
+
+		assertTrue(new File(data, "alpha-B4.csv").length() > 0);
+		assertTrue(new File(data, "alpha-C6.csv").length() > 0);
+
+		StringWriter summary = new StringWriter();
+		BatchSimulator.writeSummary(results, new PrintWriter(summary));
+		String[] lines = summary.toString().split("\r?\n");
+		assertEquals(4, lines.length);
+		assertTrue(lines[1].startsWith(file.getPath() + ",B4,OK,"));
+		assertTrue(lines[3].startsWith(missing.getPath() + ",,FILE_ERROR,"));
+	}
+
+	@Test
+	public void testSelectAndSave() throws Exception {
+		BatchSimulator simulator = new BatchSimulator();
+		simulator.setSimulationNames(Collections.singleton("C6"));
+		File saved = new File(dir, "saved");
+		saved.mkdir();
+		simulator.setSave(true, saved);
+
+		List<Result> results = simulator.run(Collections.singletonList(file));
+		assertEquals(1, results.size());
+		assertEquals("C6", results.get(0).getSimulationName());
+		assertEquals(Status.OK, results.get(0).getStatus());
+
+		OpenRocketDocument doc = new GeneralRocketLoader(new File(saved, "alpha.ork")).load();
+		assertEquals(Simulation.Status.NOT_SIMULATED, doc.getSimulation(0).getStatus());
+		assertEquals(Simulation.Status.LOADED, doc.getSimulation(1).getStatus());
+		assertEquals(results.get(0).getData().getMaxAltitude(),
+				doc.getSimulation(1).getSimulatedData().getMaxAltitude(), 0.01);
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		f.delete();
+	}
+}
@@ -0,0 +1,247 @@
+package net.sf.openrocket.file.export;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.document.Simulation.Status;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+import net.sf.openrocket.util.TextUtil;
+
+public class FlightDataExporterTest extends BaseTestCase {
+
+	@Test
+	public void testNumberFormatter() {
+		NumberFormatter formatter = new NumberFormatter();
+		double[] special = { 0, -0.0, 1e-10, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY,
+				0.001, 0.00099999, 1e8, 99999999.9, 9999.5, 10000, 1234.5678, -0.5, 1.23456e-7, 1e300 };
+		StringBuilder sb = new StringBuilder();
+		for (double d : special) {
+			assertEquals(TextUtil.doubleToString(d), formatter.toString(d));
+		}
+
+		Random random = new Random(0);
+		for (int i = 0; i < 100000; i++) {
+			double d = (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(24) - 12);
+			sb.setLength(0);
+			sb.append("x");
+			formatter.append(sb, d);
+			assertEquals("x" + TextUtil.doubleToString(d), sb.toString());
+		}
+	}
+
+	@Test
+	public void testCSV() throws IOException {
+		Simulation simulation = simulation("Sim", branch("Main", 5));
+		CSVExporter exporter = new CSVExporter();
+
+		String expected =
+				"# Sim\n" +
+				"# 5 data points written for 2 variables.\n" +
+				"#\n" +
+				"# " + FlightDataType.TYPE_TIME.getName() + " (s)," + FlightDataType.TYPE_ALTITUDE.getName() + " (m)\n" +
+				"# Event LAUNCH occurred at t=0 seconds\n" +
+				"0,0\n" +
+				"0.5,1e-4\n" +
+				"1,12.25\n" +
+				"# Event APOGEE occurred at t=1.2 seconds\n" +
+				"1.5,20\n" +
+				"2,1234.5\n" +
+				"# Event GROUND_HIT occurred at t=3 seconds\n";
+		assertEquals(expected, csv(exporter, simulation));
+
+		// The output does not depend on the chunk size
+		exporter.setChunkSize(2);
+		assertEquals(expected, csv(exporter, simulation));
+
+		exporter.setColumns(FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_VELOCITY_TOTAL);
+		exporter.setUnits(UnitGroup.UNITS_DISTANCE.getUnit("ft"), UnitGroup.UNITS_VELOCITY.getUnit("ft/s"));
+		exporter.setFieldSeparator(";");
+		exporter.setSimulationComments(false);
+		exporter.setEventComments(false);
+		expected =
+				"# " + FlightDataType.TYPE_ALTITUDE.getName() + " (ft);" + FlightDataType.TYPE_VELOCITY_TOTAL.getName() + " (ft/s)\n" +
+				"0;NaN\n" +
+				"3.2808e-4;NaN\n" +
+				"40.19;NaN\n" +
+				"65.617;NaN\n" +
+				"4050.2;NaN\n";
+		assertEquals(expected, csv(exporter, simulation));
+	}
+
+	@Test
+	public void testDecimation() throws IOException {
+		FlightDataBranch branch = branch("Main", 1001);
+		ExportCounter counter = new ExportCounter();
+		counter.setChunkSize(7);
+
+		counter.setStride(10);
+		counter.export(new ByteArrayOutputStream(), simulation("Sim", branch), branch);
+		assertEquals(101, counter.times.size());
+		assertEquals(0, counter.times.get(0), 0);
+		assertEquals(5, counter.times.get(1), 0);
+		assertEquals(500, counter.times.get(100), 0);
+
+		counter.setStride(3);
+		counter.export(new ByteArrayOutputStream(), simulation("Sim", branch), branch);
+		assertEquals(335, counter.times.size());
+		assertEquals(499.5, counter.times.get(333), 0);
+		assertEquals(500, counter.times.get(334), 0);
+
+		counter.setStride(1);
+		counter.setTimeStep(2);
+		counter.export(new ByteArrayOutputStream(), simulation("Sim", branch), branch);
+		assertEquals(251, counter.times.size());
+		assertEquals(2, counter.times.get(1), 0);
+		assertArrayEquals(new long[] { 251, 251 }, counter.lastProgress);
+	}
+
+	@Test
+	public void testBinary() throws IOException {
+		List<Simulation> simulations = Arrays.asList(
+				simulation("First", branch("Main", 5), branch("Booster", 3)),
+				simulation("Second", branch("Main", 2000)));
+		BinaryColumnExporter exporter = new BinaryColumnExporter();
+		exporter.setChunkSize(100);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.export(out, simulations);
+
+		ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+		assertEquals('O', buffer.get());
+		assertEquals('R', buffer.get());
+		assertEquals('F', buffer.get());
+		assertEquals('X', buffer.get());
+		assertEquals(BinaryColumnExporter.VERSION, buffer.getInt());
+		assertEquals(3, buffer.getInt());
+
+		String[][] names = { { "First", "Main" }, { "First", "Booster" }, { "Second", "Main" } };
+		int[] lengths = { 5, 3, 2000 };
+		for (int b = 0; b < 3; b++) {
+			FlightDataBranch expected = simulations.get(b / 2).getSimulatedData().getBranch(b % 2);
+			assertEquals(names[b][0], string(buffer));
+			assertEquals(names[b][1], string(buffer));
+			assertEquals(2, buffer.getInt());
+			assertEquals(lengths[b], buffer.getInt());
+			assertEquals(8, buffer.getInt());
+			assertEquals(FlightDataType.TYPE_TIME.getName(), string(buffer));
+			assertEquals(FlightDataType.TYPE_TIME.getSymbol(), string(buffer));
+			assertEquals("s", string(buffer));
+			assertEquals(FlightDataType.TYPE_ALTITUDE.getName(), string(buffer));
+			assertEquals(FlightDataType.TYPE_ALTITUDE.getSymbol(), string(buffer));
+			assertEquals("m", string(buffer));
+			assertEquals(3, buffer.getInt());
+			assertEquals("LAUNCH", string(buffer));
+			assertEquals(0, buffer.getDouble(), 0);
+			assertEquals("APOGEE", string(buffer));
+			assertEquals(1.2, buffer.getDouble(), 0);
+			assertEquals("GROUND_HIT", string(buffer));
+			assertEquals(3, buffer.getDouble(), 0);
+			for (FlightDataType type : new FlightDataType[] { FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE }) {
+				double[] values = new double[lengths[b]];
+				for (int i = 0; i < values.length; i++) {
+					values[i] = buffer.getDouble();
+				}
+				assertArrayEquals(expected.getValues(type), values, 0);
+			}
+		}
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	public void testChunkedRead() {
+		FlightDataBranch branch = branch("Main", 10);
+		double[] dest = new double[8];
+		assertEquals(3, branch.getValues(FlightDataType.TYPE_TIME, 7, dest, 2, 5));
+		assertArrayEquals(new double[] { 0, 0, 3.5, 4, 4.5, 0, 0, 0 }, dest, 0);
+		assertEquals(-1, branch.getValues(FlightDataType.TYPE_MACH_NUMBER, 0, dest, 0, 5));
+	}
+
+
+	private static String csv(FlightDataExporter exporter, Simulation simulation) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		exporter.export(out, Arrays.asList(simulation));
+		return new String(out.toByteArray()).replace(System.getProperty("line.separator"), "\n");
+	}
+
+	private static String string(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, Charset.forName("UTF-8"));
+	}
+
+	private static FlightDataBranch branch(String name, int length) {
+		double[] altitudes = { 0, 1e-4, 12.25, 20, 1234.5 };
+		FlightDataBranch branch = new FlightDataBranch(name, FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE);
+		for (int i = 0; i < length; i++) {
+			branch.addPoint();
+			branch.setValue(FlightDataType.TYPE_TIME, 0.5 * i);
+			branch.setValue(FlightDataType.TYPE_ALTITUDE, (i < altitudes.length) ? altitudes[i] : i);
+		}
+		branch.addEvent(new FlightEvent(FlightEvent.Type.GROUND_HIT, 3));
+		branch.addEvent(new FlightEvent(FlightEvent.Type.LAUNCH, 0));
+		branch.addEvent(new FlightEvent(FlightEvent.Type.APOGEE, 1.2));
+		return branch;
+	}
+
+	private static Simulation simulation(String name, FlightDataBranch... branches) {
+		return new Simulation(TestRockets.makeEstesAlphaIII(), Status.EXTERNAL, name, new SimulationOptions(),
+				null, new FlightData(branches));
+	}
+
+
+	/**
+	 * An exporter recording the exported times and the progress.
+	 */
+	private static class ExportCounter extends FlightDataExporter {
+		private final List<Double> times = new ArrayList<Double>();
+		private long[] lastProgress;
+
+		public ExportCounter() {
+			setProgressListener(new ProgressListener() {
+				@Override
+				public void progress(long points, long totalPoints) {
+					lastProgress = new long[] { points, totalPoints };
+				}
+			});
+		}
+
+		@Override
+		public String getFileExtension() {
+			return "test";
+		}
+
+		@Override
+		protected void writeBranch(OutputStream out, ExportedBranch branch) throws IOException {
+			times.clear();
+			double[][] values = new double[branch.getTypes().length][branch.getChunkSize()];
+			int n;
+			for (int start = 0; (n = branch.readRows(start, values, branch.getChunkSize())) > 0; start += n) {
+				for (int i = 0; i < n; i++) {
+					times.add(values[0][i]);
+				}
+			}
+			assertTrue(times.size() == branch.getPointCount());
+		}
+	}
+}
@@ -1,9 +1,12 @@
 package net.sf.openrocket.file.openrocket;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileNotFoundException;
@@ -12,6 +15,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.zip.ZipOutputStream;
 
 import net.sf.openrocket.ServicesForTesting;
 import net.sf.openrocket.database.ComponentPresetDao;
@@ -19,16 +23,27 @@ import net.sf.openrocket.database.ComponentPresetDatabase;
 import net.sf.openrocket.database.motor.MotorDatabase;
 import net.sf.openrocket.database.motor.ThrustCurveMotorSetDatabase;
 import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.document.StorageOptions;
 import net.sf.openrocket.file.GeneralRocketLoader;
+import net.sf.openrocket.file.GeneralRocketSaver;
 import net.sf.openrocket.file.RocketLoadException;
 import net.sf.openrocket.file.motor.GeneralMotorLoader;
 import net.sf.openrocket.l10n.DebugTranslator;
 import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.models.atmosphere.Sounding;
 import net.sf.openrocket.motor.Manufacturer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.ThrustCurveMotor;
 import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.simulation.BasicLandingStepper;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.FlightEvent;
+import net.sf.openrocket.simulation.SimulationMethod;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.simulation.extension.impl.ScriptingExtension;
 import net.sf.openrocket.simulation.extension.impl.ScriptingUtil;
 import net.sf.openrocket.startup.Application;
@@ -170,6 +185,126 @@ public class OpenRocketSaverTest {
 	}
 	
 	
+	@Test
+	public void testSounding() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v100();
+		SimulationOptions simulationOptions = new SimulationOptions();
+		Sounding sounding = new Sounding("Test <sounding>", new double[] { 100, 1234.5, 5000 },
+				new double[] { 290, 283.15, 260.1 }, new double[] { 100000, 87654.321, 54000 },
+				new double[] { 2, 7.5, 15 }, new double[] { 0.1, Math.PI / 3, 4 });
+		simulationOptions.setSounding(sounding);
+		assertEquals(108, getCalculatedFileVersion(rocketDoc));
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.NOT_SIMULATED, "Sounding",
+				simulationOptions, new ArrayList<SimulationExtension>(), null));
+		
+		// Older versions would simulate the ISA atmosphere instead
+		assertEquals(109, getCalculatedFileVersion(rocketDoc));
+		
+		File file = saveRocket(rocketDoc, new StorageOptions());
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		Sounding loaded = rocketDocLoaded.getSimulation(0).getOptions().getSounding();
+		assertEquals(sounding, loaded);
+		assertEquals("Test <sounding>", loaded.getName());
+		assertEquals(simulationOptions.getResultDescription(false),
+				rocketDocLoaded.getSimulation(0).getOptions().getResultDescription(false));
+	}
+	
+	
+	@Test
+	public void testDescentTimeStep() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v100();
+		SimulationOptions simulationOptions = new SimulationOptions();
+		simulationOptions.setDescentTimeStep(0.5);
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.NOT_SIMULATED, "Default",
+				new SimulationOptions(), new ArrayList<SimulationExtension>(), null));
+		assertEquals(108, getCalculatedFileVersion(rocketDoc));
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.NOT_SIMULATED, "Descent",
+				simulationOptions, new ArrayList<SimulationExtension>(), null), 0);
+		
+		// Older versions would ignore the descent time step
+		assertEquals(109, getCalculatedFileVersion(rocketDoc));
+		
+		File file = saveRocket(rocketDoc, new StorageOptions());
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		assertEquals(0.5, rocketDocLoaded.getSimulation(0).getOptions().getDescentTimeStep(), 0);
+		assertEquals(BasicLandingStepper.RECOMMENDED_TIME_STEP,
+				rocketDocLoaded.getSimulation(1).getOptions().getDescentTimeStep(), 0);
+	}
+	
+	
+	@Test
+	public void testSimulationMethod() {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v100();
+		SimulationOptions simulationOptions = new SimulationOptions();
+		simulationOptions.setSimulationMethod(SimulationMethod.THREE_DOF);
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.NOT_SIMULATED, "6-DOF",
+				new SimulationOptions(), new ArrayList<SimulationExtension>(), null));
+		assertEquals(108, getCalculatedFileVersion(rocketDoc));
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.NOT_SIMULATED, "3-DOF",
+				simulationOptions, new ArrayList<SimulationExtension>(), null), 0);
+		
+		// Older versions would simulate 6-DOF instead
+		assertEquals(109, getCalculatedFileVersion(rocketDoc));
+		
+		File file = saveRocket(rocketDoc, new StorageOptions());
+		OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+		assertEquals(SimulationMethod.THREE_DOF, rocketDocLoaded.getSimulation(0).getOptions().getSimulationMethod());
+		assertEquals(SimulationMethod.SIX_DOF, rocketDocLoaded.getSimulation(1).getOptions().getSimulationMethod());
+	}
+	
+	
+	@Test
+	public void testBinarySimulationData() throws Exception {
+		OpenRocketDocument rocketDoc = TestRockets.makeTestRocket_v100();
+		
+		FlightDataType[] types = { FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE, FlightDataType.TYPE_VELOCITY_Z };
+		FlightDataBranch branch = new FlightDataBranch("Sustainer", types);
+		double[][] values = new double[3][500];
+		for (int i = 0; i < 500; i++) {
+			values[0][i] = i * 0.01;
+			values[1][i] = 100 * Math.sin(i * 0.005);
+			values[2][i] = (i % 7 == 0) ? Double.NaN : Math.cos(i * 0.005) / 3;
+		}
+		branch.addPoints(types, values, 500);
+		branch.addEvent(new FlightEvent(FlightEvent.Type.APOGEE, 3.14));
+		FlightData data = new FlightData(branch);
+		rocketDoc.addSimulation(new Simulation(rocketDoc.getRocket(), Simulation.Status.LOADED, "Binary",
+				new SimulationOptions(), new ArrayList<SimulationExtension>(), data));
+		
+		StorageOptions options = new StorageOptions();
+		options.setSimulationTimeSkip(StorageOptions.SIMULATION_DATA_ALL);
+		options.setBinarySimulationData(true);
+		
+		// Older versions would silently drop the binary simulation data
+		saver.saveFlightData(new ZipOutputStream(new ByteArrayOutputStream()), rocketDoc, options);
+		assertEquals(109, getCalculatedFileVersion(rocketDoc));
+		saver.saveFlightData(new ZipOutputStream(new ByteArrayOutputStream()), rocketDoc, new StorageOptions());
+		assertEquals(108, getCalculatedFileVersion(rocketDoc));
+		
+		File file = File.createTempFile(TMP_DIR.getName(), ".ork");
+		try {
+			new GeneralRocketSaver().save(file, rocketDoc, options);
+			OpenRocketDocument rocketDocLoaded = loadRocket(file.getPath());
+			assertTrue(rocketDocLoaded.getDefaultStorageOptions().isBinarySimulationData());
+			
+			FlightData loadedData = rocketDocLoaded.getSimulation(0).getSimulatedData();
+			assertEquals(data.getBranchCount(), loadedData.getBranchCount());
+			assertEquals(data.getMaxAltitude(), loadedData.getMaxAltitude(), 1e-4);
+			for (int i = 0; i < data.getBranchCount(); i++) {
+				branch = data.getBranch(i);
+				FlightDataBranch loadedBranch = loadedData.getBranch(i);
+				assertEquals(branch.getLength(), loadedBranch.getLength());
+				assertEquals(branch.getEvents().size(), loadedBranch.getEvents().size());
+				for (FlightDataType type : types) {
+					assertArrayEquals(type.getName(), branch.getValues(type), loadedBranch.getValues(type), 1e-4);
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+	
+	
 	/*
 	 * Test how accurate estimatedFileSize is.
 	 * 
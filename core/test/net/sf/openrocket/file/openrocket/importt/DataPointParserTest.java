@@ -0,0 +1,93 @@
+package net.sf.openrocket.file.openrocket.importt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.Test;
+
+import net.sf.openrocket.util.TextUtil;
+
+public class DataPointParserTest {
+
+	private static double parse(String s) {
+		return DataPointParser.parseDouble(s, 0, s.length());
+	}
+
+	@Test
+	public void testSimpleValues() {
+		assertEquals(0.0, parse("0"), 0);
+		assertEquals(1.5, parse("1.5"), 0);
+		assertEquals(-0.001, parse("-0.001"), 0);
+		assertEquals(12.0, parse("+12."), 0);
+		assertEquals(0.25, parse(".25"), 0);
+		assertEquals(1.2345E-7, parse("1.2345E-7"), 0);
+		assertEquals(3e10, parse("3e+10"), 0);
+		assertEquals(42.0, parse(" 42 "), 0);
+		assertEquals(Double.doubleToLongBits(-0.0), Double.doubleToLongBits(parse("-0")));
+	}
+
+	@Test
+	public void testSpecialValues() {
+		assertEquals(Double.NaN, parse("NaN"), 0);
+		assertEquals(Double.POSITIVE_INFINITY, parse("Inf"), 0);
+		assertEquals(Double.NEGATIVE_INFINITY, parse("-inf"), 0);
+		assertEquals(Double.POSITIVE_INFINITY, parse("Infinity"), 0);
+		assertEquals(1e300, parse("1e300"), 0);
+		assertEquals(0.12345678901234567890, parse("0.12345678901234567890"), 0);
+	}
+
+	@Test
+	public void testMatchesParseDouble() {
+		Random rnd = new Random(1234);
+		for (int i = 0; i < 100000; i++) {
+			double d = (rnd.nextDouble() - 0.5) * Math.pow(10, rnd.nextInt(20) - 10);
+			String[] strings = { Double.toString(d), TextUtil.doubleToString(d), String.format(Locale.ENGLISH, "%.4f", d) };
+			for (String s : strings) {
+				assertEquals(s, Double.parseDouble(s), parse(s), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testIllegalValues() {
+		String[] illegal = { "", " ", "-", ".", "e5", "1e", "1.2.3", "1,2", "abc", "1e5x" };
+		for (String s : illegal) {
+			try {
+				parse(s);
+				fail("Parsed illegal value '" + s + "'");
+			} catch (NumberFormatException expected) {
+			}
+		}
+	}
+
+	@Test
+	public void testParseRow() {
+		String row = "0.01,12.5,NaN,-3e-3";
+		assertEquals(4, DataPointParser.countFields(row, 0, row.length()));
+
+		double[] values = new double[4];
+		DataPointParser.parse(row, 0, row.length(), values);
+		assertEquals(0.01, values[0], 0);
+		assertEquals(12.5, values[1], 0);
+		assertEquals(Double.NaN, values[2], 0);
+		assertEquals(-0.003, values[3], 0);
+
+		assertEquals(12.5, DataPointParser.parseField(row, 0, row.length(), 1), 0);
+		assertEquals(-0.003, DataPointParser.parseField(row, 0, row.length(), 3), 0);
+
+		try {
+			DataPointParser.parse(row, 0, row.length(), new double[3]);
+			fail("Parsed too many values");
+		} catch (NumberFormatException expected) {
+		}
+		try {
+			DataPointParser.parse(row, 0, row.length(), new double[5]);
+			fail("Parsed too few values");
+		} catch (NumberFormatException expected) {
+		}
+	}
+
+}
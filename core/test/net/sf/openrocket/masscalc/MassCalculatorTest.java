@@ -34,10 +34,10 @@ public class MassCalculatorTest extends BaseTestCase {
 		final double actualRocketDryMass = actualStructure.cm.weight;
 		final Coordinate actualRocketDryCM = actualStructure.cm;
 
-		double expRocketDryMass = 0.025268247714878626;
+		double expRocketDryMass = 0.025268360700761744;
 		assertEquals(" Alpha III Empty Mass is incorrect: ", expRocketDryMass, actualRocketDryMass, EPSILON);
 
-		double expCMx = 0.1917685523;
+		double expCMx = 0.1917680064;
 		Coordinate expCM = new Coordinate(expCMx, 0, 0, expRocketDryMass);
 		assertEquals("Simple Rocket CM.x is incorrect: ", expCM.x, actualRocketDryCM.x, EPSILON);
 		assertEquals("Simple Rocket CM.y is incorrect: ", expCM.y, actualRocketDryCM.y, EPSILON);
@@ -87,10 +87,10 @@ public class MassCalculatorTest extends BaseTestCase {
 		double actualRocketLaunchMass = actualLaunchRigidBody.getMass();
 		final Coordinate actualRocketLaunchCM = actualLaunchRigidBody.cm;
 
-		double expRocketLaunchMass = 0.041668247714878634;
+		double expRocketLaunchMass = 0.041668360700761742;
 		assertEquals(" Alpha III Total Mass (with motor: " + desig + ") is incorrect: ", expRocketLaunchMass, actualRocketLaunchMass, EPSILON);
 
-		double expCMx = 0.20996455968266833;
+		double expCMx = 0.20996417926979205;
 		Coordinate expCM = new Coordinate(expCMx, 0, 0, expRocketLaunchMass);
 		assertEquals("Simple Rocket CM.x is incorrect: ", expCM.x, actualRocketLaunchCM.x, EPSILON);
 		assertEquals("Simple Rocket CM.y is incorrect: ", expCM.y, actualRocketLaunchCM.y, EPSILON);
@@ -173,7 +173,7 @@ public class MassCalculatorTest extends BaseTestCase {
 		// ====== Payload Stage ====== 
 		// ====== ====== ====== ======
 		{
-			expMass = 0.022549558353;
+			expMass = 0.022557302146;
 			cc = rkt.getChild(0).getChild(0);
 			compMass = cc.getComponentMass();
 			assertEquals("P/L NoseCone mass calculated incorrectly: ", expMass, compMass, EPSILON);
@@ -224,7 +224,7 @@ public class MassCalculatorTest extends BaseTestCase {
 		// ====== ====== ======
 		ParallelStage boosters = (ParallelStage) coreStage.getChild(0).getChild(0);
 		{
-			expMass = 0.0222459863653;
+			expMass = 0.0222505533833;
 			// think of the casts as an assert that ( child instanceof NoseCone) == true  
 			NoseCone nose = (NoseCone) boosters.getChild(0);
 			compMass = nose.getComponentMass();
@@ -257,7 +257,7 @@ public class MassCalculatorTest extends BaseTestCase {
 		// ====== Payload Stage ======
 		// ====== ====== ====== ======
 		{
-			expCMx = 0.080801726467;
+			expCMx = 0.080775783091;
 			NoseCone nc = (NoseCone) rkt.getChild(0).getChild(0);
 			actCMx = nc.getComponentCG().x;
 			assertEquals("P/L NoseCone CMx calculated incorrectly: ", expCMx, actCMx, EPSILON);
@@ -267,7 +267,7 @@ public class MassCalculatorTest extends BaseTestCase {
 			actCMx = plbody.getComponentCG().x;
 			assertEquals("P/L Body CMx calculated incorrectly: ", expCMx, actCMx, EPSILON);
 
-			expCMx = 0.006640945419;
+			expCMx = 0.006640920357;
 			Transition tr = (Transition) rkt.getChild(0).getChild(2);
 			actCMx = tr.getComponentCG().x;
 			assertEquals("P/L Transition CMx calculated incorrectly: ", expCMx, actCMx, EPSILON);
@@ -308,7 +308,7 @@ public class MassCalculatorTest extends BaseTestCase {
 		// ====== ====== ======
 		ParallelStage boosters = (ParallelStage) coreStage.getChild(0).getChild(0);
 		{
-			expCMx = 0.055710581052;
+			expCMx = 0.055700292959;
 			// think of the casts as an assert that ( child instanceof NoseCone) == true
 			NoseCone nose = (NoseCone) boosters.getChild(0);
 			actCMx = nose.getComponentCG().x;
@@ -351,7 +351,7 @@ public class MassCalculatorTest extends BaseTestCase {
 			// Component: Nose Cone			
 			final NoseCone payloadNose = (NoseCone) payloadStage.getChild(0);
 			assertEquals(payloadNose.getName() + " Rotational MOI calculated incorrectly: ", 3.508155e-5, payloadNose.getRotationalInertia(), EPSILON);
-			assertEquals(payloadNose.getName() + " Longitudinal MOI calculated incorrectly: ", 2.0400578477e-6, payloadNose.getLongitudinalInertia(), EPSILON);
+			assertEquals(payloadNose.getName() + " Longitudinal MOI calculated incorrectly: ", 2.0759315211e-6, payloadNose.getLongitudinalInertia(), EPSILON);
 
 			// Component: Payload BodyTube
 			final BodyTube payloadBody = (BodyTube) payloadStage.getChild(1);
@@ -466,8 +466,8 @@ public class MassCalculatorTest extends BaseTestCase {
 		final RigidBody actualStructureData = MassCalculator.calculateStructure(config);
 		final Coordinate actualCM = actualStructureData.cm;
 
-		double expMass = 0.1162869499;
-		double expCMx = 0.2780707857;
+		double expMass = 0.1162946938;
+		double expCMx = 0.2780526212;
 		assertEquals("Upper Stage Mass is incorrect: ", expMass, actualCM.weight, EPSILON);
 
 		assertEquals("Upper Stage CM.x is incorrect: ", expCMx, actualCM.x, EPSILON);
@@ -558,8 +558,8 @@ public class MassCalculatorTest extends BaseTestCase {
 		final RigidBody actualData = MassCalculator.calculateStructure(config);
 		final Coordinate actualCM = actualData.getCM();
 
-		double expMass = 0.608663395;
-		double expCMx = 1.073157592;
+		double expMass = 0.6086725293;
+		double expCMx = 1.073148831;
 		assertEquals("Heavy Booster Mass is incorrect: ", expMass, actualCM.weight, EPSILON);
 
 		assertEquals("Heavy Booster CM.x is incorrect: ", expCMx, actualCM.x, EPSILON);
@@ -578,11 +578,11 @@ public class MassCalculatorTest extends BaseTestCase {
 		RigidBody actualBoosterLaunchData = MassCalculator.calculateLaunch(config);
 
 		double actualMass = actualBoosterLaunchData.getMass();
-		double expectedMass = 1.592663395;
+		double expectedMass = 1.592672529;
 		assertEquals(" Booster Launch Mass is incorrect: ", expectedMass, actualMass, EPSILON);
 
 		final Coordinate actualCM = actualBoosterLaunchData.getCM();
-		double expectedCMx = 1.22216804;
+		double expectedCMx = 1.222163839;
 		Coordinate expCM = new Coordinate(expectedCMx, 0, 0, expectedMass);
 		assertEquals(" Booster Launch CM.x is incorrect: ", expCM.x, actualCM.x, EPSILON);
 		assertEquals(" Booster Launch CM.y is incorrect: ", expCM.y, actualCM.y, EPSILON);
@@ -602,8 +602,8 @@ public class MassCalculatorTest extends BaseTestCase {
 		RigidBody spentData = MassCalculator.calculateBurnout(config);
 		Coordinate spentCM = spentData.getCM();
 
-		double expSpentMass = 1.12066339;
-		double expSpentCMx = 1.18334714;
+		double expSpentMass = 1.120672529;
+		double expSpentCMx = 1.183341483;
 		Coordinate expLaunchCM = new Coordinate(expSpentCMx, 0, 0, expSpentMass);
 		assertEquals(" Booster Launch Mass is incorrect: ", expLaunchCM.weight, spentCM.weight, EPSILON);
 		assertEquals(" Booster Launch CM.x is incorrect: ", expLaunchCM.x, spentCM.x, EPSILON);
@@ -668,11 +668,11 @@ public class MassCalculatorTest extends BaseTestCase {
 
 		RigidBody spent = MassCalculator.calculateBurnout(config);
 
-		double expMOIRotational = 0.009205665421431532;
+		double expMOIRotational = 0.00920571978797499;
 		double boosterMOIRotational = spent.getRotationalInertia();
 		assertEquals(" Booster x-axis MOI is incorrect: ", expMOIRotational, boosterMOIRotational, EPSILON);
 
-		double expMOI_tr = 0.0582250994240395;
+		double expMOI_tr = 0.0582294955325305;
 		double boosterMOI_tr = spent.getLongitudinalInertia();
 		assertEquals(" Booster transverse MOI is incorrect: ", expMOI_tr, boosterMOI_tr, EPSILON);
 	}
@@ -688,9 +688,9 @@ public class MassCalculatorTest extends BaseTestCase {
 
 		RigidBody launchData = MassCalculator.calculateLaunch(config);
 
-		final double expIxx = 0.01226617242143153;
+		final double expIxx = 0.01226622678797499;
 		final double actIxx = launchData.getRotationalInertia();
-		final double expIyy = 0.06455356411879717;
+		final double expIyy = 0.06455846620192934;
 		final double actIyy = launchData.getLongitudinalInertia();
 
 		assertEquals(" Booster x-axis MOI is incorrect: ", expIxx, actIxx, EPSILON);
@@ -731,11 +731,11 @@ public class MassCalculatorTest extends BaseTestCase {
 		assertEquals(" Booster Launch CM is incorrect: ", expCM, boosterSetCM);
 
 		// Validate MOI
-		double expMOI_axial = 0.005885793421431532;
+		double expMOI_axial = 0.00588584778797499;
 		double boosterMOI_xx = burnout.getRotationalInertia();
 		assertEquals(" Booster x-axis MOI is incorrect: ", expMOI_axial, boosterMOI_xx, EPSILON);
 
-		double expMOI_tr =  14.815925423036177;
+		double expMOI_tr =  14.816202771481937;
 		double boosterMOI_tr = burnout.getLongitudinalInertia();
 		assertEquals(" Booster transverse MOI is incorrect: ", expMOI_tr, boosterMOI_tr, EPSILON);
 	}
@@ -777,7 +777,7 @@ public class MassCalculatorTest extends BaseTestCase {
 		double expTotalMass = 3.3565872;
 		assertEquals(" Booster Launch Mass is incorrect: ", expTotalMass, boosterData.getMass(), EPSILON);
 
-		double expCMx = 0.847508988;
+		double expCMx = 0.8475046359;
 		Coordinate expCM = new Coordinate(expCMx, 0, 0, expTotalMass);
 		assertEquals(" Booster Launch CM.x is incorrect: ", expCM.x, boosterCM.x, EPSILON);
 		assertEquals(" Booster Launch CM.y is incorrect: ", expCM.y, boosterCM.y, EPSILON);
@@ -785,11 +785,11 @@ public class MassCalculatorTest extends BaseTestCase {
 		assertEquals(" Booster Launch CM is incorrect: ", expCM, boosterCM);
 
 		// Validate MOI
-		double expMOI_axial = 0.024813612416088204;
+		double expMOI_axial = 0.02481337982582478;
 		double boosterMOI_xx = boosterData.getRotationalInertia();
 		assertEquals(" Booster x-axis MOI is incorrect: ", expMOI_axial, boosterMOI_xx, EPSILON);
 
-		double expMOI_tr =  0.34567788938578525;
+		double expMOI_tr =  0.3456875045488022;
 		double boosterMOI_tr = boosterData.getLongitudinalInertia();
 		assertEquals(" Booster transverse MOI is incorrect: ", expMOI_tr, boosterMOI_tr, EPSILON);
 	}
@@ -820,11 +820,11 @@ public class MassCalculatorTest extends BaseTestCase {
 
 		RigidBody structure = MassCalculator.calculateStructure(config);
 
-		final double expMass = 0.6086633952494;
+		final double expMass = 0.6086725292852;
 		double calcTotalMass = structure.getMass();
 		assertEquals(" Booster Launch Mass is incorrect: ", expMass, calcTotalMass, EPSILON);
 
-		final double expCMx = 1.1191303646;
+		final double expCMx = 1.119124135;
 		Coordinate expCM = new Coordinate(expCMx, 0, 0, expMass);
 		assertEquals(" Booster Launch CM.x is incorrect: ", expCM.x, structure.getCM().x, EPSILON);
 		assertEquals(" Booster Launch CM.y is incorrect: ", expCM.y, structure.getCM().y, EPSILON);
@@ -832,11 +832,11 @@ public class MassCalculatorTest extends BaseTestCase {
 		assertEquals(" Booster Launch CM is incorrect: ", expCM, structure.getCM());
 
 		// Validate MOI
-		final double expMOI_axial = 0.005885793421431532;
+		final double expMOI_axial = 0.00588584778797499;
 		double boosterMOI_xx = structure.getRotationalInertia();
 		assertEquals(" Booster x-axis MOI is incorrect: ", expMOI_axial, boosterMOI_xx, EPSILON);
 
-		final double expMOI_tr = 0.04098909591063;
+		final double expMOI_tr = 0.04099068954239;
 		double boosterMOI_tr = structure.getLongitudinalInertia();
 		assertEquals(" Booster transverse MOI is incorrect: ", expMOI_tr, boosterMOI_tr, EPSILON);
 	}
@@ -0,0 +1,152 @@
+package net.sf.openrocket.models.atmosphere;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import net.sf.openrocket.file.sounding.SoundingLoader;
+import net.sf.openrocket.models.wind.SoundingWindModel;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.RandomStream;
+
+import org.junit.Test;
+
+public class SoundingTest extends BaseTestCase {
+
+	private static final double EPS = 1e-9;
+
+	private static final String SOUNDING =
+			"# Test sounding\n" +
+					"Altitude, Temperature, Pressure, Speed, Direction\n" +
+					"1000, 280, 90000, 10, 90\n" +
+					"\n" +
+					"0; 288; 101325; 5; 0\n" +
+					"3000\t270\t70000\t20\t180\n";
+
+	private Sounding load(String data) throws IOException {
+		return new SoundingLoader().load(new StringReader(data), "test.txt");
+	}
+
+	@Test
+	public void testLoad() throws IOException {
+		Sounding sounding = load(SOUNDING);
+		assertEquals("test.txt", sounding.getName());
+		assertEquals(3, sounding.getLevelCount());
+		assertTrue(sounding.hasWind());
+		assertEquals(0, sounding.getAltitude(0), 0);
+		assertEquals(1000, sounding.getAltitude(1), 0);
+		assertEquals(3000, sounding.getAltitude(2), 0);
+		assertEquals(280, sounding.getTemperature(1), 0);
+		assertEquals(90000, sounding.getPressure(1), 0);
+		assertEquals(10, sounding.getWindSpeed(1), 0);
+		assertEquals(Math.PI / 2, sounding.getWindDirection(1), EPS);
+
+		Sounding noWind = load("0 288 101325\n1000 280 90000\n");
+		assertFalse(noWind.hasWind());
+		assertEquals(0, noWind.getWindX(500), 0);
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadMixedColumns() throws IOException {
+		load("0 288 101325 5 0\n1000 280 90000\n");
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadDuplicateAltitude() throws IOException {
+		load("0 288 101325\n0 280 90000\n");
+	}
+
+	@Test(expected = IOException.class)
+	public void testLoadIllegalNumber() throws IOException {
+		load("0 288 101325\n1000 abc 90000\n");
+	}
+
+	@Test
+	public void testAtmosphericModel() throws IOException {
+		Sounding sounding = load(SOUNDING);
+		SoundingAtmosphericModel model = new SoundingAtmosphericModel(sounding);
+
+		AtmosphericConditions c = model.getConditions(0);
+		assertEquals(288, c.getTemperature(), EPS);
+		assertEquals(101325, c.getPressure(), EPS);
+
+		model.getConditions(1000, c);
+		assertEquals(280, c.getTemperature(), EPS);
+		assertEquals(90000, c.getPressure(), 1e-6);
+
+		// Temperature linear, pressure exponential between the levels
+		model.getConditions(2000, c);
+		assertEquals(275, c.getTemperature(), EPS);
+		assertEquals(Math.sqrt(90000.0 * 70000.0), c.getPressure(), 1e-6);
+
+		// Isothermal above the sounding
+		model.getConditions(4000, c);
+		assertEquals(270, c.getTemperature(), EPS);
+		assertEquals(70000 * Math.exp(-1000 * 9.80665 / (AtmosphericConditions.R * 270)), c.getPressure(), 1e-6);
+
+		// Pressure increases below the sounding
+		model.getConditions(-100, c);
+		assertEquals(288, c.getTemperature(), EPS);
+		assertTrue(c.getPressure() > 101325);
+	}
+
+	@Test
+	public void testWindModel() throws IOException {
+		Sounding sounding = load(SOUNDING);
+		SoundingWindModel model = new SoundingWindModel(sounding, new RandomStream(0), 0);
+
+		// Wind from north, east and south
+		assertVelocity(0, 5, model.getWindVelocity(0, 0));
+		assertVelocity(10, 0, model.getWindVelocity(1, 1000));
+		assertVelocity(0, -20, model.getWindVelocity(2, 3000));
+		assertVelocity(0, -20, model.getWindVelocity(3, 10000));
+		assertVelocity(5, -10, model.getWindVelocity(4, 2000));
+
+		// Turbulence scales the wind without changing its direction
+		SoundingWindModel turbulent = new SoundingWindModel(sounding, new RandomStream(0), 0.5);
+		Coordinate c = turbulent.getWindVelocity(1.23, 1000);
+		assertEquals(0, c.y, EPS);
+		assertTrue(c.x != 10);
+
+		// Any change of the intensity changes the modification ID
+		assertEquals(model.getModID(), new SoundingWindModel(sounding, new RandomStream(1), 0).getModID());
+		assertTrue(model.getModID() != turbulent.getModID());
+		assertTrue(model.getModID() != new SoundingWindModel(sounding, new RandomStream(0), 0.0001).getModID());
+	}
+
+	private void assertVelocity(double x, double y, Coordinate c) {
+		assertEquals(x, c.x, EPS);
+		assertEquals(y, c.y, EPS);
+		assertEquals(0, c.z, 0);
+	}
+
+	@Test
+	public void testSimulationOptions() throws IOException {
+		Sounding sounding = load(SOUNDING);
+		SimulationOptions options = new SimulationOptions();
+		SimulationOptions copy = options.clone();
+		String description = options.getResultDescription(false);
+
+		options.setSounding(sounding);
+		assertTrue(options.toSimulationConditions().getAtmosphericModel() instanceof SoundingAtmosphericModel);
+		assertTrue(options.toSimulationConditions().getWindModel() instanceof SoundingWindModel);
+		assertNotEquals(copy, options);
+		assertNotEquals(description, options.getResultDescription(false));
+
+		copy.copyConditionsFrom(options);
+		assertEquals(sounding, copy.getSounding());
+		assertEquals(options, copy);
+		assertEquals(options.getResultDescription(false), copy.getResultDescription(false));
+
+		options.setSounding(null);
+		assertFalse(options.toSimulationConditions().getAtmosphericModel() instanceof SoundingAtmosphericModel);
+		assertEquals(description, options.getResultDescription(false));
+	}
+
+}
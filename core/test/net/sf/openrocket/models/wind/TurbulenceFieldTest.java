@@ -0,0 +1,98 @@
+package net.sf.openrocket.models.wind;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.PinkNoise;
+import net.sf.openrocket.util.RandomStream;
+
+import org.junit.Test;
+
+public class TurbulenceFieldTest {
+
+	@Test
+	public void testRandomAccess() {
+		TurbulenceField sequential = new TurbulenceField(new RandomStream(5));
+		double[] values = new double[2000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = sequential.getValue(i * 0.037, 0);
+		}
+
+		// The values do not depend on the order of evaluation or on the instance
+		TurbulenceField reversed = new TurbulenceField(new RandomStream(5));
+		for (int i = values.length - 1; i >= 0; i--) {
+			assertEquals(values[i], reversed.getValue(i * 0.037, 0), 0);
+		}
+		assertEquals(values[1000], sequential.getValue(1000 * 0.037, 0), 0);
+		assertTrue(values[1000] != new TurbulenceField(new RandomStream(6)).getValue(1000 * 0.037, 0));
+	}
+
+	@Test
+	public void testContinuity() {
+		// Continuous between samples and across block boundaries
+		TurbulenceField field = new TurbulenceField(new RandomStream(5));
+		double max = 0;
+		for (double t = 0; t < 100; t += 0.001) {
+			max = Math.max(max, Math.abs(field.getValue(t + 0.001, 0) - field.getValue(t, 0)));
+		}
+		assertTrue("Maximum change " + max, max < 0.1);
+	}
+
+	@Test
+	public void testStatistics() {
+		// Same standard deviation and sample correlation as the sequential pink noise
+		TurbulenceField field = new TurbulenceField(new RandomStream(11));
+		PinkNoise noise = new PinkNoise(5.0 / 3.0, 2, new Random(11));
+		int n = 200000;
+		double sum = 0, sum2 = 0, prod = 0;
+		double nsum2 = 0, nprod = 0;
+		double previous = 0, nprevious = 0;
+		for (int i = 0; i < n; i++) {
+			double v = field.getValue(i * TurbulenceField.DELTA_T, 0);
+			double w = noise.nextValue() / 2.252;
+			sum += v;
+			sum2 += v * v;
+			prod += v * previous;
+			nsum2 += w * w;
+			nprod += w * nprevious;
+			previous = v;
+			nprevious = w;
+		}
+		assertEquals(0, sum / n, 0.1);
+		assertEquals(Math.sqrt(nsum2 / n), Math.sqrt(sum2 / n), 0.05);
+		assertEquals(nprod / nsum2, prod / sum2, 0.01);
+	}
+
+	@Test
+	public void testAltitude() {
+		TurbulenceField field = new TurbulenceField(new RandomStream(3), 100);
+		assertEquals(100, field.getLayerThickness(), 0);
+		assertEquals(field.getValue(12.3, 150), new TurbulenceField(new RandomStream(3), 100).getValue(12.3, 150), 0);
+		assertTrue(field.getValue(12.3, 0) != field.getValue(12.3, 1000));
+		assertEquals(field.getValue(12.3, 199.999), field.getValue(12.3, 200), 1e-3);
+
+		// Independent of the altitude without layers
+		TurbulenceField uniform = new TurbulenceField(new RandomStream(3));
+		assertEquals(0, uniform.getLayerThickness(), 0);
+		assertEquals(uniform.getValue(12.3, 0), uniform.getValue(12.3, 1000), 0);
+	}
+
+	@Test
+	public void testPinkNoiseWindModel() {
+		PinkNoiseWindModel model = new PinkNoiseWindModel(1);
+		model.setAverage(5);
+		model.setStandardDeviation(1);
+		Coordinate late = model.getWindVelocity(30, 0);
+		Coordinate early = model.getWindVelocity(2, 0);
+
+		PinkNoiseWindModel other = new PinkNoiseWindModel(1);
+		other.setAverage(5);
+		other.setStandardDeviation(1);
+		assertEquals(early, other.getWindVelocity(2, 0));
+		assertEquals(late, other.getWindVelocity(30, 0));
+	}
+
+}
@@ -0,0 +1,216 @@
+package net.sf.openrocket.optimization.sweep;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.optimization.general.OptimizationException;
+import net.sf.openrocket.optimization.general.Point;
+import net.sf.openrocket.optimization.rocketoptimization.OptimizableParameter;
+import net.sf.openrocket.optimization.rocketoptimization.SimulationModifier;
+import net.sf.openrocket.optimization.rocketoptimization.modifiers.AbstractSimulationModifier;
+import net.sf.openrocket.optimization.rocketoptimization.modifiers.GenericComponentModifier;
+import net.sf.openrocket.optimization.rocketoptimization.parameters.MaximumAltitudeParameter;
+import net.sf.openrocket.optimization.rocketoptimization.parameters.StabilityParameter;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.FlightConfigurationId;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.TestRockets;
+
+public class ParameterSweepTest {
+
+	@BeforeClass
+	public static void setup() throws Exception {
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+	}
+
+	@Test
+	public void testGrid() {
+		List<Point> points = new GridSamplingPlan(3, 1).getPoints(2);
+		assertEquals(Arrays.asList(new Point(0.0, 0.5), new Point(0.5, 0.5), new Point(1.0, 0.5)), points);
+
+		points = new GridSamplingPlan(2).getPoints(3);
+		assertEquals(8, points.size());
+		assertEquals(new Point(0, 0, 0), points.get(0));
+		assertEquals(new Point(0, 0, 1), points.get(1));
+		assertEquals(new Point(1, 1, 1), points.get(7));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testGridDimensionMismatch() {
+		new GridSamplingPlan(3, 3).getPoints(3);
+	}
+
+	@Test
+	public void testLatinHypercube() {
+		int n = 10;
+		List<Point> points = new LatinHypercubeSamplingPlan(n, 42).getPoints(3);
+		assertEquals(n, points.size());
+		for (int d = 0; d < 3; d++) {
+			boolean[] strata = new boolean[n];
+			for (Point p : points) {
+				int s = (int) (p.get(d) * n);
+				assertTrue(p.get(d) >= 0 && p.get(d) < 1);
+				assertTrue("Two samples in interval " + s, !strata[s]);
+				strata[s] = true;
+			}
+		}
+		assertEquals(points, new LatinHypercubeSamplingPlan(n, 42).getPoints(3));
+		assertTrue(!points.equals(new LatinHypercubeSamplingPlan(n, 43).getPoints(3)));
+	}
+
+	@Test
+	public void testSweep() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		simulation.getOptions().setRandomSeed(1);
+		simulation.getOptions().setWindSpeedDeviation(0);
+		BodyTube tube = null;
+		for (RocketComponent c : rocket) {
+			if (c instanceof BodyTube) {
+				tube = (BodyTube) c;
+			}
+		}
+		double length = tube.getLength();
+
+		SimulationModifier modifier = new GenericComponentModifier("Length", "Body tube length", tube,
+				UnitGroup.UNITS_LENGTH, 1.0, BodyTube.class, tube.getID(), "Length");
+		modifier.setMinValue(0.1);
+		modifier.setMaxValue(0.3);
+		ParameterSweep sweep = new ParameterSweep(simulation, new SimulationModifier[] { modifier },
+				new OptimizableParameter[] { new StabilityParameter(true), new MaximumAltitudeParameter() });
+		sweep.setFlightConfigurations(Arrays.asList(TestRockets.TEST_FCID_1, TestRockets.TEST_FCID_2));
+		sweep.setThreadCount(3);
+
+		final List<SweepResult> results = new ArrayList<SweepResult>();
+		StringWriter csv = new StringWriter();
+		final SweepCsvWriter writer = new SweepCsvWriter(sweep, new PrintWriter(csv));
+		sweep.run(new GridSamplingPlan(3), new SweepListener() {
+			@Override
+			public void evaluated(SweepResult result) {
+				results.add(result);
+				writer.evaluated(result);
+			}
+		});
+
+		assertEquals(6, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			SweepResult r = results.get(i);
+			assertEquals(i, r.getIndex());
+			assertNull(r.getError());
+			assertEquals(i % 2 == 0 ? TestRockets.TEST_FCID_1 : TestRockets.TEST_FCID_2, r.getFlightConfigurationId());
+			assertEquals(0.1 + 0.1 * (i / 2), r.getModifierValues()[0], 1e-9);
+			assertTrue(r.getParameterValues()[1] > 10);
+		}
+		// A longer body tube moves the CG forward more than the CP
+		assertTrue(results.get(4).getParameterValues()[0] > results.get(0).getParameterValues()[0]);
+		// The motors of the configurations differ
+		assertTrue(Math.abs(results.get(1).getParameterValues()[1] - results.get(0).getParameterValues()[1]) > 1);
+
+		// The base simulation is not modified
+		assertEquals(length, tube.getLength(), 0);
+
+		String[] lines = csv.toString().split("\r?\n");
+		assertEquals(7, lines.length);
+		assertTrue(lines[0], lines[0].startsWith("Point,Flight configuration,"));
+		assertTrue(lines[0], lines[0].endsWith(",Error"));
+		assertTrue(lines[1], lines[1].startsWith("0,"));
+	}
+
+	@Test
+	public void testFailingPoint() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		SimulationModifier failing = new AbstractSimulationModifier("Test", "Fails above 0.5", rocket, UnitGroup.UNITS_NONE) {
+			@Override
+			public double getCurrentSIValue(Simulation s) {
+				return 0;
+			}
+
+			@Override
+			public void modify(Simulation s, double scaledValue) throws OptimizationException {
+				if (scaledValue > 0.5) {
+					throw new OptimizationException("Value too large");
+				}
+			}
+		};
+		ParameterSweep sweep = new ParameterSweep(simulation, new SimulationModifier[] { failing },
+				new OptimizableParameter[] { new StabilityParameter(false) });
+
+		final List<SweepResult> results = new ArrayList<SweepResult>();
+		sweep.run(Arrays.asList(new Point(0.0), new Point(1.0)), new SweepListener() {
+			@Override
+			public void evaluated(SweepResult result) {
+				results.add(result);
+			}
+		});
+		assertEquals(2, results.size());
+		assertNull(results.get(0).getError());
+		assertTrue(!Double.isNaN(results.get(0).getParameterValues()[0]));
+		assertNotNull(results.get(1).getError());
+		assertTrue(Double.isNaN(results.get(1).getParameterValues()[0]));
+	}
+
+	@Test
+	public void testInitializeConfigurations() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		final Set<FlightConfigurationId> initialized = Collections.synchronizedSet(new HashSet<FlightConfigurationId>());
+		SimulationModifier modifier = new AbstractSimulationModifier("Test", "Records initialization", rocket, UnitGroup.UNITS_NONE) {
+			@Override
+			public void initialize(Simulation s) {
+				initialized.add(s.getId());
+			}
+
+			@Override
+			public double getCurrentSIValue(Simulation s) {
+				return 0;
+			}
+
+			@Override
+			public void modify(Simulation s, double scaledValue) throws OptimizationException {
+				// Configuration specific values must have been initialized
+				if (!initialized.contains(s.getId())) {
+					throw new OptimizationException("Not initialized");
+				}
+			}
+		};
+		ParameterSweep sweep = new ParameterSweep(simulation, new SimulationModifier[] { modifier },
+				new OptimizableParameter[] { new StabilityParameter(false) });
+		sweep.setFlightConfigurations(Arrays.asList(TestRockets.TEST_FCID_1, TestRockets.TEST_FCID_2));
+
+		final List<SweepResult> results = new ArrayList<SweepResult>();
+		sweep.run(Arrays.asList(new Point(0.0), new Point(1.0)), new SweepListener() {
+			@Override
+			public void evaluated(SweepResult result) {
+				results.add(result);
+			}
+		});
+		assertEquals(4, results.size());
+		for (SweepResult r : results) {
+			assertNull(r.getError());
+		}
+		assertEquals(new HashSet<FlightConfigurationId>(Arrays.asList(TestRockets.TEST_FCID_1, TestRockets.TEST_FCID_2)),
+				initialized);
+	}
+}
@@ -0,0 +1,85 @@
+package net.sf.openrocket.plugin;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AnnotationFinderImplTest {
+
+	private File dir;
+
+	@Before
+	public void createDirectory() throws IOException {
+		dir = Files.createTempDirectory("annotationfinder").toFile();
+	}
+
+	@After
+	public void deleteDirectory() {
+		delete(dir);
+	}
+
+	@Test
+	public void testIndexedPlugins() throws Exception {
+		File core = new File(dir, "core.jar");
+		writeJar(core, "plugins",
+				"# OpenRocket plugin index",
+				ExamplePlugin.class.getName(),
+				"",
+				ExamplePluginImpl.class.getName());
+
+		// Stale entries and classes that are not plugins are ignored
+		File swing = new File(dir, "swing.jar");
+		writeJar(swing, "swing",
+				MultiPluginImpl.class.getName(),
+				NotAnExamplePluginImpl.class.getName(),
+				"net.sf.openrocket.plugin.RemovedPlugin");
+
+		// Directories are indexed the same way, duplicate entries are reported once
+		File classes = new File(dir, "classes");
+		File index = new File(classes, PluginIndexProcessor.INDEX_DIRECTORY + "extra" + PluginIndexProcessor.INDEX_EXTENSION);
+		index.getParentFile().mkdirs();
+		Files.write(index.toPath(), Arrays.asList(Example2Plugin.class.getName(), ExamplePluginImpl.class.getName()),
+				StandardCharsets.UTF_8);
+
+		List<Class<?>> found = new AnnotationFinderImpl().findAnnotatedTypes(Plugin.class, Arrays.asList(core, swing, classes));
+		assertEquals(4, found.size());
+		assertEquals(new HashSet<Class<?>>(Arrays.<Class<?>> asList(ExamplePlugin.class, ExamplePluginImpl.class,
+				MultiPluginImpl.class, Example2Plugin.class)), new HashSet<Class<?>>(found));
+	}
+
+	private static void writeJar(File file, String indexName, String... lines) throws IOException {
+		JarOutputStream out = new JarOutputStream(new FileOutputStream(file));
+		try {
+			out.putNextEntry(new JarEntry(PluginIndexProcessor.INDEX_DIRECTORY + indexName +
+					PluginIndexProcessor.INDEX_EXTENSION));
+			for (String line : lines) {
+				out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+			}
+		} finally {
+			out.close();
+		}
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		f.delete();
+	}
+}
@@ -0,0 +1,135 @@
+package net.sf.openrocket.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PluginIndexProcessorTest {
+
+	private File dir;
+
+	@Before
+	public void createDirectory() throws IOException {
+		dir = Files.createTempDirectory("pluginindex").toFile();
+	}
+
+	@After
+	public void deleteDirectory() {
+		delete(dir);
+	}
+
+	@Test
+	public void testWriteIndex() throws Exception {
+		File classes = new File(dir, "classes");
+		compile(classes, "test.IndexedPlugin",
+				"package test;\n" +
+						"@net.sf.openrocket.plugin.Plugin\n" +
+						"public class IndexedPlugin {\n" +
+						"	public static class NotAPlugin {}\n" +
+						"	@net.sf.openrocket.plugin.Plugin\n" +
+						"	public interface NestedPlugin {}\n" +
+						"}\n");
+
+		List<String> entries = readIndex(classes, PluginIndexProcessor.DEFAULT_INDEX_NAME);
+		assertEquals(Arrays.asList("test.IndexedPlugin", "test.IndexedPlugin$NestedPlugin"), entries);
+
+		// Incremental compilation keeps the entries of the classes that were not recompiled
+		compile(classes, "test.OtherPlugin",
+				"package test;\n" +
+						"@net.sf.openrocket.plugin.Plugin\n" +
+						"public class OtherPlugin {}\n");
+		entries = readIndex(classes, PluginIndexProcessor.DEFAULT_INDEX_NAME);
+		assertEquals(Arrays.asList("test.IndexedPlugin", "test.IndexedPlugin$NestedPlugin", "test.OtherPlugin"), entries);
+	}
+
+	@Test
+	public void testIndexName() throws Exception {
+		File classes = new File(dir, "classes");
+		compile(classes, "test.NamedPlugin",
+				"package test;\n" +
+						"@net.sf.openrocket.plugin.Plugin\n" +
+						"public class NamedPlugin {}\n",
+				"-A" + PluginIndexProcessor.INDEX_NAME_OPTION + "=named");
+
+		assertEquals(Arrays.asList("test.NamedPlugin"), readIndex(classes, "named"));
+		assertFalse(new File(classes, PluginIndexProcessor.INDEX_DIRECTORY + PluginIndexProcessor.DEFAULT_INDEX_NAME +
+				PluginIndexProcessor.INDEX_EXTENSION).exists());
+	}
+
+	@Test
+	public void testNoPlugins() throws Exception {
+		File classes = new File(dir, "classes");
+		compile(classes, "test.NotAPlugin",
+				"package test;\n" +
+						"public class NotAPlugin {}\n");
+
+		assertFalse(new File(classes, PluginIndexProcessor.INDEX_DIRECTORY).exists());
+	}
+
+	/**
+	 * Compile a single source file with the plugin index processor.
+	 */
+	private void compile(File classes, String className, String source, String... extraOptions) throws Exception {
+		File sources = new File(dir, "src");
+		File file = new File(sources, className.replace('.', File.separatorChar) + ".java");
+		file.getParentFile().mkdirs();
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+		classes.mkdirs();
+
+		JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+		assertNotNull("No system Java compiler", compiler);
+		StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+		try {
+			File classPath = new File(Plugin.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			List<String> options = new ArrayList<String>();
+			options.addAll(Arrays.asList("-classpath", classPath.getPath(), "-d", classes.getPath()));
+			options.addAll(Arrays.asList(extraOptions));
+			Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjects(file);
+			JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, null, options, null, units);
+			task.setProcessors(Arrays.asList(new PluginIndexProcessor()));
+			assertTrue("Compilation of " + className + " failed", task.call());
+		} finally {
+			fileManager.close();
+		}
+	}
+
+	private static List<String> readIndex(File classes, String name) throws IOException {
+		File index = new File(classes, PluginIndexProcessor.INDEX_DIRECTORY + name + PluginIndexProcessor.INDEX_EXTENSION);
+		assertTrue("Missing index " + index, index.isFile());
+		List<String> entries = new ArrayList<String>();
+		for (String line : Files.readAllLines(index.toPath(), StandardCharsets.UTF_8)) {
+			if (!line.startsWith("#")) {
+				entries.add(line);
+			}
+		}
+		return entries;
+	}
+
+	private static void delete(File f) {
+		File[] children = f.listFiles();
+		if (children != null) {
+			for (File child : children) {
+				delete(child);
+			}
+		}
+		f.delete();
+	}
+}
@@ -0,0 +1,187 @@
+package net.sf.openrocket.preset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import net.sf.openrocket.database.ComponentPresetDatabase;
+import net.sf.openrocket.material.Material;
+import net.sf.openrocket.motor.Manufacturer;
+import net.sf.openrocket.rocketcomponent.Transition;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+import org.junit.Test;
+
+public class BinaryPresetReaderTest extends BaseTestCase {
+
+	private static ComponentPreset bodyTube(String partNo, double length) throws InvalidComponentPresetException {
+		TypedPropertyMap props = new TypedPropertyMap();
+		props.put(ComponentPreset.TYPE, ComponentPreset.Type.BODY_TUBE);
+		props.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer("Estes"));
+		props.put(ComponentPreset.PARTNO, partNo);
+		props.put(ComponentPreset.DESCRIPTION, "Body tube " + partNo);
+		props.put(ComponentPreset.OUTER_DIAMETER, 0.025);
+		props.put(ComponentPreset.INNER_DIAMETER, 0.024);
+		props.put(ComponentPreset.LENGTH, length);
+		props.put(ComponentPreset.MATERIAL, Material.newMaterial(Material.Type.BULK, "Cardboard", 680, false));
+		return ComponentPresetFactory.create(props);
+	}
+
+	private static ComponentPreset noseCone(String partNo) throws InvalidComponentPresetException {
+		TypedPropertyMap props = new TypedPropertyMap();
+		props.put(ComponentPreset.TYPE, ComponentPreset.Type.NOSE_CONE);
+		props.put(ComponentPreset.MANUFACTURER, Manufacturer.getManufacturer("Quest"));
+		props.put(ComponentPreset.PARTNO, partNo);
+		props.put(ComponentPreset.SHAPE, Transition.Shape.OGIVE);
+		props.put(ComponentPreset.AFT_OUTER_DIAMETER, 0.025);
+		props.put(ComponentPreset.AFT_SHOULDER_DIAMETER, 0.024);
+		props.put(ComponentPreset.AFT_SHOULDER_LENGTH, 0.02);
+		props.put(ComponentPreset.LENGTH, 0.1);
+		props.put(ComponentPreset.FILLED, true);
+		props.put(ComponentPreset.MASS, 0.015);
+		props.put(ComponentPreset.IMAGE, new byte[] { 1, 2, 3 });
+		return ComponentPresetFactory.create(props);
+	}
+
+	private static byte[] write(List<ComponentPreset> presets) throws IOException {
+		ByteArrayOutputStream bos = new ByteArrayOutputStream();
+		new BinaryPresetWriter().save(bos, presets);
+		return bos.toByteArray();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		List<ComponentPreset> presets = Arrays.asList(bodyTube("BT-20", 0.3), noseCone("NC-20"), bodyTube("BT-5", 0.2));
+		BinaryPresetReader reader = new BinaryPresetReader(new ByteArrayInputStream(write(presets)), "test");
+
+		assertEquals(2, reader.getTypes().size());
+		assertEquals(2, reader.getPresetCount(ComponentPreset.Type.BODY_TUBE));
+		assertEquals(1, reader.getPresetCount(ComponentPreset.Type.NOSE_CONE));
+		assertEquals(0, reader.getPresetCount(ComponentPreset.Type.PARACHUTE));
+
+		List<ComponentPreset> tubes = reader.read(ComponentPreset.Type.BODY_TUBE);
+		assertEquals(Arrays.asList(presets.get(0), presets.get(2)), tubes);
+		assertEquals(0.3, tubes.get(0).get(ComponentPreset.LENGTH), 0);
+		assertEquals("Cardboard", tubes.get(0).get(ComponentPreset.MATERIAL).getName());
+		assertEquals(680, tubes.get(0).get(ComponentPreset.MATERIAL).getDensity(), 0);
+
+		ComponentPreset cone = reader.read(ComponentPreset.Type.NOSE_CONE).get(0);
+		assertEquals(presets.get(1), cone);
+		assertEquals(Transition.Shape.OGIVE, cone.get(ComponentPreset.SHAPE));
+		assertEquals(Boolean.TRUE, cone.get(ComponentPreset.FILLED));
+		assertTrue(Arrays.equals(new byte[] { 1, 2, 3 }, cone.get(ComponentPreset.IMAGE)));
+
+		// Digest must match a freshly computed one
+		String digest = cone.getDigest();
+		cone.computeDigest();
+		assertEquals(digest, cone.getDigest());
+	}
+
+	@Test
+	public void testInvalidFile() throws Exception {
+		try {
+			new BinaryPresetReader(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }), "test");
+			fail("Expected IOException");
+		} catch (IOException expected) {
+		}
+
+		byte[] data = write(Arrays.asList(bodyTube("BT-20", 0.3)));
+		try {
+			new BinaryPresetReader(new ByteArrayInputStream(Arrays.copyOf(data, data.length - 1)), "test");
+			fail("Expected IOException");
+		} catch (IOException expected) {
+		}
+	}
+
+	@Test
+	public void testLazyDatabase() throws Exception {
+		List<ComponentPreset> presets = Arrays.asList(bodyTube("BT-20", 0.3), noseCone("NC-20"));
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		db.insert(bodyTube("BT-50", 0.5));
+		db.addPresetReader(new BinaryPresetReader(new ByteArrayInputStream(write(presets)), "test"));
+
+		assertEquals(2, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+		assertEquals(1, db.listForType(ComponentPreset.Type.NOSE_CONE).size());
+		assertEquals(3, db.size());
+		assertEquals(1, db.find("Estes", "BT-20").size());
+
+		// Decoded presets keep the natural order of the database
+		List<ComponentPreset> sorted = new ArrayList<ComponentPreset>(db.listAll());
+		Collections.sort(sorted);
+		assertEquals(sorted, db.listAll());
+
+		// Adding the same database again must not duplicate presets
+		db.addPresetReader(new BinaryPresetReader(new ByteArrayInputStream(write(presets)), "test"));
+		assertEquals(3, db.listAll().size());
+	}
+
+	@Test
+	public void testAddKeepsPendingTypes() throws Exception {
+		List<ComponentPreset> presets = Arrays.asList(bodyTube("BT-20", 0.3), noseCone("NC-20"));
+		final Set<ComponentPreset.Type> decoded = EnumSet.noneOf(ComponentPreset.Type.class);
+		ComponentPresetDatabase db = new ComponentPresetDatabase();
+		db.addPresetReader(new BinaryPresetReader(new ByteArrayInputStream(write(presets)), "test") {
+			@Override
+			public List<ComponentPreset> read(ComponentPreset.Type type) throws IOException {
+				decoded.add(type);
+				return super.read(type);
+			}
+		});
+
+		// User presets are added after the system presets are registered
+		db.addAll(Arrays.asList(bodyTube("BT-50", 0.5), bodyTube("BT-20", 0.3)));
+		assertEquals(EnumSet.noneOf(ComponentPreset.Type.class), decoded);
+
+		assertEquals(2, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+		assertEquals(EnumSet.of(ComponentPreset.Type.BODY_TUBE), decoded);
+		assertEquals(1, db.listForType(ComponentPreset.Type.NOSE_CONE).size());
+		assertEquals(EnumSet.of(ComponentPreset.Type.BODY_TUBE, ComponentPreset.Type.NOSE_CONE), decoded);
+	}
+
+	@Test
+	public void testConcurrentDecoding() throws Exception {
+		List<ComponentPreset> presets = new ArrayList<ComponentPreset>();
+		for (int i = 0; i < 500; i++) {
+			presets.add(bodyTube("BT-" + i, 0.3));
+			presets.add(noseCone("NC-" + i));
+		}
+		byte[] data = write(presets);
+
+		for (int round = 0; round < 10; round++) {
+			final ComponentPresetDatabase db = new ComponentPresetDatabase();
+			db.addPresetReader(new BinaryPresetReader(new ByteArrayInputStream(data), "test"));
+			assertEquals(500, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+
+			// Decode the nose cones while body tubes are being listed
+			final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+			Thread decoder = new Thread() {
+				@Override
+				public void run() {
+					try {
+						db.listForType(ComponentPreset.Type.NOSE_CONE);
+					} catch (Throwable t) {
+						errors.add(t);
+					}
+				}
+			};
+			decoder.start();
+			while (decoder.isAlive()) {
+				assertEquals(500, db.listForType(ComponentPreset.Type.BODY_TUBE).size());
+			}
+			decoder.join();
+			assertEquals(Collections.<Throwable> emptyList(), errors);
+			assertEquals(1000, db.size());
+		}
+	}
+
+}
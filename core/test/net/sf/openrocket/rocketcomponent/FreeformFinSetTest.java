@@ -1216,7 +1216,7 @@ public class FreeformFinSetTest extends BaseTestCase {
 		WarningSet warnings = new WarningSet();
 		calc.calculateNonaxialForces(conditions, transform, forces, warnings);
 		//System.out.println(forces);
-		assertEquals(0.023409, forces.getCP().x, 0.0001);
+		assertEquals(0.023582, forces.getCP().x, 0.0001);
 	}
 
 	@Test
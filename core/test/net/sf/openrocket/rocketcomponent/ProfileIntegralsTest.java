@@ -0,0 +1,76 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+
+public class ProfileIntegralsTest extends BaseTestCase {
+
+	@Test
+	public void testConeExact() {
+		final double r = 0.03;
+		final double l = 0.2;
+		NoseCone nose = new NoseCone(Transition.Shape.CONICAL, l, r);
+		nose.setFilled(true);
+
+		assertEquals(Math.PI * r * r * l / 3, nose.getComponentVolume(), 1e-15);
+		assertEquals(0.75 * l, nose.getComponentCG().x, 1e-12);
+		assertEquals(Math.PI * r * Math.hypot(r, l), nose.getComponentWetArea(), 1e-14);
+		assertEquals(r * l, nose.getComponentPlanformArea(), 1e-15);
+		assertEquals(2 * l / 3, nose.getComponentPlanformCenter(), 1e-12);
+		assertEquals(0.3 * r * r, nose.getRotationalUnitInertia(), 1e-12 * r * r);
+		assertEquals(3 * r * r / 20 + 3 * l * l / 80, nose.getLongitudinalUnitInertia(), 1e-12 * l * l);
+	}
+
+	@Test
+	public void testTubeExact() {
+		BodyTube tube = new BodyTube(0.3, 0.025, 0.001);
+		assertEquals(2 * Math.PI * 0.025 * 0.3, tube.getComponentWetArea(), 1e-15);
+		assertEquals(0.05 * 0.3, tube.getComponentPlanformArea(), 1e-15);
+
+		// Thick-walled cylinder
+		final double outer = 0.025;
+		final double inner = 0.024;
+		assertEquals((outer * outer + inner * inner) / 2, tube.getRotationalUnitInertia(), 1e-15);
+		assertEquals((3 * (outer * outer + inner * inner) + 0.3 * 0.3) / 12, tube.getLongitudinalUnitInertia(), 1e-15);
+	}
+
+	@Test
+	public void testEllipsoid() {
+		final double r = 0.03;
+		final double l = 0.2;
+		NoseCone nose = new NoseCone(Transition.Shape.ELLIPSOID, l, r);
+		nose.setFilled(true);
+
+		// Half of a prolate spheroid
+		final double volume = 2 * Math.PI * r * r * l / 3;
+		final double e = Math.sqrt(1 - r * r / (l * l));
+		final double area = Math.PI * r * r * (1 + l / (r * e) * Math.asin(e));
+		assertEquals(volume, nose.getComponentVolume(), 1e-5 * volume);
+		assertEquals(5 * l / 8, nose.getComponentCG().x, 1e-5 * l);
+		assertEquals(area, nose.getComponentWetArea(), 1e-5 * area);
+		assertEquals(Math.PI * r * l / 2, nose.getComponentPlanformArea(), 1e-5 * r * l);
+	}
+
+	@Test
+	public void testSharedIntegrals() {
+		NoseCone n1 = new NoseCone(Transition.Shape.OGIVE, 0.15, 0.025);
+		NoseCone n2 = new NoseCone(Transition.Shape.OGIVE, 0.15, 0.025);
+		Transition t = new Transition();
+		assertTrue(ProfileIntegrals.get(n1) == ProfileIntegrals.get(n2));
+		assertFalse(ProfileIntegrals.get(n1) == ProfileIntegrals.get(t));
+
+		n2.setThickness(0.003);
+		assertFalse(ProfileIntegrals.get(n1) == ProfileIntegrals.get(n2));
+		assertTrue(n1.getComponentVolume() < n2.getComponentVolume());
+		assertEquals(n1.getComponentWetArea(), n2.getComponentWetArea(), 1e-5 * n1.getComponentWetArea());
+
+		n2.setThickness(n1.getThickness());
+		n2.setShapeParameter(0.5);
+		assertFalse(ProfileIntegrals.get(n1) == ProfileIntegrals.get(n2));
+	}
+}
@@ -0,0 +1,171 @@
+package net.sf.openrocket.rocketcomponent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+public class RocketSnapshotTest extends BaseTestCase {
+	private static final double EPSILON = 1e-10;
+
+	@Test
+	public void testSharedComponents() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		rocket.enableEvents();
+		BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		double length = body.getLength();
+
+		RocketSnapshot s1 = RocketSnapshot.create(rocket, null);
+		assertEquals(count(rocket), s1.getCopiedComponentCount());
+
+		// Unchanged rocket copies only the rocket itself
+		assertEquals(1, RocketSnapshot.create(rocket, s1).getCopiedComponentCount());
+
+		// Modified component and rocket
+		body.setLength(length + 0.1);
+		RocketSnapshot s2 = RocketSnapshot.create(rocket, s1);
+		assertEquals(2, s2.getCopiedComponentCount());
+
+		// Tree change copies the parent and the new component
+		MassComponent mass = new MassComponent();
+		body.addChild(mass);
+		RocketSnapshot s3 = RocketSnapshot.create(rocket, s2);
+		assertEquals(3, s3.getCopiedComponentCount());
+		assertEquals(s3.getModID(), rocket.getModID());
+
+		Rocket r1 = s1.toRocket();
+		Rocket r2 = s2.toRocket();
+		Rocket r3 = s3.toRocket();
+		assertEquals(length, r1.findComponent(body.getID()).getLength(), EPSILON);
+		assertEquals(length + 0.1, r2.findComponent(body.getID()).getLength(), EPSILON);
+		assertNull(r2.findComponent(mass.getID()));
+		assertTrue(r3.findComponent(mass.getID()).getParent() == r3.findComponent(body.getID()));
+		assertEquals(count(rocket), count(r3));
+		assertEquals(rocket.getStageCount(), r3.getStageCount());
+
+		// Restored copies are independent of the snapshot
+		((BodyTube) r1.findComponent(body.getID())).setLength(1.0);
+		assertEquals(length, s1.toRocket().findComponent(body.getID()).getLength(), EPSILON);
+	}
+
+	@Test
+	public void testRocketChangeCopiesAll() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		rocket.enableEvents();
+		RocketSnapshot s1 = RocketSnapshot.create(rocket, null);
+
+		rocket.fireComponentChangeEvent(ComponentChangeEvent.NONFUNCTIONAL_CHANGE);
+		assertEquals(count(rocket), RocketSnapshot.create(rocket, s1).getCopiedComponentCount());
+	}
+
+	@Test
+	public void testFrozenChanges() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		rocket.enableEvents();
+		RocketComponent nose = rocket.getChild(0).getChild(0);
+		RocketComponent body = rocket.getChild(0).getChild(1);
+		RocketSnapshot s1 = RocketSnapshot.create(rocket, null);
+
+		// Only the last source is reported by thaw, but all changes are recorded
+		rocket.freeze();
+		nose.setName("Nose");
+		body.setName("Body");
+		rocket.thaw();
+
+		RocketSnapshot s2 = RocketSnapshot.create(rocket, s1);
+		assertEquals(3, s2.getCopiedComponentCount());
+		assertEquals("Nose", s2.toRocket().findComponent(nose.getID()).getName());
+	}
+
+	@Test
+	public void testDisabledEvents() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		rocket.enableEvents();
+		RocketComponent nose = rocket.getChild(0).getChild(0);
+		RocketSnapshot s1 = RocketSnapshot.create(rocket, null);
+
+		rocket.enableEvents(false);
+		nose.setName("Nose");
+		RocketSnapshot s2 = RocketSnapshot.create(rocket, s1);
+		assertEquals(2, s2.getCopiedComponentCount());
+		assertEquals("Nose", s2.toRocket().findComponent(nose.getID()).getName());
+	}
+
+	@Test
+	public void testDetachedChanges() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		rocket.enableEvents();
+		RocketComponent body = rocket.getChild(0).getChild(1);
+		MassComponent mass = new MassComponent();
+		body.addChild(mass);
+		RocketSnapshot s1 = RocketSnapshot.create(rocket, null);
+
+		// The component is changed while it is not attached to the rocket
+		body.removeChild(mass);
+		mass.setName("Mass");
+		body.addChild(mass);
+
+		RocketSnapshot s2 = RocketSnapshot.create(rocket, s1);
+		assertEquals("Mass", s2.toRocket().findComponent(mass.getID()).getName());
+	}
+
+	@Test
+	public void testDocumentUndoRedo() {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument document = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		rocket.enableEvents();
+		document.clearUndo();
+
+		String bodyID = rocket.getChild(0).getChild(1).getID();
+		double length = rocket.findComponent(bodyID).getLength();
+		int components = count(rocket);
+
+		document.addUndoPosition("Length");
+		((BodyTube) rocket.findComponent(bodyID)).setLength(length + 0.1);
+		document.addUndoPosition("Add");
+		rocket.findComponent(bodyID).addChild(new MassComponent());
+		assertEquals(components + 1, count(rocket));
+
+		document.undo();
+		assertEquals(components, count(rocket));
+		assertEquals(length + 0.1, rocket.findComponent(bodyID).getLength(), EPSILON);
+		document.undo();
+		assertEquals(length, rocket.findComponent(bodyID).getLength(), EPSILON);
+		assertFalse(document.isUndoAvailable());
+
+		document.redo();
+		document.redo();
+		assertEquals(components + 1, count(rocket));
+		assertEquals(length + 0.1, rocket.findComponent(bodyID).getLength(), EPSILON);
+		assertFalse(document.isRedoAvailable());
+
+		// Editing after undo discards the redo states
+		document.undo();
+		document.addUndoPosition("Rename");
+		rocket.findComponent(bodyID).setName("Renamed");
+		assertFalse(document.isRedoAvailable());
+		document.undo();
+		assertEquals(components, count(rocket));
+		assertFalse("Renamed".equals(rocket.findComponent(bodyID).getName()));
+	}
+
+
+	private static int count(Rocket rocket) {
+		int n = 0;
+		Iterator<RocketComponent> iterator = rocket.iterator(true);
+		while (iterator.hasNext()) {
+			iterator.next();
+			n++;
+		}
+		return n;
+	}
+}
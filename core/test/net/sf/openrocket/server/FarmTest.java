@@ -0,0 +1,179 @@
+package net.sf.openrocket.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.file.GeneralRocketSaver;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.TestRockets;
+
+public class FarmTest {
+
+	private static File file;
+
+	private final List<FarmWorker> workers = new ArrayList<FarmWorker>();
+
+	@BeforeClass
+	public static void setup() throws Exception {
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation simulation = new Simulation(rocket);
+		simulation.setName("B4");
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		doc.addSimulation(simulation);
+		simulation = new Simulation(rocket);
+		simulation.setName("C6");
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_2);
+		doc.addSimulation(simulation);
+		file = File.createTempFile("farm", ".ork");
+		file.deleteOnExit();
+		new GeneralRocketSaver().save(file, doc, new StorageOptions());
+	}
+
+	@Before
+	public void startWorkers() throws Exception {
+		for (int i = 0; i < 2; i++) {
+			FarmWorker worker = new FarmWorker(InetAddress.getLoopbackAddress(), 0, 2);
+			worker.start();
+			workers.add(worker);
+		}
+	}
+
+	@After
+	public void stopWorkers() {
+		for (FarmWorker worker : workers) {
+			worker.stop();
+		}
+	}
+
+	@Test
+	public void testRunInOrder() throws Exception {
+		List<FarmTask> tasks = new ArrayList<FarmTask>();
+		for (int i = 0; i < 5; i++) {
+			tasks.add(new FarmTask(file, i % 2 == 0 ? "B4" : "C6",
+					Json.createObjectBuilder().add("windSpeedAverage", i).build()));
+		}
+		tasks.add(new FarmTask(file, "Unknown", null));
+		tasks.add(new FarmTask(new File("nonexistent.ork"), "B4", null));
+
+		List<JsonObject> results = new FarmCoordinator(addresses()).run(tasks);
+		assertEquals(tasks.size(), results.size());
+		for (int i = 0; i < 5; i++) {
+			assertEquals(tasks.get(i).getSimulation(), results.get(i).getString("simulation"));
+			assertEquals("OK", results.get(i).getString("status"));
+			assertTrue(results.get(i).getJsonNumber("maxAltitude").doubleValue() > 10);
+		}
+		assertEquals("FAILED", results.get(5).getString("status"));
+		assertEquals("FILE_ERROR", results.get(6).getString("status"));
+
+		// The C6 motor flies higher than the B4
+		assertTrue(results.get(1).getJsonNumber("maxAltitude").doubleValue() >
+				results.get(0).getJsonNumber("maxAltitude").doubleValue());
+	}
+
+	@Test
+	public void testWorkerFailure() throws Exception {
+		// A worker that accepts tasks and then crashes, and one that is not running
+		final ServerSocket crashing = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		Thread t = new Thread() {
+			@Override
+			public void run() {
+				try {
+					Socket socket = crashing.accept();
+					Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+					FarmProtocol.write(writer, Json.createObjectBuilder().add("type", FarmProtocol.HELLO).add("threads", 4).build());
+					BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+					FarmProtocol.read(reader);
+					FarmProtocol.read(reader);
+					socket.close();
+				} catch (Exception e) {
+				}
+			}
+		};
+		t.start();
+		ServerSocket closed = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+		int closedPort = closed.getLocalPort();
+		closed.close();
+
+		List<InetSocketAddress> addresses = addresses();
+		addresses.add(0, new InetSocketAddress(InetAddress.getLoopbackAddress(), crashing.getLocalPort()));
+		addresses.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), closedPort));
+
+		List<FarmTask> tasks = new ArrayList<FarmTask>();
+		for (int i = 0; i < 8; i++) {
+			tasks.add(new FarmTask(file, "B4", Json.createObjectBuilder().add("launchRodAngle", 0.01 * i).build()));
+		}
+		List<JsonObject> results = new FarmCoordinator(addresses).run(tasks);
+		for (JsonObject result : results) {
+			assertEquals("OK", result.getString("status"));
+		}
+		t.join();
+		crashing.close();
+	}
+
+	@Test
+	public void testNoWorkers() throws Exception {
+		for (FarmWorker worker : workers) {
+			worker.stop();
+		}
+		FarmCoordinator coordinator = new FarmCoordinator(addresses());
+		coordinator.setMaxRetries(0);
+		List<JsonObject> results = coordinator.run(Arrays.asList(new FarmTask(file, "B4", null)));
+		assertEquals("FAILED", results.get(0).getString("status"));
+	}
+
+	@Test
+	public void testLoopbackByDefault() throws Exception {
+		FarmWorker worker = new FarmWorker(null, 0, 1);
+		try {
+			assertTrue(worker.getAddress().isLoopbackAddress());
+		} finally {
+			worker.stop();
+		}
+	}
+
+	@Test
+	public void testRandomSeed() {
+		JsonObject options = Json.createObjectBuilder().add("windSpeedAverage", 2).build();
+		assertEquals(new FarmTask(file, "B4", options).getRandomSeed(), new FarmTask(file, "B4", options).getRandomSeed());
+		assertTrue(new FarmTask(file, "B4", options).getRandomSeed() != new FarmTask(file, "C6", options).getRandomSeed());
+		assertEquals(42, new FarmTask(file, "B4", Json.createObjectBuilder().add("randomSeed", 42).build()).getRandomSeed());
+	}
+
+	private List<InetSocketAddress> addresses() {
+		List<InetSocketAddress> list = new ArrayList<InetSocketAddress>();
+		for (FarmWorker worker : workers) {
+			list.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), worker.getPort()));
+		}
+		return list;
+	}
+}
@@ -0,0 +1,183 @@
+package net.sf.openrocket.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.JsonObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.document.OpenRocketDocument;
+import net.sf.openrocket.document.OpenRocketDocumentFactory;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.document.StorageOptions;
+import net.sf.openrocket.file.GeneralRocketSaver;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.simulation.SimulationOptions;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.TestRockets;
+
+public class SimulationServerTest {
+
+	private static File file;
+
+	private SimulationServer server;
+
+	@BeforeClass
+	public static void setup() throws Exception {
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		OpenRocketDocument doc = OpenRocketDocumentFactory.createDocumentFromRocket(rocket);
+		Simulation simulation = new Simulation(rocket);
+		simulation.setName("B4");
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		doc.addSimulation(simulation);
+		file = File.createTempFile("server", ".ork");
+		file.deleteOnExit();
+		new GeneralRocketSaver().save(file, doc, new StorageOptions());
+	}
+
+	@Before
+	public void startServer() throws IOException {
+		server = new SimulationServer(0, 1, 1);
+		server.start();
+	}
+
+	@After
+	public void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	public void testRunJob() throws Exception {
+		JsonObject job = request("POST", "/jobs", "{\"file\": " + Json.createArrayBuilder().add(file.getPath()).build().get(0) +
+				", \"options\": {\"windSpeedAverage\": 0}}", 202);
+		String id = job.getString("id");
+
+		List<JsonObject> events = new ArrayList<JsonObject>();
+		HttpURLConnection connection = open("GET", "/jobs/" + id + "/events");
+		BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (!line.isEmpty()) {
+				events.add(Json.createReader(new StringReader(line)).readObject());
+			}
+		}
+		reader.close();
+
+		assertEquals("RUNNING", events.get(0).getString("state"));
+		assertEquals("start", events.get(1).getString("event"));
+		assertEquals("result", events.get(events.size() - 2).getString("event"));
+		assertEquals("DONE", events.get(events.size() - 1).getString("state"));
+
+		job = request("GET", "/jobs/" + id, null, 200);
+		assertEquals("DONE", job.getString("state"));
+		JsonObject result = job.getJsonArray("results").getJsonObject(0);
+		assertEquals("B4", result.getString("simulation"));
+		assertEquals("OK", result.getString("status"));
+		assertTrue(result.getJsonNumber("maxAltitude").doubleValue() > 10);
+
+		request("DELETE", "/jobs/" + id, null, 409);
+	}
+
+	@Test
+	public void testInvalidRequests() throws Exception {
+		request("POST", "/jobs", "not json", 400);
+		request("POST", "/jobs", "{}", 400);
+		request("POST", "/jobs", "{\"file\": \"a.ork\", \"options\": {\"unknown\": 1}}", 400);
+		request("POST", "/jobs", "{\"file\": \"a.ork\", \"options\": {\"timeStep\": \"x\"}}", 400);
+		request("GET", "/jobs/1000", null, 404);
+		request("PUT", "/status", null, 405);
+	}
+
+	@Test
+	public void testQueueAndCancel() throws Exception {
+		String body = "{\"file\": " + Json.createArrayBuilder().add(file.getPath()).build().get(0) + "}";
+		// One running and one queued job fill the server
+		List<String> ids = new ArrayList<String>();
+		int rejected = 0;
+		for (int i = 0; i < 3; i++) {
+			HttpURLConnection connection = open("POST", "/jobs");
+			write(connection, body);
+			if (connection.getResponseCode() == 503) {
+				rejected++;
+			} else {
+				ids.add(read(connection.getInputStream()).getString("id"));
+			}
+		}
+		assertTrue(rejected >= 1);
+
+		for (String id : ids) {
+			HttpURLConnection connection = open("DELETE", "/jobs/" + id);
+			int code = connection.getResponseCode();
+			assertTrue(code == 200 || code == 409);
+		}
+		for (String id : ids) {
+			String state = server.getJob(id).getState().name();
+			assertTrue(state, state.equals("CANCELLED") || state.equals("DONE") || state.equals("RUNNING"));
+		}
+	}
+
+	@Test
+	public void testApplyOptions() {
+		SimulationOptions options = new SimulationOptions();
+		SimulationJob.applyOptions(options, Json.createObjectBuilder()
+				.add("launchRodLength", 2.5)
+				.add("useISA", false)
+				.add("randomSeed", 42)
+				.build());
+		assertEquals(2.5, options.getLaunchRodLength(), 0);
+		assertEquals(false, options.isISAAtmosphere());
+		assertEquals(42, options.getRandomSeed());
+	}
+
+
+	private HttpURLConnection open(String method, String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+		connection.setRequestMethod(method);
+		return connection;
+	}
+
+	private JsonObject request(String method, String path, String body, int expectedCode) throws IOException {
+		HttpURLConnection connection = open(method, path);
+		if (body != null) {
+			write(connection, body);
+		}
+		assertEquals(expectedCode, connection.getResponseCode());
+		InputStream in = (expectedCode < 400) ? connection.getInputStream() : connection.getErrorStream();
+		return read(in);
+	}
+
+	private static void write(HttpURLConnection connection, String body) throws IOException {
+		connection.setDoOutput(true);
+		OutputStream out = connection.getOutputStream();
+		out.write(body.getBytes(StandardCharsets.UTF_8));
+		out.close();
+	}
+
+	private static JsonObject read(InputStream in) throws IOException {
+		try {
+			return Json.createReader(in).readObject();
+		} finally {
+			in.close();
+		}
+	}
+}
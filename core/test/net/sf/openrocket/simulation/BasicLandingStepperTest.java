@@ -0,0 +1,107 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.DeploymentConfiguration;
+import net.sf.openrocket.rocketcomponent.Parachute;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.MathUtil;
+import net.sf.openrocket.util.TestRockets;
+
+public class BasicLandingStepperTest {
+
+	@BeforeClass
+	public static void setup() throws Exception {
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+	}
+
+	@Test
+	public void testTimeStep() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightData reference = simulate(rocket, 0.05);
+		FlightData data = simulate(rocket, BasicLandingStepper.RECOMMENDED_TIME_STEP);
+
+		// The terminal velocity is exact regardless of the step length
+		assertEquals(reference.getFlightTime(), data.getFlightTime(), 0.01 * reference.getFlightTime());
+		assertEquals(reference.getGroundHitVelocity(), data.getGroundHitVelocity(), 0.01);
+
+		int referenceSteps = getDescentSteps(reference);
+		int steps = getDescentSteps(data);
+		assertTrue("Steps " + steps + " reference " + referenceSteps, steps * 10 < referenceSteps);
+
+		// The last step ends at the ground
+		FlightDataBranch branch = data.getBranch(0);
+		double altitude = branch.getLast(FlightDataType.TYPE_ALTITUDE);
+		assertTrue("Altitude " + altitude, altitude <= 0 && altitude > -0.01);
+	}
+
+	@Test
+	public void testDeploymentAltitude() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		Parachute drogue = null;
+		for (RocketComponent c : rocket) {
+			if (c instanceof Parachute) {
+				drogue = (Parachute) c;
+			}
+		}
+		drogue.setDiameter(0.1);
+
+		// A main parachute deployed during the descent under the drogue
+		Parachute main = new Parachute();
+		main.setDiameter(0.5);
+		main.getDeploymentConfigurations().getDefault().setDeployEvent(DeploymentConfiguration.DeployEvent.ALTITUDE);
+		main.getDeploymentConfigurations().getDefault().setDeployAltitude(50);
+		main.getDeploymentConfigurations().getDefault().setDeployDelay(0);
+		drogue.getParent().addChild(main);
+
+		FlightData data = simulate(rocket, BasicLandingStepper.RECOMMENDED_TIME_STEP);
+		FlightDataBranch branch = data.getBranch(0);
+		double deployment = Double.NaN;
+		for (FlightEvent event : branch.getEvents()) {
+			if (event.getType() == FlightEvent.Type.RECOVERY_DEVICE_DEPLOYMENT && event.getSource() == main) {
+				deployment = event.getTime();
+			}
+		}
+		assertEquals(50, MathUtil.interpolate(branch.get(FlightDataType.TYPE_TIME),
+				branch.get(FlightDataType.TYPE_ALTITUDE), deployment), 0.1);
+	}
+
+	/**
+	 * Return the number of steps after the first recovery device deployment.
+	 */
+	private static int getDescentSteps(FlightData data) {
+		FlightDataBranch branch = data.getBranch(0);
+		double deployment = Double.NaN;
+		for (FlightEvent event : branch.getEvents()) {
+			if (event.getType() == FlightEvent.Type.RECOVERY_DEVICE_DEPLOYMENT && Double.isNaN(deployment)) {
+				deployment = event.getTime();
+			}
+		}
+		int count = 0;
+		for (Double time : branch.get(FlightDataType.TYPE_TIME)) {
+			if (time > deployment) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	private static FlightData simulate(Rocket rocket, double descentTimeStep) throws Exception {
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		simulation.getOptions().setRandomSeed(1);
+		simulation.getOptions().setWindSpeedAverage(2);
+		simulation.getOptions().setWindSpeedDeviation(0);
+		simulation.getOptions().setDescentTimeStep(descentTimeStep);
+		simulation.simulate();
+		return simulation.getSimulatedData();
+	}
+
+}
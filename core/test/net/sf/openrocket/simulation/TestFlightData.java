@@ -282,4 +282,44 @@ public class TestFlightData {
 		assertEquals(6.2, data.getGroundHitVelocity(), 0.000);
 	}
 	
+	/**
+	 * Tests adding multiple points at once and deferred data points.
+	 */
+	@Test
+	public void testAddPoints() {
+		FlightDataType[] types = { FlightDataType.TYPE_TIME, FlightDataType.TYPE_ALTITUDE };
+		double[][] values = { { 0, 1, 2 }, { 5, 20, 10 } };
+		
+		FlightDataBranch branch = new FlightDataBranch("Bulk", FlightDataType.TYPE_TIME,
+				FlightDataType.TYPE_VELOCITY_TOTAL);
+		branch.addPoints(types, values, 3);
+		assertEquals(3, branch.getLength());
+		assertEquals(20, branch.getMaximum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(10, branch.getLast(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(Double.NaN, branch.getLast(FlightDataType.TYPE_VELOCITY_TOTAL), 0);
+		
+		final int[] decoded = { 0 };
+		FlightDataBranch deferred = new FlightDataBranch("Deferred", types);
+		deferred.addDeferredPoints(types, new double[][] { values[0], null }, 3,
+				new FlightDataBranch.DeferredData() {
+					@Override
+					public double[][] decode() {
+						decoded[0]++;
+						return new double[][] { null, { 5, 20, 10 } };
+					}
+				});
+		deferred.immute();
+		
+		assertTrue(deferred.isDeferred());
+		assertEquals(3, deferred.getLength());
+		assertEquals(2, deferred.getLast(FlightDataType.TYPE_TIME), 0);
+		assertEquals(0, decoded[0]);
+		
+		assertEquals(20, deferred.getMaximum(FlightDataType.TYPE_ALTITUDE), 0);
+		assertEquals(1, decoded[0]);
+		assertEquals(3, deferred.get(FlightDataType.TYPE_ALTITUDE).size());
+		assertEquals(1, decoded[0]);
+		assertTrue(!deferred.isDeferred());
+	}
+	
 }
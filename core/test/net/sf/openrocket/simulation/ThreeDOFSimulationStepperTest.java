@@ -0,0 +1,104 @@
+package net.sf.openrocket.simulation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.aerodynamics.Warning;
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.simulation.listeners.system.ApogeeEndListener;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.TestRockets;
+
+public class ThreeDOFSimulationStepperTest {
+
+	@BeforeClass
+	public static void setup() throws Exception {
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+	}
+
+	@Test
+	public void testOptions() {
+		SimulationOptions options = new SimulationOptions();
+		assertEquals(SimulationMethod.SIX_DOF, options.getSimulationMethod());
+		SimulationOptions other = new SimulationOptions();
+		other.copyFrom(options);
+		other.setSimulationMethod(SimulationMethod.THREE_DOF);
+
+		assertFalse(options.equals(other));
+		assertFalse(options.getResultDescription(false).equals(other.getResultDescription(false)));
+		assertEquals(SimulationMethod.THREE_DOF, other.toSimulationConditions().getSimulationMethod());
+		assertTrue(SimulationMethod.THREE_DOF.createFlightStepper() instanceof ThreeDOFSimulationStepper);
+
+		options.copyConditionsFrom(other);
+		assertEquals(SimulationMethod.THREE_DOF, options.getSimulationMethod());
+	}
+
+	@Test
+	public void testNoWind() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightData six = simulate(rocket, SimulationMethod.SIX_DOF, 0);
+		FlightData three = simulate(rocket, SimulationMethod.THREE_DOF, 0);
+
+		assertEquals(six.getMaxAltitude(), three.getMaxAltitude(), 0.01 * six.getMaxAltitude());
+		assertEquals(six.getMaxVelocity(), three.getMaxVelocity(), 0.01 * six.getMaxVelocity());
+		assertEquals(six.getTimeToApogee(), three.getTimeToApogee(), 0.1);
+	}
+
+	@Test
+	public void testWeathercocking() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightData six = simulate(rocket, SimulationMethod.SIX_DOF, 2);
+		FlightData three = simulate(rocket, SimulationMethod.THREE_DOF, 2);
+
+		// The rocket turns into the wind, lowering the apogee as in the 6-DOF simulation
+		assertTrue(three.getMaxAltitude() < simulate(rocket, SimulationMethod.THREE_DOF, 0).getMaxAltitude());
+		assertEquals(six.getMaxAltitude(), three.getMaxAltitude(), 0.01 * six.getMaxAltitude());
+		assertEquals(six.getTimeToApogee(), three.getTimeToApogee(), 0.1);
+
+		// Far fewer steps while coasting
+		int sixSteps = six.getBranch(0).getLength();
+		int threeSteps = three.getBranch(0).getLength();
+		assertTrue("3-DOF steps " + threeSteps + " 6-DOF steps " + sixSteps, threeSteps * 3 < sixSteps);
+
+		// Zero angle of attack wherever it is computed
+		for (Double aoa : three.getBranch(0).get(FlightDataType.TYPE_AOA)) {
+			assertTrue(Double.isNaN(aoa) || aoa == 0);
+		}
+	}
+
+	@Test
+	public void testUnstableWarning() throws Exception {
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		FlightData stable = simulate(rocket, SimulationMethod.THREE_DOF, 2);
+		assertFalse(stable.getWarningSet().contains(Warning.UNSTABLE_THREE_DOF));
+
+		// Without fins the rocket is not statically stable
+		for (RocketComponent c : rocket) {
+			if (c instanceof FinSet) {
+				c.getParent().removeChild(c);
+				break;
+			}
+		}
+		FlightData unstable = simulate(rocket, SimulationMethod.THREE_DOF, 2);
+		assertTrue(unstable.getWarningSet().contains(Warning.UNSTABLE_THREE_DOF));
+	}
+
+	private static FlightData simulate(Rocket rocket, SimulationMethod method, double wind) throws Exception {
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		simulation.getOptions().setRandomSeed(1);
+		simulation.getOptions().setWindSpeedAverage(wind);
+		simulation.getOptions().setWindSpeedDeviation(0);
+		simulation.getOptions().setSimulationMethod(method);
+		simulation.simulate(ApogeeEndListener.INSTANCE);
+		return simulation.getSimulatedData();
+	}
+
+}
@@ -0,0 +1,255 @@
+package net.sf.openrocket.simulation.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import net.sf.openrocket.document.Simulation;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.simulation.FlightData;
+import net.sf.openrocket.simulation.FlightDataBranch;
+import net.sf.openrocket.simulation.FlightDataType;
+import net.sf.openrocket.simulation.extension.impl.AirStart;
+import net.sf.openrocket.simulation.extension.impl.JavaCode;
+import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.system.ApogeeEndListener;
+import net.sf.openrocket.simulation.listeners.system.InterruptListener;
+import net.sf.openrocket.startup.Application;
+import net.sf.openrocket.startup.HeadlessModule;
+import net.sf.openrocket.util.TestRockets;
+
+public class SimulationCacheTest {
+
+	private File directory;
+
+	@BeforeClass
+	public static void setup() throws Exception {
+		HeadlessModule.initializeApplication().blockUntilLoaded();
+	}
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("simcache").toFile();
+	}
+
+	@After
+	public void removeDirectory() {
+		Application.setSimulationCache(null);
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File f : files) {
+				f.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void testKey() {
+		SimulationCache cache = new SimulationCache(directory, SimulationCache.DEFAULT_MAX_SIZE);
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		Simulation simulation = simulation(rocket);
+		String key = cache.getKey(simulation);
+		assertEquals(64, key.length());
+		assertEquals(key, cache.getKey(simulation));
+
+		// The random seed is only included when requested
+		simulation.getOptions().randomizeSeed();
+		assertEquals(key, cache.getKey(simulation));
+		cache.setIncludeRandomSeed(true);
+		String seeded = cache.getKey(simulation);
+		assertFalse(key.equals(seeded));
+		simulation.getOptions().randomizeSeed();
+		assertFalse(seeded.equals(cache.getKey(simulation)));
+		cache.setIncludeRandomSeed(false);
+
+		// Options, listeners, flight configurations and the rocket are part of the key
+		double angle = simulation.getOptions().getLaunchRodAngle();
+		simulation.getOptions().setLaunchRodAngle(0.1);
+		assertFalse(key.equals(cache.getKey(simulation)));
+		simulation.getOptions().setLaunchRodAngle(angle);
+		assertEquals(key, cache.getKey(simulation));
+
+		assertEquals(key, cache.getKey(simulation, InterruptListener.INSTANCE));
+		assertFalse(key.equals(cache.getKey(simulation, ApogeeEndListener.INSTANCE)));
+
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_2);
+		assertFalse(key.equals(cache.getKey(simulation)));
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+
+		BodyTube tube = bodyTube(rocket);
+		double length = tube.getLength();
+		tube.setLength(length * 2);
+		assertFalse(key.equals(cache.getKey(simulation)));
+		tube.setLength(length);
+		assertEquals(key, cache.getKey(simulation));
+	}
+
+	@Test
+	public void testCacheable() {
+		assertTrue(SimulationCache.isCacheable());
+		assertTrue(SimulationCache.isCacheable(InterruptListener.INSTANCE, ApogeeEndListener.INSTANCE));
+		assertFalse(SimulationCache.isCacheable(InterruptListener.INSTANCE, new AbstractSimulationListener()));
+
+		// Extensions running code that is not part of their configuration are not cacheable
+		Simulation simulation = simulation(TestRockets.makeEstesAlphaIII());
+		assertTrue(SimulationCache.isCacheable(simulation, InterruptListener.INSTANCE));
+		simulation.getSimulationExtensions().add(new AirStart());
+		assertTrue(SimulationCache.isCacheable(simulation, InterruptListener.INSTANCE));
+		assertFalse(SimulationCache.isCacheable(simulation, new AbstractSimulationListener()));
+		simulation.getSimulationExtensions().add(new JavaCode());
+		assertFalse(SimulationCache.isCacheable(simulation));
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		SimulationCache cache = new SimulationCache(directory, SimulationCache.DEFAULT_MAX_SIZE);
+		Simulation simulation = simulation(TestRockets.makeEstesAlphaIII());
+		simulation.simulate();
+		FlightData data = simulation.getSimulatedData();
+
+		String key = cache.getKey(simulation);
+		assertNull(cache.get(key));
+		cache.put(key, data);
+		FlightData loaded = cache.get(key);
+		assertNotNull(loaded);
+
+		assertEquals(data.getMaxAltitude(), loaded.getMaxAltitude(), 0);
+		assertEquals(data.getMaxVelocity(), loaded.getMaxVelocity(), 0);
+		assertEquals(data.getFlightTime(), loaded.getFlightTime(), 0);
+		assertEquals(data.getDeploymentVelocity(), loaded.getDeploymentVelocity(), 0);
+		assertEquals(data.getWarningSet().size(), loaded.getWarningSet().size());
+		assertEquals(data.getBranchCount(), loaded.getBranchCount());
+		for (int b = 0; b < data.getBranchCount(); b++) {
+			FlightDataBranch expected = data.getBranch(b);
+			FlightDataBranch actual = loaded.getBranch(b);
+			assertEquals(expected.getBranchName(), actual.getBranchName());
+			assertArrayEquals(expected.getTypes(), actual.getTypes());
+			for (FlightDataType type : expected.getTypes()) {
+				assertArrayEquals(expected.getValues(type), actual.getValues(type), 0);
+			}
+			assertEquals(expected.getEvents().size(), actual.getEvents().size());
+			assertEquals(expected.getOptimumAltitude(), actual.getOptimumAltitude(), 0);
+		}
+		assertFalse(loaded.isMutable());
+
+		// Corrupt entries are ignored and removed
+		File file = new File(directory, key + ".sim");
+		FileOutputStream out = new FileOutputStream(file);
+		out.write(new byte[] { 1, 2, 3 });
+		out.close();
+		assertNull(cache.get(key));
+		assertFalse(file.exists());
+	}
+
+	@Test
+	public void testSimulate() throws Exception {
+		SimulationCache cache = new SimulationCache(directory, SimulationCache.DEFAULT_MAX_SIZE);
+		Application.setSimulationCache(cache);
+
+		Rocket rocket = TestRockets.makeEstesAlphaIII();
+		Simulation simulation = simulation(rocket);
+		simulation.simulate(InterruptListener.INSTANCE);
+		FlightData first = simulation.getSimulatedData();
+		assertEquals(Simulation.Status.UPTODATE, simulation.getStatus());
+		assertEquals(1, directory.listFiles().length);
+
+		// A changed rocket is simulated again
+		BodyTube tube = bodyTube(rocket);
+		double length = tube.getLength();
+		tube.setLength(length * 2);
+		simulation.simulate();
+		assertEquals(2, directory.listFiles().length);
+		assertFalse(first.getMaxAltitude() == simulation.getSimulatedData().getMaxAltitude());
+
+		// Reverting the change loads the earlier results
+		tube.setLength(length);
+		assertEquals(Simulation.Status.OUTDATED, simulation.getStatus());
+		simulation.simulate();
+		assertEquals(Simulation.Status.UPTODATE, simulation.getStatus());
+		assertEquals(first.getMaxAltitude(), simulation.getSimulatedData().getMaxAltitude(), 0);
+		assertEquals(2, directory.listFiles().length);
+
+		// Listeners that may affect the results bypass the cache
+		simulation.simulate(new AbstractSimulationListener());
+		assertEquals(2, directory.listFiles().length);
+		FlightData data = simulation.getSimulatedData();
+		simulation.simulate(new AbstractSimulationListener());
+		assertFalse(data == simulation.getSimulatedData());
+
+		// Runs for a new realization of the turbulence replace the cached results
+		simulation.getOptions().randomizeSeed();
+		simulation.simulate(false);
+		data = simulation.getSimulatedData();
+		assertFalse(first.getMaxAltitude() == data.getMaxAltitude());
+		assertEquals(2, directory.listFiles().length);
+		simulation.simulate();
+		assertEquals(data.getMaxAltitude(), simulation.getSimulatedData().getMaxAltitude(), 0);
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		Simulation simulation = simulation(TestRockets.makeEstesAlphaIII());
+		simulation.simulate();
+		FlightData data = simulation.getSimulatedData();
+
+		SimulationCache cache = new SimulationCache(directory, SimulationCache.DEFAULT_MAX_SIZE);
+		cache.put("a", data);
+		long size = cache.getSize();
+		assertTrue(size > 0);
+
+		// Room for three entries, whose compressed sizes differ slightly
+		cache = new SimulationCache(directory, 3 * size + size / 2);
+		cache.put("b", data);
+		cache.put("c", data);
+		assertEquals(3, directory.listFiles().length);
+
+		// The least recently used entry is removed
+		new File(directory, "a.sim").setLastModified(System.currentTimeMillis() - 20000);
+		new File(directory, "b.sim").setLastModified(System.currentTimeMillis() - 10000);
+		new File(directory, "c.sim").setLastModified(System.currentTimeMillis() - 30000);
+		assertNotNull(cache.get("a"));
+		cache.put("d", data);
+		assertEquals(3, directory.listFiles().length);
+		assertTrue(cache.getSize() <= cache.getMaxSize());
+		assertNull(cache.get("c"));
+		assertNotNull(cache.get("a"));
+		assertNotNull(cache.get("b"));
+		assertNotNull(cache.get("d"));
+
+		cache.clear();
+		assertEquals(0, cache.getSize());
+		assertEquals(0, directory.listFiles().length);
+	}
+
+
+	private static Simulation simulation(Rocket rocket) {
+		Simulation simulation = new Simulation(rocket);
+		simulation.setFlightConfigurationId(TestRockets.TEST_FCID_1);
+		return simulation;
+	}
+
+	private static BodyTube bodyTube(Rocket rocket) {
+		for (RocketComponent c : rocket) {
+			if (c instanceof BodyTube) {
+				return (BodyTube) c;
+			}
+		}
+		throw new IllegalStateException("No body tube");
+	}
+}
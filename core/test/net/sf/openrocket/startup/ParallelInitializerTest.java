@@ -0,0 +1,102 @@
+package net.sf.openrocket.startup;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class ParallelInitializerTest {
+
+	private static Runnable record(final List<String> order, final String name) {
+		return new Runnable() {
+			@Override
+			public void run() {
+				order.add(name);
+			}
+		};
+	}
+
+	@Test
+	public void testDependencyOrder() throws Exception {
+		StartupTimeline timeline = new StartupTimeline();
+		ParallelInitializer initializer = new ParallelInitializer(timeline);
+		List<String> order = Collections.synchronizedList(new ArrayList<String>());
+
+		initializer.add("a", record(order, "a"));
+		initializer.add("b", record(order, "b"), "a");
+		initializer.add("c", record(order, "c"), "a");
+		initializer.add("d", record(order, "d"), "b", "c");
+		initializer.run(4);
+
+		assertEquals(4, order.size());
+		assertEquals("a", order.get(0));
+		assertEquals("d", order.get(3));
+		assertEquals(4, timeline.getPhases().size());
+		assertTrue(timeline.getReport().contains("d"));
+	}
+
+	@Test
+	public void testIndependentTasksRunConcurrently() throws Exception {
+		ParallelInitializer initializer = new ParallelInitializer(new StartupTimeline());
+		final CountDownLatch latch = new CountDownLatch(2);
+		final AtomicBoolean concurrent = new AtomicBoolean(true);
+		Runnable task = new Runnable() {
+			@Override
+			public void run() {
+				latch.countDown();
+				try {
+					if (!latch.await(5, TimeUnit.SECONDS)) {
+						concurrent.set(false);
+					}
+				} catch (InterruptedException e) {
+					concurrent.set(false);
+				}
+			}
+		};
+		initializer.add("first", task);
+		initializer.add("second", task);
+		initializer.run(2);
+		assertTrue(concurrent.get());
+	}
+
+	@Test
+	public void testFailureSkipsDependents() throws Exception {
+		ParallelInitializer initializer = new ParallelInitializer(new StartupTimeline());
+		final AtomicBoolean dependentRun = new AtomicBoolean(false);
+		initializer.add("failing", new Runnable() {
+			@Override
+			public void run() {
+				throw new IllegalStateException("failed");
+			}
+		});
+		initializer.add("dependent", new Runnable() {
+			@Override
+			public void run() {
+				dependentRun.set(true);
+			}
+		}, "failing");
+
+		try {
+			initializer.run(2);
+			fail("Expected exception");
+		} catch (IllegalStateException e) {
+			assertEquals("failed", e.getMessage());
+		}
+		assertFalse(dependentRun.get());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownDependency() {
+		new ParallelInitializer(new StartupTimeline()).add("a", record(new ArrayList<String>(), "a"), "b");
+	}
+
+}
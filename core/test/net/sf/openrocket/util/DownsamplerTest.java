@@ -0,0 +1,73 @@
+package net.sf.openrocket.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DownsamplerTest {
+
+	@Test
+	public void testFewPoints() {
+		double[] x = { 0, 1, 2, 3, 4 };
+		double[] y = { 0, 1, 0, 1, 0 };
+		assertArrayEquals(new int[] { 0, 1, 2, 3, 4 }, Downsampler.select(x, y, 0, 5, 5));
+		assertArrayEquals(new int[] { 1, 2, 3 }, Downsampler.select(x, y, 1, 4, 10));
+		assertArrayEquals(new int[] { 0, 4 }, Downsampler.select(x, y, 0, 5, 2));
+		assertArrayEquals(new int[0], Downsampler.select(x, y, 2, 2, 2));
+	}
+
+	@Test
+	public void testSelection() {
+		Random rnd = new Random(42);
+		int n = 10000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i * 0.01;
+			y[i] = rnd.nextGaussian();
+		}
+
+		for (int count : new int[] { 3, 10, 137, 1000, 9799, 9800, 9999 }) {
+			int[] selected = Downsampler.select(x, y, 100, n - 100, count);
+			assertEquals(Math.min(count, n - 200), selected.length);
+			assertEquals(100, selected[0]);
+			assertEquals(n - 101, selected[selected.length - 1]);
+			for (int i = 1; i < selected.length; i++) {
+				assertTrue(selected[i] > selected[i - 1]);
+			}
+		}
+	}
+
+	@Test
+	public void testPeakRetained() {
+		int n = 5000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = i;
+			y[i] = Math.sin(i * 0.001);
+		}
+		y[3210] = 100;
+		y[4321] = -100;
+
+		int[] selected = Downsampler.select(x, y, 0, n, 50);
+		boolean peak = false;
+		boolean valley = false;
+		for (int i : selected) {
+			peak |= (i == 3210);
+			valley |= (i == 4321);
+		}
+		assertTrue(peak);
+		assertTrue(valley);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalCount() {
+		Downsampler.select(new double[10], new double[10], 0, 10, 1);
+	}
+
+}
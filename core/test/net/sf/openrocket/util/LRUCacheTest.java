@@ -0,0 +1,34 @@
+package net.sf.openrocket.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class LRUCacheTest {
+
+	@Test
+	public void testEviction() {
+		LRUCache<String, Integer> cache = new LRUCache<String, Integer>(2);
+		cache.put("a", 1);
+		cache.put("b", 2);
+
+		// Using an entry keeps it in the cache
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		cache.put("c", 3);
+		assertEquals(2, cache.size());
+		assertNull(cache.get("b"));
+		assertEquals(Integer.valueOf(1), cache.get("a"));
+		assertEquals(Integer.valueOf(3), cache.get("c"));
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNull(cache.get("a"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalSize() {
+		new LRUCache<String, Integer>(0);
+	}
+
+}
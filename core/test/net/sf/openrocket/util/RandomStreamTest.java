@@ -0,0 +1,71 @@
+package net.sf.openrocket.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class RandomStreamTest {
+
+	@Test
+	public void testReproducible() {
+		RandomStream a = new RandomStream(42);
+		RandomStream b = new RandomStream(42);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(a.nextLong(), b.nextLong());
+		}
+		assertTrue(new RandomStream(42).nextLong() != new RandomStream(43).nextLong());
+	}
+
+	@Test
+	public void testRandomAccess() {
+		RandomStream sequential = new RandomStream(7);
+		RandomStream random = new RandomStream(7);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(random.getDouble(i), sequential.nextDouble(), 0);
+		}
+		// Accessing values by index does not affect the sequence
+		assertEquals(new RandomStream(7).getLong(100), sequential.nextLong());
+
+		sequential = new RandomStream(7);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(random.getGaussian(i), sequential.nextGaussian(), 0);
+		}
+	}
+
+	@Test
+	public void testSplit() {
+		RandomStream parent = new RandomStream(1);
+		RandomStream child = parent.split("wind");
+		// The split stream does not depend on the values read from the parent
+		parent.nextLong();
+		assertEquals(child.getLong(5), parent.split("wind").getLong(5));
+		assertEquals(child.getSeed(), new RandomStream(1).split("wind").getSeed());
+
+		assertTrue(child.getSeed() != parent.split("yaw").getSeed());
+		assertTrue(child.getSeed() != parent.getSeed());
+		assertTrue(parent.split(1).getLong(0) != parent.split(2).getLong(0));
+	}
+
+	@Test
+	public void testDistribution() {
+		RandomStream random = new RandomStream(123);
+		int n = 100000;
+		double sum = 0, sum2 = 0;
+		double gsum = 0, gsum2 = 0;
+		for (int i = 0; i < n; i++) {
+			double d = random.getDouble(i);
+			assertTrue(d >= 0 && d < 1);
+			sum += d;
+			sum2 += d * d;
+			double g = random.getGaussian(i);
+			gsum += g;
+			gsum2 += g * g;
+		}
+		assertEquals(0.5, sum / n, 0.01);
+		assertEquals(1.0 / 12, sum2 / n - (sum / n) * (sum / n), 0.005);
+		assertEquals(0, gsum / n, 0.02);
+		assertEquals(1, gsum2 / n, 0.02);
+	}
+
+}
@@ -0,0 +1,59 @@
+package net.sf.openrocket.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class UniformLookupTableTest {
+
+	@Test
+	public void testInterpolation() {
+		UniformLookupTable table = new UniformLookupTable(10, 5, new double[] { 0, 10, 30 }, new double[] { 1, 1, 0 });
+		assertEquals(3, table.size());
+		assertEquals(2, table.getColumnCount());
+		assertEquals(20, table.getEnd(), 0);
+
+		assertEquals(0, table.getValue(0, 10), 0);
+		assertEquals(5, table.getValue(0, 12.5), 1e-12);
+		assertEquals(10, table.getValue(0, 15), 1e-12);
+		assertEquals(20, table.getValue(0, 17.5), 1e-12);
+		assertEquals(0.5, table.getValue(1, 17.5), 1e-12);
+
+		// Constant outside the table
+		assertEquals(0, table.getValue(0, -1000), 0);
+		assertEquals(30, table.getValue(0, 20), 0);
+		assertEquals(30, table.getValue(0, 1e10), 0);
+		assertEquals(0, table.getValue(1, Double.POSITIVE_INFINITY), 0);
+		assertTrue(Double.isNaN(table.getValue(0, Double.NaN)));
+
+		double[] values = new double[2];
+		table.getValues(12.5, values);
+		assertArrayEquals(new double[] { 5, 1 }, values, 1e-12);
+	}
+
+	@Test
+	public void testResample() {
+		double[] x = { 0, 1, 4 };
+		double[] y = { 0, 2, 5 };
+		assertArrayEquals(new double[] { 0, 0, 1, 2, 2.5, 3, 3.5, 4, 4.5, 5, 5 },
+				UniformLookupTable.resample(x, y, -0.5, 0.5, 11), 1e-12);
+
+		LinearInterpolator interpolator = new LinearInterpolator(x, y);
+		UniformLookupTable table = new UniformLookupTable(0, 0.01, UniformLookupTable.resample(x, y, 0, 0.01, 401));
+		for (double d = -1; d < 5; d += 0.037) {
+			assertEquals(interpolator.getValue(d), table.getValue(0, d), 1e-9);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testIllegalStep() {
+		new UniformLookupTable(0, 0, new double[] { 1, 2 });
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnequalColumns() {
+		new UniformLookupTable(0, 1, new double[] { 1, 2 }, new double[] { 1, 2, 3 });
+	}
+}
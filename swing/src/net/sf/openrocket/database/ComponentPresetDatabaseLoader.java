@@ -2,14 +2,21 @@ package net.sf.openrocket.database;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.ObjectInputStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
 import net.sf.openrocket.gui.util.SwingPreferences;
+import net.sf.openrocket.preset.BinaryPresetReader;
 import net.sf.openrocket.preset.ComponentPreset;
 import net.sf.openrocket.preset.xml.OpenRocketComponentLoader;
 import net.sf.openrocket.startup.Application;
@@ -29,6 +36,8 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	private final static Logger log = LoggerFactory.getLogger(ComponentPresetDatabaseLoader.class);
 	
 	private static final String SYSTEM_PRESET_DIR = "datafiles/presets";
+	/** extension of the binary preset database files generated by SerializePresets */
+	public static final String PRESET_DATABASE_EXTENSION = "orpd";
 	private int fileCount = 0;
 	private int presetCount = 0;
 	
@@ -63,6 +72,9 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	/**
 	 * loads the user defined defined components into the database
 	 * uses the directory defined in the preferences
+	 * 
+	 * The files are parsed in parallel, but added to the database in the order
+	 * they are found in the directory.
 	 */
 	private void loadUserComponents() {
 		SimpleFileFilter orcFilter = new SimpleFileFilter("", false, "orc");
@@ -76,22 +88,71 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 			log.debug("Error opening UserComponentDirectory", ioex);
 			return;
 		}
+		
+		List<Pair<String, InputStream>> files = new ArrayList<Pair<String, InputStream>>();
 		while (iterator.hasNext()) {
-			Pair<String, InputStream> f = iterator.next();
-			Collection<ComponentPreset> presets = loadFile(f.getU(), f.getV());
-			componentPresetDao.addAll(presets);
-			fileCount++;
-			presetCount += presets.size();
+			files.add(iterator.next());
+		}
+		if (files.isEmpty()) {
+			return;
+		}
+		
+		if (files.size() == 1) {
+			addPresets(loadFile(files.get(0).getU(), files.get(0).getV()));
+			return;
+		}
+		
+		int threads = Math.min(files.size(), SwingPreferences.getMaxThreadCount());
+		ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private ThreadFactory factory = Executors.defaultThreadFactory();
+			
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread t = factory.newThread(r);
+				t.setDaemon(true);
+				t.setPriority(Thread.MIN_PRIORITY);
+				return t;
+			}
+		});
+		try {
+			List<Future<Collection<ComponentPreset>>> results = new ArrayList<Future<Collection<ComponentPreset>>>();
+			for (final Pair<String, InputStream> f : files) {
+				results.add(executor.submit(new Callable<Collection<ComponentPreset>>() {
+					@Override
+					public Collection<ComponentPreset> call() {
+						return loadFile(f.getU(), f.getV());
+					}
+				}));
+			}
+			for (Future<Collection<ComponentPreset>> result : results) {
+				addPresets(result.get());
+			}
+		} catch (InterruptedException e) {
+			throw new BugException("Interrupted while loading user components", e);
+		} catch (ExecutionException e) {
+			throw new BugException(e.getCause());
+		} finally {
+			executor.shutdownNow();
 		}
 	}
+	
+	private void addPresets(Collection<ComponentPreset> presets) {
+		componentPresetDao.addAll(presets);
+		fileCount++;
+		presetCount += presets.size();
+	}
 
 	/**
 	 * loads the default preset components into the database
 	 * uses the file directory from "datafiles/presets"
+	 * 
+	 * Only the index of each binary preset database is read here, the presets
+	 * themselves are decoded per type when they are first requested.
 	 */
 	private void loadPresetComponents() {
 		log.info("Loading component presets from " + SYSTEM_PRESET_DIR);
-		FileIterator iterator = DirectoryIterator.findDirectory(SYSTEM_PRESET_DIR, new SimpleFileFilter("", false, "ser"));
+		FileIterator iterator = DirectoryIterator.findDirectory(SYSTEM_PRESET_DIR,
+				new SimpleFileFilter("", false, PRESET_DATABASE_EXTENSION));
 		
 		if(iterator == null)
 			return;
@@ -99,14 +160,19 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 		while (iterator.hasNext()) {
 			Pair<String, InputStream> f = iterator.next();
 			try {
-				ObjectInputStream ois = new ObjectInputStream(f.getV());
-				@SuppressWarnings("unchecked")
-				List<ComponentPreset> list = (List<ComponentPreset>) ois.readObject();
-				componentPresetDao.addAll(list);
+				BinaryPresetReader reader = new BinaryPresetReader(f.getV(), f.getU());
+				componentPresetDao.addPresetReader(reader);
 				fileCount++;
-				presetCount += list.size();
+				for (ComponentPreset.Type type : reader.getTypes()) {
+					presetCount += reader.getPresetCount(type);
+				}
 			} catch (Exception ex) {
 				throw new BugException(ex);
+			} finally {
+				try {
+					f.getV().close();
+				} catch (IOException e) {
+				}
 			}
 		}
 	}
@@ -121,9 +187,15 @@ public class ComponentPresetDatabaseLoader extends AsynchronousDatabaseLoader {
 	 */
 	private Collection<ComponentPreset> loadFile(String fileName, InputStream stream) {
 		log.debug("loading from file: " + fileName);
-		OpenRocketComponentLoader loader = new OpenRocketComponentLoader();
-		Collection<ComponentPreset> presets = loader.load(stream, fileName);
-		return presets;
-		
+		try {
+			OpenRocketComponentLoader loader = new OpenRocketComponentLoader();
+			Collection<ComponentPreset> presets = loader.load(stream, fileName);
+			return presets;
+		} finally {
+			try {
+				stream.close();
+			} catch (IOException e) {
+			}
+		}
 	}
 }
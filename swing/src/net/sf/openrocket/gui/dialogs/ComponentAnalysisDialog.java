@@ -12,10 +12,17 @@ import java.awt.event.ActionListener;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.EventObject;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
@@ -31,6 +38,7 @@ import javax.swing.JToggleButton;
 import javax.swing.ListSelectionModel;
 import javax.swing.SwingConstants;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.table.TableCellRenderer;
@@ -38,6 +46,7 @@ import javax.swing.table.TableCellRenderer;
 import net.miginfocom.swing.MigLayout;
 import net.sf.openrocket.aerodynamics.AerodynamicCalculator;
 import net.sf.openrocket.aerodynamics.AerodynamicForces;
+import net.sf.openrocket.aerodynamics.AerodynamicSweep;
 import net.sf.openrocket.aerodynamics.FlightConditions;
 import net.sf.openrocket.aerodynamics.Warning;
 import net.sf.openrocket.aerodynamics.WarningSet;
@@ -63,6 +72,15 @@ import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.StateChangeListener;
+
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.ValueMarker;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +91,45 @@ public class ComponentAnalysisDialog extends JDialog implements StateChangeListe
 	private static ComponentAnalysisDialog singletonDialog = null;
 	private static final Translator trans = Application.getTranslator();
 
+	/**
+	 * The Mach numbers of the aerodynamic sweep.  The friction drag changes rapidly at low speeds
+	 * and the drag has kinks in the transonic region, where the grid is denser.  Values below the
+	 * grid are computed directly.
+	 */
+	private static final double[] SWEEP_MACHS = concat(
+			concat(geometricGrid(0.01, 0.2, 26), grid(0.25, 0.75, 10)),
+			concat(grid(0.76, 1.3, 54), grid(1.35, 3, 33)));
+	/** The angles of attack of the sweep, densest at the small angles of normal flight */
+	private static final double[] SWEEP_AOAS = concat(grid(0, Math.toRadians(20), 20),
+			grid(Math.toRadians(25), Math.PI, 31));
+	/** Number of sweeps with different wind directions and roll rates to retain */
+	private static final int SWEEP_CACHE_SIZE = 3;
+
+	private static final int SWEEP_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+	private static final ExecutorService sweepExecutor = Executors.newFixedThreadPool(SWEEP_PARALLELISM,
+			new ThreadFactory() {
+				private ThreadFactory factory = Executors.defaultThreadFactory();
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = factory.newThread(r);
+					t.setDaemon(true);
+					return t;
+				}
+			});
+
+	private static final ExecutorService worstExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		private ThreadFactory factory = Executors.defaultThreadFactory();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = factory.newThread(r);
+			t.setDaemon(true);
+			return t;
+		}
+	});
+
 
 	private final FlightConditions conditions;
 	private final Rocket rkt;
@@ -92,6 +149,29 @@ public class ComponentAnalysisDialog extends JDialog implements StateChangeListe
 	private final List<AerodynamicForces> dragData = new ArrayList<AerodynamicForces>();
 	private final List<AerodynamicForces> rollData = new ArrayList<AerodynamicForces>();
 
+	/** Computed sweeps by their inputs, in access order */
+	private final Map<AnalysisKey, AerodynamicSweep> sweepCache = new LinkedHashMap<AnalysisKey, AerodynamicSweep>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<AnalysisKey, AerodynamicSweep> eldest) {
+			return size() > SWEEP_CACHE_SIZE;
+		}
+	};
+	private SweepWorker sweepWorker = null;
+	private WorstThetaWorker worstWorker = null;
+	private AnalysisKey worstKey = null;
+
+	private AnalysisKey failedSweepKey = null;
+
+	private final XYSeries totalCDSeries = new XYSeries(trans.get("componentanalysisdlg.chart.totalCD"), false, true);
+	private final XYSeries pressureCDSeries = new XYSeries(trans.get("componentanalysisdlg.chart.pressureCD"), false, true);
+	private final XYSeries baseCDSeries = new XYSeries(trans.get("componentanalysisdlg.chart.baseCD"), false, true);
+	private final XYSeries frictionCDSeries = new XYSeries(trans.get("componentanalysisdlg.chart.frictionCD"), false, true);
+	private final XYSeries cpSeries = new XYSeries(trans.get("componentanalysisdlg.chart.cp"), false, true);
+	private final XYPlot dragPlot;
+	private final XYPlot cpPlot;
+
 
 	public ComponentAnalysisDialog(final RocketPanel rocketPanel) {
 		////Component analysis
@@ -412,6 +492,28 @@ public class ComponentAnalysisDialog extends JDialog implements StateChangeListe
 				trans.get("componentanalysisdlg.rollTableModel.ttip"));
 
 
+		// Create the drag and CP charts, drawn from the aerodynamic sweep
+
+		//// Drag vs. Mach
+		XYSeriesCollection dataset = new XYSeriesCollection();
+		dataset.addSeries(totalCDSeries);
+		dataset.addSeries(pressureCDSeries);
+		dataset.addSeries(baseCDSeries);
+		dataset.addSeries(frictionCDSeries);
+		dragPlot = createChart(tabbedPane, dataset, true,
+				trans.get("componentanalysisdlg.chart.mach"),
+				trans.get("componentanalysisdlg.chart.cd"),
+				trans.get("componentanalysisdlg.TabDragMach"),
+				trans.get("componentanalysisdlg.TabDragMach.ttip"));
+
+		//// CP vs. angle of attack
+		cpPlot = createChart(tabbedPane, new XYSeriesCollection(cpSeries), false,
+				trans.get("componentanalysisdlg.chart.aoa") + " (" + UnitGroup.UNITS_ANGLE.getDefaultUnit().getUnit() + ")",
+				trans.get("componentanalysisdlg.chart.cp") + " (" + UnitGroup.UNITS_LENGTH.getDefaultUnit().getUnit() + ")",
+				trans.get("componentanalysisdlg.TabCPAOA"),
+				trans.get("componentanalysisdlg.TabCPAOA.ttip"));
+
+
 
 		// Add the data updater to listen to changes in aoa and theta
 		mach.addChangeListener(this);
@@ -431,6 +533,15 @@ public class ComponentAnalysisDialog extends JDialog implements StateChangeListe
 				aoa.removeChangeListener(ComponentAnalysisDialog.this);
 				mach.removeChangeListener(ComponentAnalysisDialog.this);
 				roll.removeChangeListener(ComponentAnalysisDialog.this);
+				if (sweepWorker != null) {
+					sweepWorker.cancel(true);
+					sweepWorker = null;
+				}
+				if (worstWorker != null) {
+					worstWorker.cancel(true);
+					worstWorker = null;
+				}
+				sweepCache.clear();
 				//System.out.println("SETTING NAN VALUES");
 				rocketPanel.setCPAOA(Double.NaN);
 				rocketPanel.setCPTheta(Double.NaN);
@@ -497,7 +608,13 @@ public class ComponentAnalysisDialog extends JDialog implements StateChangeListe
 
 
 	/**
-	 * Updates the data in the table and fires a table data change event.
+	 * Updates the data in the table and charts and fires a table data change event.
+	 * <p>
+	 * The aerodynamic data is interpolated from a cached sweep over Mach number and
+	 * angle of attack when one is available for the current wind direction, roll rate and
+	 * rocket, otherwise it is computed directly and the sweep is started in the background.
+	 * In worst-case mode the wind direction is likewise searched in the background, and
+	 * updated when found.
 	 */
 	@Override
 	public void stateChanged(EventObject e) {
@@ -511,20 +628,27 @@ public class ComponentAnalysisDialog extends JDialog implements StateChangeListe
 		conditions.setReference(configuration);
 
 		if (worstToggle.isSelected()) {
-			aerodynamicCalculator.getWorstCP(configuration, conditions, null);
-			if (!MathUtil.equals(conditions.getTheta(), theta.getValue())) {
-				fakeChange = true;
-				theta.setValue(conditions.getTheta()); // Fires a stateChanged event
-				fakeChange = false;
-				return;
+			updateWorstTheta(configuration);
+		} else {
+			if (worstWorker != null) {
+				worstWorker.cancel(true);
+				worstWorker = null;
 			}
+			worstKey = null;
+		}
+
+		AerodynamicSweep sweep = getSweep(configuration);
+		Map<RocketComponent, AerodynamicForces> aeroData;
+		if (sweep != null && sweep.contains(mach.getValue(), aoa.getValue())) {
+			aeroData = sweep.getForceAnalysis(mach.getValue(), aoa.getValue(), set);
+		} else {
+			aeroData = aerodynamicCalculator.getForceAnalysis(configuration, conditions, set);
 		}
+		updateCharts(sweep);
 
 		// key is the comp.hashCode() or motor.getDesignation().hashCode()
 		Map<Integer, CMAnalysisEntry> cmMap= MassCalculator.getCMAnalysis(configuration);
 
-		Map<RocketComponent, AerodynamicForces> aeroData = aerodynamicCalculator.getForceAnalysis(configuration, conditions, set);
-
 		stabData.clear();
 		dragData.clear();
 		rollData.clear();
@@ -607,6 +731,317 @@ public class ComponentAnalysisDialog extends JDialog implements StateChangeListe
 		rollTableModel.fireTableDataChanged();
 	}
 
+	/**
+	 * Start the search for the worst wind direction in the background, unless it has
+	 * already been started for the current conditions.  The wind direction is set when
+	 * the search completes.
+	 */
+	private void updateWorstTheta(FlightConfiguration configuration) {
+		AnalysisKey key = new AnalysisKey(configuration, conditions, mach.getValue(), aoa.getValue(),
+				Double.NaN, roll.getValue());
+		if (key.equals(worstKey)) {
+			return;
+		}
+		worstKey = key;
+		if (worstWorker != null) {
+			worstWorker.cancel(true);
+		}
+		worstWorker = new WorstThetaWorker(configuration, conditions, aerodynamicCalculator.newInstance());
+		worstExecutor.execute(worstWorker);
+	}
+
+
+	/**
+	 * Return the computed sweep for the current conditions, or <code>null</code> if it is
+	 * not available.  In the latter case the computation is started in the background.
+	 */
+	private AerodynamicSweep getSweep(FlightConfiguration configuration) {
+		AnalysisKey key = new AnalysisKey(configuration, conditions, Double.NaN, Double.NaN,
+				theta.getValue(), roll.getValue());
+		AerodynamicSweep sweep = sweepCache.get(key);
+		if (sweep != null) {
+			return sweep;
+		}
+		if (key.equals(failedSweepKey)) {
+			return null;
+		}
+
+		if (sweepWorker == null || !sweepWorker.key.equals(key)) {
+			if (sweepWorker != null) {
+				sweepWorker.cancel(true);
+			}
+			sweep = new AerodynamicSweep(configuration, conditions, aerodynamicCalculator, SWEEP_MACHS, SWEEP_AOAS);
+			sweepWorker = new SweepWorker(key, sweep);
+			sweepWorker.execute();
+		}
+		return null;
+	}
+
+
+	/**
+	 * Update the drag and CP charts from the sweep.  The charts are cleared if the sweep
+	 * is not available.
+	 */
+	private void updateCharts(AerodynamicSweep sweep) {
+		final Unit angleUnit = UnitGroup.UNITS_ANGLE.getDefaultUnit();
+		final Unit lengthUnit = UnitGroup.UNITS_LENGTH.getDefaultUnit();
+		XYSeries[] all = { totalCDSeries, pressureCDSeries, baseCDSeries, frictionCDSeries, cpSeries };
+		for (XYSeries series : all) {
+			series.setNotify(false);
+			series.clear();
+		}
+		dragPlot.clearDomainMarkers();
+		cpPlot.clearDomainMarkers();
+
+		if (sweep != null) {
+			double a = aoa.getValue();
+			double m = mach.getValue();
+			double[] machs = sweep.getMachs();
+			double[] aoas = sweep.getAOAs();
+
+			if (sweep.contains(machs[0], a)) {
+				for (double x : machs) {
+					AerodynamicForces f = sweep.getTotalForces(x, a);
+					totalCDSeries.add(x, f.getCD(), false);
+					pressureCDSeries.add(x, f.getPressureCD(), false);
+					baseCDSeries.add(x, f.getBaseCD(), false);
+					frictionCDSeries.add(x, f.getFrictionCD(), false);
+				}
+				dragPlot.addDomainMarker(new ValueMarker(m));
+			}
+
+			// The CP depends only weakly on the Mach number outside the grid
+			double cpMach = MathUtil.clamp(m, machs[0], machs[machs.length - 1]);
+			for (double x : aoas) {
+				AerodynamicForces f = sweep.getTotalForces(cpMach, x);
+				cpSeries.add(angleUnit.toUnit(x), lengthUnit.toUnit(f.getCP().x), false);
+			}
+			cpPlot.addDomainMarker(new ValueMarker(angleUnit.toUnit(a)));
+		}
+
+		for (XYSeries series : all) {
+			series.setNotify(true);
+		}
+	}
+
+
+	private XYPlot createChart(JTabbedPane tabbedPane, XYSeriesCollection dataset, boolean legend,
+			String xLabel, String yLabel, String title, String tip) {
+		JFreeChart chart = ChartFactory.createXYLineChart(
+				null, // title
+				xLabel, // xAxisLabel
+				yLabel, // yAxisLabel
+				dataset, // dataset
+				PlotOrientation.VERTICAL,
+				legend, // legend
+				false, // tooltips
+				false // urls
+				);
+
+		XYPlot plot = chart.getXYPlot();
+		chart.setBackgroundPaint(this.getBackground());
+		plot.setBackgroundPaint(Color.WHITE);
+		plot.setDomainGridlinePaint(Color.LIGHT_GRAY);
+		plot.setRangeGridlinePaint(Color.LIGHT_GRAY);
+		plot.getRangeAxis().setAutoRange(true);
+
+		ChartPanel chartPanel = new ChartPanel(chart,
+				false, // properties
+				false, // save
+				false, // print
+				false, // zoom
+				false); // tooltips
+		chartPanel.setMouseZoomable(false);
+		chartPanel.setPopupMenu(null);
+		chartPanel.setPreferredSize(new Dimension(600, 200));
+
+		tabbedPane.addTab(title, null, chartPanel, tip);
+		return plot;
+	}
+
+
+	/**
+	 * Return n+1 evenly spaced values from min to max.
+	 */
+	private static double[] grid(double min, double max, int n) {
+		double[] values = new double[n + 1];
+		for (int i = 0; i <= n; i++) {
+			values[i] = min + (max - min) * i / n;
+		}
+		return values;
+	}
+
+	/**
+	 * Return n+1 values from min to max with a constant ratio.
+	 */
+	private static double[] geometricGrid(double min, double max, int n) {
+		double[] values = new double[n + 1];
+		for (int i = 0; i < n; i++) {
+			values[i] = min * Math.pow(max / min, (double) i / n);
+		}
+		values[n] = max;
+		return values;
+	}
+
+	private static double[] concat(double[] a, double[] b) {
+		double[] values = new double[a.length + b.length];
+		System.arraycopy(a, 0, values, 0, a.length);
+		System.arraycopy(b, 0, values, a.length, b.length);
+		return values;
+	}
+
+
+	/**
+	 * The parameters that an aerodynamic computation depends on.  Parameters that are
+	 * not used by the computation are NaN.
+	 */
+	private static class AnalysisKey {
+		private final int aeroModID;
+		private final int treeModID;
+		private final FlightConfigurationId configId;
+		private final BitSet activeStages;
+		private final double refLength;
+		private final double refArea;
+		private final double mach;
+		private final double aoa;
+		private final double theta;
+		private final double roll;
+
+		public AnalysisKey(FlightConfiguration config, FlightConditions conditions,
+				double mach, double aoa, double theta, double roll) {
+			this.aeroModID = config.getRocket().getAerodynamicModID();
+			this.treeModID = config.getRocket().getTreeModID();
+			this.configId = config.getId();
+			this.activeStages = new BitSet();
+			for (AxialStage stage : config.getActiveStages()) {
+				activeStages.set(stage.getStageNumber());
+			}
+			this.refLength = conditions.getRefLength();
+			this.refArea = conditions.getRefArea();
+			this.mach = mach;
+			this.aoa = aoa;
+			this.theta = theta;
+			this.roll = roll;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof AnalysisKey))
+				return false;
+			AnalysisKey o = (AnalysisKey) obj;
+			return aeroModID == o.aeroModID && treeModID == o.treeModID && configId.equals(o.configId) &&
+					activeStages.equals(o.activeStages) && equals(refLength, o.refLength) &&
+					equals(refArea, o.refArea) && equals(mach, o.mach) && equals(aoa, o.aoa) &&
+					equals(theta, o.theta) && equals(roll, o.roll);
+		}
+
+		@Override
+		public int hashCode() {
+			return aeroModID + 31 * treeModID;
+		}
+
+		private static boolean equals(double a, double b) {
+			return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+		}
+	}
+
+
+	/**
+	 * A worker that computes an aerodynamic sweep in parallel and adds it to the cache.
+	 */
+	private class SweepWorker extends SwingWorker<AerodynamicSweep, Void> {
+		private final AnalysisKey key;
+		private final AerodynamicSweep sweep;
+
+		public SweepWorker(AnalysisKey key, AerodynamicSweep sweep) {
+			this.key = key;
+			this.sweep = sweep;
+		}
+
+		@Override
+		protected AerodynamicSweep doInBackground() throws InterruptedException {
+			long t0 = System.currentTimeMillis();
+			sweep.compute(sweepExecutor, SWEEP_PARALLELISM);
+			log.debug("Computed aerodynamic sweep in " + (System.currentTimeMillis() - t0) + " ms");
+			return sweep;
+		}
+
+		@Override
+		protected void done() {
+			if (sweepWorker != this) {
+				return;
+			}
+			sweepWorker = null;
+			try {
+				sweepCache.put(key, get());
+			} catch (CancellationException e) {
+				return;
+			} catch (InterruptedException e) {
+				return;
+			} catch (ExecutionException e) {
+				log.warn("Aerodynamic sweep failed, computing values directly", e.getCause());
+				failedSweepKey = key;
+				return;
+			}
+			if (isDisplayable()) {
+				stateChanged(null);
+			}
+		}
+	}
+
+
+	/**
+	 * A worker that searches for the worst wind direction of a copy of the rocket.
+	 */
+	private class WorstThetaWorker extends SwingWorker<Double, Void> {
+		private final FlightConfiguration config;
+		private final FlightConditions cond;
+		private final AerodynamicCalculator calculator;
+
+		public WorstThetaWorker(FlightConfiguration curConfig, FlightConditions conditions, AerodynamicCalculator calculator) {
+			Rocket copy = curConfig.getRocket().copyWithOriginalID();
+			this.config = copy.getFlightConfiguration(curConfig.getId());
+			this.config.copyStages(curConfig);
+			this.config.update();
+			this.cond = conditions.clone();
+			this.calculator = calculator;
+		}
+
+		@Override
+		protected Double doInBackground() {
+			if (isCancelled()) {
+				return null;
+			}
+			calculator.getWorstCP(config, cond, null);
+			return cond.getTheta();
+		}
+
+		@Override
+		protected void done() {
+			if (worstWorker != this) {
+				return;
+			}
+			worstWorker = null;
+			double worst;
+			try {
+				worst = get();
+			} catch (CancellationException e) {
+				return;
+			} catch (InterruptedException e) {
+				return;
+			} catch (ExecutionException e) {
+				log.warn("Worst wind direction search failed", e.getCause());
+				return;
+			}
+			if (worstToggle.isSelected() && !MathUtil.equals(worst, theta.getValue())) {
+				fakeChange = true;
+				theta.setValue(worst); // Fires a stateChanged event
+				fakeChange = false;
+			}
+		}
+	}
+
+
 	private class CustomCellRenderer extends JLabel implements TableCellRenderer {
 		/**
 		 * 
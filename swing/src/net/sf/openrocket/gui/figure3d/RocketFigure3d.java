@@ -12,6 +12,7 @@ import java.awt.event.MouseEvent;
 import java.awt.geom.AffineTransform;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.EventObject;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -51,6 +52,7 @@ import net.sf.openrocket.startup.Preferences;
 import net.sf.openrocket.util.Coordinate;
 import net.sf.openrocket.util.MathUtil;
 import net.sf.openrocket.util.BoundingBox;
+import net.sf.openrocket.util.StateChangeListener;
 
 /*
  * @author Bill Kuker <bkuker@billkuker.com>
@@ -96,10 +98,24 @@ public class RocketFigure3d extends JPanel implements GLEventListener {
 	
 	RocketRenderer rr = new FigureRenderer();
 	
+	// Redraws the figure when component meshes generated in the background are available
+	private final StateChangeListener meshListener = new StateChangeListener() {
+		@Override
+		public void stateChanged(EventObject e) {
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					internalRepaint();
+				}
+			});
+		}
+	};
+	
 	public RocketFigure3d(final OpenRocketDocument document) {
 		this.document = document;
 		this.rkt = document.getRocket();
 		this.setLayout(new BorderLayout());
+		rr.setMeshListener(meshListener);
 		
 		//Only initizlize GL if 3d is enabled.
 		if (is3dEnabled()) {
@@ -672,6 +688,7 @@ public class RocketFigure3d extends JPanel implements GLEventListener {
 		default:
 			newRR = new FigureRenderer();
 		}
+		newRR.setMeshListener(meshListener);
 		
 		if (canvas instanceof GLCanvas && !((GLCanvas) canvas).isRealized()) {
 			rr = newRR;
@@ -17,10 +17,9 @@ import com.jogamp.opengl.fixedfunc.GLLightingFunc;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import net.sf.openrocket.gui.figure3d.geometry.ComponentRenderer;
-import net.sf.openrocket.gui.figure3d.geometry.DisplayListComponentRenderer;
 import net.sf.openrocket.gui.figure3d.geometry.Geometry;
 import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+import net.sf.openrocket.gui.figure3d.geometry.MeshComponentRenderer;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.MotorConfiguration;
 import net.sf.openrocket.rocketcomponent.FlightConfiguration;
@@ -29,6 +28,7 @@ import net.sf.openrocket.rocketcomponent.InstanceMap;
 import net.sf.openrocket.rocketcomponent.MotorMount;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
 import net.sf.openrocket.util.Coordinate;
+import net.sf.openrocket.util.StateChangeListener;
 import net.sf.openrocket.util.Transformation;
 
 /*
@@ -38,7 +38,7 @@ import net.sf.openrocket.util.Transformation;
 public abstract class RocketRenderer {
 	protected static final Logger log = LoggerFactory.getLogger(RocketRenderer.class);
 	
-	final ComponentRenderer cr = new DisplayListComponentRenderer();
+	final MeshComponentRenderer cr = new MeshComponentRenderer();
 	
 	private final float[] selectedEmissive = { 1, 0, 0, 1 };
 	private final float[] colorBlack = { 0, 0, 0, 1 };
@@ -48,12 +48,21 @@ public abstract class RocketRenderer {
 	}
 	
 	public void dispose(GLAutoDrawable drawable) {
+		cr.dispose(drawable);
 	}
 	
 	public void updateFigure(GLAutoDrawable drawable) {
 		cr.updateFigure(drawable);
 	}
 	
+	/**
+	 * Set the listener that is notified when component meshes generated in the
+	 * background have become available and the figure should be redrawn.
+	 */
+	public void setMeshListener(StateChangeListener listener) {
+		cr.setMeshListener(listener);
+	}
+	
 	public abstract void renderComponent(GL2 gl, Geometry geom, float alpha);
     
 	public abstract boolean isDrawnTransparent(RocketComponent c);
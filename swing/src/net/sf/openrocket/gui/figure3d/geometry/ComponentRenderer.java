@@ -36,7 +36,7 @@ public class ComponentRenderer {
 	@SuppressWarnings("unused")
 	private static final Logger log = LoggerFactory.getLogger(ComponentRenderer.class);
 
-	private int LOD = 80;
+	protected int LOD = 80;
 
 	GLU glu;
 	GLUquadric q;
@@ -57,6 +57,10 @@ public class ComponentRenderer {
 
 	}
 
+	public void dispose(GLAutoDrawable drawable) {
+
+	}
+
 	public Geometry getComponentGeometry(final RocketComponent comp) {
 	    return getComponentGeometry(comp, Transformation.IDENTITY); 
 	}
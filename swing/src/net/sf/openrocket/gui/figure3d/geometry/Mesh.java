@@ -0,0 +1,65 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+/**
+ * An indexed triangle mesh of a component surface.  The vertex data is interleaved
+ * in the order position (x, y, z), normal (x, y, z) and texture coordinate (s, t),
+ * which is the layout the renderer uploads into a vertex buffer object.
+ * <p>
+ * The triangles are listed in the winding order that the immediate-mode renderer
+ * produces, so back face culling behaves the same for both.  Meshes are immutable
+ * and do not depend on OpenGL, so they may be generated on any thread.
+ */
+public final class Mesh {
+
+	/** Number of floats per vertex. */
+	public static final int STRIDE = 8;
+	/** Offset of the normal within a vertex, in floats. */
+	public static final int NORMAL_OFFSET = 3;
+	/** Offset of the texture coordinate within a vertex, in floats. */
+	public static final int TEXCOORD_OFFSET = 6;
+
+	public static final Mesh EMPTY = new Mesh(new float[0], new int[0]);
+
+	private final float[] vertices;
+	private final int[] indices;
+
+	Mesh(float[] vertices, int[] indices) {
+		if (vertices.length % STRIDE != 0 || indices.length % 3 != 0) {
+			throw new IllegalArgumentException("Invalid mesh data, vertices=" + vertices.length +
+					" indices=" + indices.length);
+		}
+		this.vertices = vertices;
+		this.indices = indices;
+	}
+
+	/**
+	 * Return the interleaved vertex data.  The returned array must not be modified.
+	 */
+	public float[] getVertices() {
+		return vertices;
+	}
+
+	/**
+	 * Return the vertex indices of the triangles.  The returned array must not be modified.
+	 */
+	public int[] getIndices() {
+		return indices;
+	}
+
+	public int getVertexCount() {
+		return vertices.length / STRIDE;
+	}
+
+	public int getTriangleCount() {
+		return indices.length / 3;
+	}
+
+	public boolean isEmpty() {
+		return indices.length == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "Mesh[vertices=" + getVertexCount() + ",triangles=" + getTriangleCount() + "]";
+	}
+}
@@ -0,0 +1,222 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Builder for {@link Mesh} objects.  The builder keeps a current transformation with
+ * the same semantics as the OpenGL model view matrix, so geometry can be described
+ * with the same translations and rotations as in immediate mode.  Vertices are
+ * transformed when they are added.
+ * <p>
+ * The quadric methods produce the same vertices, normals, texture coordinates and
+ * winding as the corresponding GLU quadrics with smooth normals and texturing enabled.
+ */
+final class MeshBuilder {
+
+	private float[] vertices = new float[256 * Mesh.STRIDE];
+	private int vertexCount = 0;
+	private int[] indices = new int[256 * 3];
+	private int indexCount = 0;
+
+	/** Current transformation as three rows of a 3x4 matrix. */
+	private double[] matrix = { 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0 };
+	private final Deque<double[]> stack = new ArrayDeque<double[]>();
+
+	private boolean reversed = false;
+
+
+	public void pushMatrix() {
+		stack.push(matrix.clone());
+	}
+
+	public void popMatrix() {
+		matrix = stack.pop();
+	}
+
+	public void translate(double x, double y, double z) {
+		final double[] m = matrix;
+		m[3] += m[0] * x + m[1] * y + m[2] * z;
+		m[7] += m[4] * x + m[5] * y + m[6] * z;
+		m[11] += m[8] * x + m[9] * y + m[10] * z;
+	}
+
+	/**
+	 * Rotate the current transformation, see <code>glRotated</code>.
+	 *
+	 * @param angle		the rotation angle in degrees.
+	 */
+	public void rotate(double angle, double x, double y, double z) {
+		final double len = Math.sqrt(x * x + y * y + z * z);
+		x /= len;
+		y /= len;
+		z /= len;
+		final double a = Math.toRadians(angle);
+		final double c = Math.cos(a);
+		final double s = Math.sin(a);
+		final double t = 1 - c;
+		final double[] r = {
+				t * x * x + c, t * x * y - s * z, t * x * z + s * y,
+				t * x * y + s * z, t * y * y + c, t * y * z - s * x,
+				t * x * z - s * y, t * y * z + s * x, t * z * z + c
+		};
+
+		final double[] m = matrix;
+		for (int row = 0; row < 3; row++) {
+			final double m0 = m[row * 4];
+			final double m1 = m[row * 4 + 1];
+			final double m2 = m[row * 4 + 2];
+			for (int col = 0; col < 3; col++) {
+				m[row * 4 + col] = m0 * r[col] + m1 * r[3 + col] + m2 * r[6 + col];
+			}
+		}
+	}
+
+	/**
+	 * Set whether the winding of the triangles added is reversed.  This corresponds
+	 * to switching the front face between clockwise and counter-clockwise in OpenGL.
+	 */
+	public void setReversed(boolean reversed) {
+		this.reversed = reversed;
+	}
+
+
+	/**
+	 * Add a vertex.  The position and normal are transformed by the current
+	 * transformation, and the normal is normalized.
+	 *
+	 * @return	the index of the vertex.
+	 */
+	public int vertex(double x, double y, double z, double nx, double ny, double nz, double s, double t) {
+		final double[] m = matrix;
+		final double px = m[0] * x + m[1] * y + m[2] * z + m[3];
+		final double py = m[4] * x + m[5] * y + m[6] * z + m[7];
+		final double pz = m[8] * x + m[9] * y + m[10] * z + m[11];
+		double tx = m[0] * nx + m[1] * ny + m[2] * nz;
+		double ty = m[4] * nx + m[5] * ny + m[6] * nz;
+		double tz = m[8] * nx + m[9] * ny + m[10] * nz;
+		final double mag = Math.sqrt(tx * tx + ty * ty + tz * tz);
+		if (mag > 0.00001) {
+			tx /= mag;
+			ty /= mag;
+			tz /= mag;
+		}
+
+		if ((vertexCount + 1) * Mesh.STRIDE > vertices.length) {
+			vertices = Arrays.copyOf(vertices, vertices.length * 2);
+		}
+		int i = vertexCount * Mesh.STRIDE;
+		vertices[i++] = (float) px;
+		vertices[i++] = (float) py;
+		vertices[i++] = (float) pz;
+		vertices[i++] = (float) tx;
+		vertices[i++] = (float) ty;
+		vertices[i++] = (float) tz;
+		vertices[i++] = (float) s;
+		vertices[i++] = (float) t;
+		return vertexCount++;
+	}
+
+	/**
+	 * Add a triangle.  Triangles with coincident vertex positions are ignored.
+	 */
+	public void triangle(int a, int b, int c) {
+		if (samePosition(a, b) || samePosition(b, c) || samePosition(a, c)) {
+			return;
+		}
+		if (indexCount + 3 > indices.length) {
+			indices = Arrays.copyOf(indices, indices.length * 2);
+		}
+		indices[indexCount++] = a;
+		if (reversed) {
+			indices[indexCount++] = c;
+			indices[indexCount++] = b;
+		} else {
+			indices[indexCount++] = b;
+			indices[indexCount++] = c;
+		}
+	}
+
+	/**
+	 * Add the triangles of a quad strip, see <code>GL_QUAD_STRIP</code>.  The quad
+	 * strip vertices are a[0], b[0], a[1], b[1], ...
+	 */
+	public void quadStrip(int[] a, int[] b) {
+		for (int i = 0; i + 1 < a.length; i++) {
+			triangle(a[i], b[i], a[i + 1]);
+			triangle(a[i + 1], b[i], b[i + 1]);
+		}
+	}
+
+
+	/**
+	 * Add a cylinder along the z axis, see <code>gluCylinder</code>.  An inside
+	 * orientation only reverses the normals, as in GLU.
+	 */
+	public void cylinder(double baseRadius, double topRadius, double height, int slices, int stacks, boolean inside) {
+		final double nsign = inside ? -1 : 1;
+		final double da = 2.0 * Math.PI / slices;
+		final double dr = (topRadius - baseRadius) / stacks;
+		final double dz = height / stacks;
+		final double nz = (baseRadius - topRadius) / height;
+		final double ds = 1.0 / slices;
+		final double dt = 1.0 / stacks;
+
+		int[] previous = null;
+		for (int j = 0; j <= stacks; j++) {
+			final double r = baseRadius + j * dr;
+			final double z = j * dz;
+			final int[] ring = new int[slices + 1];
+			for (int i = 0; i <= slices; i++) {
+				final double a = (i == slices) ? 0 : i * da;
+				final double x = Math.sin(a);
+				final double y = Math.cos(a);
+				ring[i] = vertex(x * r, y * r, z, x * nsign, y * nsign, nz * nsign, i * ds, j * dt);
+			}
+			if (previous != null) {
+				quadStrip(previous, ring);
+			}
+			previous = ring;
+		}
+	}
+
+	/**
+	 * Add a disk in the xy plane, see <code>gluDisk</code>.  An inside orientation
+	 * reverses both the normal and the winding, as in GLU.  A disk with zero radius
+	 * is omitted.
+	 */
+	public void disk(double innerRadius, double outerRadius, int slices, boolean inside) {
+		if (innerRadius == 0 && outerRadius == 0)
+			return;
+		final double nz = inside ? -1 : 1;
+		final double da = 2.0 * Math.PI / slices;
+		final double dtc = 2.0 * outerRadius;
+
+		final int[] outer = new int[slices + 1];
+		final int[] inner = new int[slices + 1];
+		for (int n = 0; n <= slices; n++) {
+			final int s = inside ? slices - n : n;
+			final double a = (s == slices) ? 0 : s * da;
+			final double sa = Math.sin(a);
+			final double ca = Math.cos(a);
+			outer[n] = vertex(outerRadius * sa, outerRadius * ca, 0, 0, 0, nz,
+					0.5 + sa * outerRadius / dtc, 0.5 + ca * outerRadius / dtc);
+			inner[n] = vertex(innerRadius * sa, innerRadius * ca, 0, 0, 0, nz,
+					0.5 + sa * innerRadius / dtc, 0.5 + ca * innerRadius / dtc);
+		}
+		quadStrip(outer, inner);
+	}
+
+
+	public Mesh build() {
+		return new Mesh(Arrays.copyOf(vertices, vertexCount * Mesh.STRIDE), Arrays.copyOf(indices, indexCount));
+	}
+
+
+	private boolean samePosition(int a, int b) {
+		final int i = a * Mesh.STRIDE;
+		final int j = b * Mesh.STRIDE;
+		return vertices[i] == vertices[j] && vertices[i + 1] == vertices[j + 1] && vertices[i + 2] == vertices[j + 2];
+	}
+}
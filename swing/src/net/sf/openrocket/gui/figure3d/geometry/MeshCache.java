@@ -0,0 +1,141 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+import java.util.EventObject;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.sf.openrocket.util.StateChangeListener;
+
+/**
+ * A cache of component meshes that are generated on background threads.
+ * <p>
+ * {@link #get(MeshKey)} returns the mesh if it is available, and otherwise schedules
+ * its generation and returns <code>null</code>.  The listener is notified whenever
+ * all scheduled meshes have been generated, so the figure can be redrawn with them.
+ * <p>
+ * Like the {@link net.sf.openrocket.gui.figure3d.TextureCache}, the cache keeps two
+ * generations of entries.  Entries not requested since the previous call to
+ * {@link #advanceGeneration()} are discarded.  The get and advance methods must be
+ * called from a single thread, normally the OpenGL thread.
+ */
+final class MeshCache {
+	private static final Logger log = LoggerFactory.getLogger(MeshCache.class);
+
+	private static final ExecutorService executor = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+				private final AtomicInteger count = new AtomicInteger();
+
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread t = new Thread(r, "MeshGenerator-" + count.incrementAndGet());
+					t.setDaemon(true);
+					t.setPriority(Thread.MIN_PRIORITY);
+					return t;
+				}
+			});
+
+	private Map<MeshKey, Future<Mesh>> oldMeshes = new HashMap<MeshKey, Future<Mesh>>();
+	private Map<MeshKey, Future<Mesh>> meshes = new HashMap<MeshKey, Future<Mesh>>();
+
+	private final AtomicInteger pending = new AtomicInteger();
+	private volatile StateChangeListener listener = null;
+
+
+	/**
+	 * Set the listener that is notified, on a background thread, when all scheduled
+	 * meshes have been generated.
+	 */
+	public void setListener(StateChangeListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Return the mesh of a key, or schedule its generation.
+	 *
+	 * @param key	the mesh key.
+	 * @return		the mesh, or <code>null</code> if it is not yet available or its
+	 * 				generation failed.
+	 */
+	public Mesh get(final MeshKey key) {
+		Future<Mesh> future = meshes.get(key);
+		if (future == null) {
+			future = oldMeshes.remove(key);
+			if (future == null) {
+				future = schedule(key);
+			}
+			meshes.put(key, future);
+		}
+
+		if (!future.isDone() || future.isCancelled()) {
+			return null;
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			// Already logged by the generation task
+			return null;
+		}
+	}
+
+	/**
+	 * Discard the entries that have not been requested since the previous call,
+	 * cancelling their generation if it is still pending.
+	 */
+	public void advanceGeneration() {
+		for (Future<Mesh> future : oldMeshes.values()) {
+			future.cancel(false);
+		}
+		oldMeshes = meshes;
+		meshes = new HashMap<MeshKey, Future<Mesh>>();
+	}
+
+	/**
+	 * Discard all entries.
+	 */
+	public void clear() {
+		advanceGeneration();
+		advanceGeneration();
+	}
+
+
+	private Future<Mesh> schedule(final MeshKey key) {
+		pending.incrementAndGet();
+		FutureTask<Mesh> task = new FutureTask<Mesh>(new Callable<Mesh>() {
+			@Override
+			public Mesh call() {
+				try {
+					return MeshGenerator.generate(key);
+				} catch (RuntimeException e) {
+					log.error("Unable to generate mesh for " + key, e);
+					throw e;
+				}
+			}
+		}) {
+			@Override
+			protected void done() {
+				if (pending.decrementAndGet() == 0) {
+					StateChangeListener l = listener;
+					if (l != null) {
+						l.stateChanged(new EventObject(MeshCache.this));
+					}
+				}
+			}
+		};
+		executor.execute(task);
+		return task;
+	}
+}
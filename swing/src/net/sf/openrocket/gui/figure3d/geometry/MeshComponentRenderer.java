@@ -0,0 +1,145 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GLAutoDrawable;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.StateChangeListener;
+
+/**
+ * A component renderer that draws the components from vertex buffer objects.
+ * <p>
+ * The component surfaces are tessellated into meshes on background threads by
+ * a {@link MeshCache}.  Meshes are keyed by the geometry parameters, so only
+ * components whose geometry changed are tessellated again when the rocket is
+ * edited.  Until the mesh of a surface is available the surface is drawn in
+ * immediate mode, and the mesh listener is notified when the figure should be
+ * redrawn.
+ * <p>
+ * The buffers are kept for two generations of {@link #updateFigure(GLAutoDrawable)}
+ * in the same way as the meshes.
+ */
+public class MeshComponentRenderer extends ComponentRenderer {
+	private static final int BYTES_PER_VERTEX = Mesh.STRIDE * Buffers.SIZEOF_FLOAT;
+
+	private final MeshCache meshes = new MeshCache();
+	private Map<MeshKey, int[]> oldBuffers = new HashMap<MeshKey, int[]>();
+	private Map<MeshKey, int[]> buffers = new HashMap<MeshKey, int[]>();
+
+	/**
+	 * Set the listener that is notified, on a background thread, when meshes
+	 * have become available and the figure should be redrawn.
+	 */
+	public void setMeshListener(StateChangeListener listener) {
+		meshes.setListener(listener);
+	}
+
+	@Override
+	public void updateFigure(GLAutoDrawable drawable) {
+		super.updateFigure(drawable);
+
+		GL2 gl = drawable.getGL().getGL2();
+		deleteBuffers(gl, oldBuffers);
+		oldBuffers = buffers;
+		buffers = new HashMap<MeshKey, int[]>();
+		meshes.advanceGeneration();
+	}
+
+	@Override
+	public void dispose(GLAutoDrawable drawable) {
+		super.dispose(drawable);
+
+		GL2 gl = drawable.getGL().getGL2();
+		deleteBuffers(gl, oldBuffers);
+		deleteBuffers(gl, buffers);
+		meshes.clear();
+	}
+
+	@Override
+	protected void renderInstance(GL2 gl, RocketComponent c, Surface which) {
+		MeshKey key = MeshGenerator.getKey(c, which, LOD);
+		if (key == null) {
+			super.renderInstance(gl, c, which);
+			return;
+		}
+
+		int[] b = buffers.get(key);
+		if (b == null) {
+			b = oldBuffers.remove(key);
+			if (b == null) {
+				Mesh mesh = meshes.get(key);
+				if (mesh == null) {
+					super.renderInstance(gl, c, which);
+					return;
+				}
+				b = upload(gl, mesh);
+			}
+			buffers.put(key, b);
+		}
+
+		if (b[2] == 0)
+			return;
+
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, b[0]);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, b[1]);
+		gl.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+		gl.glEnableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glVertexPointer(3, GL.GL_FLOAT, BYTES_PER_VERTEX, 0);
+		gl.glNormalPointer(GL.GL_FLOAT, BYTES_PER_VERTEX, Mesh.NORMAL_OFFSET * Buffers.SIZEOF_FLOAT);
+		gl.glTexCoordPointer(2, GL.GL_FLOAT, BYTES_PER_VERTEX, Mesh.TEXCOORD_OFFSET * Buffers.SIZEOF_FLOAT);
+
+		gl.glDrawElements(GL.GL_TRIANGLES, b[2], GL.GL_UNSIGNED_INT, 0);
+
+		gl.glDisableClientState(GLPointerFunc.GL_TEXTURE_COORD_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
+		gl.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+	}
+
+	/**
+	 * Upload a mesh into buffer objects.
+	 *
+	 * @return	the vertex buffer, the index buffer and the number of indices.
+	 */
+	private static int[] upload(GL2 gl, Mesh mesh) {
+		int[] b = new int[3];
+		b[2] = mesh.getIndices().length;
+		if (mesh.isEmpty())
+			return b;
+
+		gl.glGenBuffers(2, b, 0);
+
+		FloatBuffer vertices = Buffers.newDirectFloatBuffer(mesh.getVertices());
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, b[0]);
+		gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) vertices.capacity() * Buffers.SIZEOF_FLOAT, vertices,
+				GL.GL_STATIC_DRAW);
+		gl.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+
+		IntBuffer indices = Buffers.newDirectIntBuffer(mesh.getIndices());
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, b[1]);
+		gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, (long) indices.capacity() * Buffers.SIZEOF_INT, indices,
+				GL.GL_STATIC_DRAW);
+		gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, 0);
+		return b;
+	}
+
+	private static void deleteBuffers(GL2 gl, Map<MeshKey, int[]> map) {
+		for (int[] b : map.values()) {
+			if (b[2] > 0) {
+				gl.glDeleteBuffers(2, b, 0);
+			}
+		}
+		map.clear();
+	}
+}
@@ -0,0 +1,655 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+import net.sf.openrocket.gui.figure3d.geometry.MeshKey.Kind;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.EllipticalFinSet;
+import net.sf.openrocket.rocketcomponent.FinSet;
+import net.sf.openrocket.rocketcomponent.LaunchLug;
+import net.sf.openrocket.rocketcomponent.MassObject;
+import net.sf.openrocket.rocketcomponent.RailButton;
+import net.sf.openrocket.rocketcomponent.RingComponent;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.Transition;
+import net.sf.openrocket.rocketcomponent.Transition.Shape;
+import net.sf.openrocket.rocketcomponent.TubeFinSet;
+import net.sf.openrocket.util.BoundingBox;
+import net.sf.openrocket.util.Coordinate;
+
+/**
+ * Tessellates rocket components into triangle meshes.  The tessellation is done in two
+ * phases:  {@link #getKey(RocketComponent, Surface, int)} reads the geometry parameters
+ * of the component into a {@link MeshKey}, which must be done on the thread owning the
+ * component, and {@link #generate(MeshKey)} produces the mesh from the key alone, which
+ * may be done on any thread.
+ * <p>
+ * The meshes reproduce the geometry drawn by the immediate-mode {@link ComponentRenderer}.
+ */
+final class MeshGenerator {
+
+	// Indices of the transition parameters
+	private static final int TR_LENGTH = 0;
+	private static final int TR_THICKNESS = 1;
+	private static final int TR_FORE_RADIUS = 2;
+	private static final int TR_AFT_RADIUS = 3;
+	private static final int TR_FORE_SHOULDER_RADIUS = 4;
+	private static final int TR_FORE_SHOULDER_INNER = 5;
+	private static final int TR_FORE_SHOULDER_LENGTH = 6;
+	private static final int TR_AFT_SHOULDER_RADIUS = 7;
+	private static final int TR_AFT_SHOULDER_INNER = 8;
+	private static final int TR_AFT_SHOULDER_LENGTH = 9;
+	private static final int TR_POINTED = 10;
+	private static final int TR_PROFILE = 11;
+
+	// Indices of the fin set parameters
+	private static final int FIN_BODY_RADIUS = 0;
+	private static final int FIN_THICKNESS = 1;
+	private static final int FIN_LENGTH = 2;
+	private static final int FIN_CANT = 3;
+	private static final int FIN_MIN_X = 4;
+	private static final int FIN_MIN_Y = 5;
+	private static final int FIN_SPAN_X = 6;
+	private static final int FIN_SPAN_Y = 7;
+	private static final int FIN_ELLIPTICAL = 8;
+	private static final int FIN_POINTS = 9;
+
+	private MeshGenerator() {
+	}
+
+
+	/**
+	 * Return the key of the mesh of a component surface.
+	 *
+	 * @param c			the component.
+	 * @param which		the surface, not {@link Surface#ALL}.
+	 * @param lod		the level of detail, the number of slices around the axis.
+	 * @return			the key, or <code>null</code> if the surface is not drawn as a mesh.
+	 */
+	static MeshKey getKey(RocketComponent c, Surface which, int lod) {
+		if (c instanceof BodyTube) {
+			BodyTube t = (BodyTube) c;
+			return new MeshKey(Kind.TUBE, which, lod, t.getOuterRadius(), t.getInnerRadius(), t.getLength(), 0);
+		} else if (c instanceof LaunchLug) {
+			LaunchLug t = (LaunchLug) c;
+			return new MeshKey(Kind.TUBE, which, lod, t.getOuterRadius(), t.getInnerRadius(), t.getLength(), 0);
+		} else if (c instanceof RailButton) {
+			if (which != Surface.OUTSIDE)
+				return null;
+			RailButton r = (RailButton) c;
+			return new MeshKey(Kind.RAIL_BUTTON, which, lod, r.getOuterDiameter() / 2.0, r.getInnerDiameter() / 2.0,
+					r.getAngleOffset(), r.getTotalHeight(), r.getBaseHeight(), r.getFlangeHeight());
+		} else if (c instanceof RingComponent) {
+			if (which != Surface.OUTSIDE)
+				return null;
+			RingComponent r = (RingComponent) c;
+			return new MeshKey(Kind.RING, which, lod, r.getOuterRadius(), r.getInnerRadius(), r.getLength());
+		} else if (c instanceof Transition) {
+			return getTransitionKey((Transition) c, which, lod);
+		} else if (c instanceof MassObject) {
+			if (which != Surface.OUTSIDE)
+				return null;
+			MassObject o = (MassObject) c;
+			return new MeshKey(Kind.MASS_OBJECT, which, lod, o.getLength(), o.getRadius());
+		} else if (c instanceof FinSet) {
+			if (which != Surface.OUTSIDE)
+				return null;
+			return getFinSetKey((FinSet) c, which, lod);
+		} else if (c instanceof TubeFinSet) {
+			TubeFinSet t = (TubeFinSet) c;
+			return new MeshKey(Kind.TUBE, which, lod, t.getOuterRadius(), t.getInnerRadius(), t.getLength(),
+					t.getOuterRadius());
+		}
+		return null;
+	}
+
+	/**
+	 * Generate the mesh of a key.
+	 */
+	static Mesh generate(MeshKey key) {
+		MeshBuilder b = new MeshBuilder();
+		switch (key.kind) {
+		case TUBE:
+			b.translate(0, key.get(3), 0);
+			tube(b, key.surface, key.get(0), key.get(1), key.get(2), key.lod);
+			break;
+		case RING:
+			tube(b, Surface.OUTSIDE, key.get(0), key.get(1), key.get(2), key.lod);
+			tube(b, Surface.EDGES, key.get(0), key.get(1), key.get(2), key.lod);
+			tube(b, Surface.INSIDE, key.get(0), key.get(1), key.get(2), key.lod);
+			break;
+		case TRANSITION:
+			transition(b, key);
+			break;
+		case MASS_OBJECT:
+			massObject(b, key.get(0), key.get(1), key.lod / 2, key.lod / 2);
+			break;
+		case FIN_SET:
+			finSet(b, key);
+			break;
+		case RAIL_BUTTON:
+			railButton(b, key);
+			break;
+		}
+		return b.build();
+	}
+
+
+	private static MeshKey getTransitionKey(Transition t, Surface which, int lod) {
+		final double length = t.getLength();
+		final double[] profile;
+		if (which == Surface.OUTSIDE || which == Surface.INSIDE) {
+			// Same stations as the immediate-mode renderer, denser near the fore end
+			final int stacks = t.getType() == Shape.CONICAL ? 4 : lod / 2;
+			final double offset = which == Surface.INSIDE ? -t.getThickness() : 0;
+			final double dzBase = length / stacks;
+			double[] stations = new double[2 * (stacks + 16)];
+			int n = 0;
+			double z = 0;
+			stations[n++] = z;
+			stations[n++] = Math.max(0, t.getRadius(z) + offset);
+			while (z < length) {
+				double dz = z / length < 0.025 ? dzBase / 8.0 : dzBase;
+				z = Math.min(z + dz, length);
+				if (n + 2 > stations.length) {
+					stations = Arrays.copyOf(stations, stations.length * 2);
+				}
+				stations[n++] = z;
+				stations[n++] = Math.max(0, t.getRadius(z) + offset);
+			}
+			profile = Arrays.copyOf(stations, n);
+		} else {
+			profile = new double[0];
+		}
+
+		final boolean pointed;
+		switch (t.getType()) {
+		case CONICAL:
+		case OGIVE:
+		case PARABOLIC:
+			pointed = true;
+			break;
+		default:
+			pointed = false;
+		}
+
+		double[] params = new double[TR_PROFILE + profile.length];
+		params[TR_LENGTH] = length;
+		params[TR_THICKNESS] = t.getThickness();
+		params[TR_FORE_RADIUS] = t.getForeRadius();
+		params[TR_AFT_RADIUS] = t.getAftRadius();
+		params[TR_FORE_SHOULDER_RADIUS] = t.getForeShoulderRadius();
+		params[TR_FORE_SHOULDER_INNER] = (t.isFilled() || t.isForeShoulderCapped()) ? 0 :
+				t.getForeShoulderRadius() - t.getForeShoulderThickness();
+		params[TR_FORE_SHOULDER_LENGTH] = t.getForeShoulderLength();
+		params[TR_AFT_SHOULDER_RADIUS] = t.getAftShoulderRadius();
+		params[TR_AFT_SHOULDER_INNER] = (t.isFilled() || t.isAftShoulderCapped()) ? 0 :
+				t.getAftShoulderRadius() - t.getAftShoulderThickness();
+		params[TR_AFT_SHOULDER_LENGTH] = t.getAftShoulderLength();
+		params[TR_POINTED] = pointed ? 1 : 0;
+		System.arraycopy(profile, 0, params, TR_PROFILE, profile.length);
+		return new MeshKey(Kind.TRANSITION, which, lod, params);
+	}
+
+	private static MeshKey getFinSetKey(FinSet finSet, Surface which, int lod) {
+		final Coordinate[] points = finSet.getFinPointsWithTab();
+		final BoundingBox bounds = finSet.getInstanceBoundingBox();
+
+		double[] params = new double[FIN_POINTS + 3 * points.length];
+		params[FIN_BODY_RADIUS] = finSet.getBodyRadius();
+		params[FIN_THICKNESS] = finSet.getThickness();
+		params[FIN_LENGTH] = finSet.getLength();
+		params[FIN_CANT] = finSet.getCantAngle();
+		params[FIN_MIN_X] = bounds.min.x;
+		params[FIN_MIN_Y] = bounds.min.y;
+		params[FIN_SPAN_X] = bounds.max.x - bounds.min.x;
+		params[FIN_SPAN_Y] = bounds.max.y - bounds.min.y;
+		params[FIN_ELLIPTICAL] = (finSet instanceof EllipticalFinSet) ? 1 : 0;
+		for (int i = 0; i < points.length; i++) {
+			params[FIN_POINTS + 3 * i] = points[i].x;
+			params[FIN_POINTS + 3 * i + 1] = points[i].y;
+			params[FIN_POINTS + 3 * i + 2] = points[i].z;
+		}
+		return new MeshKey(Kind.FIN_SET, which, lod, params);
+	}
+
+
+	/**
+	 * A tube along the x axis, as drawn by ComponentRenderer.renderTube.
+	 */
+	private static void tube(MeshBuilder b, Surface which, double oR, double iR, double len, int slices) {
+		b.pushMatrix();
+		b.rotate(90, 0, 1.0, 0);
+		if (which == Surface.OUTSIDE)
+			b.cylinder(oR, oR, len, slices, 1, false);
+
+		b.rotate(180, 0, 1.0, 0);
+		if (which == Surface.EDGES)
+			b.disk(iR, oR, slices, false);
+
+		b.rotate(180, 0, 1.0, 0);
+		b.translate(0, 0, len);
+		if (which == Surface.EDGES)
+			b.disk(iR, oR, slices, false);
+
+		if (which == Surface.INSIDE)
+			b.cylinder(iR, iR, -len, slices, 1, true);
+		b.popMatrix();
+	}
+
+	private static void transition(MeshBuilder b, MeshKey key) {
+		final Surface which = key.surface;
+		final int slices = key.lod;
+		final double length = key.get(TR_LENGTH);
+		final double thickness = key.get(TR_THICKNESS);
+
+		if (which == Surface.OUTSIDE || which == Surface.INSIDE) {
+			b.pushMatrix();
+			b.rotate(90, 0, 1.0, 0);
+			b.setReversed(which == Surface.INSIDE);
+			transitionProfile(b, key, slices);
+			b.setReversed(false);
+			b.popMatrix();
+		}
+
+		if (which == Surface.EDGES || which == Surface.INSIDE) {
+			final boolean edges = (which == Surface.EDGES);
+
+			// Aft edge
+			final double aftRadius = key.get(TR_AFT_RADIUS);
+			b.pushMatrix();
+			b.translate(length, 0, 0);
+			b.rotate(edges ? 90 : 270, 0, 1.0, 0);
+			b.disk(Math.max(0, aftRadius - thickness), aftRadius, slices, false);
+			b.popMatrix();
+
+			// Aft shoulder
+			final double aftShoulderLength = key.get(TR_AFT_SHOULDER_LENGTH);
+			if (aftShoulderLength > 0) {
+				b.pushMatrix();
+				b.translate(length, 0, 0);
+				shoulder(b, edges, key.get(TR_AFT_SHOULDER_RADIUS), key.get(TR_AFT_SHOULDER_INNER),
+						aftShoulderLength, aftRadius, slices);
+				b.popMatrix();
+			}
+
+			// Fore edge
+			final double foreRadius = key.get(TR_FORE_RADIUS);
+			b.pushMatrix();
+			b.rotate(180, 0, 1.0, 0);
+			b.rotate(edges ? 90 : 270, 0, 1.0, 0);
+			b.disk(Math.max(0, foreRadius - thickness), foreRadius, slices, false);
+			b.popMatrix();
+
+			// Fore shoulder
+			final double foreShoulderLength = key.get(TR_FORE_SHOULDER_LENGTH);
+			if (foreShoulderLength > 0) {
+				b.pushMatrix();
+				b.rotate(180, 0, 1.0, 0);
+				shoulder(b, edges, key.get(TR_FORE_SHOULDER_RADIUS), key.get(TR_FORE_SHOULDER_INNER),
+						foreShoulderLength, foreRadius, slices);
+				b.popMatrix();
+			}
+		}
+	}
+
+	private static void shoulder(MeshBuilder b, boolean edges, double radius, double innerRadius, double length,
+			double edgeRadius, int slices) {
+		if (edges) {
+			tube(b, Surface.OUTSIDE, radius, innerRadius, length, slices);
+			tube(b, Surface.EDGES, radius, innerRadius, length, slices);
+		} else {
+			tube(b, Surface.INSIDE, radius, innerRadius, length, slices);
+		}
+		b.pushMatrix();
+		b.rotate(edges ? 90 : 270, 0, 1.0, 0);
+		b.disk(radius, edgeRadius, slices, false);
+		b.popMatrix();
+	}
+
+	/**
+	 * The surface of revolution of a transition along the z axis, as drawn by
+	 * TransitionRenderer.drawTransition.
+	 */
+	private static void transitionProfile(MeshBuilder b, MeshKey key, int slices) {
+		final double length = key.get(TR_LENGTH);
+		final boolean pointed = key.get(TR_POINTED) != 0;
+		final double da = 2.0 * Math.PI / slices;
+		final double ds = 1.0 / slices;
+
+		final int[] fore = new int[slices + 1];
+		final int[] aft = new int[slices + 1];
+		double lnz = 0;
+		for (int k = TR_PROFILE; k + 3 < key.size(); k += 2) {
+			final double z = key.get(k);
+			final double r = key.get(k + 1);
+			final double zNext = key.get(k + 2);
+			final double rNext = key.get(k + 3);
+
+			// Z component of normal vectors
+			final double nz = (r - rNext) / (zNext - z);
+
+			for (int i = 0; i <= slices; i++) {
+				final double a = (i == slices) ? 0 : i * da;
+				final double x = Math.sin(a);
+				final double y = Math.cos(a);
+				final double s = i * ds;
+				if (r == 0) {
+					if (pointed) {
+						fore[i] = b.vertex(0, 0, z, x, y, nz, s, z / length);
+					} else {
+						fore[i] = b.vertex(0, 0, z, 0, 0, -1, s, z / length);
+					}
+				} else {
+					fore[i] = b.vertex(x * r, y * r, z, x, y, lnz, s, z / length);
+				}
+				aft[i] = b.vertex(x * rNext, y * rNext, zNext, x, y, nz, s, zNext / length);
+			}
+			b.quadStrip(fore, aft);
+			lnz = nz;
+		}
+	}
+
+	/**
+	 * A mass object along the x axis, as drawn by MassObjectRenderer.drawMassObject.
+	 */
+	private static void massObject(MeshBuilder b, double length, double radius, int slices, int stacks) {
+		b.pushMatrix();
+		b.rotate(90, 0, 1.0, 0);
+
+		final double da = 2.0 * Math.PI / slices;
+		final double dz = length / stacks;
+		final double ds = 1.0 / slices;
+		final double dt = 1.0 / stacks;
+
+		final int[] fore = new int[slices + 1];
+		final int[] aft = new int[slices + 1];
+		double t = 0;
+		double z = 0;
+		for (int j = 0; j < stacks; j++) {
+			final double r = massObjectRadius(length, radius, z);
+			final double rNext = (j == stacks - 1) ? 0 : massObjectRadius(length, radius, z + dz);
+
+			for (int i = 0; i <= slices; i++) {
+				final double a = (i == slices) ? 0 : i * da;
+				final double x = Math.sin(a);
+				final double y = Math.cos(a);
+				final double s = i * ds;
+				if (r == 0) {
+					fore[i] = b.vertex(x * r, y * r, z, 0, 0, 1, s, t);
+				} else {
+					fore[i] = b.vertex(x * r, y * r, z, x, y, z, s, t);
+				}
+				if (rNext == 0) {
+					aft[i] = b.vertex(x * rNext, y * rNext, z + dz, 0, 0, -1, s, t + dt);
+				} else {
+					aft[i] = b.vertex(x * rNext, y * rNext, z + dz, x, y, z, s, t + dt);
+				}
+			}
+			b.quadStrip(fore, aft);
+			t += dt;
+			z += dz;
+		}
+		b.popMatrix();
+	}
+
+	private static double massObjectRadius(double length, double radius, double z) {
+		double arc = Math.min(length, 2 * radius) * 0.35f;
+		if (z == 0 || z == length)
+			return 0;
+		if (z < arc) {
+			double zz = z - arc;
+			return (radius - arc) + Math.sqrt(arc * arc - zz * zz);
+		}
+		if (z > length - arc) {
+			double zz = (z - length + arc);
+			return (radius - arc) + Math.sqrt(arc * arc - zz * zz);
+		}
+		return radius;
+	}
+
+	/**
+	 * A single fin, as drawn by FinRenderer.renderFinSet.
+	 */
+	private static void finSet(MeshBuilder b, MeshKey key) {
+		final double bodyRadius = key.get(FIN_BODY_RADIUS);
+		final double halfThickness = key.get(FIN_THICKNESS) / 2.0;
+		final double length = key.get(FIN_LENGTH);
+		final double minX = key.get(FIN_MIN_X);
+		final double minY = key.get(FIN_MIN_Y);
+		final double spanX = key.get(FIN_SPAN_X) > 0 ? key.get(FIN_SPAN_X) : 1;
+		final double spanY = key.get(FIN_SPAN_Y) > 0 ? key.get(FIN_SPAN_Y) : 1;
+
+		// Fin points without consecutive duplicates
+		final int count = (key.size() - FIN_POINTS) / 3;
+		final double[] x = new double[count];
+		final double[] y = new double[count];
+		final double[] z = new double[count];
+		int n = 0;
+		for (int i = 0; i < count; i++) {
+			double px = key.get(FIN_POINTS + 3 * i);
+			double py = key.get(FIN_POINTS + 3 * i + 1);
+			double pz = key.get(FIN_POINTS + 3 * i + 2);
+			if (n > 0 && px == x[n - 1] && py == y[n - 1] && pz == z[n - 1])
+				continue;
+			x[n] = px;
+			y[n] = py;
+			z[n] = pz;
+			n++;
+		}
+		while (n > 1 && x[0] == x[n - 1] && y[0] == y[n - 1] && z[0] == z[n - 1]) {
+			n--;
+		}
+		if (n < 3)
+			return;
+
+		b.pushMatrix();
+		b.translate(length / 2, 0, 0);
+		b.translate(0, -bodyRadius, 0);
+		b.rotate(Math.toDegrees(key.get(FIN_CANT)), 0, 1, 0);
+		b.translate(-length / 2, 0, 0);
+
+		final int[] triangles = triangulate(x, y, n);
+
+		// Fin side: +z, the points in reverse order
+		final int[] plus = new int[n];
+		for (int i = 0; i < n; i++) {
+			plus[i] = b.vertex(x[i], y[i] + bodyRadius, z[i] + halfThickness, 0, 0, 1,
+					(x[i] - minX) / spanX, (y[i] - minY) / spanY);
+		}
+		for (int i = 0; i < triangles.length; i += 3) {
+			b.triangle(plus[triangles[i]], plus[triangles[i + 2]], plus[triangles[i + 1]]);
+		}
+
+		// Fin side: -z
+		final int[] minus = new int[n];
+		for (int i = 0; i < n; i++) {
+			minus[i] = b.vertex(x[i], y[i] + bodyRadius, z[i] - halfThickness, 0, 0, -1,
+					(x[i] - minX) / spanX, (y[i] - minY) / spanY);
+		}
+		for (int i = 0; i < triangles.length; i += 3) {
+			b.triangle(minus[triangles[i]], minus[triangles[i + 1]], minus[triangles[i + 2]]);
+		}
+
+		// Strip around the edge
+		if (key.get(FIN_ELLIPTICAL) != 0) {
+			// Smooth shading, normals averaged over the adjacent edges
+			final int[] lower = new int[n + 1];
+			final int[] upper = new int[n + 1];
+			for (int i = 0; i < n; i++) {
+				final int prev = (i + n - 1) % n;
+				final int next = (i + 1) % n;
+				final double[] n1 = edgeNormal(x[prev], y[prev], x[i], y[i]);
+				final double[] n2 = edgeNormal(x[i], y[i], x[next], y[next]);
+				final double s = (x[i] - minX) / spanX;
+				final double t = (y[i] - minY) / spanY;
+				lower[i] = b.vertex(x[i], y[i] + bodyRadius, z[i] - halfThickness, n1[0] + n2[0], n1[1] + n2[1], 0, s, t);
+				upper[i] = b.vertex(x[i], y[i] + bodyRadius, z[i] + halfThickness, n1[0] + n2[0], n1[1] + n2[1], 0, s, t);
+			}
+			lower[n] = lower[0];
+			upper[n] = upper[0];
+			b.quadStrip(lower, upper);
+		} else {
+			// Flat shading, separate vertices for each edge
+			for (int i = 1; i <= n; i++) {
+				final int p = i - 1;
+				final int c = i % n;
+				final double nx = y[p] - y[c];
+				final double ny = x[c] - x[p];
+				final int[] lower = new int[2];
+				final int[] upper = new int[2];
+				for (int k = 0; k < 2; k++) {
+					final int j = (k == 0) ? p : c;
+					final double s = (x[j] - minX) / spanX;
+					final double t = (y[j] - minY) / spanY;
+					lower[k] = b.vertex(x[j], y[j] + bodyRadius, z[j] - halfThickness, nx, ny, 0, s, t);
+					upper[k] = b.vertex(x[j], y[j] + bodyRadius, z[j] + halfThickness, nx, ny, 0, s, t);
+				}
+				b.quadStrip(lower, upper);
+			}
+		}
+		b.popMatrix();
+	}
+
+	private static double[] edgeNormal(double x0, double y0, double x1, double y1) {
+		double nx = y0 - y1;
+		double ny = x1 - x0;
+		double len = Math.hypot(nx, ny);
+		if (len > 0) {
+			nx /= len;
+			ny /= len;
+		}
+		return new double[] { nx, ny };
+	}
+
+	/**
+	 * A rail button, as drawn by ComponentRenderer.renderRailButton.
+	 */
+	private static void railButton(MeshBuilder b, MeshKey key) {
+		final double or = key.get(0);
+		final double ir = key.get(1);
+		final double angleOffset = key.get(2);
+		final double totalHeight = key.get(3);
+		final double baseHeight = key.get(4);
+		final double flangeHeight = key.get(5);
+		final int slices = key.lod;
+
+		b.rotate(angleOffset * 180 / Math.PI - 90, 1, 0, 0);
+
+		// Inner diameter
+		b.cylinder(ir, ir, totalHeight, slices, 1, false);
+
+		// Bottom disc
+		b.cylinder(or, or, baseHeight, slices, 1, false);
+		b.disk(0, or, slices, true);
+		b.translate(0, 0, baseHeight);
+		b.disk(0, or, slices, false);
+
+		// Upper disc
+		b.translate(0, 0, totalHeight - flangeHeight * 2.0);
+		b.cylinder(or, or, flangeHeight, slices, 1, false);
+		b.disk(0, or, slices, true);
+		b.translate(0, 0, flangeHeight);
+		b.disk(0, or, slices, false);
+	}
+
+
+	/**
+	 * Triangulate a simple polygon by ear clipping.  The triangles have the same
+	 * orientation as the polygon.  Degenerate and self-intersecting polygons produce
+	 * a best-effort result.
+	 *
+	 * @param x		the x coordinates of the polygon vertices.
+	 * @param y		the y coordinates of the polygon vertices.
+	 * @param n		the number of vertices.
+	 * @return		the vertex indices of the triangles.
+	 */
+	static int[] triangulate(double[] x, double[] y, int n) {
+		if (n < 3)
+			return new int[0];
+
+		double area = 0;
+		for (int i = 0; i < n; i++) {
+			int j = (i + 1) % n;
+			area += x[i] * y[j] - x[j] * y[i];
+		}
+		if (area == 0)
+			return new int[0];
+		final double sign = Math.signum(area);
+
+		final int[] next = new int[n];
+		final int[] prev = new int[n];
+		for (int i = 0; i < n; i++) {
+			next[i] = (i + 1) % n;
+			prev[i] = (i + n - 1) % n;
+		}
+
+		final int[] result = new int[3 * (n - 2)];
+		int count = 0;
+		int remaining = n;
+		int current = 0;
+		while (remaining > 3) {
+			int ear = -1;
+			int v = current;
+			for (int k = 0; k < remaining; k++) {
+				if (isEar(x, y, prev[v], v, next[v], next, sign)) {
+					ear = v;
+					break;
+				}
+				v = next[v];
+			}
+
+			boolean emit = true;
+			if (ear < 0) {
+				// No proper ear, remove the least convex vertex to guarantee progress
+				double least = Double.MAX_VALUE;
+				v = current;
+				for (int k = 0; k < remaining; k++) {
+					double c = Math.abs(cross(x, y, prev[v], v, next[v]));
+					if (c < least) {
+						least = c;
+						ear = v;
+					}
+					v = next[v];
+				}
+				emit = sign * cross(x, y, prev[ear], ear, next[ear]) > 0;
+			}
+
+			if (emit) {
+				result[count++] = prev[ear];
+				result[count++] = ear;
+				result[count++] = next[ear];
+			}
+			next[prev[ear]] = next[ear];
+			prev[next[ear]] = prev[ear];
+			current = next[ear];
+			remaining--;
+		}
+
+		if (sign * cross(x, y, prev[current], current, next[current]) > 0) {
+			result[count++] = prev[current];
+			result[count++] = current;
+			result[count++] = next[current];
+		}
+		return Arrays.copyOf(result, count);
+	}
+
+	private static boolean isEar(double[] x, double[] y, int a, int b, int c, int[] next, double sign) {
+		if (sign * cross(x, y, a, b, c) <= 0)
+			return false;
+
+		for (int p = next[c]; p != a; p = next[p]) {
+			if ((x[p] == x[a] && y[p] == y[a]) || (x[p] == x[b] && y[p] == y[b]) || (x[p] == x[c] && y[p] == y[c]))
+				continue;
+			if (sign * cross(x, y, a, b, p) >= 0 && sign * cross(x, y, b, c, p) >= 0 &&
+					sign * cross(x, y, c, a, p) >= 0)
+				return false;
+		}
+		return true;
+	}
+
+	private static double cross(double[] x, double[] y, int a, int b, int c) {
+		return (x[b] - x[a]) * (y[c] - y[b]) - (y[b] - y[a]) * (x[c] - x[b]);
+	}
+}
@@ -0,0 +1,61 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+import java.util.Arrays;
+
+import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+
+/**
+ * Key identifying a tessellated component surface.  The key contains all geometry
+ * parameters the mesh depends on, so the mesh can be generated from the key alone
+ * without accessing the component.  Components with equal geometry share a key,
+ * and any change of the geometry of a component results in a new key.
+ */
+final class MeshKey {
+
+	enum Kind {
+		TUBE, RING, TRANSITION, MASS_OBJECT, FIN_SET, RAIL_BUTTON
+	}
+
+	final Kind kind;
+	final Surface surface;
+	final int lod;
+	private final double[] params;
+	private final int hashCode;
+
+	MeshKey(Kind kind, Surface surface, int lod, double... params) {
+		this.kind = kind;
+		this.surface = surface;
+		this.lod = lod;
+		this.params = params;
+		this.hashCode = 31 * (31 * (31 * kind.hashCode() + surface.hashCode()) + lod) + Arrays.hashCode(params);
+	}
+
+	double get(int index) {
+		return params[index];
+	}
+
+	int size() {
+		return params.length;
+	}
+
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof MeshKey))
+			return false;
+		MeshKey other = (MeshKey) obj;
+		return hashCode == other.hashCode && kind == other.kind && surface == other.surface &&
+				lod == other.lod && Arrays.equals(params, other.params);
+	}
+
+	@Override
+	public String toString() {
+		return "MeshKey[" + kind + "," + surface + ",lod=" + lod + ",params=" + params.length + "]";
+	}
+}
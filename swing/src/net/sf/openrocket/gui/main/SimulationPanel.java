@@ -172,8 +172,9 @@ public class SimulationPanel extends JPanel {
 				}
 
 				long t = System.currentTimeMillis();
+				// Run anew for a new realization of the wind turbulence
 				new SimulationRunDialog(SwingUtilities.getWindowAncestor(
-						SimulationPanel.this), document, sims).setVisible(true);
+						SimulationPanel.this), document, false, sims).setVisible(true);
 				log.info("Running simulations took " + (System.currentTimeMillis() - t) + " ms");
 				fireMaintainSelection();
 			}
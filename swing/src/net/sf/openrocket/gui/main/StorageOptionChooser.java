@@ -5,6 +5,7 @@ import java.awt.event.ActionListener;
 
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
+import javax.swing.JCheckBox;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -39,6 +40,8 @@ public class StorageOptionChooser extends JPanel {
 	
 	private JSpinner timeSpinner;
 	
+	private JCheckBox binaryCheckBox;
+	
 	private JLabel estimateLabel;
 	
 	
@@ -118,7 +121,16 @@ public class StorageOptionChooser extends JPanel {
 				trans.get("StorageOptChooser.lbl.longC2"));
 		buttonGroup.add(noneButton);
 		noneButton.addActionListener(actionUpdater);
-		this.add(noneButton, "spanx, wrap 20lp");
+		this.add(noneButton, "spanx, wrap para");
+		
+		//// Store simulated data in binary form
+		binaryCheckBox = new JCheckBox(trans.get("StorageOptChooser.checkbox.Binary"));
+		//// <html>Store simulated data in a compact binary form, which is faster to save and load.<br>
+		//// Files saved this way cannot be read by earlier versions of OpenRocket.
+		binaryCheckBox.setToolTipText(trans.get("StorageOptChooser.lbl.longE1") +
+				trans.get("StorageOptChooser.lbl.longE2"));
+		binaryCheckBox.addActionListener(actionUpdater);
+		this.add(binaryCheckBox, "spanx, wrap 20lp");
 		
 		// Estimate is updated in loadOptions(opts)
 		estimateLabel = new JLabel("");
@@ -152,6 +164,8 @@ public class StorageOptionChooser extends JPanel {
 			someButton.setSelected(true);
 		}
 		
+		binaryCheckBox.setSelected(opts.isBinarySimulationData());
+		
 		// Time skip spinner
 		artificialEvent = true;
 		timeSpinner.setValue(t);
@@ -173,6 +187,7 @@ public class StorageOptionChooser extends JPanel {
 		}
 		
 		opts.setSimulationTimeSkip(t);
+		opts.setBinarySimulationData(binaryCheckBox.isSelected());
 		
 		opts.setExplicitlySet(true);
 	}
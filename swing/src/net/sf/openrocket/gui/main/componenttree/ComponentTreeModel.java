@@ -1,10 +1,15 @@
 package net.sf.openrocket.gui.main.componenttree;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.JTree;
 import javax.swing.event.TreeModelEvent;
@@ -20,6 +25,14 @@ import net.sf.openrocket.util.BugException;
 
 /**
  * A TreeModel that implements viewing of the rocket tree structure.
+ * <p>
+ * The model answers queries from a copy of the tree structure as it was last
+ * reported to the listeners.  When the rocket structure changes, the copy is
+ * compared with the current structure and only the inserted and removed nodes
+ * are reported, so the tree does not need to be rebuilt and its expansion state
+ * is retained.  Since a frozen rocket fires a single combined event when thawed,
+ * all structural changes made during the freeze are reported in a single update.
+ * Changes that do not affect the structure only update the node concerned.
  * 
  * @author Sampo Niskanen <sampo.niskanen@iki.fi>
  */
@@ -30,30 +43,32 @@ public class ComponentTreeModel implements TreeModel, ComponentChangeListener {
 	private final RocketComponent root;
 	private final JTree tree;
 	
+	/** The children of each node as last reported to the listeners */
+	private final Map<RocketComponent, List<RocketComponent>> children =
+			new IdentityHashMap<RocketComponent, List<RocketComponent>>();
+	
 	public ComponentTreeModel(RocketComponent root, JTree tree) {
 		this.root = root;
 		this.tree = tree;
+		addSubtree(root);
 		root.addComponentChangeListener(this);
 	}
 	
 	
 	@Override
 	public Object getChild(Object parent, int index) {
-		RocketComponent component = (RocketComponent) parent;
+		List<RocketComponent> list = getChildren((RocketComponent) parent);
 		
-		try {
-			return component.getChild(index);
-		} catch (IndexOutOfBoundsException e) {
+		if (index < 0 || index >= list.size()) {
 			return null;
 		}
+		return list.get(index);
 	}
 	
 	
 	@Override
 	public int getChildCount(Object parent) {
-		RocketComponent c = (RocketComponent) parent;
-		
-		return c.getChildCount();
+		return getChildren((RocketComponent) parent).size();
 	}
 	
 	
@@ -62,10 +77,22 @@ public class ComponentTreeModel implements TreeModel, ComponentChangeListener {
 		if (parent == null || child == null)
 			return -1;
 		
-		RocketComponent p = (RocketComponent) parent;
-		RocketComponent c = (RocketComponent) child;
-		
-		return p.getChildPosition(c);
+		List<RocketComponent> list = getChildren((RocketComponent) parent);
+		for (int i = 0; i < list.size(); i++) {
+			if (list.get(i) == child) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	private List<RocketComponent> getChildren(RocketComponent c) {
+		List<RocketComponent> list = children.get(c);
+		if (list == null) {
+			// Not part of the reported tree
+			return c.getChildren();
+		}
+		return list;
 	}
 	
 	@Override
@@ -111,6 +138,8 @@ public class ComponentTreeModel implements TreeModel, ComponentChangeListener {
 		}
 		
 		// Send structure change event
+		children.clear();
+		addSubtree(root);
 		TreeModelEvent e = new TreeModelEvent(this, path);
 		Object[] l = listeners.toArray();
 		for (int i = 0; i < l.length; i++)
@@ -138,20 +167,175 @@ public class ComponentTreeModel implements TreeModel, ComponentChangeListener {
 	
 	@Override
 	public void componentChanged(ComponentChangeEvent e) {
-		if (e.isTreeChange() || e.isUndoChange() || e.isMassChange()) {
-			// Tree must be fully updated also in case of an undo change 
+		if (e.isUndoChange()) {
+			// Undo replaces the components, so the tree must be fully updated
 			fireTreeStructureChanged(e.getSource());
-			if (e.isTreeChange() && e.isUndoChange()) {
+			if (e.isTreeChange()) {
 				// If the undo has changed the tree structure, some elements may be hidden
 				// unnecessarily
 				// TODO: LOW: Could this be performed better?
 				expandAll();
 			}
+		} else if (e.isTreeChange()) {
+			updateTreeStructure();
 		} else {
 			fireTreeNodeChanged(e.getSource());
 		}
 	}
 	
+	
+	/**
+	 * Report the differences between the reported and the current tree structure
+	 * as node removal and insertion events.  All removals are reported first, so
+	 * components moved to a new parent are reported as removed and inserted.  If
+	 * the order of the remaining children of a node has changed, the structure of
+	 * that node is reported as changed.  Expanded nodes that are reinserted are
+	 * expanded again, and nodes that received children are expanded.
+	 */
+	private void updateTreeStructure() {
+		Set<RocketComponent> expanded = Collections.newSetFromMap(new IdentityHashMap<RocketComponent, Boolean>());
+		Enumeration<TreePath> enumer = tree.getExpandedDescendants(new TreePath(root));
+		if (enumer != null) {
+			while (enumer.hasMoreElements()) {
+				expanded.add((RocketComponent) enumer.nextElement().getLastPathComponent());
+			}
+		}
+		
+		removeNodes(new TreePath(root));
+		
+		List<TreePath> parents = new ArrayList<TreePath>();
+		insertNodes(new TreePath(root), expanded, parents);
+		for (TreePath p : parents) {
+			tree.makeVisible(p);
+			tree.expandPath(p);
+		}
+	}
+	
+	private void removeNodes(TreePath path) {
+		RocketComponent node = (RocketComponent) path.getLastPathComponent();
+		List<RocketComponent> reported = children.get(node);
+		Set<RocketComponent> current = Collections.newSetFromMap(new IdentityHashMap<RocketComponent, Boolean>());
+		current.addAll(node.getChildren());
+		
+		List<RocketComponent> kept = new ArrayList<RocketComponent>(reported.size());
+		List<RocketComponent> removed = new ArrayList<RocketComponent>();
+		int[] indices = new int[reported.size()];
+		for (int i = 0; i < reported.size(); i++) {
+			RocketComponent c = reported.get(i);
+			if (current.contains(c)) {
+				kept.add(c);
+			} else {
+				indices[removed.size()] = i;
+				removed.add(c);
+			}
+		}
+		
+		if (!removed.isEmpty()) {
+			children.put(node, kept);
+			for (RocketComponent c : removed) {
+				removeSubtree(c);
+			}
+			TreeModelEvent e = new TreeModelEvent(this, path, Arrays.copyOf(indices, removed.size()), removed.toArray());
+			Object[] l = listeners.toArray();
+			for (int i = 0; i < l.length; i++)
+				((TreeModelListener) l[i]).treeNodesRemoved(e);
+		}
+		
+		for (RocketComponent c : kept) {
+			removeNodes(path.pathByAddingChild(c));
+		}
+	}
+	
+	private void insertNodes(TreePath path, Set<RocketComponent> expanded, List<TreePath> parents) {
+		RocketComponent node = (RocketComponent) path.getLastPathComponent();
+		List<RocketComponent> reported = children.get(node);
+		List<RocketComponent> current = node.getChildren();
+		
+		// Check that the reported children are in the current order
+		Set<RocketComponent> old = Collections.newSetFromMap(new IdentityHashMap<RocketComponent, Boolean>());
+		old.addAll(reported);
+		int n = 0;
+		for (RocketComponent c : current) {
+			if (old.contains(c)) {
+				if (reported.get(n) != c) {
+					reorderNodes(path, expanded);
+					return;
+				}
+				n++;
+			}
+		}
+		
+		List<RocketComponent> inserted = new ArrayList<RocketComponent>();
+		int[] indices = new int[current.size()];
+		for (int i = 0; i < current.size(); i++) {
+			RocketComponent c = current.get(i);
+			if (!old.contains(c)) {
+				indices[inserted.size()] = i;
+				inserted.add(c);
+				addSubtree(c);
+			}
+		}
+		
+		if (!inserted.isEmpty()) {
+			children.put(node, new ArrayList<RocketComponent>(current));
+			TreeModelEvent e = new TreeModelEvent(this, path, Arrays.copyOf(indices, inserted.size()), inserted.toArray());
+			Object[] l = listeners.toArray();
+			for (int i = 0; i < l.length; i++)
+				((TreeModelListener) l[i]).treeNodesInserted(e);
+			
+			parents.add(path);
+			for (RocketComponent c : inserted) {
+				expandSubtree(path.pathByAddingChild(c), expanded);
+			}
+		}
+		
+		for (RocketComponent c : current) {
+			if (old.contains(c)) {
+				insertNodes(path.pathByAddingChild(c), expanded, parents);
+			}
+		}
+	}
+	
+	private void reorderNodes(TreePath path, Set<RocketComponent> expanded) {
+		RocketComponent node = (RocketComponent) path.getLastPathComponent();
+		removeSubtree(node);
+		addSubtree(node);
+		
+		TreeModelEvent e = new TreeModelEvent(this, path);
+		Object[] l = listeners.toArray();
+		for (int i = 0; i < l.length; i++)
+			((TreeModelListener) l[i]).treeStructureChanged(e);
+		
+		expandSubtree(path, expanded);
+	}
+	
+	private void expandSubtree(TreePath path, Set<RocketComponent> expanded) {
+		RocketComponent node = (RocketComponent) path.getLastPathComponent();
+		if (expanded.contains(node)) {
+			tree.expandPath(path);
+		}
+		for (RocketComponent c : children.get(node)) {
+			expandSubtree(path.pathByAddingChild(c), expanded);
+		}
+	}
+	
+	private void addSubtree(RocketComponent node) {
+		List<RocketComponent> list = node.getChildren();
+		children.put(node, list);
+		for (RocketComponent c : list) {
+			addSubtree(c);
+		}
+	}
+	
+	private void removeSubtree(RocketComponent node) {
+		List<RocketComponent> list = children.remove(node);
+		if (list != null) {
+			for (RocketComponent c : list) {
+				removeSubtree(c);
+			}
+		}
+	}
+	
 	public void expandAll() {
 		Iterator<RocketComponent> iterator = root.iterator(false);
 		while (iterator.hasNext()) {
@@ -0,0 +1,175 @@
+package net.sf.openrocket.gui.plot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.sf.openrocket.util.Downsampler;
+
+import org.jfree.data.xy.XYSeries;
+
+/**
+ * A plot series that retains the full-resolution data and provides the chart with
+ * a downsampled series of the visible domain range.
+ * <p>
+ * The points of the visible range are divided into segments at gaps (NaN values or
+ * points outside the visible range) and at points that must be retained exactly,
+ * such as the data points at flight events.  Each segment is downsampled with
+ * {@link Downsampler} to a share of the point budget proportional to its length.
+ * Gaps between segments are marked with a NaN value so the renderer does not
+ * connect them.
+ */
+class SampledSeries {
+
+	private final XYSeries series;
+	private final double[] x;
+	private final double[] y;
+	private final boolean[] retain;
+
+	private double minX = Double.NaN;
+	private double maxX = Double.NaN;
+
+	/**
+	 * Sole constructor.
+	 *
+	 * @param key		the key of the series.
+	 * @param x			the domain values in plotting units.
+	 * @param y			the range values in plotting units.
+	 * @param retain	the points that are always included in the samples, or
+	 * 					<code>null</code> for none.
+	 */
+	public SampledSeries(Comparable<?> key, double[] x, double[] y, boolean[] retain) {
+		if (x.length != y.length || (retain != null && retain.length != x.length)) {
+			throw new IllegalArgumentException("Data lengths differ");
+		}
+		this.series = new XYSeries(key, false, true);
+		this.x = x;
+		this.y = y;
+		this.retain = (retain != null) ? retain : new boolean[x.length];
+		for (int i = 0; i < x.length; i++) {
+			if (isFinite(i)) {
+				if (!(x[i] >= minX)) {
+					minX = x[i];
+				}
+				if (!(x[i] <= maxX)) {
+					maxX = x[i];
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Return the chart series containing the current samples.
+	 */
+	public XYSeries getSeries() {
+		return series;
+	}
+
+	/**
+	 * Return the smallest domain value of the full-resolution data.
+	 */
+	public double getMinX() {
+		return minX;
+	}
+
+	/**
+	 * Return the largest domain value of the full-resolution data.
+	 */
+	public double getMaxX() {
+		return maxX;
+	}
+
+	/**
+	 * Return the number of full-resolution data points.
+	 */
+	public int getDataCount() {
+		return x.length;
+	}
+
+
+	/**
+	 * Replace the contents of the chart series with samples of the given domain range.
+	 * Points adjacent to the range are included so that lines are drawn to the edge of
+	 * the plot.
+	 *
+	 * @param lower		the lower bound of the visible domain range.
+	 * @param upper		the upper bound of the visible domain range.
+	 * @param budget	the approximate maximum number of samples.
+	 */
+	public void sample(double lower, double upper, int budget) {
+		List<int[]> segments = new ArrayList<int[]>();
+		int total = 0;
+		int start = -1;
+		for (int i = 0; i < x.length; i++) {
+			if (isFinite(i) && isVisible(i, lower, upper)) {
+				if (start < 0) {
+					start = i;
+				} else if (retain[i]) {
+					// The retained point ends this segment and starts the next one
+					segments.add(new int[] { start, i + 1 });
+					total += i + 1 - start;
+					start = i;
+				}
+			} else if (start >= 0) {
+				segments.add(new int[] { start, i });
+				total += i - start;
+				start = -1;
+			}
+		}
+		if (start >= 0) {
+			segments.add(new int[] { start, x.length });
+			total += x.length - start;
+		}
+
+		series.setNotify(false);
+		series.clear();
+		int last = -1;
+		for (int[] segment : segments) {
+			int from = segment[0];
+			int to = segment[1];
+			if (last >= 0 && from != last) {
+				// Separate disjoint segments by a gap
+				series.add(x[last], Double.NaN, false);
+			}
+
+			int[] points;
+			if (total <= budget) {
+				points = Downsampler.select(x, y, from, to, Math.max(to - from, 2));
+			} else {
+				int count = (int) Math.round((double) budget * (to - from) / total);
+				points = Downsampler.select(x, y, from, to, Math.max(count, 2));
+			}
+			for (int p : points) {
+				if (p != last) {
+					series.add(x[p], y[p], false);
+				}
+			}
+			last = to - 1;
+		}
+		series.setNotify(true);
+	}
+
+
+	private boolean isFinite(int i) {
+		return !Double.isNaN(x[i]) && !Double.isInfinite(x[i]) &&
+				!Double.isNaN(y[i]) && !Double.isInfinite(y[i]);
+	}
+
+	private boolean isVisible(int i, double lower, double upper) {
+		if (x[i] >= lower && x[i] <= upper) {
+			return true;
+		}
+		if (i > 0 && overlaps(x[i - 1], x[i], lower, upper)) {
+			return true;
+		}
+		if (i + 1 < x.length && overlaps(x[i], x[i + 1], lower, upper)) {
+			return true;
+		}
+		return false;
+	}
+
+	private static boolean overlaps(double x0, double x1, double lower, double upper) {
+		return Math.min(x0, x1) <= upper && Math.max(x0, x1) >= lower;
+	}
+
+}
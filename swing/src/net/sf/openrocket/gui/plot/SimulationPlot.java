@@ -14,11 +14,14 @@ import java.awt.geom.Line2D;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
 
+import javax.swing.SwingUtilities;
+
 import net.sf.openrocket.document.Simulation;
 import net.sf.openrocket.gui.simulation.SimulationPlotPanel;
 import net.sf.openrocket.simulation.FlightDataBranch;
@@ -27,6 +30,7 @@ import net.sf.openrocket.simulation.FlightEvent;
 import net.sf.openrocket.unit.Unit;
 import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.util.LinearInterpolator;
+import net.sf.openrocket.util.MathUtil;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.JFreeChart;
@@ -37,17 +41,21 @@ import org.jfree.chart.annotations.XYImageAnnotation;
 import org.jfree.chart.axis.NumberAxis;
 import org.jfree.chart.axis.ValueAxis;
 import org.jfree.chart.block.LineBorder;
+import org.jfree.chart.event.AxisChangeEvent;
+import org.jfree.chart.event.AxisChangeListener;
 import org.jfree.chart.plot.DefaultDrawingSupplier;
 import org.jfree.chart.plot.Marker;
 import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.PlotRenderingInfo;
 import org.jfree.chart.plot.ValueMarker;
 import org.jfree.chart.plot.XYPlot;
 import org.jfree.chart.renderer.xy.XYItemRenderer;
+import org.jfree.chart.renderer.xy.XYItemRendererState;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import org.jfree.chart.title.LegendTitle;
 import org.jfree.chart.title.TextTitle;
 import org.jfree.data.Range;
-import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYDataset;
 import org.jfree.data.xy.XYSeriesCollection;
 import org.jfree.text.TextUtilities;
 import org.jfree.ui.LengthAdjustmentType;
@@ -66,6 +74,11 @@ public class SimulationPlot {
 	
 	private static final float PLOT_STROKE_WIDTH = 1.5f;
 	
+	/** Number of samples plotted per horizontal pixel of the plot area */
+	private static final int POINTS_PER_PIXEL = 2;
+	private static final int MIN_POINT_BUDGET = 200;
+	private static final int DEFAULT_POINT_BUDGET = 2000;
+	
 	private final JFreeChart chart;
 	
 	private final PlotConfiguration config;
@@ -74,6 +87,8 @@ public class SimulationPlot {
 	
 	private final List<EventDisplayInfo> eventList;
 	private final List<ModifiedXYItemRenderer> renderers = new ArrayList<ModifiedXYItemRenderer>();
+	private final List<SampledSeries> sampledSeries = new ArrayList<SampledSeries>();
+	private int pointBudget = DEFAULT_POINT_BUDGET;
 	
 	private final LegendItems legendItems;
 	
@@ -147,6 +162,11 @@ public class SimulationPlot {
 		int typeCount = filled.getTypeCount();
 		
 		int seriesCount = 0;
+		double[] domainMin = { Double.NaN, Double.NaN };
+		double[] domainMax = { Double.NaN, Double.NaN };
+		
+		// Create list of events to show (combine event too close to each other)
+		this.eventList = buildEventInfo();
 		
 		// Create the XYSeries objects from the flight data and store into the collections
 		String[] axisLabel = new String[2];
@@ -165,16 +185,15 @@ public class SimulationPlot {
 			{
 				int branchIndex = 0;
 				FlightDataBranch thisBranch = simulation.getSimulatedData().getBranch(branchIndex);
-				// Store data in provided units
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
-				XYSeries series = new XYSeries(seriesCount++, false, true);
-				series.setDescription(name);
-				int pointCount = plotx.size();
-				for (int j = 0; j < pointCount; j++) {
-					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
-				}
-				data[axis].addSeries(series);
+				double[] time = thisBranch.getValues(FlightDataType.TYPE_TIME);
+				double[] plotx = toUnit(getValues(thisBranch, domainType), domainUnit);
+				double[] ploty = toUnit(getValues(thisBranch, type), unit);
+				SampledSeries series = new SampledSeries(seriesCount++, plotx, ploty, findEventPoints(time));
+				series.getSeries().setDescription(name);
+				sampledSeries.add(series);
+				data[axis].addSeries(series.getSeries());
+				domainMin[axis] = MathUtil.min(domainMin[axis], series.getMinX());
+				domainMax[axis] = MathUtil.max(domainMax[axis], series.getMaxX());
 			}
 			// For each of the secondary branches, we use data from branch 0 for the earlier times
 			for (int branchIndex = 1; branchIndex < branchCount; branchIndex++) {
@@ -182,32 +201,29 @@ public class SimulationPlot {
 				FlightDataBranch thisBranch = simulation.getSimulatedData().getBranch(branchIndex);
 				
 				// Get first time index used in secondary branch;
-				double firstSampleTime = thisBranch.get(FlightDataType.TYPE_TIME).get(0);
-				
-				XYSeries series = new XYSeries(seriesCount++, false, true);
-				series.setDescription(thisBranch.getBranchName() + ": " + name);
+				double[] branchT = thisBranch.getValues(FlightDataType.TYPE_TIME);
+				double firstSampleTime = branchT[0];
 				
 				// Copy the first points from the primaryBranch.
-				List<Double> primaryT = primaryBranch.get(FlightDataType.TYPE_TIME);
-				List<Double> primaryx = primaryBranch.get(domainType);
-				List<Double> primaryy = primaryBranch.get(type);
-				
-				for (int j = 0; j < primaryT.size(); j++) {
-					if (primaryT.get(j) >= firstSampleTime) {
-						break;
-					}
-					series.add(domainUnit.toUnit(primaryx.get(j)), unit.toUnit(primaryy.get(j)));
+				double[] primaryT = primaryBranch.getValues(FlightDataType.TYPE_TIME);
+				int primaryCount = 0;
+				while (primaryCount < primaryT.length && primaryT[primaryCount] < firstSampleTime) {
+					primaryCount++;
 				}
 				
 				// Now copy all the data from the secondary branch
-				List<Double> plotx = thisBranch.get(domainType);
-				List<Double> ploty = thisBranch.get(type);
+				double[] time = concat(primaryT, primaryCount, branchT);
+				double[] plotx = toUnit(concat(getValues(primaryBranch, domainType), primaryCount,
+						getValues(thisBranch, domainType)), domainUnit);
+				double[] ploty = toUnit(concat(getValues(primaryBranch, type), primaryCount,
+						getValues(thisBranch, type)), unit);
 				
-				int pointCount = plotx.size();
-				for (int j = 0; j < pointCount; j++) {
-					series.add(domainUnit.toUnit(plotx.get(j)), unit.toUnit(ploty.get(j)));
-				}
-				data[axis].addSeries(series);
+				SampledSeries series = new SampledSeries(seriesCount++, plotx, ploty, findEventPoints(time));
+				series.getSeries().setDescription(thisBranch.getBranchName() + ": " + name);
+				sampledSeries.add(series);
+				data[axis].addSeries(series.getSeries());
+				domainMin[axis] = MathUtil.min(domainMin[axis], series.getMinX());
+				domainMax[axis] = MathUtil.max(domainMax[axis], series.getMaxX());
 			}
 			
 			// Update axis label
@@ -234,10 +250,7 @@ public class SimulationPlot {
 				//				axis.setRange(axes.get(i).getMinValue(), axes.get(i).getMaxValue());
 				plot.setRangeAxis(axisno, axis);
 				
-				double domainMin = data[i].getDomainLowerBound(true);
-				double domainMax = data[i].getDomainUpperBound(true);
-				
-				plot.setDomainAxis(new PresetNumberAxis(domainMin, domainMax));
+				plot.setDomainAxis(new PresetNumberAxis(domainMin[i], domainMax[i]));
 				
 				// Add data and map to the axis
 				plot.setDataset(axisno, data[i]);
@@ -271,10 +284,14 @@ public class SimulationPlot {
 		plot.addDomainMarker(new ValueMarker(0));
 		plot.addRangeMarker(new ValueMarker(0));
 		
-		
-		
-		// Create list of events to show (combine event too close to each other)
-		this.eventList = buildEventInfo();
+		// Sample the visible range again whenever the domain axis is zoomed or panned
+		plot.getDomainAxis().addChangeListener(new AxisChangeListener() {
+			@Override
+			public void axisChanged(AxisChangeEvent event) {
+				resample();
+			}
+		});
+		resample();
 		
 		// Create the event markers
 		drawDomainMarkers(-1);
@@ -285,6 +302,83 @@ public class SimulationPlot {
 		return chart;
 	}
 	
+	/**
+	 * Resample all series for the current domain axis range.  The chart only holds
+	 * about {@link #pointBudget} points per series, the full-resolution data is
+	 * retained in the {@link SampledSeries} objects.
+	 */
+	private void resample() {
+		Range range = chart.getXYPlot().getDomainAxis().getRange();
+		for (SampledSeries series : sampledSeries) {
+			series.sample(range.getLowerBound(), range.getUpperBound(), pointBudget);
+		}
+	}
+	
+	/**
+	 * Called by the renderers with the width of the plot area.  If the width has changed
+	 * considerably, the series are resampled with a new point budget.
+	 */
+	private void plotAreaChanged(double width) {
+		int budget = Math.max(MIN_POINT_BUDGET, (int) (width * POINTS_PER_PIXEL));
+		if (budget > pointBudget || budget < pointBudget / 2) {
+			pointBudget = budget;
+			SwingUtilities.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					resample();
+				}
+			});
+		}
+	}
+	
+	/**
+	 * Return the data points that must be plotted exactly, namely the points at and
+	 * around the times of the displayed flight events.
+	 */
+	private boolean[] findEventPoints(double[] time) {
+		boolean[] retain = new boolean[time.length];
+		for (EventDisplayInfo info : eventList) {
+			int index = Arrays.binarySearch(time, info.time);
+			if (index >= 0) {
+				retain[index] = true;
+			} else {
+				index = -index - 1;
+				if (index > 0) {
+					retain[index - 1] = true;
+				}
+				if (index < time.length) {
+					retain[index] = true;
+				}
+			}
+		}
+		return retain;
+	}
+	
+	/**
+	 * Return the values of a type in a branch, or NaN values if the branch does not contain the type.
+	 */
+	private static double[] getValues(FlightDataBranch branch, FlightDataType type) {
+		double[] values = branch.getValues(type);
+		if (values == null) {
+			values = new double[branch.getLength()];
+			Arrays.fill(values, Double.NaN);
+		}
+		return values;
+	}
+	
+	private static double[] toUnit(double[] values, Unit unit) {
+		for (int i = 0; i < values.length; i++) {
+			values[i] = unit.toUnit(values[i]);
+		}
+		return values;
+	}
+	
+	private static double[] concat(double[] first, int firstCount, double[] second) {
+		double[] result = Arrays.copyOf(first, firstCount + second.length);
+		System.arraycopy(second, 0, result, firstCount, second.length);
+		return result;
+	}
+	
 	private String getLabel(FlightDataType type, Unit unit) {
 		String name = type.getName();
 		if (unit != null && !UnitGroup.UNITS_NONE.contains(unit) &&
@@ -505,7 +599,7 @@ public class SimulationPlot {
 	 * series c stage 0
 	 * series c stage 1
 	 */
-	private static class ModifiedXYItemRenderer extends XYLineAndShapeRenderer {
+	private class ModifiedXYItemRenderer extends XYLineAndShapeRenderer {
 		
 		private final int branchCount;
 		
@@ -513,6 +607,13 @@ public class SimulationPlot {
 			this.branchCount = branchCount;
 		}
 		
+		@Override
+		public XYItemRendererState initialise(Graphics2D g2, Rectangle2D dataArea, XYPlot plot,
+				XYDataset data, PlotRenderingInfo info) {
+			plotAreaChanged(dataArea.getWidth());
+			return super.initialise(g2, dataArea, plot, data, info);
+		}
+		
 		@Override
 		public Paint lookupSeriesPaint(int series) {
 			return super.lookupSeriesPaint(series / branchCount);
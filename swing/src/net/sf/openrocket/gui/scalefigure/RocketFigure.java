@@ -15,8 +15,14 @@ import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -28,11 +34,14 @@ import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.motor.Motor;
 import net.sf.openrocket.motor.MotorConfiguration;
 import net.sf.openrocket.rocketcomponent.ComponentAssembly;
+import net.sf.openrocket.rocketcomponent.ComponentChangeEvent;
+import net.sf.openrocket.rocketcomponent.ComponentChangeListener;
 import net.sf.openrocket.rocketcomponent.FlightConfiguration;
 import net.sf.openrocket.rocketcomponent.InstanceContext;
 import net.sf.openrocket.rocketcomponent.MotorMount;
 import net.sf.openrocket.rocketcomponent.Rocket;
 import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.rocketcomponent.SymmetricComponent;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.util.BoundingBox;
 import net.sf.openrocket.util.BugException;
@@ -60,6 +69,11 @@ public class RocketFigure extends AbstractScaleFigure {
 	public static final int VIEW_SIDE=0;
 	public static final int VIEW_BACK=1;
 	
+	// Component changes that may affect the shapes of the components
+	private static final int SHAPE_CHANGE = ComponentChangeEvent.NONFUNCTIONAL_CHANGE |
+			ComponentChangeEvent.MASS_CHANGE | ComponentChangeEvent.AERODYNAMIC_CHANGE |
+			ComponentChangeEvent.TREE_CHANGE | ComponentChangeEvent.UNDO_CHANGE;
+	
 	// Width for drawing normal and selected components
 	public static final double NORMAL_WIDTH = 1.0;
 	public static final double SELECTED_WIDTH = 2.0;
@@ -79,6 +93,24 @@ public class RocketFigure extends AbstractScaleFigure {
 	 */
 	private final ArrayList<RocketComponentShape> figureShapes = new ArrayList<RocketComponentShape>();
 	
+	/*
+	 * shapeCache contains the shapes of each component for each view type, which are
+	 * reused until the component is changed or its instance transformations change
+	 */
+	private final Map<RocketPanel.VIEW_TYPE, Map<RocketComponent, ComponentShapes>> shapeCache =
+			new EnumMap<RocketPanel.VIEW_TYPE, Map<RocketComponent, ComponentShapes>>(RocketPanel.VIEW_TYPE.class);
+	
+	/*
+	 * shapeListener invalidates the shape cache, it is registered on the rocket only
+	 * while the figure is displayable so that closed figures are not kept alive
+	 */
+	private final ComponentChangeListener shapeListener = new ComponentChangeListener() {
+		@Override
+		public void componentChanged(ComponentChangeEvent e) {
+			invalidateShapes(e);
+		}
+	};
+	
 	
 	private final ArrayList<FigureElement> relativeExtra = new ArrayList<FigureElement>();
 	private final ArrayList<FigureElement> absoluteExtra = new ArrayList<FigureElement>();
@@ -96,6 +128,20 @@ public class RocketFigure extends AbstractScaleFigure {
 
 		updateFigure();
 	}
+	
+	@Override
+	public void addNotify() {
+		super.addNotify();
+		shapeCache.clear();
+		rocket.addComponentChangeListener(shapeListener);
+	}
+	
+	@Override
+	public void removeNotify() {
+		rocket.removeComponentChangeListener(shapeListener);
+		shapeCache.clear();
+		super.removeNotify();
+	}
 
 	public Point getAutoZoomPoint(){
 		return new Point( Math.max(0, originLocation_px.x - borderThickness_px.width),
@@ -346,20 +392,79 @@ public class RocketFigure extends AbstractScaleFigure {
 		// allShapes is an output buffer -- it stores all the generated shapes
 		allShapes.clear();
 		
+		// changes are only listened to while the figure is displayable
+		if (!isDisplayable()) {
+			shapeCache.clear();
+		}
+		Map<RocketComponent, ComponentShapes> cache = shapeCache.get(this.currentViewType);
+		if (cache == null) {
+			cache = new IdentityHashMap<RocketComponent, ComponentShapes>();
+			shapeCache.put(this.currentViewType, cache);
+		}
+		Set<RocketComponent> present = Collections.newSetFromMap(new IdentityHashMap<RocketComponent, Boolean>());
+		
 		for(Entry<RocketComponent, ArrayList<InstanceContext>> entry: config.getActiveInstances().entrySet() ) {
 			final RocketComponent comp = entry.getKey();
 			
 			final ArrayList<InstanceContext> contextList = entry.getValue();
-
+			
+			// generate shapes for the active instances of this component
+			final List<Transformation> transforms = new ArrayList<Transformation>(contextList.size());
 			for(InstanceContext context: contextList ) {
-				final Transformation currentTransform = this.axialRotation.applyTransformation(context.transform);
-				
-		        // generate shape for this component, if active
-		        if( context.active ) {
-		        	allShapes = addThisShape( allShapes, this.currentViewType, comp, currentTransform);
-		        }
+				if( context.active ) {
+					transforms.add(this.axialRotation.applyTransformation(context.transform));
+				}
+			}
+			
+			ComponentShapes cached = cache.get(comp);
+			if (cached == null || !cached.transforms.equals(transforms)) {
+				ArrayList<RocketComponentShape> shapes = new ArrayList<RocketComponentShape>();
+				for (Transformation currentTransform : transforms) {
+					shapes = addThisShape( shapes, this.currentViewType, comp, currentTransform);
+				}
+				cached = new ComponentShapes(transforms, shapes);
+				cache.put(comp, cached);
 			}
+			allShapes.addAll(cached.shapes);
+			present.add(comp);
         }
+		
+		// drop the shapes of removed and inactive components
+		cache.keySet().retainAll(present);
+	}
+	
+	/**
+	 * Discard the cached shapes that a component change may affect.
+	 * <p>
+	 * The shapes of a component depend on its own geometry and on the geometry of the
+	 * components it is fitted to:  the radii of body components may follow the adjacent
+	 * body components (also across stages), and inner components and fins follow their
+	 * parent and siblings.  Thus a change of a body component discards all shapes, and
+	 * a change of another component discards the shapes of its parent's subtree.  Changes
+	 * of the component positions are detected from the instance transformations.
+	 */
+	private void invalidateShapes(ComponentChangeEvent e) {
+		if ((e.getType() & SHAPE_CHANGE) == 0) {
+			return;
+		}
+		
+		final RocketComponent source = e.getSource();
+		if (e.isTreeChange() || e.isUndoChange() || source == null || source.getParent() == null ||
+				(e.isFunctionalChange() && source instanceof SymmetricComponent)) {
+			shapeCache.clear();
+			return;
+		}
+		
+		for (Map<RocketComponent, ComponentShapes> cache : shapeCache.values()) {
+			if (e.isFunctionalChange()) {
+				for (RocketComponent c : source.getParent()) {
+					cache.remove(c);
+				}
+			} else {
+				// only the color or line style of the component itself
+				cache.remove(source);
+			}
+		}
 	}
 	
 	/**
@@ -466,4 +571,17 @@ public class RocketFigure extends AbstractScaleFigure {
     	}
 	}
 
+	/**
+	 * The shapes of a component and the instance transformations they were generated with.
+	 */
+	private static class ComponentShapes {
+		private final List<Transformation> transforms;
+		private final List<RocketComponentShape> shapes;
+		
+		public ComponentShapes(List<Transformation> transforms, List<RocketComponentShape> shapes) {
+			this.transforms = transforms;
+			this.shapes = shapes;
+		}
+	}
+
 }
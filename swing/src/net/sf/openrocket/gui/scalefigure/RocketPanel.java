@@ -5,16 +5,24 @@ import java.awt.BorderLayout;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Point;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.InputEvent;
 import java.awt.event.MouseEvent;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.EventListener;
 import java.util.EventObject;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.swing.ComboBoxModel;
 import javax.swing.DefaultComboBoxModel;
@@ -24,6 +32,8 @@ import javax.swing.JPanel;
 import javax.swing.JSlider;
 import javax.swing.JViewport;
 import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
 import javax.swing.event.TreeSelectionEvent;
@@ -54,7 +64,7 @@ import net.sf.openrocket.gui.simulation.SimulationWorker;
 import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.l10n.Translator;
 import net.sf.openrocket.masscalc.MassCalculator;
-import net.sf.openrocket.masscalc.RigidBody;
+import net.sf.openrocket.rocketcomponent.AxialStage;
 import net.sf.openrocket.rocketcomponent.ComponentChangeEvent;
 import net.sf.openrocket.rocketcomponent.ComponentChangeListener;
 import net.sf.openrocket.rocketcomponent.FlightConfiguration;
@@ -70,6 +80,7 @@ import net.sf.openrocket.simulation.listeners.system.ApogeeEndListener;
 import net.sf.openrocket.simulation.listeners.system.InterruptListener;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.UnitGroup;
+import net.sf.openrocket.util.BugException;
 import net.sf.openrocket.util.ChangeSource;
 import net.sf.openrocket.util.Chars;
 import net.sf.openrocket.util.Coordinate;
@@ -146,17 +157,38 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 
 	private SimulationWorker backgroundSimulationWorker = null;
 
+	/**
+	 * Delay after the last change before starting a background simulation.  Changes
+	 * arriving during the delay restart it, so rapid edits result in a single simulation.
+	 */
+	private static final int BACKGROUND_SIMULATION_DELAY = 150;
+	private final Timer backgroundSimulationTimer;
+
+	/**
+	 * Delay after the last change before copying the rocket for the CP and CG computation.
+	 * Changes arriving during the delay restart it, so e.g. dragging a slider copies the
+	 * rocket only once it pauses.
+	 */
+	private static final int EXTRAS_DELAY = 100;
+	private final Timer extrasTimer;
+
+	private ExtrasWorker extrasWorker = null;
+	private ExtrasResult extrasResult = null;
+
 	private List<EventListener> listeners = new ArrayList<EventListener>();
 
 
 	/**
 	 * The executor service used for running the background simulations.
 	 * This uses a fixed-sized thread pool for all background simulations
-	 * with all threads in daemon mode and with minimum priority.
+	 * with all threads in daemon mode and with minimum priority.  Queued
+	 * preview simulations are run before normal simulations.
 	 */
 	private static final Executor backgroundSimulationExecutor;
 	static {
-		backgroundSimulationExecutor = Executors.newFixedThreadPool(SwingPreferences.getMaxThreadCount(),
+		int threads = SwingPreferences.getMaxThreadCount();
+		backgroundSimulationExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new PriorityBlockingQueue<Runnable>(),
 				new ThreadFactory() {
 										private ThreadFactory factory = Executors.defaultThreadFactory();
 
@@ -170,6 +202,22 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 								});
 	}
 
+	/**
+	 * The executor used for computing the CP and CG in the background.  A single
+	 * daemon thread is used, so a superseded computation that has not started yet
+	 * is never run.
+	 */
+	private static final Executor extrasExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		private ThreadFactory factory = Executors.defaultThreadFactory();
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread t = factory.newThread(r);
+			t.setDaemon(true);
+			return t;
+		}
+	});
+
 	
 	public OpenRocketDocument getDocument(){
 		return this.document;
@@ -178,6 +226,22 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 	public RocketPanel(OpenRocketDocument document) {
 		this.document = document;
 		Rocket rkt = document.getRocket();
+
+		backgroundSimulationTimer = new Timer(BACKGROUND_SIMULATION_DELAY, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				startBackgroundSimulation(true);
+			}
+		});
+		backgroundSimulationTimer.setRepeats(false);
+
+		extrasTimer = new Timer(EXTRAS_DELAY, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				startExtrasWorker();
+			}
+		});
+		extrasTimer.setRepeats(false);
 		
 		
 		// TODO: FUTURE: calculator selection
@@ -557,52 +621,122 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 	/**
 	 * Updates the extra data included in the figure.  Currently this includes
 	 * the CP and CG carets.
+	 * <p>
+	 * The CP and CG are computed in the background from a copy of the rocket, which is
+	 * taken once the changes have settled for {@link #EXTRAS_DELAY} ms.  A newer change
+	 * cancels the pending computation, and the results are applied only if the rocket
+	 * has not been modified since.  Until then the figure shows the last computed values.
 	 */
-	private WarningSet warnings = new WarningSet();
-
 	private void updateExtras() {
-		Coordinate cp, cg;
-		double cgx = Double.NaN;
-		double cgy = Double.NaN;
-		double cpx = Double.NaN;
-		double cpy = Double.NaN;
-		final double rotation = rotationModel.getValue();
-
 		FlightConfiguration curConfig = document.getSelectedConfiguration();
-		// TODO: MEDIUM: User-definable conditions
-		FlightConditions conditions = new FlightConditions(curConfig);
-		warnings.clear();
 
 		if (!Double.isNaN(cpMach)) {
-			conditions.setMach(cpMach);
 			extraText.setMach(cpMach);
 		} else {
-			conditions.setMach(Application.getPreferences().getDefaultMach());
 			extraText.setMach(Application.getPreferences().getDefaultMach());
 		}
+		extraText.setAOA(cpAOA);
+		extraText.setTheta(cpTheta);
 
-		if (!Double.isNaN(cpAOA)) {
-			conditions.setAOA(cpAOA);
-		} else {
-			conditions.setAOA(0);
+		ExtrasInput input = new ExtrasInput(curConfig, cpMach, cpAOA, cpRoll, cpTheta);
+		boolean pending = (extrasWorker != null) ? extrasWorker.input.equals(input) :
+				(extrasResult != null && extrasResult.input.equals(input));
+		if (!pending) {
+			if (extrasWorker != null) {
+				extrasWorker.cancel(true);
+				extrasWorker = null;
+			}
+			extrasTimer.restart();
 		}
-		extraText.setAOA(cpAOA);
+		
+		// Show the last computed values in the current orientation and view
+		applyExtras();
 
-		if (!Double.isNaN(cpRoll)) {
-			conditions.setRollRate(cpRoll);
-		} else {
-			conditions.setRollRate(0);
+		////////  Flight simulation in background
+
+		// Check whether to compute or not
+		if (!((SwingPreferences) Application.getPreferences()).computeFlightInBackground()) {
+			extraText.setFlightData(null);
+			extraText.setCalculatingData(false);
+			stopBackgroundSimulation();
+			return;
 		}
 
-		if (!Double.isNaN(cpTheta)) {
-			conditions.setTheta(cpTheta);
-			cp = aerodynamicCalculator.getCP(curConfig, conditions, warnings);
+		// Check whether data is already up to date
+		if (flightDataFunctionalID == curConfig.getRocket().getFunctionalModID() &&
+				flightDataMotorID == curConfig.getId()) {
+			return;
+		}
+
+		flightDataFunctionalID = curConfig.getRocket().getFunctionalModID();
+		flightDataMotorID = curConfig.getId();
+
+		// Stop previous computation (if any)
+		stopBackgroundSimulation();
+
+		// Check that configuration has motors
+		if (!curConfig.hasMotors()){
+			extraText.setFlightData(FlightData.NaN_DATA);
+			extraText.setCalculatingData(false);
+			return;
+		}
+
+		// Start calculation process after the edits have settled
+		extraText.setCalculatingData(true);
+		backgroundSimulationTimer.restart();
+	}
+
+	/**
+	 * Starts a background simulation of the current design.
+	 * 
+	 * @param preview	whether to run a fast, low-fidelity preview simulation
+	 * 					instead of the normal background simulation.
+	 */
+	private void startBackgroundSimulation(boolean preview) {
+		SwingPreferences prefs = (SwingPreferences) Application.getPreferences();
+		Rocket duplicate = (Rocket) document.getRocket().copy();
+		Simulation simulation;
+		if (preview) {
+			simulation = prefs.getBackgroundPreviewSimulation(duplicate);
 		} else {
-			cp = aerodynamicCalculator.getWorstCP(curConfig, conditions, warnings);
+			simulation = prefs.getBackgroundSimulation(duplicate);
 		}
-		extraText.setTheta(cpTheta);
+		simulation.setFlightConfigurationId(flightDataMotorID);
+
+		backgroundSimulationWorker = new BackgroundSimulationWorker(document, simulation, preview);
+		backgroundSimulationExecutor.execute(new PrioritizedTask(backgroundSimulationWorker, preview ? 0 : 1));
+	}
 
-		cg = MassCalculator.calculateLaunch( curConfig).getCM();
+	/**
+	 * Starts computing the CP and CG of the current design in the background.
+	 */
+	private void startExtrasWorker() {
+		FlightConfiguration curConfig = document.getSelectedConfiguration();
+		ExtrasInput input = new ExtrasInput(curConfig, cpMach, cpAOA, cpRoll, cpTheta);
+		if (extrasResult != null && extrasResult.input.equals(input)) {
+			return;
+		}
+		extrasWorker = new ExtrasWorker(input, curConfig, aerodynamicCalculator.newInstance());
+		extrasExecutor.execute(extrasWorker);
+	}
+
+	/**
+	 * Sets the last computed CP and CG values to the figure elements.
+	 */
+	private void applyExtras() {
+		if (extrasResult == null) {
+			extraCP.setPosition(Double.NaN, Double.NaN);
+			extraCG.setPosition(Double.NaN, Double.NaN);
+			return;
+		}
+
+		Coordinate cp = extrasResult.cp;
+		Coordinate cg = extrasResult.cg;
+		double cgx = Double.NaN;
+		double cgy = Double.NaN;
+		double cpx = Double.NaN;
+		double cpy = Double.NaN;
+		final double rotation = rotationModel.getValue();
 
 		if (cp.weight > MathUtil.EPSILON){
 			cpx = cp.x;
@@ -619,26 +753,15 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 		figure3d.setCG(cg);
 		figure3d.setCP(cp);
 
-		double length = curConfig.getLength();
-		
-		double diameter = Double.NaN;
-		for (RocketComponent c : curConfig.getCoreComponents()) {
-			if (c instanceof SymmetricComponent) {
-				double d1 = ((SymmetricComponent) c).getForeRadius() * 2;
-				double d2 = ((SymmetricComponent) c).getAftRadius() * 2;
-				diameter = MathUtil.max(diameter, d1, d2);
-			}
-		}
+		double length = extrasResult.length;
 
-		RigidBody emptyInfo = MassCalculator.calculateStructure( curConfig );
-		
 		extraText.setCG(cgx);
 		extraText.setCP(cpx);
 		extraText.setLength(length);
-		extraText.setDiameter(diameter);
+		extraText.setDiameter(extrasResult.diameter);
 		extraText.setMass(cg.weight);
-		extraText.setMassWithoutMotors( emptyInfo.getMass() );
-		extraText.setWarnings(warnings);
+		extraText.setMassWithoutMotors(extrasResult.massWithoutMotors);
+		extraText.setWarnings(extrasResult.warnings);
 
 		if (figure.getType() == RocketPanel.VIEW_TYPE.SideView && length > 0) {
 			extraCP.setPosition(cpx, cpy);
@@ -647,53 +770,154 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 			extraCP.setPosition(Double.NaN, Double.NaN);
 			extraCG.setPosition(Double.NaN, Double.NaN);
 		}
+	}
 
-		////////  Flight simulation in background
+	/**
+	 * The parameters that the CP and CG computation depends on.
+	 */
+	private static class ExtrasInput {
+		private final int modID;
+		private final FlightConfigurationId configId;
+		private final BitSet activeStages;
+		private final double mach;
+		private final double aoa;
+		private final double roll;
+		private final double theta;
+
+		public ExtrasInput(FlightConfiguration config, double mach, double aoa, double roll, double theta) {
+			this.modID = config.getRocket().getModID();
+			this.configId = config.getId();
+			this.activeStages = new BitSet();
+			for (AxialStage stage : config.getActiveStages()) {
+				activeStages.set(stage.getStageNumber());
+			}
+			this.mach = mach;
+			this.aoa = aoa;
+			this.roll = roll;
+			this.theta = theta;
+		}
 
-		// Check whether to compute or not
-		if (!((SwingPreferences) Application.getPreferences()).computeFlightInBackground()) {
-			extraText.setFlightData(null);
-			extraText.setCalculatingData(false);
-			stopBackgroundSimulation();
-			return;
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof ExtrasInput))
+				return false;
+			ExtrasInput o = (ExtrasInput) obj;
+			return modID == o.modID && configId.equals(o.configId) && activeStages.equals(o.activeStages) &&
+					equals(mach, o.mach) && equals(aoa, o.aoa) && equals(roll, o.roll) && equals(theta, o.theta);
 		}
 
-		// Check whether data is already up to date
-		if (flightDataFunctionalID == curConfig.getRocket().getFunctionalModID() &&
-				flightDataMotorID == curConfig.getId()) {
-			return;
+		@Override
+		public int hashCode() {
+			return modID;
 		}
 
-		flightDataFunctionalID = curConfig.getRocket().getFunctionalModID();
-		flightDataMotorID = curConfig.getId();
+		private static boolean equals(double a, double b) {
+			return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+		}
+	}
 
-		// Stop previous computation (if any)
-		stopBackgroundSimulation();
+	/**
+	 * The results of the CP and CG computation.
+	 */
+	private static class ExtrasResult {
+		private final ExtrasInput input;
+		private Coordinate cp;
+		private Coordinate cg;
+		private double length;
+		private double diameter = Double.NaN;
+		private double massWithoutMotors;
+		private final WarningSet warnings = new WarningSet();
+
+		public ExtrasResult(ExtrasInput input) {
+			this.input = input;
+		}
+	}
 
-		// Check that configuration has motors
-		if (!curConfig.hasMotors()){
-			extraText.setFlightData(FlightData.NaN_DATA);
-			extraText.setCalculatingData(false);
-			return;
+	/**
+	 * A worker that computes the CP and CG of a copy of the rocket in the background.
+	 * The copy is made when the worker is created.  The results are applied to the
+	 * figure only if the worker has not been superseded and the rocket has not been
+	 * modified in the meantime.
+	 */
+	private class ExtrasWorker extends SwingWorker<ExtrasResult, Void> {
+
+		private final ExtrasInput input;
+		private final FlightConfiguration config;
+		private final AerodynamicCalculator calculator;
+
+		public ExtrasWorker(ExtrasInput input, FlightConfiguration curConfig, AerodynamicCalculator calculator) {
+			this.input = input;
+			Rocket copy = curConfig.getRocket().copyWithOriginalID();
+			this.config = copy.getFlightConfiguration(curConfig.getId());
+			this.config.copyStages(curConfig);
+			this.config.update();
+			this.calculator = calculator;
 		}
 
-		// Start calculation process
-		if(((SwingPreferences) Application.getPreferences()).computeFlightInBackground()){ 
-			extraText.setCalculatingData(true);
+		@Override
+		protected ExtrasResult doInBackground() {
+			ExtrasResult result = new ExtrasResult(input);
+
+			// TODO: MEDIUM: User-definable conditions
+			FlightConditions conditions = new FlightConditions(config);
+			conditions.setMach(Double.isNaN(input.mach) ? Application.getPreferences().getDefaultMach() : input.mach);
+			conditions.setAOA(Double.isNaN(input.aoa) ? 0 : input.aoa);
+			conditions.setRollRate(Double.isNaN(input.roll) ? 0 : input.roll);
+
+			if (!Double.isNaN(input.theta)) {
+				conditions.setTheta(input.theta);
+				result.cp = calculator.getCP(config, conditions, result.warnings);
+			} else {
+				result.cp = calculator.getWorstCP(config, conditions, result.warnings);
+			}
+			if (isCancelled())
+				return null;
 
-			Rocket duplicate = (Rocket) document.getRocket().copy();
-			Simulation simulation = ((SwingPreferences) Application.getPreferences()).getBackgroundSimulation(duplicate);
-			simulation.setFlightConfigurationId( document.getSelectedConfiguration().getId());
+			result.cg = MassCalculator.calculateLaunch(config).getCM();
+			result.massWithoutMotors = MassCalculator.calculateStructure(config).getMass();
+			result.length = config.getLength();
+			for (RocketComponent c : config.getCoreComponents()) {
+				if (c instanceof SymmetricComponent) {
+					double d1 = ((SymmetricComponent) c).getForeRadius() * 2;
+					double d2 = ((SymmetricComponent) c).getAftRadius() * 2;
+					result.diameter = MathUtil.max(result.diameter, d1, d2);
+				}
+			}
+			return result;
+		}
 
-			backgroundSimulationWorker = new BackgroundSimulationWorker(document, simulation);
-			backgroundSimulationExecutor.execute(backgroundSimulationWorker);
+		@Override
+		protected void done() {
+			if (isCancelled() || extrasWorker != this)
+				return;
+			extrasWorker = null;
+
+			ExtrasResult result;
+			try {
+				result = get();
+			} catch (InterruptedException e) {
+				return;
+			} catch (ExecutionException e) {
+				throw new BugException("Unable to compute CP and CG", e.getCause());
+			}
+
+			if (!new ExtrasInput(document.getSelectedConfiguration(), cpMach, cpAOA, cpRoll, cpTheta).equals(input)) {
+				// Modified without a change event, compute again
+				updateExtras();
+				return;
+			}
+			extrasResult = result;
+			applyExtras();
+			figure.repaint();
+			figure3d.repaint();
 		}
 	}
 
 	/**
-	 * Cancels the current background simulation worker, if any.
+	 * Cancels the current background simulation worker and any pending start, if any.
 	 */
 	private void stopBackgroundSimulation() {
+		backgroundSimulationTimer.stop();
 		if (backgroundSimulationWorker != null) {
 			backgroundSimulationWorker.cancel(true);
 			backgroundSimulationWorker = null;
@@ -703,26 +927,23 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 	/**
 	 * A SimulationWorker that simulates the rocket flight in the background and
 	 * sets the results to the extra text when finished.  The worker can be cancelled
-	 * if necessary.
+	 * if necessary.  A preview worker shows its results as preliminary and starts
+	 * the normal simulation of the same design when finished.
 	 */
 	private class BackgroundSimulationWorker extends SimulationWorker {
 
 		private final CustomExpressionSimulationListener exprListener;
+		private final boolean preview;
 
-		public BackgroundSimulationWorker(OpenRocketDocument doc, Simulation sim) {
+		public BackgroundSimulationWorker(OpenRocketDocument doc, Simulation sim, boolean preview) {
 			super(sim);
 			List<CustomExpression> exprs = doc.getCustomExpressions();
 			exprListener = new CustomExpressionSimulationListener(exprs);
+			this.preview = preview;
 		}
 
 		@Override
 		protected FlightData doInBackground() {
-
-			// Pause a little while to allow faster UI reaction
-			try {
-				Thread.sleep(300);
-			} catch (InterruptedException ignore) {
-			}
 			if (isCancelled() || backgroundSimulationWorker != this)
 				return null;
 
@@ -737,13 +958,23 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 
 			backgroundSimulationWorker = null;
 			extraText.setFlightData(simulation.getSimulatedData());
-			extraText.setCalculatingData(false);
+			if (preview) {
+				startBackgroundSimulation(false);
+			} else {
+				extraText.setCalculatingData(false);
+			}
 			figure.repaint();
 			figure3d.repaint();
 		}
 
 		@Override
 		protected SimulationListener[] getExtraListeners() {
+			if (preview) {
+				// Custom expressions are not shown in the figure
+				return new SimulationListener[] {
+						InterruptListener.INSTANCE,
+						ApogeeEndListener.INSTANCE };
+			}
 			return new SimulationListener[] {
 					InterruptListener.INSTANCE,
 					ApogeeEndListener.INSTANCE,
@@ -758,6 +989,11 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 				return;
 
 			backgroundSimulationWorker = null;
+			if (preview) {
+				// The normal simulation may still succeed
+				startBackgroundSimulation(false);
+				return;
+			}
 			extraText.setFlightData(FlightData.NaN_DATA);
 			extraText.setCalculatingData(false);
 			figure.repaint();
@@ -765,6 +1001,36 @@ public class RocketPanel extends JPanel implements TreeSelectionListener, Change
 		}
 	}
 
+	/**
+	 * A task of the background simulation executor.  Tasks with a smaller priority
+	 * value are run first, tasks of equal priority in the order they were submitted.
+	 */
+	private static class PrioritizedTask implements Runnable, Comparable<PrioritizedTask> {
+		private static final AtomicLong sequence = new AtomicLong();
+
+		private final Runnable task;
+		private final int priority;
+		private final long order = sequence.getAndIncrement();
+
+		public PrioritizedTask(Runnable task, int priority) {
+			this.task = task;
+			this.priority = priority;
+		}
+
+		@Override
+		public void run() {
+			task.run();
+		}
+
+		@Override
+		public int compareTo(PrioritizedTask o) {
+			if (priority != o.priority) {
+				return (priority < o.priority) ? -1 : 1;
+			}
+			return (order < o.order) ? -1 : ((order == o.order) ? 0 : 1);
+		}
+	}
+
 	/**
 	 * Adds the extra data to the figure.  Currently this includes the CP and CG carets.
 	 */
@@ -2,11 +2,18 @@ package net.sf.openrocket.gui.simulation;
 
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EventObject;
 
 import javax.swing.BorderFactory;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
+import javax.swing.JFileChooser;
 import javax.swing.JLabel;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.JSpinner;
 import javax.swing.event.ChangeEvent;
@@ -19,13 +26,17 @@ import net.sf.openrocket.gui.adaptors.BooleanModel;
 import net.sf.openrocket.gui.adaptors.DoubleModel;
 import net.sf.openrocket.gui.components.BasicSlider;
 import net.sf.openrocket.gui.components.UnitSelector;
+import net.sf.openrocket.gui.util.SwingPreferences;
+import net.sf.openrocket.file.sounding.SoundingLoader;
 import net.sf.openrocket.l10n.Translator;
 import net.sf.openrocket.models.atmosphere.ExtendedISAModel;
+import net.sf.openrocket.models.atmosphere.Sounding;
 import net.sf.openrocket.simulation.DefaultSimulationOptionFactory;
 import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.UnitGroup;
 import net.sf.openrocket.util.Chars;
+import net.sf.openrocket.util.StateChangeListener;
 
 public class SimulationConditionsPanel extends JPanel {
 	private static final Translator trans = Application.getTranslator();
@@ -243,6 +254,56 @@ public class SimulationConditionsPanel extends JPanel {
 		
 		
 		
+		// Sounding:
+		label = new JLabel(trans.get("simedtdlg.lbl.Sounding"));
+		//// A measured profile of the atmosphere, which takes precedence over the other conditions.
+		tip = trans.get("simedtdlg.lbl.ttip.Sounding");
+		label.setToolTipText(tip);
+		sub.add(label);
+		
+		final JLabel soundingLabel = new JLabel();
+		soundingLabel.setToolTipText(tip);
+		sub.add(soundingLabel, "spanx, growx, wrap rel");
+		
+		//// Load...
+		JButton button = new JButton(trans.get("simedtdlg.but.LoadSounding"));
+		button.setToolTipText(tip);
+		button.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				loadSounding(conditions);
+			}
+		});
+		sub.add(button, "skip 1, spanx, split 2");
+		
+		//// Clear
+		final JButton clearButton = new JButton(trans.get("simedtdlg.but.ClearSounding"));
+		clearButton.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				conditions.setSounding(null);
+			}
+		});
+		sub.add(clearButton, "wrap");
+		
+		StateChangeListener soundingUpdater = new StateChangeListener() {
+			@Override
+			public void stateChanged(EventObject e) {
+				Sounding sounding = conditions.getSounding();
+				if (sounding == null) {
+					//// None
+					soundingLabel.setText(trans.get("simedtdlg.lbl.SoundingNone"));
+				} else {
+					soundingLabel.setText(sounding.getName());
+				}
+				clearButton.setEnabled(sounding != null);
+			}
+		};
+		conditions.addChangeListener(soundingUpdater);
+		soundingUpdater.stateChanged(null);
+		
+		
+		
 		
 		
 		//// Launch site conditions
@@ -457,7 +518,33 @@ public class SimulationConditionsPanel extends JPanel {
 		
 	}
 	
-	private String getIntensityDescription(double i) {
+	private void loadSounding(SimulationOptions conditions) {
+		JFileChooser chooser = new JFileChooser();
+		chooser.setCurrentDirectory(((SwingPreferences) Application.getPreferences()).getDefaultDirectory());
+		
+		if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION)
+			return;
+		
+		File file = chooser.getSelectedFile();
+		if (file == null)
+			return;
+		((SwingPreferences) Application.getPreferences()).setDefaultDirectory(chooser.getCurrentDirectory());
+		
+		try {
+			InputStream in = new FileInputStream(file);
+			try {
+				conditions.setSounding(new SoundingLoader().load(in, file.getName()));
+			} finally {
+				in.close();
+			}
+		} catch (IOException e) {
+			//// Unable to load the sounding
+			JOptionPane.showMessageDialog(this, e.getMessage(), trans.get("simedtdlg.msg.SoundingLoadError"),
+					JOptionPane.ERROR_MESSAGE);
+		}
+	}
+	
+		private String getIntensityDescription(double i) {
 		if (i < 0.001)
 			//// None
 			return trans.get("simedtdlg.IntensityDesc.None");
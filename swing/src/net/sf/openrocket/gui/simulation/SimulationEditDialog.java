@@ -207,7 +207,8 @@ public class SimulationEditDialog extends JDialog {
 			@Override
 			public void actionPerformed(ActionEvent e) {
 				copyChangesToAllSims();
-				SimulationRunDialog.runSimulations(parentWindow, SimulationEditDialog.this.document, simulationList);
+				// Run anew for a new realization of the wind turbulence
+				new SimulationRunDialog(parentWindow, SimulationEditDialog.this.document, false, simulationList).setVisible(true);
 				refreshView();
 				if (allowsPlotMode()) {
 					setPlotMode();
@@ -37,7 +37,9 @@ import net.sf.openrocket.gui.components.UnitSelector;
 import net.sf.openrocket.gui.util.GUIUtil;
 import net.sf.openrocket.gui.util.Icons;
 import net.sf.openrocket.l10n.Translator;
+import net.sf.openrocket.simulation.BasicLandingStepper;
 import net.sf.openrocket.simulation.RK4SimulationStepper;
+import net.sf.openrocket.simulation.SimulationMethod;
 import net.sf.openrocket.simulation.SimulationOptions;
 import net.sf.openrocket.simulation.extension.SimulationExtension;
 import net.sf.openrocket.simulation.extension.SimulationExtensionProvider;
@@ -105,9 +107,19 @@ class SimulationOptionsPanel extends JPanel {
 		label.setToolTipText(tip);
 		subsub.add(label, "gapright para");
 		
-		label = new JLabel("6-DOF Runge-Kutta 4");
-		label.setToolTipText(tip);
-		subsub.add(label, "growx, span 3, wrap");
+		EnumModel<SimulationMethod> methodModel = new EnumModel<SimulationMethod>(
+				conditions, "SimulationMethod");
+		final JComboBox<SimulationMethod> methodCombo = new JComboBox<SimulationMethod>(methodModel);
+		ActionListener methodTTipListener = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				SimulationMethod method = (SimulationMethod) methodCombo.getSelectedItem();
+				methodCombo.setToolTipText(method.getDescription());
+			}
+		};
+		methodCombo.addActionListener(methodTTipListener);
+		methodTTipListener.actionPerformed(null);
+		subsub.add(methodCombo, "growx, span 3, wrap");
 		
 		// // Geodetic calculation method:
 		label = new JLabel(trans.get("simedtdlg.lbl.GeodeticMethod"));
@@ -154,6 +166,31 @@ class SimulationOptionsPanel extends JPanel {
 		subsub.add(unit, "");
 		slider = new BasicSlider(m.getSliderModel(0, 0.2));
 		slider.setToolTipText(tip);
+		subsub.add(slider, "w 100, wrap");
+		
+		// // Descent time step:
+		label = new JLabel(trans.get("simedtdlg.lbl.DescentTimestep"));
+		tip = trans.get("simedtdlg.lbl.ttip.DescentTimestep")
+				+ " "
+				+ UnitGroup.UNITS_SHORT_TIME
+						.toStringUnit(BasicLandingStepper.RECOMMENDED_TIME_STEP)
+				+ ".";
+		label.setToolTipText(tip);
+		subsub.add(label, "gapright para");
+		
+		m = new DoubleModel(conditions, "DescentTimeStep", UnitGroup.UNITS_SHORT_TIME,
+				0.01, 60);
+		
+		spin = new JSpinner(m.getSpinnerModel());
+		spin.setEditor(new SpinnerEditor(spin));
+		spin.setToolTipText(tip);
+		subsub.add(spin, "");
+		
+		unit = new UnitSelector(m);
+		unit.setToolTipText(tip);
+		subsub.add(unit, "");
+		slider = new BasicSlider(m.getSliderModel(0.01, 10));
+		slider.setToolTipText(tip);
 		subsub.add(slider, "w 100");
 		
 		sub.add(subsub, "spanx, wrap para");
@@ -175,6 +212,8 @@ class SimulationOptionsPanel extends JPanel {
 				conditions.setGeodeticComputation(preferences.getEnum(
 						Preferences.GEODETIC_COMPUTATION,
 						GeodeticComputationStrategy.SPHERICAL));
+				conditions.setDescentTimeStep(BasicLandingStepper.RECOMMENDED_TIME_STEP);
+				conditions.setSimulationMethod(SimulationMethod.SIX_DOF);
 			}
 		});
 		
@@ -44,6 +44,7 @@ import net.sf.openrocket.simulation.exception.SimulationCancelledException;
 import net.sf.openrocket.simulation.exception.SimulationException;
 import net.sf.openrocket.simulation.exception.SimulationLaunchException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
 import net.sf.openrocket.simulation.listeners.SimulationListener;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.Unit;
@@ -105,6 +106,20 @@ public class SimulationRunDialog extends JDialog {
 	private final boolean[] simulationDone;
 
 	public SimulationRunDialog(Window window, OpenRocketDocument document, Simulation... simulations) {
+		this(window, document, true, simulations);
+	}
+
+	/**
+	 * Construct a dialog running simulations.  The random seeds of the simulations are
+	 * randomized, so simulations run explicitly by the user should not load cached results
+	 * in order to obtain a new realization of the wind turbulence.
+	 * 
+	 * @param window		the parent Window of the dialog.
+	 * @param document		the document of the simulations.
+	 * @param loadCached	whether to load the results from the simulation cache if it contains them.
+	 * @param simulations	the simulations to run.
+	 */
+	public SimulationRunDialog(Window window, OpenRocketDocument document, boolean loadCached, Simulation... simulations) {
 		//// Running simulations...
 		super(window, trans.get("SimuRunDlg.title.RunSim"), Dialog.ModalityType.APPLICATION_MODAL);
 		this.document = document;
@@ -131,7 +146,7 @@ public class SimulationRunDialog extends JDialog {
 
 		for (int i = 0; i < n; i++) {
 			simulationNames[i] = simulations[i].getName();
-			simulationWorkers[i] = new InteractiveSimulationWorker(document, simulations[i], i);
+			simulationWorkers[i] = new InteractiveSimulationWorker(document, simulations[i], i, loadCached);
 			executor.execute(simulationWorkers[i]);
 		}
 
@@ -281,8 +296,8 @@ public class SimulationRunDialog extends JDialog {
 
 		private int progress = 0;
 
-		public InteractiveSimulationWorker(OpenRocketDocument doc, Simulation sim, int index) {
-			super(sim);
+		public InteractiveSimulationWorker(OpenRocketDocument doc, Simulation sim, int index, boolean loadCached) {
+			super(sim, loadCached);
 			List<CustomExpression> exprs = doc.getCustomExpressions();
 			exprListener = new CustomExpressionSimulationListener(exprs);
 			this.index = index;
@@ -431,9 +446,14 @@ public class SimulationRunDialog extends JDialog {
 		 * 
 		 * @author Sampo Niskanen <sampo.niskanen@iki.fi>
 		 */
-		private class SimulationProgressListener extends AbstractSimulationListener {
+		private class SimulationProgressListener extends AbstractSimulationListener implements CacheableSimulationListener {
 			private long time = 0;
 
+			@Override
+			public String getResultDescription() {
+				return "";
+			}
+
 			@Override
 			public boolean handleFlightEvent(SimulationStatus status, FlightEvent event) {
 				switch (event.getType()) {
@@ -9,6 +9,7 @@ import net.sf.openrocket.simulation.FlightData;
 import net.sf.openrocket.simulation.SimulationStatus;
 import net.sf.openrocket.simulation.exception.SimulationCancelledException;
 import net.sf.openrocket.simulation.listeners.AbstractSimulationListener;
+import net.sf.openrocket.simulation.listeners.CacheableSimulationListener;
 import net.sf.openrocket.simulation.listeners.SimulationListener;
 
 
@@ -24,10 +25,22 @@ import net.sf.openrocket.simulation.listeners.SimulationListener;
 public abstract class SimulationWorker extends SwingWorker<FlightData, SimulationStatus> {
 	
 	protected final Simulation simulation;
+	private final boolean loadCached;
 	private Throwable throwable = null;
 	
 	public SimulationWorker(Simulation sim) {
+		this(sim, true);
+	}
+	
+	/**
+	 * Construct a worker running a simulation.
+	 * 
+	 * @param sim			the simulation to run.
+	 * @param loadCached	whether to load the results from the simulation cache if it contains them.
+	 */
+	public SimulationWorker(Simulation sim, boolean loadCached) {
 		this.simulation = sim;
+		this.loadCached = loadCached;
 	}
 	
 	
@@ -52,7 +65,7 @@ public abstract class SimulationWorker extends SwingWorker<FlightData, Simulatio
 		listeners[listeners.length - 1] = new CancelListener();
 		
 		try {
-			simulation.simulate(listeners);
+			simulation.simulate(loadCached, listeners);
 		} catch (Throwable e) {
 			throwable = e;
 			return null;
@@ -107,7 +120,12 @@ public abstract class SimulationWorker extends SwingWorker<FlightData, Simulatio
 	 * 
 	 * @author Sampo Niskanen <sampo.niskanen@iki.fi>
 	 */
-	private class CancelListener extends AbstractSimulationListener {
+	private class CancelListener extends AbstractSimulationListener implements CacheableSimulationListener {
+		
+		@Override
+		public String getResultDescription() {
+			return "";
+		}
 		
 		@Override
 		public void postStep(SimulationStatus status) throws SimulationCancelledException {
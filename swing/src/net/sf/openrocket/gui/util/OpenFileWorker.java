@@ -36,6 +36,7 @@ public class OpenFileWorker extends SwingWorker<OpenRocketDocument, Void> {
 		this.file = file;
 		this.jarURL = null;
 		loader = new GeneralRocketLoader(file);
+		loader.setDeferFlightData(true);
 	}
 	
 	
@@ -43,6 +44,7 @@ public class OpenFileWorker extends SwingWorker<OpenRocketDocument, Void> {
 		this.jarURL = fileURL;
 		this.file = null;
 		loader = new GeneralRocketLoader(fileURL);
+		loader.setDeferFlightData(true);
 	}
 	
 	public GeneralRocketLoader getRocketLoader() {
@@ -5,35 +5,31 @@ import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.util.concurrent.ExecutionException;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingWorker;
 
 import net.sf.openrocket.document.Simulation;
-import net.sf.openrocket.file.CSVExport;
+import net.sf.openrocket.file.export.CSVExporter;
+import net.sf.openrocket.file.export.FlightDataExporter;
 import net.sf.openrocket.gui.dialogs.SwingWorkerDialog;
 import net.sf.openrocket.simulation.FlightDataBranch;
 import net.sf.openrocket.simulation.FlightDataType;
 import net.sf.openrocket.startup.Application;
 import net.sf.openrocket.unit.Unit;
 import net.sf.openrocket.util.BugException;
+import net.sf.openrocket.util.MathUtil;
 
 
 public class SaveCSVWorker extends SwingWorker<Void, Void> {
 	
-	private static final int BYTES_PER_FIELD_PER_POINT = 7;
-
 	private final File file;
 	private final Simulation simulation;
 	private final FlightDataBranch branch;
-	private final FlightDataType[] fields;
-	private final Unit[] units;
-	private final String fieldSeparator;
-	private final String commentStarter;
-	private final boolean simulationComments;
-	private final boolean fieldComments;
-	private final boolean eventComments;
+	private final CSVExporter exporter;
 	
 	
 	public SaveCSVWorker(File file, Simulation simulation, FlightDataBranch branch,
@@ -42,38 +38,33 @@ public class SaveCSVWorker extends SwingWorker<Void, Void> {
 		this.file = file;
 		this.simulation = simulation;
 		this.branch = branch;
-		this.fields = fields;
-		this.units = units;
-		this.fieldSeparator = fieldSeparator;
-		this.commentStarter = commentStarter;
-		this.simulationComments = simulationComments;
-		this.fieldComments = fieldComments;
-		this.eventComments = eventComments;
+		
+		exporter = new CSVExporter();
+		exporter.setColumns(fields);
+		exporter.setUnits(units);
+		exporter.setFieldSeparator(fieldSeparator);
+		exporter.setCommentStarter(commentStarter);
+		exporter.setSimulationComments(simulationComments);
+		exporter.setFieldComments(fieldComments);
+		exporter.setEventComments(eventComments);
+		exporter.setProgressListener(new FlightDataExporter.ProgressListener() {
+			@Override
+			public void progress(long points, long totalPoints) throws IOException {
+				if (isCancelled()) {
+					throw new InterruptedIOException("SaveCSVWorker was cancelled");
+				}
+				setProgress(MathUtil.clamp((int) (points * 100 / Math.max(totalPoints, 1)), 0, 100));
+			}
+		});
 	}
 
 
 	@Override
 	protected Void doInBackground() throws Exception {
 		
-		int estimate = BYTES_PER_FIELD_PER_POINT * fields.length * branch.getLength();
-		estimate = Math.max(estimate, 1000);
-		
-		// Create the ProgressOutputStream that provides progress estimates
-		@SuppressWarnings("resource")
-		ProgressOutputStream os = new ProgressOutputStream(
-				new BufferedOutputStream(new FileOutputStream(file)), 
-				estimate, this) {
-			
-			@Override
-			protected void setProgress(int progress) {
-				SaveCSVWorker.this.setProgress(progress);
-			}
-			
-		};
-		
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(file));
 		try {
-			CSVExport.exportCSV(os, simulation, branch, fields, units, fieldSeparator, 
-					commentStarter, simulationComments, fieldComments, eventComments);
+			exporter.export(os, simulation, branch);
 		} finally {
 			try {
 				os.close();
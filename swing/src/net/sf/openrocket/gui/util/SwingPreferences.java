@@ -432,6 +432,21 @@ public class SwingPreferences extends net.sf.openrocket.startup.Preferences {
 		return s;
 	}
 	
+	/**
+	 * Return a simulation for a quick, low-fidelity estimate of the flight shown
+	 * while the normal background simulation is running.  It uses a coarser time
+	 * step and does not compute the extra flight data.
+	 */
+	public Simulation getBackgroundPreviewSimulation(Rocket rocket) {
+		Simulation s = new Simulation(rocket);
+		SimulationOptions cond = s.getOptions();
+		
+		cond.setTimeStep(RK4SimulationStepper.RECOMMENDED_TIME_STEP * 8);
+		cond.setMaximumStepAngle(RK4SimulationStepper.RECOMMENDED_ANGLE_STEP * 3);
+		cond.setCalculateExtras(false);
+		return s;
+	}
+	
 	
 	
 	/////////  Export variables
@@ -69,4 +69,12 @@ public class GuiModule extends AbstractModule {
 		motorLoader.startLoading();
 	}
 	
+	/**
+	 * Block the current thread until the databases have been loaded.
+	 */
+	public void blockUntilLoaded() {
+		presetLoader.blockUntilLoaded();
+		motorLoader.blockUntilLoaded();
+	}
+	
 }
@@ -4,7 +4,12 @@ import java.awt.GraphicsEnvironment;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.util.concurrent.Executor;
 
 import javax.swing.SwingUtilities;
 import javax.swing.Timer;
@@ -22,10 +27,12 @@ import net.sf.openrocket.gui.main.MRUDesignFile;
 import net.sf.openrocket.gui.main.Splash;
 import net.sf.openrocket.gui.main.SwingExceptionHandler;
 import net.sf.openrocket.gui.util.GUIUtil;
+import net.sf.openrocket.gui.util.Icons;
 import net.sf.openrocket.gui.util.SwingPreferences;
 import net.sf.openrocket.logging.LoggingSystemSetup;
 import net.sf.openrocket.logging.PrintStreamToSLF4J;
 import net.sf.openrocket.plugin.PluginModule;
+import net.sf.openrocket.simulation.cache.SimulationCache;
 import net.sf.openrocket.util.BuildProperties;
 
 import org.slf4j.Logger;
@@ -33,7 +40,6 @@ import org.slf4j.LoggerFactory;
 
 import com.google.inject.Guice;
 import com.google.inject.Injector;
-import com.google.inject.Module;
 
 /**
  * Start the OpenRocket swing application.
@@ -44,11 +50,17 @@ public class SwingStartup {
 	
 	private final static Logger log = LoggerFactory.getLogger(SwingStartup.class);
 	
+	private final GuiModule guiModule = new GuiModule();
+	private volatile UpdateInfoRetriever updateInfo = null;
+	
 	/**
 	 * OpenRocket startup main method.
 	 */
 	public static void main(final String[] args) throws Exception {
 		
+		StartupTimeline timeline = StartupTimeline.getInstance();
+		StartupTimeline.Phase phase = timeline.begin("Logging setup");
+		
 		// Check for "openrocket.debug" property before anything else
 		checkDebugStatus();
 
@@ -59,29 +71,53 @@ public class SwingStartup {
 		// Initialize logging first so we can use it
 		initializeLogging();
 		log.info("Starting up OpenRocket version {}", BuildProperties.getVersion());
+		phase.end();
 		
 		// Check that we're not running headless
 		log.info("Checking for graphics head");
+		phase = timeline.begin("Graphics check");
 		checkHead();
 		
 		// If running on a MAC set up OSX UI Elements.
 		if (SystemInfo.getPlatform() == Platform.MAC_OS) {
 			OSXSetup.setupOSX();
 		}
+		phase.end();
 		
 		final SwingStartup runner = new SwingStartup();
 		
-		// Run the actual startup method in the EDT since it can use progress dialogs etc.
-		log.info("Moving startup to EDT");
-		SwingUtilities.invokeAndWait(new Runnable() {
-			@Override
-			public void run() {
-				runner.runInEDT(args);
-			}
-		});
+		log.info("Running startup tasks");
+		runner.runStartup(args, timeline);
 		
 		log.info("Startup complete");
 		
+		// Wait for the databases so that their loading is included in the report
+		runner.guiModule.blockUntilLoaded();
+		reportStartupTimeline(timeline);
+		
+	}
+	
+	/**
+	 * Log the startup timeline and write it to the file given by the
+	 * openrocket.startup.report system property, if defined.
+	 */
+	private static void reportStartupTimeline(StartupTimeline timeline) {
+		String report = timeline.getReport();
+		log.info("Startup timeline:\n{}", report);
+		
+		String file = System.getProperty("openrocket.startup.report");
+		if (file != null) {
+			try {
+				Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+				try {
+					writer.write(report);
+				} finally {
+					writer.close();
+				}
+			} catch (IOException e) {
+				log.warn("Unable to write startup report to " + file, e);
+			}
+		}
 	}
 	
 	/**
@@ -119,57 +155,154 @@ public class SwingStartup {
 	}
 	
 	/**
-	 * Run in the EDT when starting up OpenRocket.
+	 * Run the startup tasks.  Independent tasks are run concurrently, tasks
+	 * touching the user interface are run in the EDT.  Returns once the main
+	 * window has been opened.
 	 *
-	 * @param args	command line arguments
+	 * @param args		command line arguments
+	 * @param timeline	the timeline to record the startup phases in
 	 */
-	private void runInEDT(String[] args) {
+	private void runStartup(final String[] args, StartupTimeline timeline) throws Exception {
+		
+		final Executor edt = new Executor() {
+			@Override
+			public void execute(Runnable command) {
+				SwingUtilities.invokeLater(command);
+			}
+		};
+		final PluginModule pluginModule = new PluginModule();
+		
+		ParallelInitializer initializer = new ParallelInitializer(timeline);
 		
 		// Initialize the splash screen with version info
-		log.info("Initializing the splash screen");
-		Splash.init();
+		initializer.add("Splash screen", edt, new Runnable() {
+			@Override
+			public void run() {
+				log.info("Initializing the splash screen");
+				Splash.init();
+			}
+		});
 		
 		// Setup the uncaught exception handler
-		log.info("Registering exception handler");
-		SwingExceptionHandler exceptionHandler = new SwingExceptionHandler();
-		Application.setExceptionHandler(exceptionHandler);
-		exceptionHandler.registerExceptionHandler();
+		initializer.add("Exception handler", new Runnable() {
+			@Override
+			public void run() {
+				log.info("Registering exception handler");
+				SwingExceptionHandler exceptionHandler = new SwingExceptionHandler();
+				Application.setExceptionHandler(exceptionHandler);
+				exceptionHandler.registerExceptionHandler();
+			}
+		});
 		
-		// Load motors etc.
-		log.info("Loading databases");
+		initializer.add("Plugin discovery", new Runnable() {
+			@Override
+			public void run() {
+				pluginModule.findPlugins();
+			}
+		});
+		
+		initializer.add("Injector", new Runnable() {
+			@Override
+			public void run() {
+				Injector injector = Guice.createInjector(guiModule, pluginModule);
+				Application.setInjector(injector);
+			}
+		}, "Exception handler", "Plugin discovery");
 		
-		GuiModule guiModule = new GuiModule();
-		Module pluginModule = new PluginModule();
-		Injector injector = Guice.createInjector(guiModule, pluginModule);
-		Application.setInjector(injector);
+		// Reuse the results of unchanged simulations, also from earlier sessions
+		initializer.add("Simulation cache", new Runnable() {
+			@Override
+			public void run() {
+				File directory = new File(SystemInfo.getUserApplicationDirectory(), "SimulationCache");
+				Application.setSimulationCache(new SimulationCache(directory, SimulationCache.DEFAULT_MAX_SIZE));
+			}
+		});
 		
-		guiModule.startLoader();
+		// Load motors etc.
+		initializer.add("Database loading", new Runnable() {
+			@Override
+			public void run() {
+				log.info("Loading databases");
+				guiModule.startLoader();
+			}
+		}, "Injector");
 		
 		// Start update info fetching
-		final UpdateInfoRetriever updateInfo;
-		if (Application.getPreferences().getCheckUpdates()) {
-			log.info("Starting update check");
-			updateInfo = new UpdateInfoRetriever();
-			updateInfo.start();
-		} else {
-			log.info("Update check disabled");
-			updateInfo = null;
-		}
-		
-		// Set the best available look-and-feel
-		log.info("Setting best LAF");
-		GUIUtil.setBestLAF();
+		initializer.add("Update check", new Runnable() {
+			@Override
+			public void run() {
+				if (Application.getPreferences().getCheckUpdates()) {
+					log.info("Starting update check");
+					updateInfo = new UpdateInfoRetriever();
+					updateInfo.start();
+				} else {
+					log.info("Update check disabled");
+				}
+			}
+		}, "Injector");
 		
-		// Set tooltip delay time.  Tooltips are used in MotorChooserDialog extensively.
-		ToolTipManager.sharedInstance().setDismissDelay(30000);
+		initializer.add("Localization", new Runnable() {
+			@Override
+			public void run() {
+				Application.getTranslator();
+			}
+		}, "Injector");
 		
 		// Load defaults
-		((SwingPreferences) Application.getPreferences()).loadDefaultUnits();
+		initializer.add("Preferences", new Runnable() {
+			@Override
+			public void run() {
+				((SwingPreferences) Application.getPreferences()).loadDefaultUnits();
+			}
+		}, "Localization");
+		
+		initializer.add("Materials", new Runnable() {
+			@Override
+			public void run() {
+				Databases.fakeMethod();
+			}
+		}, "Localization");
+		
+		initializer.add("Icons", new Runnable() {
+			@Override
+			public void run() {
+				// Referencing an icon loads all icons
+				Icons.FILE_NEW.getIconWidth();
+			}
+		}, "Localization");
 		
-		Databases.fakeMethod();
+		// Set the best available look-and-feel
+		initializer.add("Look and feel", edt, new Runnable() {
+			@Override
+			public void run() {
+				log.info("Setting best LAF");
+				GUIUtil.setBestLAF();
+				
+				// Set tooltip delay time.  Tooltips are used in MotorChooserDialog extensively.
+				ToolTipManager.sharedInstance().setDismissDelay(30000);
+			}
+		}, "Splash screen");
 		
 		// Starting action (load files or open new document)
-		log.info("Opening main application window");
+		initializer.add("Main window", edt, new Runnable() {
+			@Override
+			public void run() {
+				log.info("Opening main application window");
+				openMainWindow(args);
+				
+				// Check whether update info has been fetched or whether it needs more time
+				log.info("Checking update status");
+				checkUpdateStatus(updateInfo);
+			}
+		}, "Look and feel", "Database loading", "Update check", "Preferences", "Materials", "Icons");
+		
+		initializer.run(SwingPreferences.getMaxThreadCount());
+	}
+	
+	/**
+	 * Open the files given on the command line, the last edited design or a new document.
+	 */
+	private void openMainWindow(String[] args) {
 		if (!handleCommandLine(args)) {
 			if (!Application.getPreferences().isAutoOpenLastDesignOnStartupEnabled()) {
 				BasicFrame.newAction();
@@ -189,11 +322,6 @@ public class SwingStartup {
 				}
 			}
 		}
-		
-		// Check whether update info has been fetched or whether it needs more time
-		log.info("Checking update status");
-		checkUpdateStatus(updateInfo);
-		
 	}
 	
 	/**
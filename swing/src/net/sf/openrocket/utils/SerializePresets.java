@@ -1,21 +1,28 @@
 package net.sf.openrocket.utils;
 
 import java.io.File;
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
+import java.io.OutputStream;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 
 import net.sf.openrocket.database.ComponentPresetDatabase;
+import net.sf.openrocket.database.ComponentPresetDatabaseLoader;
 import net.sf.openrocket.file.iterator.DirectoryIterator;
 import net.sf.openrocket.file.iterator.FileIterator;
 import net.sf.openrocket.gui.util.SimpleFileFilter;
+import net.sf.openrocket.preset.BinaryPresetWriter;
 import net.sf.openrocket.preset.ComponentPreset;
 import net.sf.openrocket.preset.xml.OpenRocketComponentLoader;
 import net.sf.openrocket.util.Pair;
 
+/**
+ * Converts the orc preset files in resources-src/datafiles/presets into the
+ * binary preset database loaded by ComponentPresetDatabaseLoader.
+ */
 public class SerializePresets extends BasicApplication {
 	
 	/**
@@ -51,14 +58,13 @@ public class SerializePresets extends BasicApplication {
 		
 		System.out.println("Total number of presets = " + list.size());
 		
-		File outFile = new File("resources/datafiles/presets", "system.ser");
+		File outFile = new File("resources/datafiles/presets", "system." + ComponentPresetDatabaseLoader.PRESET_DATABASE_EXTENSION);
 		
-		FileOutputStream ofs = new FileOutputStream(outFile);
-		ObjectOutputStream oos = new ObjectOutputStream(ofs);
-		
-		oos.writeObject(list);
-		
-		ofs.flush();
-		ofs.close();
+		OutputStream os = new BufferedOutputStream(new FileOutputStream(outFile));
+		try {
+			new BinaryPresetWriter().save(os, list);
+		} finally {
+			os.close();
+		}
 	}
 }
@@ -0,0 +1,201 @@
+package net.sf.openrocket.gui.figure3d.geometry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EventObject;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import net.sf.openrocket.gui.figure3d.geometry.Geometry.Surface;
+import net.sf.openrocket.rocketcomponent.AxialStage;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.NoseCone;
+import net.sf.openrocket.rocketcomponent.Transition;
+import net.sf.openrocket.rocketcomponent.TrapezoidFinSet;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.StateChangeListener;
+
+public class MeshGeneratorTest extends BaseTestCase {
+	private static final int LOD = 40;
+
+	@Test
+	public void testKeys() {
+		BodyTube t1 = new BodyTube(0.3, 0.025, 0.001);
+		BodyTube t2 = new BodyTube(0.3, 0.025, 0.001);
+		assertEquals(MeshGenerator.getKey(t1, Surface.OUTSIDE, LOD), MeshGenerator.getKey(t2, Surface.OUTSIDE, LOD));
+		assertFalse(MeshGenerator.getKey(t1, Surface.OUTSIDE, LOD).equals(MeshGenerator.getKey(t1, Surface.INSIDE, LOD)));
+		assertFalse(MeshGenerator.getKey(t1, Surface.OUTSIDE, LOD).equals(MeshGenerator.getKey(t1, Surface.OUTSIDE, 2 * LOD)));
+
+		t2.setLength(0.31);
+		assertFalse(MeshGenerator.getKey(t1, Surface.OUTSIDE, LOD).equals(MeshGenerator.getKey(t2, Surface.OUTSIDE, LOD)));
+
+		assertNull(MeshGenerator.getKey(new AxialStage(), Surface.OUTSIDE, LOD));
+	}
+
+	@Test
+	public void testTube() {
+		BodyTube tube = new BodyTube(0.3, 0.025, 0.001);
+
+		Mesh outside = MeshGenerator.generate(MeshGenerator.getKey(tube, Surface.OUTSIDE, LOD));
+		assertEquals(2 * LOD, outside.getTriangleCount());
+		float[] v = outside.getVertices();
+		for (int i = 0; i < outside.getVertexCount(); i++) {
+			int o = i * Mesh.STRIDE;
+			assertTrue(v[o] >= -1e-6 && v[o] <= 0.3 + 1e-6);
+			assertEquals(0.025, Math.hypot(v[o + 1], v[o + 2]), 1e-6);
+			// Radial unit normals
+			assertEquals(0, v[o + Mesh.NORMAL_OFFSET], 1e-6);
+			assertEquals(v[o + 1] / 0.025, v[o + Mesh.NORMAL_OFFSET + 1], 1e-5);
+			assertEquals(v[o + 2] / 0.025, v[o + Mesh.NORMAL_OFFSET + 2], 1e-5);
+		}
+		assertConsistentWinding(outside);
+
+		Mesh inside = MeshGenerator.generate(MeshGenerator.getKey(tube, Surface.INSIDE, LOD));
+		assertEquals(2 * LOD, inside.getTriangleCount());
+		assertConsistentWinding(inside);
+
+		Mesh edges = MeshGenerator.generate(MeshGenerator.getKey(tube, Surface.EDGES, LOD));
+		assertEquals(4 * LOD, edges.getTriangleCount());
+	}
+
+	@Test
+	public void testTransition() {
+		NoseCone nose = new NoseCone(Transition.Shape.OGIVE, 0.1, 0.025);
+		Mesh mesh = MeshGenerator.generate(MeshGenerator.getKey(nose, Surface.OUTSIDE, LOD));
+		assertFalse(mesh.isEmpty());
+
+		float[] v = mesh.getVertices();
+		for (int i = 0; i < mesh.getVertexCount(); i++) {
+			int o = i * Mesh.STRIDE;
+			assertEquals(nose.getRadius(v[o]), Math.hypot(v[o + 1], v[o + 2]), 1e-5);
+		}
+		assertConsistentWinding(mesh);
+	}
+
+	@Test
+	public void testFinSet() {
+		BodyTube body = new BodyTube(0.3, 0.025, 0.001);
+		TrapezoidFinSet fins = new TrapezoidFinSet(3, 0.05, 0.02, 0.02, 0.04);
+		fins.setTabHeight(0);
+		fins.setTabLength(0);
+		body.addChild(fins);
+
+		Mesh mesh = MeshGenerator.generate(MeshGenerator.getKey(fins, Surface.OUTSIDE, LOD));
+
+		// The area of each side equals the planform area
+		float[] v = mesh.getVertices();
+		int[] idx = mesh.getIndices();
+		double plus = 0;
+		double minus = 0;
+		for (int i = 0; i < idx.length; i += 3) {
+			int a = idx[i] * Mesh.STRIDE;
+			int b = idx[i + 1] * Mesh.STRIDE;
+			int c = idx[i + 2] * Mesh.STRIDE;
+			double area = 0.5 * Math.abs((v[b] - v[a]) * (v[c + 1] - v[a + 1]) - (v[c] - v[a]) * (v[b + 1] - v[a + 1]));
+			float nz = v[a + Mesh.NORMAL_OFFSET + 2];
+			if (nz > 0.5) {
+				plus += area;
+			} else if (nz < -0.5) {
+				minus += area;
+			}
+		}
+		assertEquals(fins.getPlanformArea(), plus, 1e-6);
+		assertEquals(fins.getPlanformArea(), minus, 1e-6);
+		assertConsistentWinding(mesh);
+	}
+
+	@Test
+	public void testTriangulateConcave() {
+		// L-shaped polygon, counter-clockwise
+		double[] x = { 0, 2, 2, 1, 1, 0 };
+		double[] y = { 0, 0, 1, 1, 2, 2 };
+		int[] t = MeshGenerator.triangulate(x, y, x.length);
+		assertEquals(12, t.length);
+
+		double total = 0;
+		for (int i = 0; i < t.length; i += 3) {
+			double area = 0.5 * ((x[t[i + 1]] - x[t[i]]) * (y[t[i + 2]] - y[t[i]]) -
+					(x[t[i + 2]] - x[t[i]]) * (y[t[i + 1]] - y[t[i]]));
+			assertTrue(area > 0);
+			total += area;
+		}
+		assertEquals(3.0, total, 1e-12);
+
+		// Clockwise order produces clockwise triangles
+		double[] rx = { 0, 1, 1, 2, 2, 0 };
+		double[] ry = { 2, 2, 1, 1, 0, 0 };
+		t = MeshGenerator.triangulate(rx, ry, rx.length);
+		assertEquals(12, t.length);
+		for (int i = 0; i < t.length; i += 3) {
+			double area = (rx[t[i + 1]] - rx[t[i]]) * (ry[t[i + 2]] - ry[t[i]]) -
+					(rx[t[i + 2]] - rx[t[i]]) * (ry[t[i + 1]] - ry[t[i]]);
+			assertTrue(area < 0);
+		}
+	}
+
+	@Test
+	public void testCache() throws InterruptedException {
+		final CountDownLatch latch = new CountDownLatch(1);
+		MeshCache cache = new MeshCache();
+		cache.setListener(new StateChangeListener() {
+			@Override
+			public void stateChanged(EventObject e) {
+				latch.countDown();
+			}
+		});
+
+		MeshKey key = MeshGenerator.getKey(new BodyTube(0.3, 0.025, 0.001), Surface.OUTSIDE, LOD);
+		Mesh mesh = cache.get(key);
+		assertTrue(latch.await(10, TimeUnit.SECONDS));
+		if (mesh == null) {
+			mesh = cache.get(key);
+		}
+		assertNotNull(mesh);
+		assertTrue(mesh == cache.get(key));
+
+		// Entries survive one generation without use
+		cache.advanceGeneration();
+		assertTrue(mesh == cache.get(key));
+		cache.advanceGeneration();
+		cache.advanceGeneration();
+		assertTrue(mesh != cache.get(key));
+	}
+
+
+	/**
+	 * Check that all triangles face the same way relative to the vertex normals.
+	 */
+	private static void assertConsistentWinding(Mesh mesh) {
+		float[] v = mesh.getVertices();
+		int[] idx = mesh.getIndices();
+		int positive = 0;
+		int negative = 0;
+		for (int i = 0; i < idx.length; i += 3) {
+			int a = idx[i] * Mesh.STRIDE;
+			int b = idx[i + 1] * Mesh.STRIDE;
+			int c = idx[i + 2] * Mesh.STRIDE;
+			double ux = v[b] - v[a], uy = v[b + 1] - v[a + 1], uz = v[b + 2] - v[a + 2];
+			double wx = v[c] - v[a], wy = v[c + 1] - v[a + 1], wz = v[c + 2] - v[a + 2];
+			double nx = uy * wz - uz * wy;
+			double ny = uz * wx - ux * wz;
+			double nz = ux * wy - uy * wx;
+			int n = a + Mesh.NORMAL_OFFSET;
+			double dot = nx * (v[n] + v[b + Mesh.NORMAL_OFFSET] + v[c + Mesh.NORMAL_OFFSET]) +
+					ny * (v[n + 1] + v[b + Mesh.NORMAL_OFFSET + 1] + v[c + Mesh.NORMAL_OFFSET + 1]) +
+					nz * (v[n + 2] + v[b + Mesh.NORMAL_OFFSET + 2] + v[c + Mesh.NORMAL_OFFSET + 2]);
+			if (dot > 0) {
+				positive++;
+			} else if (dot < 0) {
+				negative++;
+			}
+		}
+		assertTrue(positive + negative > 0);
+		assertTrue("positive=" + positive + " negative=" + negative, positive == 0 || negative == 0);
+	}
+}
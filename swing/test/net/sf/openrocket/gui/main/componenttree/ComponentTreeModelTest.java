@@ -0,0 +1,168 @@
+package net.sf.openrocket.gui.main.componenttree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.JTree;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreePath;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import net.sf.openrocket.rocketcomponent.AxialStage;
+import net.sf.openrocket.rocketcomponent.BodyTube;
+import net.sf.openrocket.rocketcomponent.CenteringRing;
+import net.sf.openrocket.rocketcomponent.MassComponent;
+import net.sf.openrocket.rocketcomponent.Rocket;
+import net.sf.openrocket.rocketcomponent.RocketComponent;
+import net.sf.openrocket.util.BaseTestCase.BaseTestCase;
+import net.sf.openrocket.util.TestRockets;
+
+public class ComponentTreeModelTest extends BaseTestCase {
+
+	private Rocket rocket;
+	private JTree tree;
+	private ComponentTreeModel model;
+	private final List<String> events = new ArrayList<String>();
+
+	@Before
+	public void setup() {
+		rocket = TestRockets.makeEstesAlphaIII();
+		rocket.enableEvents();
+		tree = new JTree();
+		model = new ComponentTreeModel(rocket, tree);
+		tree.setModel(model);
+		for (int i = 0; i < tree.getRowCount(); i++) {
+			tree.expandRow(i);
+		}
+
+		model.addTreeModelListener(new TreeModelListener() {
+			@Override
+			public void treeNodesChanged(TreeModelEvent e) {
+				events.add("changed");
+			}
+
+			@Override
+			public void treeNodesInserted(TreeModelEvent e) {
+				events.add("inserted " + e.getChildIndices().length);
+			}
+
+			@Override
+			public void treeNodesRemoved(TreeModelEvent e) {
+				events.add("removed " + e.getChildIndices().length);
+			}
+
+			@Override
+			public void treeStructureChanged(TreeModelEvent e) {
+				events.add("structure");
+			}
+		});
+	}
+
+	@Test
+	public void testNonStructuralChange() {
+		BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		body.setLength(body.getLength() + 0.01);
+		body.setName("Renamed");
+		assertEquals(2, events.size());
+		assertEquals("changed", events.get(0));
+		assertEquals("changed", events.get(1));
+		assertConsistent();
+	}
+
+	@Test
+	public void testInsertRemove() {
+		BodyTube body = (BodyTube) rocket.getChild(0).getChild(1);
+		int rows = tree.getRowCount();
+
+		MassComponent mass = new MassComponent();
+		body.addChild(mass, 1);
+		assertEquals("[inserted 1]", events.toString());
+		assertEquals(rows + 1, tree.getRowCount());
+		assertEquals(1, model.getIndexOfChild(body, mass));
+		assertConsistent();
+
+		events.clear();
+		body.removeChild(mass);
+		assertEquals("[removed 1]", events.toString());
+		assertEquals(rows, tree.getRowCount());
+		assertConsistent();
+	}
+
+	@Test
+	public void testFreezeCoalesced() {
+		AxialStage stage = (AxialStage) rocket.getChild(0);
+		BodyTube body = (BodyTube) stage.getChild(1);
+		RocketComponent removed = body.getChild(0);
+
+		rocket.freeze();
+		body.addChild(new CenteringRing());
+		body.addChild(new CenteringRing(), 0);
+		body.removeChild(removed);
+		stage.addChild(new BodyTube());
+		rocket.thaw();
+
+		assertEquals("[removed 1, inserted 1, inserted 2]", events.toString());
+		assertConsistent();
+	}
+
+	@Test
+	public void testMoveRetainsExpansion() {
+		AxialStage stage = (AxialStage) rocket.getChild(0);
+		BodyTube body = (BodyTube) stage.getChild(1);
+		RocketComponent inner = null;
+		for (RocketComponent c : body.getChildren()) {
+			if (c.getChildCount() > 0) {
+				inner = c;
+			}
+		}
+		BodyTube other = new BodyTube();
+		stage.addChild(other);
+		events.clear();
+		TreePath innerPath = ComponentTreeModel.makeTreePath(inner);
+		tree.expandPath(innerPath);
+		assertTrue(tree.isExpanded(innerPath));
+
+		// Reordering children of a node
+		body.moveChild(inner, 0);
+		assertEquals("[structure]", events.toString());
+		assertTrue(tree.isExpanded(ComponentTreeModel.makeTreePath(inner)));
+		assertConsistent();
+
+		// Moving to another parent
+		events.clear();
+		rocket.freeze();
+		body.removeChild(inner);
+		other.addChild(inner);
+		rocket.thaw();
+		assertEquals("[removed 1, inserted 1]", events.toString());
+		assertTrue(tree.isExpanded(ComponentTreeModel.makeTreePath(other)));
+		assertTrue(tree.isExpanded(ComponentTreeModel.makeTreePath(inner)));
+		assertConsistent();
+	}
+
+
+	/**
+	 * Check that the model and the rows of the tree match the rocket structure.
+	 */
+	private void assertConsistent() {
+		assertConsistent(rocket);
+		for (int i = 0; i < tree.getRowCount(); i++) {
+			TreePath path = tree.getPathForRow(i);
+			assertEquals(ComponentTreeModel.makeTreePath((RocketComponent) path.getLastPathComponent()), path);
+		}
+	}
+
+	private void assertConsistent(RocketComponent c) {
+		assertEquals(c.getChildCount(), model.getChildCount(c));
+		for (int i = 0; i < c.getChildCount(); i++) {
+			assertTrue(c.getChild(i) == model.getChild(c, i));
+			assertConsistent(c.getChild(i));
+		}
+	}
+}